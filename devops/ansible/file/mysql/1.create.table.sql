@@ -148,6 +148,21 @@ CREATE TABLE IF NOT EXISTS auth_user_roles (
     CONSTRAINT chk_auth_user_roles_expiry CHECK (expires_at IS NULL OR expires_at > granted_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Links users to their assigned roles (M-M).';
 
+-- Table: audit_dictionary
+-- Purpose: Intern repeating audit values (HTTP method, endpoint, result, user agent) referenced by audit_logs
+CREATE TABLE IF NOT EXISTS audit_dictionary (
+    id INT NOT NULL AUTO_INCREMENT COMMENT 'Primary Key',
+    type VARCHAR(20) NOT NULL COMMENT 'Value kind: HTTP_METHOD, ENDPOINT, RESULT, USER_AGENT',
+    value_hash CHAR(64) NOT NULL COMMENT 'SHA-256 hex of value, used for the unique lookup',
+    value TEXT NOT NULL COMMENT 'Interned value',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'When the value was first seen',
+
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_audit_dictionary_type_hash (type, value_hash)
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Interned values for dictionary-encoded audit_logs columns';
+
 -- Table: audit_logs
 
 -- Purpose: Track all API operations for security and compliance
@@ -157,18 +172,19 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     username VARCHAR(30) DEFAULT NULL COMMENT 'Username for quick reference',
 
     -- Request information
-    http_method VARCHAR(10) NOT NULL COMMENT 'HTTP method (POST, PUT, PATCH, DELETE)',
-    endpoint VARCHAR(255) NOT NULL COMMENT 'API endpoint that was called',
+    http_method_id INT NOT NULL COMMENT 'audit_dictionary ID of the HTTP method',
+    endpoint_id INT NOT NULL COMMENT 'audit_dictionary ID of the templated route pattern',
+    resource_id VARCHAR(36) DEFAULT NULL COMMENT 'ID path variable of the called endpoint',
     request_id CHAR(36) DEFAULT NULL COMMENT 'Request ID from meta.requestId',
 
     -- Operation result (changed from ENUM to VARCHAR to store status.message)
-    result VARCHAR(255) NOT NULL COMMENT 'Result message from response status.message',
+    result_id INT NOT NULL COMMENT 'audit_dictionary ID of the result message from response status.message',
     status_code INT DEFAULT NULL COMMENT 'HTTP status code',
     error_message TEXT DEFAULT NULL COMMENT 'Error details if operation failed',
 
     -- Client information
     ip_address VARCHAR(45) DEFAULT NULL COMMENT 'Client IP address (IPv4/IPv6)',
-    user_agent TEXT DEFAULT NULL COMMENT 'Client user agent string',
+    user_agent_id INT DEFAULT NULL COMMENT 'audit_dictionary ID of the client user agent string',
     session_id VARCHAR(100) DEFAULT NULL COMMENT 'Session identifier',
 
     -- Performance tracking
@@ -182,15 +198,20 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     -- Updated indexes for common queries
     KEY idx_audit_user_id (user_id),
     KEY idx_audit_timestamp (timestamp),
-    KEY idx_audit_result (result),
-    KEY idx_audit_endpoint (endpoint),
+    KEY idx_audit_result (result_id),
+    KEY idx_audit_endpoint (endpoint_id),
+    KEY idx_audit_endpoint_resource (endpoint_id, resource_id),
     KEY idx_audit_request_id (request_id),
     KEY idx_audit_user_timestamp (user_id, timestamp),
     KEY idx_audit_ip_address (ip_address),
     KEY idx_audit_status_code (status_code),
 
     -- Foreign key constraints
-    CONSTRAINT fk_audit_logs_user FOREIGN KEY (user_id) REFERENCES auth_users (id) ON DELETE SET NULL ON UPDATE CASCADE
+    CONSTRAINT fk_audit_logs_user FOREIGN KEY (user_id) REFERENCES auth_users (id) ON DELETE SET NULL ON UPDATE CASCADE,
+    CONSTRAINT fk_audit_logs_http_method FOREIGN KEY (http_method_id) REFERENCES audit_dictionary (id),
+    CONSTRAINT fk_audit_logs_endpoint FOREIGN KEY (endpoint_id) REFERENCES audit_dictionary (id),
+    CONSTRAINT fk_audit_logs_result FOREIGN KEY (result_id) REFERENCES audit_dictionary (id),
+    CONSTRAINT fk_audit_logs_user_agent FOREIGN KEY (user_agent_id) REFERENCES audit_dictionary (id)
 
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
 COMMENT='Track all API operations for security and compliance';
@@ -0,0 +1,149 @@
+-- Migration: dictionary-encode audit_logs
+-- Moves http_method, endpoint, result and user_agent into audit_dictionary and stores their IDs in audit_logs.
+-- Run once against databases created before audit_dictionary existed; new installs get the final schema from 01-gjpb-auth.sql.
+USE gjpb;
+
+CREATE TABLE IF NOT EXISTS audit_dictionary (
+    id INT NOT NULL AUTO_INCREMENT COMMENT 'Primary Key',
+    type VARCHAR(20) NOT NULL COMMENT 'Value kind: HTTP_METHOD, ENDPOINT, RESULT, USER_AGENT',
+    value_hash CHAR(64) NOT NULL COMMENT 'SHA-256 hex of value, used for the unique lookup',
+    value TEXT NOT NULL COMMENT 'Interned value',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'When the value was first seen',
+
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_audit_dictionary_type_hash (type, value_hash)
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Interned values for dictionary-encoded audit_logs columns';
+
+-- Rows written before audit_dictionary hold the raw request URI. Rewrite it into the matched route template and
+-- keep the path variable in resource_id the way AuditService#getResourceId does ("id", or the only variable), so the
+-- dictionary only holds templates and /v1/audit/resource/{type}/{id} finds old rows too.
+-- Named variables go first; any remaining UUID segment is an {id} variable.
+ALTER TABLE audit_logs
+    ADD COLUMN resource_id VARCHAR(36) DEFAULT NULL COMMENT 'ID path variable of the called endpoint' AFTER endpoint;
+
+UPDATE audit_logs
+SET endpoint = REGEXP_REPLACE(endpoint, '/audit/resource/[^/{]+/[^/{]+$', '/audit/resource/{resourceType}/{resourceId}')
+WHERE endpoint REGEXP '/audit/resource/[^/{]+/[^/{]+$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/audit/(?:failed-logins/)?user/)([^/{]+)(/failures)?$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/audit/(?:failed-logins/)?user/)([^/{]+)(/failures)?$', '$1{userId}$3')
+WHERE endpoint REGEXP '^(.*/audit/(?:failed-logins/)?user/)([^/{]+)(/failures)?$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/audit/(?:failed-logins/)?ip/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/audit/(?:failed-logins/)?ip/)([^/{]+)()$', '$1{ipAddress}$3')
+WHERE endpoint REGEXP '^(.*/audit/(?:failed-logins/)?ip/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/users/username/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/users/username/)([^/{]+)()$', '$1{username}$3')
+WHERE endpoint REGEXP '^(.*/users/username/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/roles/code/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/roles/code/)([^/{]+)()$', '$1{code}$3')
+WHERE endpoint REGEXP '^(.*/roles/code/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/app-settings/by-name/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/app-settings/by-name/)([^/{]+)()$', '$1{name}$3')
+WHERE endpoint REGEXP '^(.*/app-settings/by-name/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/(?:app-settings/public|app-settings/user-editable|by-language|active)/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/(?:app-settings/public|app-settings/user-editable|by-language|active)/)([^/{]+)()$', '$1{lang}$3')
+WHERE endpoint REGEXP '^(.*/(?:app-settings/public|app-settings/user-editable|by-language|active)/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/multipleChoiceQuestionRu/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/multipleChoiceQuestionRu/)([^/{]+)()$', '$1{multipleChoiceQuestionId}$3')
+WHERE endpoint REGEXP '^(.*/question-image-rus/multipleChoiceQuestionRu/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/trueFalseQuestionRu/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/trueFalseQuestionRu/)([^/{]+)()$', '$1{trueFalseQuestionId}$3')
+WHERE endpoint REGEXP '^(.*/question-image-rus/trueFalseQuestionRu/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/freeTextQuestionRu/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/freeTextQuestionRu/)([^/{]+)()$', '$1{freeTextQuestionId}$3')
+WHERE endpoint REGEXP '^(.*/question-image-rus/freeTextQuestionRu/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/fillBlankQuestionRu/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/question-image-rus/fillBlankQuestionRu/)([^/{]+)()$', '$1{fillBlankQuestionId}$3')
+WHERE endpoint REGEXP '^(.*/question-image-rus/fillBlankQuestionRu/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/(?:article-image-rus|question-image-rus)/view/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/(?:article-image-rus|question-image-rus)/view/)([^/{]+)()$', '$1{filename:.+}$3')
+WHERE endpoint REGEXP '^(.*/(?:article-image-rus|question-image-rus)/view/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/(?:view|cover|download)/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/(?:view|cover|download)/)([^/{]+)()$', '$1{filename}$3')
+WHERE endpoint REGEXP '^(.*/(?:view|cover|download)/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = LEFT(REGEXP_REPLACE(endpoint, '^(.*/v1/public/(?:(?:videos|audios|articles|video-rus|audio-rus|article-rus)/cover-images|(?:articles|article-rus)/content-images|question-rus/images|vocabulary-rus/images|(?:vocabulary|expression|sentence)-rus/audios|logos|images|files|audios|videos|image-rus|video-rus|audio-rus)/)([^/{]+)()$', '$2'), 36),
+    endpoint = REGEXP_REPLACE(endpoint, '^(.*/v1/public/(?:(?:videos|audios|articles|video-rus|audio-rus|article-rus)/cover-images|(?:articles|article-rus)/content-images|question-rus/images|vocabulary-rus/images|(?:vocabulary|expression|sentence)-rus/audios|logos|images|files|audios|videos|image-rus|video-rus|audio-rus)/)([^/{]+)()$', '$1{filename}$3')
+WHERE endpoint REGEXP '^(.*/v1/public/(?:(?:videos|audios|articles|video-rus|audio-rus|article-rus)/cover-images|(?:articles|article-rus)/content-images|question-rus/images|vocabulary-rus/images|(?:vocabulary|expression|sentence)-rus/audios|logos|images|files|audios|videos|image-rus|video-rus|audio-rus)/)([^/{]+)()$';
+
+UPDATE audit_logs
+SET resource_id = REGEXP_SUBSTR(endpoint, '[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}'),
+    endpoint = REGEXP_REPLACE(endpoint, '/[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(/|$)', '/{id}$1')
+WHERE endpoint REGEXP '/[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(/|$)';
+
+-- Intern existing values (grouped by hash so values differing only in case stay distinct)
+INSERT IGNORE INTO audit_dictionary (type, value_hash, value)
+SELECT 'HTTP_METHOD', SHA2(http_method, 256), MIN(http_method) FROM audit_logs GROUP BY SHA2(http_method, 256);
+
+INSERT IGNORE INTO audit_dictionary (type, value_hash, value)
+SELECT 'ENDPOINT', SHA2(endpoint, 256), MIN(endpoint) FROM audit_logs GROUP BY SHA2(endpoint, 256);
+
+INSERT IGNORE INTO audit_dictionary (type, value_hash, value)
+SELECT 'RESULT', SHA2(result, 256), MIN(result) FROM audit_logs GROUP BY SHA2(result, 256);
+
+INSERT IGNORE INTO audit_dictionary (type, value_hash, value)
+SELECT 'USER_AGENT', SHA2(user_agent, 256), MIN(user_agent) FROM audit_logs
+WHERE user_agent IS NOT NULL GROUP BY SHA2(user_agent, 256);
+
+-- Add ID columns and backfill them
+ALTER TABLE audit_logs
+    ADD COLUMN http_method_id INT DEFAULT NULL COMMENT 'audit_dictionary ID of the HTTP method' AFTER username,
+    ADD COLUMN endpoint_id INT DEFAULT NULL COMMENT 'audit_dictionary ID of the templated route pattern' AFTER http_method_id,
+    ADD COLUMN result_id INT DEFAULT NULL COMMENT 'audit_dictionary ID of the result message from response status.message' AFTER request_id,
+    ADD COLUMN user_agent_id INT DEFAULT NULL COMMENT 'audit_dictionary ID of the client user agent string' AFTER ip_address;
+
+UPDATE audit_logs a
+    JOIN audit_dictionary m ON m.type = 'HTTP_METHOD' AND m.value_hash = SHA2(a.http_method, 256)
+    JOIN audit_dictionary e ON e.type = 'ENDPOINT' AND e.value_hash = SHA2(a.endpoint, 256)
+    JOIN audit_dictionary r ON r.type = 'RESULT' AND r.value_hash = SHA2(a.result, 256)
+SET a.http_method_id = m.id, a.endpoint_id = e.id, a.result_id = r.id;
+
+UPDATE audit_logs a
+    JOIN audit_dictionary u ON u.type = 'USER_AGENT' AND u.value_hash = SHA2(a.user_agent, 256)
+SET a.user_agent_id = u.id
+WHERE a.user_agent IS NOT NULL;
+
+-- Drop the string columns and re-point the indexes
+ALTER TABLE audit_logs
+    DROP INDEX idx_audit_result,
+    DROP INDEX idx_audit_endpoint,
+    DROP COLUMN http_method,
+    DROP COLUMN endpoint,
+    DROP COLUMN result,
+    DROP COLUMN user_agent,
+    MODIFY COLUMN http_method_id INT NOT NULL COMMENT 'audit_dictionary ID of the HTTP method',
+    MODIFY COLUMN endpoint_id INT NOT NULL COMMENT 'audit_dictionary ID of the templated route pattern',
+    MODIFY COLUMN result_id INT NOT NULL COMMENT 'audit_dictionary ID of the result message from response status.message',
+    ADD KEY idx_audit_result (result_id),
+    ADD KEY idx_audit_endpoint (endpoint_id),
+    ADD KEY idx_audit_endpoint_resource (endpoint_id, resource_id),
+    ADD CONSTRAINT fk_audit_logs_http_method FOREIGN KEY (http_method_id) REFERENCES audit_dictionary (id),
+    ADD CONSTRAINT fk_audit_logs_endpoint FOREIGN KEY (endpoint_id) REFERENCES audit_dictionary (id),
+    ADD CONSTRAINT fk_audit_logs_result FOREIGN KEY (result_id) REFERENCES audit_dictionary (id),
+    ADD CONSTRAINT fk_audit_logs_user_agent FOREIGN KEY (user_agent_id) REFERENCES audit_dictionary (id);
@@ -0,0 +1,24 @@
+-- Media jobs: uploads accepted with async=true and processed by the media job workers
+USE gjpb;
+
+CREATE TABLE IF NOT EXISTS media_jobs (
+    id CHAR(36) NOT NULL COMMENT 'Primary Key (UUID)',
+    type VARCHAR(30) NOT NULL COMMENT 'Media kind: image, logo, video, audio, image_ru, video_ru, audio_ru',
+    status VARCHAR(20) NOT NULL COMMENT 'QUEUED, RUNNING, SUCCEEDED, FAILED',
+    payload TEXT NOT NULL COMMENT 'Create request as JSON, without files',
+    files TEXT NULL COMMENT 'Staged files as JSON, keyed by request property',
+    resource_id CHAR(36) NULL COMMENT 'ID of the created resource',
+    error_message VARCHAR(1000) NULL COMMENT 'Failure reason',
+    attempts INT NOT NULL DEFAULT 0 COMMENT 'Times a worker claimed the job',
+    created_by CHAR(36) NULL COMMENT 'User who submitted the job',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'When the job was submitted',
+    started_at TIMESTAMP NULL COMMENT 'When the last attempt started',
+    finished_at TIMESTAMP NULL COMMENT 'When the job succeeded or failed',
+    updated_at TIMESTAMP NULL COMMENT 'Last heartbeat of the worker running the job',
+
+    PRIMARY KEY (id),
+    INDEX idx_media_jobs_status_created (status, created_at),
+    INDEX idx_media_jobs_created_by (created_by)
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Asynchronous media processing jobs';
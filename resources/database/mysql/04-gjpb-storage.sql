@@ -0,0 +1,29 @@
+-- Content-addressed storage: stored files by SHA-256 and the pipeline outputs derived from uploaded sources
+USE gjpb;
+
+CREATE TABLE IF NOT EXISTS storage_blobs (
+    hash CHAR(64) NOT NULL COMMENT 'SHA-256 of the content (hex)',
+    size_bytes BIGINT NOT NULL COMMENT 'Content length',
+    ref_count INT NOT NULL DEFAULT 0 COMMENT 'Media files referring to the blob; deleted at 0',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'When the content was first stored',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Last reference change',
+
+    PRIMARY KEY (hash)
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Stored file contents, reference-counted';
+
+CREATE TABLE IF NOT EXISTS storage_derivatives (
+    id VARCHAR(200) NOT NULL COMMENT 'Source hash and variant',
+    source_hash CHAR(64) NOT NULL COMMENT 'SHA-256 of the uploaded or downloaded source',
+    variant VARCHAR(120) NOT NULL COMMENT 'Pipeline output, e.g. image/1200/300/jpg/main',
+    blob_hash CHAR(64) NOT NULL COMMENT 'Blob holding the output',
+    width INT NULL COMMENT 'Output width in pixels',
+    height INT NULL COMMENT 'Output height in pixels',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'When the output was produced',
+
+    PRIMARY KEY (id),
+    INDEX idx_storage_derivatives_blob (blob_hash)
+
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Processed outputs by source content, reused for identical uploads';
@@ -0,0 +1,90 @@
+package org.ganjp.blog.auth.security;
+
+import jakarta.servlet.FilterChain;
+import org.ganjp.blog.auth.config.SecurityProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT parse/verify and the authentication filter, as run on every authenticated request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET_KEY = "Z2pwYi1iZW5jaG1hcmstc2VjcmV0LWtleS0yNTYtYml0cy1sb25nLWVub3VnaA==";
+
+    private JwtUtils jwtUtils;
+    private JwtAuthenticationFilter filter;
+    private UserDetails userDetails;
+    private String token;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        SecurityProperties properties = new SecurityProperties();
+        SecurityProperties.Jwt jwt = new SecurityProperties.Jwt();
+        jwt.setSecretKey(SECRET_KEY);
+        jwt.setExpiration(TimeUnit.HOURS.toMillis(12));
+        properties.setJwt(jwt);
+        jwtUtils = new JwtUtils(properties);
+
+        userDetails = User.withUsername("benchmark").password("n/a").authorities("ROLE_USER").build();
+        token = jwtUtils.generateTokenWithAuthorities(userDetails,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), "user-1");
+
+        UserDetailsService userDetailsService = username -> userDetails;
+        filter = new JwtAuthenticationFilter(jwtUtils, userDetailsService, null, null, null);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtils.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtils.isTokenValid(token, userDetails);
+    }
+
+    @Benchmark
+    public void extractAuthorities(Blackhole blackhole) {
+        blackhole.consume(jwtUtils.extractAuthorities(token));
+    }
+
+    @Benchmark
+    public void authenticationFilter(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilterInternal(request, response, chain);
+            blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
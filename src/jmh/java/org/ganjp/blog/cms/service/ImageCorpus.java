@@ -0,0 +1,172 @@
+package org.ganjp.blog.cms.service;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Fixed, seeded benchmark corpus. Sources are named "&lt;kind&gt;-&lt;width&gt;x&lt;height&gt;.&lt;ext&gt;" for rasters
+ * and "&lt;kind&gt;.svg" for vectors; the same name always produces the same bytes.
+ */
+final class ImageCorpus {
+
+    private static final long SEED = 20240101L;
+
+    private ImageCorpus() {
+    }
+
+    /**
+     * Encoded bytes of a corpus entry
+     */
+    static byte[] bytes(String source) throws IOException {
+        if (source.endsWith(".svg")) {
+            return svg(source).getBytes(StandardCharsets.UTF_8);
+        }
+        BufferedImage image = raster(source);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, extension(source), out)) {
+            throw new IOException("No ImageIO writer for " + source);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * The undecoded source pixels, the reference for quality measurements
+     */
+    static BufferedImage raster(String source) {
+        String[] size = source.substring(source.lastIndexOf('-') + 1, source.lastIndexOf('.')).split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        return switch (extension(source)) {
+            case "png" -> withAlpha(width, height);
+            case "gif" -> indexed(width, height);
+            default -> photo(width, height);
+        };
+    }
+
+    static String extension(String source) {
+        return source.substring(source.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    static String contentType(String source) {
+        return switch (extension(source)) {
+            case "jpg", "jpeg" -> "image/jpeg";
+            case "svg" -> "image/svg+xml";
+            default -> "image/" + extension(source);
+        };
+    }
+
+    /**
+     * Photo-like content: smooth gradients, overlapping soft shapes, fine texture and text edges,
+     * so both JPEG artefacts and resampling blur show up in PSNR
+     */
+    private static BufferedImage photo(int width, int height) {
+        Random random = new Random(SEED + width * 31L + height);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setPaint(new GradientPaint(0, 0, new Color(70, 130, 180), width, height, new Color(240, 200, 120)));
+            g2d.fillRect(0, 0, width, height);
+            for (int i = 0; i < 60; i++) {
+                g2d.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), 40 + random.nextInt(120)));
+                int w = 1 + random.nextInt(Math.max(1, width / 4));
+                int h = 1 + random.nextInt(Math.max(1, height / 4));
+                g2d.fillOval(random.nextInt(width), random.nextInt(height), w, h);
+            }
+            g2d.setStroke(new BasicStroke(Math.max(1, width / 800f)));
+            for (int i = 0; i < 200; i++) {
+                g2d.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), 90));
+                g2d.drawLine(random.nextInt(width), random.nextInt(height), random.nextInt(width), random.nextInt(height));
+            }
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(12, height / 20)));
+            g2d.drawString("Benchmark 基准 " + width + "x" + height, width / 20, height - height / 10);
+        } finally {
+            g2d.dispose();
+        }
+        for (int y = 0; y < height; y += 2) {
+            for (int x = 0; x < width; x += 2) {
+                int rgb = image.getRGB(x, y);
+                int noise = random.nextInt(17) - 8;
+                image.setRGB(x, y, clamp((rgb >> 16 & 0xFF) + noise) << 16 | clamp((rgb >> 8 & 0xFF) + noise) << 8
+                        | clamp((rgb & 0xFF) + noise));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Logo-like content on a transparent background
+     */
+    private static BufferedImage withAlpha(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setComposite(AlphaComposite.Src);
+            g2d.setColor(new Color(0, 0, 0, 0));
+            g2d.fillRect(0, 0, width, height);
+            g2d.setPaint(new GradientPaint(0, 0, new Color(220, 40, 60, 255), width, height, new Color(40, 60, 220, 160)));
+            g2d.fillOval(width / 10, height / 10, width * 8 / 10, height * 8 / 10);
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(12, height / 6)));
+            g2d.drawString("GJP", width / 4, height * 3 / 5);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Flat-colour graphic in a 256-colour palette, as GIFs usually are
+     */
+    private static BufferedImage indexed(int width, int height) {
+        Random random = new Random(SEED + 7);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            for (int i = 0; i < 30; i++) {
+                g2d.setColor(new Color(random.nextInt(6) * 51, random.nextInt(6) * 51, random.nextInt(6) * 51));
+                g2d.fillRect(random.nextInt(width), random.nextInt(height), 1 + random.nextInt(width / 3), 1 + random.nextInt(height / 3));
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    private static String svg(String source) {
+        if (source.startsWith("illustration")) {
+            StringBuilder svg = new StringBuilder("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"1200\" height=\"800\" viewBox=\"0 0 1200 800\">")
+                    .append("<defs><linearGradient id=\"g\" x1=\"0\" y1=\"0\" x2=\"1\" y2=\"1\"><stop offset=\"0\" stop-color=\"#4682b4\"/>")
+                    .append("<stop offset=\"1\" stop-color=\"#f0c878\"/></linearGradient></defs><rect width=\"1200\" height=\"800\" fill=\"url(#g)\"/>");
+            Random random = new Random(SEED);
+            for (int i = 0; i < 300; i++) {
+                svg.append(String.format("<circle cx=\"%d\" cy=\"%d\" r=\"%d\" fill=\"#%06x\" fill-opacity=\"0.5\"/>",
+                        random.nextInt(1200), random.nextInt(800), 5 + random.nextInt(80), random.nextInt(0xFFFFFF)));
+            }
+            return svg.append("</svg>").toString();
+        }
+        return "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"512\" height=\"512\" viewBox=\"0 0 512 512\">"
+                + "<circle cx=\"256\" cy=\"256\" r=\"220\" fill=\"#dc283c\"/>"
+                + "<path d=\"M140 300 L256 120 L372 300 Z\" fill=\"#ffffff\" stroke=\"#28323c\" stroke-width=\"12\"/>"
+                + "<text x=\"256\" y=\"420\" font-size=\"72\" text-anchor=\"middle\" fill=\"#ffffff\">GJP</text></svg>";
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
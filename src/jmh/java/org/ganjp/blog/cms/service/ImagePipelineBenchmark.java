@@ -0,0 +1,137 @@
+package org.ganjp.blog.cms.service;
+
+import org.ganjp.blog.cms.model.dto.ArticleImageCreateRequest;
+import org.ganjp.blog.cms.model.dto.ArticleImageResponse;
+import org.ganjp.blog.cms.model.dto.ImageCreateRequest;
+import org.ganjp.blog.cms.model.dto.ImageResponse;
+import org.ganjp.blog.rubi.model.dto.ArticleImageRuCreateRequest;
+import org.ganjp.blog.rubi.model.dto.ArticleImageRuResponse;
+import org.ganjp.blog.rubi.model.dto.ImageRuCreateRequest;
+import org.ganjp.blog.rubi.model.dto.ImageRuResponse;
+import org.ganjp.blog.rubi.model.dto.QuestionImageRuCreateRequest;
+import org.ganjp.blog.rubi.model.dto.QuestionImageRuResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end image upload pipelines (decode, resize, encode, write) over a fixed corpus.
+ * The score is images per second; bytes written per image, peak heap and PSNR are appended per trial to
+ * target/image-pipeline-quality.jsonl. Run with -Djmh.includes=ImagePipeline, and narrow the corpus with
+ * e.g. -Djmh.options="-p raster=photo-6000x4000.jpg".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class ImagePipelineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Raster extends ImagePipelineFixture {
+
+        @Param({"photo-1920x1080.jpg", "logo-1024x1024.png", "banner-640x480.gif", "photo-6000x4000.jpg"})
+        public String raster;
+
+        @Override
+        protected String source() {
+            return raster;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Vector extends ImagePipelineFixture {
+
+        @Param({"logo.svg", "illustration.svg"})
+        public String vector;
+
+        @Override
+        protected String source() {
+            return vector;
+        }
+    }
+
+    @Benchmark
+    public ImageResponse imageService(Raster state) throws IOException {
+        ImageCreateRequest request = new ImageCreateRequest();
+        request.setName("Benchmark 图片");
+        request.setFilename(state.nextName() + "." + ImageCorpus.extension(state.raster));
+        request.setFile(state.upload());
+        ImageResponse response = state.imageService.createImage(request, "benchmark");
+        return state.output(state.imageDir, response.getFilename(), response);
+    }
+
+    @Benchmark
+    public ImageRuResponse imageRuService(Raster state) throws IOException {
+        ImageRuCreateRequest request = new ImageRuCreateRequest();
+        request.setName("Benchmark 图片");
+        request.setFilename(state.nextName() + "." + ImageCorpus.extension(state.raster));
+        request.setFile(state.upload());
+        ImageRuResponse response = state.imageRuService.createImage(request, "benchmark");
+        return state.output(state.imageRuDir, response.getFilename(), response);
+    }
+
+    @Benchmark
+    public LogoProcessingService.ProcessedImage logoUpload(Raster state) throws IOException {
+        LogoProcessingService.ProcessedImage image = state.logoService.processUploadedFile(state.upload(), state.nextName());
+        return state.output(state.logoDir, image.getFilename(), image);
+    }
+
+    @Benchmark
+    public String logoConvertToPng(Raster state) {
+        String filename = state.logoService.convertImageFormat(state.sourceFile.toFile(), "png", state.nextName());
+        return state.output(state.logoDir, filename, filename);
+    }
+
+    @Benchmark
+    public ArticleImageResponse articleImageService(Raster state) {
+        ArticleImageCreateRequest request = new ArticleImageCreateRequest();
+        request.setArticleId("benchmark-article");
+        request.setFilename(state.nextName() + "." + ImageCorpus.extension(state.raster));
+        request.setFile(state.upload());
+        ArticleImageResponse response = state.articleImageService.createArticleImage(request, "benchmark");
+        return state.output(state.articleImageDir, response.getFilename(), response);
+    }
+
+    @Benchmark
+    public ArticleImageRuResponse articleImageRuService(Raster state) {
+        ArticleImageRuCreateRequest request = new ArticleImageRuCreateRequest();
+        request.setArticleRuId("benchmark-article");
+        request.setFilename(state.nextName() + "." + ImageCorpus.extension(state.raster));
+        request.setFile(state.upload());
+        ArticleImageRuResponse response = state.articleImageRuService.createArticleImage(request, "benchmark");
+        return state.output(state.articleImageRuDir, response.getFilename(), response);
+    }
+
+    @Benchmark
+    public QuestionImageRuResponse questionImageRuService(Raster state) {
+        QuestionImageRuCreateRequest request = new QuestionImageRuCreateRequest();
+        request.setMultipleChoiceQuestionId("benchmark-question");
+        request.setFilename(state.nextName() + "." + ImageCorpus.extension(state.raster));
+        request.setFile(state.upload());
+        QuestionImageRuResponse response = state.questionImageRuService.createQuestionImageRu(request, "benchmark");
+        return state.output(state.questionImageRuDir, response.getFilename(), response);
+    }
+
+    @Benchmark
+    public LogoProcessingService.ProcessedImage logoSvgUpload(Vector state) throws IOException {
+        LogoProcessingService.ProcessedImage image = state.logoService.processUploadedFile(state.upload(), state.nextName());
+        return state.output(state.logoDir, image.getFilename(), image);
+    }
+
+    @Benchmark
+    public String logoSvgToPng(Vector state) {
+        String filename = state.logoService.convertImageFormat(state.sourceFile.toFile(), "png", state.nextName());
+        return state.output(state.logoDir, filename, filename);
+    }
+}
@@ -0,0 +1,309 @@
+package org.ganjp.blog.cms.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.cms.config.ArticleProperties;
+import org.ganjp.blog.cms.config.ImageUploadProperties;
+import org.ganjp.blog.cms.config.LogoUploadProperties;
+import org.ganjp.blog.cms.repository.ArticleImageRepository;
+import org.ganjp.blog.cms.repository.ImageRepository;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.config.ImageProcessingProperties;
+import org.ganjp.blog.common.config.RemoteFetchProperties;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.ganjp.blog.common.storage.repository.StorageBlobRepository;
+import org.ganjp.blog.common.storage.repository.StorageDerivativeRepository;
+import org.ganjp.blog.common.storage.service.LocalStorageService;
+import org.ganjp.blog.common.storage.service.MediaLayout;
+import org.ganjp.blog.common.storage.service.StorageService;
+import org.ganjp.blog.rubi.config.ArticleRuProperties;
+import org.ganjp.blog.rubi.config.ImageRuProperties;
+import org.ganjp.blog.rubi.config.RubiProperties;
+import org.ganjp.blog.rubi.repository.ArticleImageRuRepository;
+import org.ganjp.blog.rubi.repository.ImageRuRepository;
+import org.ganjp.blog.rubi.repository.QuestionImageRuRepository;
+import org.ganjp.blog.rubi.service.ArticleImageRuService;
+import org.ganjp.blog.rubi.service.ImageRuService;
+import org.ganjp.blog.rubi.service.QuestionImageRuService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Real pipeline services over in-memory repositories and a scratch upload tree, plus the per-trial measurements
+ * JMH does not take itself: bytes written per image, peak heap and PSNR of the last output against the source.
+ * Each trial appends one JSON line to target/image-pipeline-quality.jsonl.
+ */
+public abstract class ImagePipelineFixture {
+
+    private static final Path REPORT = Path.of("target", "image-pipeline-quality.jsonl");
+
+    ImageService imageService;
+    LogoProcessingService logoService;
+    ArticleImageService articleImageService;
+    ImageRuService imageRuService;
+    QuestionImageRuService questionImageRuService;
+    ArticleImageRuService articleImageRuService;
+
+    Path sourceFile;
+    Path imageDir;
+    Path logoDir;
+    Path articleImageDir;
+    Path imageRuDir;
+    Path questionImageRuDir;
+    Path articleImageRuDir;
+
+    private Path root;
+    private Path outputRoot;
+    private byte[] sourceBytes;
+    private String benchmark;
+    private long operations;
+    private long iterationStart;
+    private long measuredOperations;
+    private long bytesWritten;
+    private long peakHeap;
+    private double psnr = Double.NaN;
+    private Path lastOutput;
+    private Bulkheads bulkheads;
+    private ImageProcessingEngine imageProcessingEngine;
+
+    /**
+     * Corpus entry this state feeds to the pipeline, see ImageCorpus
+     */
+    protected abstract String source();
+
+    @Setup(Level.Trial)
+    public void setUpTrial(BenchmarkParams params) throws IOException {
+        benchmark = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+        root = Files.createTempDirectory("image-pipeline-");
+        outputRoot = Files.createDirectories(root.resolve("out"));
+        sourceBytes = ImageCorpus.bytes(source());
+        sourceFile = Files.write(Files.createDirectories(root.resolve("corpus")).resolve(source()), sourceBytes);
+        imageDir = outputRoot.resolve("images");
+        logoDir = outputRoot.resolve("logos");
+        articleImageDir = outputRoot.resolve("article-images");
+        imageRuDir = outputRoot.resolve("rubi-images");
+        questionImageRuDir = outputRoot.resolve("rubi-question-images");
+        articleImageRuDir = outputRoot.resolve("rubi-article-images");
+
+        MediaMetrics mediaMetrics = new MediaMetrics(new SimpleMeterRegistry());
+        bulkheads = new Bulkheads(new BulkheadProperties(), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        RemoteFetcher remoteFetcher = new RemoteFetcher(bulkheads, new RemoteFetchProperties(), mediaMetrics);
+        imageProcessingEngine = new ImageProcessingEngine(new ImageProcessingProperties(), new ImageEncodingProperties(), mediaMetrics);
+        // Outputs are stored content-addressed as in the app, but never reused, so every operation processes
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setDirectory(root.resolve("blobs").toString());
+        storageProperties.setReuseDerivatives(false);
+        StorageService storageService = new LocalStorageService(storageProperties,
+                repository(StorageBlobRepository.class), repository(StorageDerivativeRepository.class));
+        MediaLayout mediaLayout = new MediaLayout(storageProperties);
+
+        ImageUploadProperties imageProperties = new ImageUploadProperties();
+        imageProperties.setDirectory(imageDir.toString());
+        ImageUploadProperties.Resize imageResize = new ImageUploadProperties.Resize();
+        imageResize.setMaxSize(2500);
+        imageResize.setThumbnailSize(600);
+        imageProperties.setResize(imageResize);
+        imageService = new ImageService(repository(ImageRepository.class), imageProperties, mediaMetrics, bulkheads, remoteFetcher, imageProcessingEngine, storageService, mediaLayout);
+
+        LogoUploadProperties logoProperties = new LogoUploadProperties();
+        logoProperties.setDirectory(logoDir.toString());
+        logoProperties.setMaxFileSize(Long.MAX_VALUE);
+        logoService = new LogoProcessingService(logoProperties, mediaMetrics, bulkheads, remoteFetcher, imageProcessingEngine, storageService, mediaLayout);
+
+        ArticleProperties articleProperties = new ArticleProperties();
+        articleProperties.setContentImage(new ArticleProperties.ContentImage());
+        articleProperties.getContentImage().setUpload(new ArticleProperties.Upload());
+        articleProperties.getContentImage().getUpload().setDirectory(articleImageDir.toString());
+        articleImageService = new ArticleImageService(repository(ArticleImageRepository.class), articleProperties, bulkheads, remoteFetcher, imageProcessingEngine, mediaLayout);
+
+        ImageRuProperties imageRuProperties = new ImageRuProperties();
+        imageRuProperties.setUpload(new ImageRuProperties.Upload());
+        imageRuProperties.getUpload().setDirectory(imageRuDir.toString());
+        imageRuProperties.getUpload().setResize(new ImageRuProperties.Resize());
+        imageRuProperties.getUpload().getResize().setMaxSize(2500);
+        imageRuProperties.getUpload().getResize().setThumbnailSize(600);
+        imageRuService = new ImageRuService(repository(ImageRuRepository.class), imageRuProperties, bulkheads, remoteFetcher, imageProcessingEngine, mediaMetrics, storageService, mediaLayout);
+
+        RubiProperties rubiProperties = new RubiProperties();
+        rubiProperties.getQuestionImage().getUpload().setDirectory(questionImageRuDir.toString());
+        questionImageRuService = new QuestionImageRuService(repository(QuestionImageRuRepository.class), rubiProperties, bulkheads, remoteFetcher, imageProcessingEngine, mediaLayout);
+
+        ArticleRuProperties articleRuProperties = new ArticleRuProperties();
+        articleRuProperties.setContentImage(new ArticleRuProperties.ContentImage());
+        articleRuProperties.getContentImage().setUpload(new ArticleRuProperties.Upload());
+        articleRuProperties.getContentImage().getUpload().setDirectory(articleImageRuDir.toString());
+        articleImageRuService = new ArticleImageRuService(repository(ArticleImageRuRepository.class), articleRuProperties, bulkheads, remoteFetcher, imageProcessingEngine, mediaLayout);
+
+        createOutputDirectories();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        iterationStart = operations;
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        peakHeap = Math.max(peakHeap, heapPools().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+        if (lastOutput != null && Files.exists(lastOutput) && !source().endsWith(".svg")) {
+            psnr = psnr(ImageCorpus.raster(source()), ImageIO.read(lastOutput.toFile()));
+        }
+        measuredOperations += operations - iterationStart;
+        try (Stream<Path> files = Files.walk(outputRoot)) {
+            bytesWritten += files.filter(Files::isRegularFile).mapToLong(ImagePipelineFixture::size).sum();
+        }
+        // Start every iteration from empty directories so file system growth does not skew later iterations
+        FileSystemUtils.deleteRecursively(outputRoot);
+        createOutputDirectories();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        bulkheads.destroy();
+        imageProcessingEngine.destroy();
+        String line = String.format(Locale.ROOT,
+                "{\"pipeline\":\"%s\",\"source\":\"%s\",\"sourceBytes\":%d,\"images\":%d,\"bytesPerImage\":%d,"
+                        + "\"peakHeapMb\":%.1f,\"psnrDb\":%s}%n",
+                benchmark, source(), sourceBytes.length, measuredOperations,
+                measuredOperations > 0 ? bytesWritten / measuredOperations : 0, peakHeap / 1048576.0,
+                Double.isNaN(psnr) ? "null" : String.format(Locale.ROOT, "%.2f", psnr));
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    /**
+     * Upload directories exist in a deployed app; not every pipeline creates its own
+     */
+    private void createOutputDirectories() throws IOException {
+        for (Path directory : new Path[]{imageDir, logoDir, articleImageDir, imageRuDir, questionImageRuDir, articleImageRuDir}) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * A fresh upload of the corpus entry, as the controllers receive it
+     */
+    MockMultipartFile upload() {
+        return new MockMultipartFile("file", source(), ImageCorpus.contentType(source()), sourceBytes);
+    }
+
+    /**
+     * Unique base name for the next output; also counts processed images
+     */
+    String nextName() {
+        return "bench-" + (++operations);
+    }
+
+    /**
+     * Record the main output of the operation for the quality check
+     */
+    <T> T output(Path directory, String filename, T result) {
+        if (filename == null) {
+            // Pipelines that swallow errors return null; fail instead of reporting the throughput of a no-op
+            throw new IllegalStateException(benchmark + " produced no output for " + source());
+        }
+        lastOutput = directory.resolve(filename);
+        return result;
+    }
+
+    /**
+     * Peak signal-to-noise ratio in dB of an output against the source pixels, scaled to the output size with
+     * area averaging; transparent pixels are composited on white first. 100 dB stands for identical images.
+     */
+    static double psnr(BufferedImage source, BufferedImage output) {
+        if (output == null) {
+            return Double.NaN;
+        }
+        int width = output.getWidth();
+        int height = output.getHeight();
+        BufferedImage reference = onWhite(source.getWidth() == width && source.getHeight() == height
+                ? source : source.getScaledInstance(width, height, Image.SCALE_AREA_AVERAGING), width, height);
+        BufferedImage actual = onWhite(output, width, height);
+        double squaredError = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int expected = reference.getRGB(x, y);
+                int got = actual.getRGB(x, y);
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int diff = (expected >> shift & 0xFF) - (got >> shift & 0xFF);
+                    squaredError += diff * diff;
+                }
+            }
+        }
+        double mse = squaredError / (3.0 * width * height);
+        return mse == 0 ? 100 : Math.min(100, 10 * Math.log10(255 * 255 / mse));
+    }
+
+    private static BufferedImage onWhite(Image image, int width, int height) {
+        BufferedImage rgb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = rgb.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            g2d.drawImage(image, 0, 0, null);
+        } finally {
+            g2d.dispose();
+        }
+        return rgb;
+    }
+
+    private static Stream<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP);
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Repository stand-in: save returns its argument, everything else returns an empty default
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "save" -> args[0];
+                    case "findById" -> Optional.empty();
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> type.getSimpleName();
+                    default -> method.getReturnType() == boolean.class ? false
+                            : method.getReturnType() == long.class ? 0L
+                            : method.getReturnType() == int.class ? 0 : null;
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package org.ganjp.blog.cms.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.config.ImageProcessingProperties;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filename pinyin conversion and in-memory resizing done on every image upload
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageServiceBenchmark {
+
+    private static final ImageProcessingEngine ENGINE = new ImageProcessingEngine(
+            new ImageProcessingProperties(), new ImageEncodingProperties(), new MediaMetrics(new SimpleMeterRegistry()));
+
+    @State(Scope.Benchmark)
+    public static class SourceImage {
+
+        @Param({"1920x1080", "4000x3000"})
+        public String sourceSize;
+
+        private BufferedImage image;
+
+        @Setup
+        public void setUp() {
+            String[] size = sourceSize.split("x");
+            image = new BufferedImage(Integer.parseInt(size[0]), Integer.parseInt(size[1]), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+            try {
+                g2d.setPaint(new GradientPaint(0, 0, Color.ORANGE, image.getWidth(), image.getHeight(), Color.BLUE));
+                g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+            } finally {
+                g2d.dispose();
+            }
+        }
+    }
+
+    @Benchmark
+    public String convertToPinyin() {
+        return ImageService.convertToPinyin("北京故宫 Forbidden City 2024");
+    }
+
+    @Benchmark
+    public BufferedImage resizeToMaxSize(SourceImage source) {
+        return ENGINE.resizeToFit(source.image, 1200);
+    }
+
+    @Benchmark
+    public BufferedImage resizeToThumbnail(SourceImage source) {
+        return ENGINE.resizeToFit(source.image, 300);
+    }
+}
@@ -0,0 +1,37 @@
+package org.ganjp.blog.cms.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-type resolution run for every served asset
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CmsUtilBenchmark {
+
+    /**
+     * First, middle and last branches of the extension chain, plus an unknown extension
+     */
+    @Param({"logo.png", "clip.MP4", "notes.txt", "archive.unknown"})
+    public String filename;
+
+    @Benchmark
+    public String determineContentType() {
+        return CmsUtil.determineContentType(filename);
+    }
+}
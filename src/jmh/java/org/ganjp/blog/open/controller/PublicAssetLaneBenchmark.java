@@ -0,0 +1,154 @@
+package org.ganjp.blog.open.controller;
+
+import org.ganjp.blog.BlogApplication;
+import org.ganjp.blog.auth.model.entity.User;
+import org.ganjp.blog.auth.model.enums.AccountStatus;
+import org.ganjp.blog.auth.repository.UserRepository;
+import org.ganjp.blog.auth.security.JwtUtils;
+import org.ganjp.blog.cms.model.entity.Logo;
+import org.ganjp.blog.cms.repository.LogoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.SpringBootMockMvcBuilderCustomizer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.DefaultMockMvcBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of serving a small logo through the application's servlet filters, security chain, aspects,
+ * controller, existence query and file read, with the public asset lane on and off. Requests are dispatched
+ * in-process (MockMvc with the registered filters) so socket latency does not hide the difference. Boots the
+ * application with the dev and loadtest profiles (in-memory H2) once per parameter combination; "bearer" adds
+ * an admin token to every request, as sent by the admin frontend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PublicAssetLaneBenchmark {
+
+    private static final String LOGO_FILENAME = "benchmark-logo.png";
+
+    @Param({"true", "false"})
+    public boolean lane;
+
+    @Param({"anonymous", "bearer"})
+    public String caller;
+
+    private Path mediaRoot;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private MockHttpServletRequestBuilder request;
+
+    @Setup
+    public void setUp() throws IOException {
+        mediaRoot = Files.createTempDirectory("public-asset-lane");
+        context = new SpringApplicationBuilder(BlogApplication.class)
+                .profiles("dev", "loadtest")
+                .properties("server.port=0",
+                        "loadtest.media-root=" + mediaRoot,
+                        "security.public-asset-lane.enabled=" + lane)
+                .logStartupInfo(false)
+                .run();
+
+        Path logoDirectory = Files.createDirectories(Path.of(context.getEnvironment().getRequiredProperty("logo.upload.directory")));
+        Files.write(logoDirectory.resolve(LOGO_FILENAME), logoPng());
+        context.getBean(LogoRepository.class).save(Logo.builder()
+                .id(UUID.randomUUID().toString())
+                .name("Benchmark logo")
+                .filename(LOGO_FILENAME)
+                .extension("png")
+                .build());
+
+        MockHttpServletRequestBuilder builder = MockMvcRequestBuilders.get("/v1/public/logos/" + LOGO_FILENAME);
+        if ("bearer".equals(caller)) {
+            builder.header("Authorization", "Bearer " + adminToken());
+        }
+        request = builder;
+        DefaultMockMvcBuilder mockMvcBuilder = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context);
+        new SpringBootMockMvcBuilderCustomizer((WebApplicationContext) context).customize(mockMvcBuilder);
+        mockMvc = mockMvcBuilder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        FileSystemUtils.deleteRecursively(mediaRoot.toFile());
+    }
+
+    @Benchmark
+    public byte[] viewLogo() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.getStatus());
+        }
+        return response.getContentAsByteArray();
+    }
+
+    private String adminToken() {
+        LocalDateTime now = LocalDateTime.now();
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username("benchmark-admin")
+                .nickname("Benchmark")
+                .password("{noop}not-used")
+                .accountStatus(AccountStatus.active)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        return context.getBean(JwtUtils.class).generateTokenWithAuthorities(user,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), user.getId());
+    }
+
+    /**
+     * A 256x256 PNG of about 5 KB, the size of a typical site logo
+     */
+    private static byte[] logoPng() throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(new Color(0x1E88E5));
+            g2d.fillOval(16, 16, 224, 224);
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(96, 64, 64, 128);
+        } finally {
+            g2d.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
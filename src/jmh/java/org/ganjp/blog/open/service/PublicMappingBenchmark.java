@@ -0,0 +1,90 @@
+package org.ganjp.blog.open.service;
+
+import org.ganjp.blog.open.model.PublicVocabularyRuResponse;
+import org.ganjp.blog.rubi.model.dto.VocabularyRuResponse;
+import org.ganjp.blog.rubi.model.entity.VocabularyRu;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL joining and DTO-to-public-response mapping run for every item of every public list page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicMappingBenchmark {
+
+    private static final String BASE_URL = "https://api.ganjianping.com/blog/v1/public/rubi/vocabularies";
+
+    private PublicRubiService publicRubiService;
+    private List<VocabularyRuResponse> page;
+
+    @Setup
+    public void setUp() {
+        // Only the mapping is exercised, so the underlying services are not needed
+        publicRubiService = new PublicRubiService(null, null, null, null, null, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(publicRubiService, "vocabularyBaseUrl", BASE_URL);
+
+        page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            page.add(VocabularyRuResponse.builder()
+                    .id("vocabulary-" + i)
+                    .name("word" + i)
+                    .phonetic("/wɜːd/")
+                    .partOfSpeech("noun")
+                    .nounMeaning("a single distinct meaningful element of speech or writing")
+                    .definition("definition " + i)
+                    .example("This is example sentence number " + i + ".")
+                    .translation("单词")
+                    .imageFilename("word" + i + ".png")
+                    .phoneticAudioFilename("word" + i + ".mp3")
+                    .term(1)
+                    .week(i % 10)
+                    .tags("primary,english")
+                    .difficultyLevel("easy")
+                    .lang(VocabularyRu.Language.EN)
+                    .displayOrder(i)
+                    .updatedAt(LocalDateTime.of(2025, 1, 1, 12, 0))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public String joinBaseAndPath() {
+        return PublicCmsService.joinBaseAndPath("https://api.ganjianping.com/blog/v1/public/images/", "/cat-800-600.png");
+    }
+
+    @Benchmark
+    public String joinBasePathWithSegment() {
+        return PublicCmsService.joinBasePathWithSegment("https://api.ganjianping.com/blog/v1/public/videos", "cover-images", "intro.jpg");
+    }
+
+    /**
+     * One page of 20 vocabularies
+     */
+    @Benchmark
+    public List<PublicVocabularyRuResponse> mapVocabularyPage() {
+        List<PublicVocabularyRuResponse> result = new ArrayList<>(page.size());
+        for (VocabularyRuResponse response : page) {
+            result.add(publicRubiService.toPublicVocabulary(response));
+        }
+        return result;
+    }
+}
@@ -1,13 +1,18 @@
 package org.ganjp.blog.auth.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.ganjp.blog.auth.repository.UserRepository;
 import org.ganjp.blog.auth.security.JwtAuthenticationFilter;
 import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.auth.security.TokenBlacklistService;
 import org.ganjp.blog.auth.service.ActiveUserService;
+import org.ganjp.blog.common.filter.PublicAssetLaneFilter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -55,8 +60,18 @@ public class SecurityConfig {
     public JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtils jwtUtils, 
                                                           UserDetailsService userDetailsService,
                                                           TokenBlacklistService tokenBlacklistService,
-                                                          ActiveUserService activeUserService) {
-        return new JwtAuthenticationFilter(jwtUtils, userDetailsService, tokenBlacklistService, activeUserService);
+                                                          ActiveUserService activeUserService,
+                                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JwtAuthenticationFilter(jwtUtils, userDetailsService, tokenBlacklistService, activeUserService,
+                meterRegistry.getIfAvailable());
+    }
+
+    // The filter only runs inside the security chain, not also as a servlet filter of its own
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter jwtAuthFilter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthFilter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Bean
@@ -122,7 +137,33 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Lean chain for requests marked by PublicAssetLaneFilter: no JWT authentication, sessions or request cache,
+     * only CORS and the security headers
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicAssetSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(PublicAssetLaneFilter::isActive)
+            .csrf(AbstractHttpConfigurer::disable)
+            .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .requestCache(AbstractHttpConfigurer::disable)
+            .anonymous(AbstractHttpConfigurer::disable)
+            .headers(headers -> headers
+                .frameOptions(frameOptions -> frameOptions.sameOrigin())
+                .contentSecurityPolicy(csp -> csp.policyDirectives("default-src 'self'"))
+            );
+
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
         // Use the injected JwtAuthenticationFilter bean instead of creating a new instance
         
@@ -1,5 +1,6 @@
 package org.ganjp.blog.auth.config;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +19,7 @@ import lombok.Data;
 public class SecurityProperties {
     
     private List<String> publicEndpoints;
+    private PublicAssetLane publicAssetLane = new PublicAssetLane();
     private Map<String, List<String>> authorizedEndpoints;
     private Cors cors;
     private Jwt jwt;
@@ -30,6 +32,16 @@ public class SecurityProperties {
         private List<String> allowedOrigins;
     }
     
+    /**
+     * Fast lane for public asset files: matching GET requests skip JWT authentication,
+     * method instrumentation and auditing.
+     */
+    @Data
+    public static class PublicAssetLane {
+        private boolean enabled = true;
+        private List<String> endpoints = new ArrayList<>();
+    }
+
     /**
      * JWT configuration properties.
      */
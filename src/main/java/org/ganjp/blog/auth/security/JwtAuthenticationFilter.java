@@ -1,10 +1,13 @@
 package org.ganjp.blog.auth.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.ganjp.blog.auth.service.ActiveUserService;
+import org.ganjp.blog.common.trace.RequestTrace;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +20,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filter that intercepts each request to validate JWT tokens and authenticate users.
@@ -29,6 +33,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final UserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
     private final ActiveUserService activeUserService;
+    private final Timer authenticatedTimer;
+    private final Timer unauthenticatedTimer;
+    private final Timer blacklistedTimer;
+    private final Timer errorTimer;
     
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
@@ -38,11 +46,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     public JwtAuthenticationFilter(JwtUtils jwtUtils, 
                                  @Autowired(required = false) UserDetailsService userDetailsService,
                                  @Autowired(required = false) TokenBlacklistService tokenBlacklistService,
-                                 @Autowired(required = false) ActiveUserService activeUserService) {
+                                 @Autowired(required = false) ActiveUserService activeUserService,
+                                 @Autowired(required = false) MeterRegistry meterRegistry) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
         this.tokenBlacklistService = tokenBlacklistService;
         this.activeUserService = activeUserService;
+        this.authenticatedTimer = verificationTimer(meterRegistry, "authenticated");
+        this.unauthenticatedTimer = verificationTimer(meterRegistry, "unauthenticated");
+        this.blacklistedTimer = verificationTimer(meterRegistry, "blacklisted");
+        this.errorTimer = verificationTimer(meterRegistry, "error");
     }
 
     @Override
@@ -70,6 +83,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract token (remove "Bearer " prefix)
         jwt = authHeader.substring(BEARER_PREFIX.length());
         
+        long verificationStart = System.nanoTime();
+        RequestTrace.Phase tracePhase = RequestTrace.phase("jwt");
+        Timer outcome = unauthenticatedTimer;
         try {
             username = jwtUtils.extractUsername(jwt);
             
@@ -78,6 +94,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 String tokenId = jwtUtils.extractTokenId(jwt);
                 if (tokenBlacklistService.isTokenBlacklisted(tokenId)) {
                     logger.debug("Token is blacklisted (logged out): " + tokenId);
+                    tracePhase.close();
+                    recordVerification(blacklistedTimer, verificationStart);
                     filterChain.doFilter(request, response);
                     return;
                 }
@@ -100,6 +118,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = authenticatedTimer;
                     
                     // Track active user in memory
                     if (activeUserService != null) {
@@ -120,10 +139,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             // Log error but do not block the request
             logger.error("JWT authentication failed: " + e.getMessage(), e);
+            outcome = errorTimer;
         }
+        tracePhase.close();
+        recordVerification(outcome, verificationStart);
         
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Timer for one verification outcome, registered once so requests only record into it
+     */
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        return Timer.builder("jwt.verification")
+                .description("JWT verification time in the authentication filter")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the time spent verifying the token and loading the user (excludes the rest of the chain)
+     */
+    private void recordVerification(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
     
     /**
      * Helper method to extract client IP address from request
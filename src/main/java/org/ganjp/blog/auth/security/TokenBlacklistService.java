@@ -1,11 +1,10 @@
 package org.ganjp.blog.auth.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -19,13 +18,8 @@ public class TokenBlacklistService {
 
     // In-memory store for blacklisted tokens with their expiration times
     private final ConcurrentHashMap<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
-    
-    // Scheduled executor for cleanup tasks
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    
+
     public TokenBlacklistService() {
-        // Clean up expired tokens every 30 minutes to prevent memory leaks
-        scheduler.scheduleAtFixedRate(this::cleanupExpiredTokens, 30, 30, TimeUnit.MINUTES);
         log.info("TokenBlacklistService initialized with automatic cleanup every 30 minutes");
     }
     
@@ -69,9 +63,11 @@ public class TokenBlacklistService {
     }
     
     /**
-     * Remove expired tokens from the blacklist to prevent memory leaks
+     * Remove expired tokens from the blacklist to prevent memory leaks.
+     * Runs on the shared Spring scheduler (virtual threads when enabled) every 30 minutes.
      */
-    private void cleanupExpiredTokens() {
+    @Scheduled(fixedRate = 30, initialDelay = 30, timeUnit = TimeUnit.MINUTES)
+    void cleanupExpiredTokens() {
         long currentTime = System.currentTimeMillis();
         
         // Count expired tokens and collect them for removal
@@ -105,20 +101,4 @@ public class TokenBlacklistService {
         blacklistedTokens.clear();
         log.warn("Blacklist cleared. Removed {} tokens", size);
     }
-    
-    /**
-     * Shutdown the cleanup scheduler (called on application shutdown)
-     */
-    public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-        log.info("TokenBlacklistService shutdown completed");
-    }
 }
@@ -1,13 +1,12 @@
 package org.ganjp.blog.auth.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -23,13 +22,8 @@ public class ActiveUserService {
     
     // Session timeout in minutes (e.g., 30 minutes of inactivity)
     private static final long SESSION_TIMEOUT_MINUTES = 30;
-    
-    // Scheduled executor for cleanup task
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    
+
     public ActiveUserService() {
-        // Schedule cleanup task to run every 5 minutes
-        scheduler.scheduleAtFixedRate(this::cleanupExpiredSessions, 5, 5, TimeUnit.MINUTES);
         log.info("ActiveUserService initialized with session timeout: {} minutes", SESSION_TIMEOUT_MINUTES);
     }
     
@@ -108,9 +102,10 @@ public class ActiveUserService {
     }
     
     /**
-     * Clean up expired sessions based on last activity time
+     * Clean up expired sessions based on last activity time, every 5 minutes on the shared Spring scheduler
      */
-    private void cleanupExpiredSessions() {
+    @Scheduled(fixedRate = 5, initialDelay = 5, timeUnit = TimeUnit.MINUTES)
+    void cleanupExpiredSessions() {
         LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(SESSION_TIMEOUT_MINUTES);
         
         activeUsers.entrySet().removeIf(entry -> {
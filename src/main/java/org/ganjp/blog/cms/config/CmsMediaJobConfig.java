@@ -0,0 +1,40 @@
+package org.ganjp.blog.cms.config;
+
+import org.ganjp.blog.cms.model.dto.AudioCreateRequest;
+import org.ganjp.blog.cms.model.dto.ImageCreateRequest;
+import org.ganjp.blog.cms.model.dto.LogoCreateRequest;
+import org.ganjp.blog.cms.model.dto.VideoCreateRequest;
+import org.ganjp.blog.cms.service.AudioService;
+import org.ganjp.blog.cms.service.ImageService;
+import org.ganjp.blog.cms.service.LogoService;
+import org.ganjp.blog.cms.service.VideoService;
+import org.ganjp.blog.common.job.service.MediaJobHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Media job handlers for CMS uploads created with async=true
+ */
+@Configuration
+public class CmsMediaJobConfig {
+
+    @Bean
+    public MediaJobHandler<ImageCreateRequest> imageMediaJobHandler(ImageService imageService) {
+        return MediaJobHandler.of("image", ImageCreateRequest.class, imageService::createImage);
+    }
+
+    @Bean
+    public MediaJobHandler<LogoCreateRequest> logoMediaJobHandler(LogoService logoService) {
+        return MediaJobHandler.of("logo", LogoCreateRequest.class, logoService::createLogo);
+    }
+
+    @Bean
+    public MediaJobHandler<VideoCreateRequest> videoMediaJobHandler(VideoService videoService) {
+        return MediaJobHandler.of("video", VideoCreateRequest.class, videoService::createVideo);
+    }
+
+    @Bean
+    public MediaJobHandler<AudioCreateRequest> audioMediaJobHandler(AudioService audioService) {
+        return MediaJobHandler.of("audio", AudioCreateRequest.class, audioService::createAudio);
+    }
+}
@@ -1,9 +1,17 @@
 package org.ganjp.blog.cms.config;
 
 import lombok.RequiredArgsConstructor;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Configuration for serving static logo files
@@ -13,11 +21,23 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class StaticResourceConfig implements WebMvcConfigurer {
 
     private final LogoUploadProperties uploadProperties;
+    private final MediaLayout mediaLayout;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Map /uploads/logos/** to the actual directory
+        // Map /uploads/logos/** to the actual directory, in either media layout
         registry.addResourceHandler("/uploads/logos/**")
-                .addResourceLocations("file:" + uploadProperties.getDirectory() + "/");
+                .addResourceLocations("file:" + uploadProperties.getDirectory() + "/")
+                .resourceChain(true)
+                .addResolver(new PathResourceResolver() {
+                    @Override
+                    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                        if (resourcePath.contains("/")) {
+                            return null;
+                        }
+                        Path file = mediaLayout.locate(uploadProperties.getDirectory(), resourcePath);
+                        return Files.isRegularFile(file) ? new FileSystemResource(file) : null;
+                    }
+                });
     }
 }
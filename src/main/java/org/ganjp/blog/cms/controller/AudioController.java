@@ -5,6 +5,8 @@ import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.cms.model.dto.*;
 import org.ganjp.blog.cms.model.entity.Audio;
 import org.ganjp.blog.cms.service.AudioService;
+import org.ganjp.blog.common.job.controller.MediaJobController;
+import org.ganjp.blog.common.job.service.MediaJobService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.core.io.InputStreamResource;
@@ -32,6 +34,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AudioController {
     private final AudioService audioService;
+    private final MediaJobService mediaJobService;
     private final JwtUtils jwtUtils;
 
     /**
@@ -86,9 +89,12 @@ public class AudioController {
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<AudioResponse>> uploadAudio(@Valid @ModelAttribute AudioCreateRequest request, HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<?>> uploadAudio(@Valid @ModelAttribute AudioCreateRequest request, @RequestParam(defaultValue = "false") boolean async, HttpServletRequest httpRequest) {
         try {
             String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("audio", request, userId), "Audio queued for processing");
+            }
             AudioResponse res = audioService.createAudio(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(res, "Audio uploaded"));
         } catch (IOException e) {
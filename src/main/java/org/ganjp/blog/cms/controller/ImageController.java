@@ -5,6 +5,8 @@ import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.cms.model.dto.*;
 import org.ganjp.blog.cms.service.ImageService;
 import org.ganjp.blog.cms.util.CmsUtil;
+import org.ganjp.blog.common.job.controller.MediaJobController;
+import org.ganjp.blog.common.job.service.MediaJobService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.core.io.FileSystemResource;
@@ -34,6 +36,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ImageController {
     private final ImageService imageService;
+    private final MediaJobService mediaJobService;
     private final JwtUtils jwtUtils;
 
     /**
@@ -102,11 +105,15 @@ public class ImageController {
      * POST /v1/images
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<ImageResponse>> createImage(
+    public ResponseEntity<ApiResponse<?>> createImage(
             @Valid @ModelAttribute ImageCreateRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         try {
             String userId = extractUserIdFromRequest(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("image", request, userId), "Image queued for processing");
+            }
             ImageResponse response = imageService.createImage(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(response, "Image created successfully"));
         } catch (IOException e) {
@@ -123,14 +130,18 @@ public class ImageController {
      * POST /v1/images (application/json)
      */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse<ImageResponse>> createImageFromUrl(
+    public ResponseEntity<ApiResponse<?>> createImageFromUrl(
             @Valid @RequestBody ImageCreateRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         try {
             if (request.getOriginalUrl() == null || request.getOriginalUrl().trim().isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error(400, "originalUrl is required", null));
             }
             String userId = extractUserIdFromRequest(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("image", request, userId), "Image queued for processing");
+            }
             ImageResponse response = imageService.createImage(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(response, "Image created successfully from URL"));
         } catch (IOException e) {
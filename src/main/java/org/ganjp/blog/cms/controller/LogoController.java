@@ -10,6 +10,8 @@ import org.ganjp.blog.cms.model.dto.LogoCreateRequest;
 import org.ganjp.blog.cms.model.dto.LogoResponse;
 import org.ganjp.blog.cms.model.dto.LogoUpdateRequest;
 import org.ganjp.blog.cms.service.LogoService;
+import org.ganjp.blog.common.job.controller.MediaJobController;
+import org.ganjp.blog.common.job.service.MediaJobService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.core.io.FileSystemResource;
@@ -39,6 +41,7 @@ import java.util.List;
 public class LogoController {
 
     private final LogoService logoService;
+    private final MediaJobService mediaJobService;
     private final JwtUtils jwtUtils;
     
     // Constants for error messages
@@ -94,11 +97,15 @@ public class LogoController {
      * POST /v1/logos
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<LogoResponse>> createLogo(
+    public ResponseEntity<ApiResponse<?>> createLogo(
             @Valid @ModelAttribute LogoCreateRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         try {
             String userId = extractUserIdFromRequest(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("logo", request, userId), "Logo queued for processing");
+            }
             LogoResponse response = logoService.createLogo(request, userId);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success(response, "Logo created successfully"));
@@ -119,8 +126,9 @@ public class LogoController {
      * Request body: { "originalUrl": "https://...", "name": "Logo Name", "tags": "tag1,tag2" }
      */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse<LogoResponse>> createLogoFromUrl(
+    public ResponseEntity<ApiResponse<?>> createLogoFromUrl(
             @Valid @RequestBody LogoCreateRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         try {
             // Validate that originalUrl is provided
@@ -130,6 +138,9 @@ public class LogoController {
             }
             
             String userId = extractUserIdFromRequest(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("logo", request, userId), "Logo queued for processing");
+            }
             LogoResponse response = logoService.createLogo(request, userId);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success(response, "Logo created successfully from URL"));
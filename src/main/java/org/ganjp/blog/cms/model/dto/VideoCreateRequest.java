@@ -15,6 +15,10 @@ public class VideoCreateRequest {
     private String name;
     private String filename;
     private MultipartFile file;
+    /**
+     * Completed chunked upload to use instead of file
+     */
+    private String uploadId;
     private String originalUrl;
     private String sourceName;
     private String coverImageFilename;
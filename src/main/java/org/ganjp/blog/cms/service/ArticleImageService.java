@@ -9,6 +9,12 @@ import org.ganjp.blog.cms.model.dto.ArticleImageResponse;
 import org.ganjp.blog.cms.model.entity.ArticleImage;
 import org.ganjp.blog.cms.repository.ArticleImageRepository;
 import org.ganjp.blog.cms.util.CmsUtil;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProbe;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -21,7 +27,6 @@ import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import javax.imageio.ImageIO;
 
 @Service
 @RequiredArgsConstructor
@@ -29,11 +34,15 @@ import javax.imageio.ImageIO;
 public class ArticleImageService {
     private final ArticleImageRepository articleImageRepository;
     private final ArticleProperties articleProperties;
+    private final Bulkheads bulkheads;
+    private final RemoteFetcher remoteFetcher;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final MediaLayout mediaLayout;
 
     public org.springframework.core.io.Resource getImage(String filename) {
         try {
             Path uploadPath = Paths.get(articleProperties.getContentImage().getUpload().getDirectory());
-            Path filePath = uploadPath.resolve(filename);
+            Path filePath = mediaLayout.locate(uploadPath, filename);
             org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(filePath.toUri());
             
             if (resource.exists() || resource.isReadable()) {
@@ -48,7 +57,7 @@ public class ArticleImageService {
 
     public java.io.File getImageFile(String filename) {
         Path uploadPath = Paths.get(articleProperties.getContentImage().getUpload().getDirectory());
-        Path filePath = uploadPath.resolve(filename);
+        Path filePath = mediaLayout.locate(uploadPath, filename);
         return filePath.toFile();
     }
 
@@ -62,7 +71,27 @@ public class ArticleImageService {
         return images.stream().map(this::toResponse).toList();
     }
 
+    /**
+     * Create the article image from an upload or a remote URL. The download runs on the fetch bulkhead
+     * before the decode and encode take a slot on the image bulkhead.
+     */
     public ArticleImageResponse createArticleImage(ArticleImageCreateRequest request, String userId) {
+        RemoteDownload remote = null;
+        if ((request.getFile() == null || request.getFile().isEmpty())
+                && request.getOriginalUrl() != null && !request.getOriginalUrl().trim().isEmpty()) {
+            try {
+                remote = remoteFetcher.download("article_image", request.getOriginalUrl());
+            } catch (IOException e) {
+                log.error("Error creating article image", e);
+                throw new java.io.UncheckedIOException("Failed to download image", e);
+            }
+        }
+        try (RemoteDownload download = remote) {
+            return bulkheads.image().call(() -> createArticleImage(request, download, userId));
+        }
+    }
+
+    private ArticleImageResponse createArticleImage(ArticleImageCreateRequest request, RemoteDownload download, String userId) {
         try {
             if (request.getFilename() == null || request.getFilename().trim().isEmpty()) {
                 throw new IllegalArgumentException("Filename is required");
@@ -78,11 +107,10 @@ public class ArticleImageService {
                 MultipartFile file = request.getFile();
                 String originalFilename = file.getOriginalFilename();
                 sourceExtension = CmsUtil.getFileExtension(originalFilename);
-                bufferedImage = ImageIO.read(file.getInputStream());
+                bufferedImage = imageProcessingEngine.decode("article_image", file.getInputStream());
             } else if (request.getOriginalUrl() != null && !request.getOriginalUrl().trim().isEmpty()) {
-                java.net.URL url = new java.net.URL(request.getOriginalUrl());
-                bufferedImage = ImageIO.read(url);
-                String path = url.getPath();
+                bufferedImage = imageProcessingEngine.decode("article_image", download.getFile(), 0);
+                String path = download.getUri().getPath();
                 sourceExtension = CmsUtil.getFileExtension(path);
             } else {
                  throw new IllegalArgumentException("File or Original URL is required");
@@ -109,11 +137,11 @@ public class ArticleImageService {
                 Files.createDirectories(uploadPath);
             }
 
-            Path filePath = uploadPath.resolve(targetFilename);
-            if (Files.exists(filePath)) {
+            Path filePath = mediaLayout.prepare(uploadPath, targetFilename);
+            if (mediaLayout.exists(uploadPath, targetFilename)) {
                 throw new IllegalArgumentException("File with name " + targetFilename + " already exists");
             }
-            ImageIO.write(bufferedImage, finalExtension, filePath.toFile());
+            imageProcessingEngine.write(bufferedImage, finalExtension, filePath);
             
             Integer width = bufferedImage.getWidth();
             Integer height = bufferedImage.getHeight();
@@ -181,7 +209,7 @@ public class ArticleImageService {
             if (image.getFilename() != null) {
                 try {
                     Path uploadPath = Paths.get(articleProperties.getContentImage().getUpload().getDirectory());
-                    Path filePath = uploadPath.resolve(image.getFilename());
+                    Path filePath = mediaLayout.locate(uploadPath, image.getFilename());
                     Files.deleteIfExists(filePath);
                 } catch (IOException e) {
                     log.error("Failed to delete file for article image: " + id, e);
@@ -200,15 +228,13 @@ public class ArticleImageService {
     }
 
     private int[] getImageDimensions(Path filePath) {
-        try {
-            BufferedImage img = ImageIO.read(filePath.toFile());
-            if (img != null) {
-                return new int[]{img.getWidth(), img.getHeight()};
-            }
-        } catch (Exception e) {
-            log.warn("Could not read image dimensions for {}", filePath);
-        }
-        return new int[0];
+        // Header only; the pixels are not decoded
+        return ImageProbe.probe(filePath)
+                .map(size -> new int[]{size.width(), size.height()})
+                .orElseGet(() -> {
+                    log.warn("Could not read image dimensions for {}", filePath);
+                    return new int[0];
+                });
     }
 
     private ArticleImageResponse toResponse(ArticleImage image) {
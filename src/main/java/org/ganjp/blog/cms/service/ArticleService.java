@@ -7,13 +7,17 @@ import org.ganjp.blog.cms.model.dto.ArticleResponse;
 import org.ganjp.blog.cms.model.dto.ArticleUpdateRequest;
 import org.ganjp.blog.cms.model.entity.Article;
 import org.ganjp.blog.cms.repository.ArticleRepository;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.storage.service.MediaLayout;
+import org.ganjp.blog.common.storage.service.StorageService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -28,6 +32,10 @@ import java.util.UUID;
 public class ArticleService {
     private final ArticleRepository articleRepository;
     private final ArticleProperties articleProperties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final RemoteFetcher remoteFetcher;
+    private final MediaLayout mediaLayout;
+    private final StorageService storageService;
 
     public ArticleResponse createArticle(ArticleCreateRequest request, String userId) {
         Article a = new Article();
@@ -59,26 +67,28 @@ public class ArticleService {
                 }
                 Path imagesDir = Path.of(articleCoverImageDir);
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.prepare(imagesDir, coverFilename);
 
-                if (Files.exists(coverTarget)) {
+                if (mediaLayout.exists(imagesDir, coverFilename)) {
                     throw new IllegalArgumentException("Cover image already exists: " + coverFilename);
                 }
 
                 try {
-                    BufferedImage original = ImageIO.read(cover.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("article_cover", cover.getInputStream(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                         String ext = "png";
                         int dot = coverFilename.lastIndexOf('.');
                         if (dot > 0 && dot < coverFilename.length() - 1) ext = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, ext, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, ext, coverTarget);
                     } else {
                         Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
                 } catch (IOException e) {
                     Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                 }
+                // Identical covers share one stored file
+                storageService.store(coverTarget);
                 a.setCoverImageFilename(coverFilename);
             } else if (request.getCoverImageOriginalUrl() != null && !request.getCoverImageOriginalUrl().isBlank()) {
                 // download remote image and save it
@@ -100,7 +110,7 @@ public class ArticleService {
 
                 Path imagesDir = Path.of(articleCoverImageDir);
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 // ensure unique filename
                 int suffix = 1;
@@ -111,35 +121,33 @@ public class ArticleService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget)) {
+                while (mediaLayout.exists(imagesDir, coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
-                try (java.io.InputStream is = new java.net.URL(url).openStream()) {
+                try (RemoteDownload download = remoteFetcher.download("article_cover", url)) {
                     // try to read as image
                     try {
-                        byte[] data = is.readAllBytes();
-                        java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(data);
-                        BufferedImage original = ImageIO.read(bis);
+                        BufferedImage original = imageProcessingEngine.decode("article_cover", download.getFile(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                         if (original != null) {
-                            BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                            BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                             String writeExt = "png";
                             if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                            ImageIO.write(resized, writeExt, coverTarget.toFile());
+                            imageProcessingEngine.write(resized, writeExt, coverTarget);
                         } else {
                             // fallback - write raw bytes
-                            Files.write(coverTarget, data);
+                            download.copyTo(coverTarget);
                         }
                     } catch (IOException ex) {
-                        // fallback - stream copy
-                        try (java.io.InputStream is2 = new java.net.URL(url).openStream()) {
-                            Files.copy(is2, coverTarget, StandardCopyOption.REPLACE_EXISTING);
-                        }
+                        // not an image we can decode: keep the downloaded bytes as they are
+                        download.copyTo(coverTarget);
                     }
                 }
 
+                storageService.store(coverTarget);
                 a.setCoverImageFilename(coverFilename);
                 a.setCoverImageOriginalUrl(request.getCoverImageOriginalUrl());
             } else if (request.getCoverImageFilename() != null) {
@@ -203,7 +211,7 @@ public class ArticleService {
                 }
                 Path imagesDir = Path.of(articleCoverImageDir);
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 int suffix = 1;
                 String base = coverFilename;
@@ -213,23 +221,24 @@ public class ArticleService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget)) {
+                while (mediaLayout.exists(imagesDir, coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
                 if (a.getCoverImageFilename() != null) {
-                    try { Path old = imagesDir.resolve(a.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
+                    try { Path old = mediaLayout.locate(imagesDir, a.getCoverImageFilename()); storageService.release(old); } catch (IOException ignored) {}
                 }
 
                 try {
-                    BufferedImage original = ImageIO.read(coverFile.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("article_cover", coverFile.getInputStream(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                         String writeExt = "png";
                         if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, writeExt, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, writeExt, coverTarget);
                     } else {
                         Files.copy(coverFile.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
@@ -237,6 +246,7 @@ public class ArticleService {
                     Files.copy(coverFile.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                 }
 
+                storageService.store(coverTarget);
                 a.setCoverImageFilename(coverFilename);
             } else if (request.getCoverImageOriginalUrl() != null && !request.getCoverImageOriginalUrl().isBlank()) {
                 // download remote image and replace only if the original URL changed
@@ -261,7 +271,7 @@ public class ArticleService {
 
                     Path imagesDir = Path.of(articleCoverImageDir);
                     Files.createDirectories(imagesDir);
-                    Path coverTarget = imagesDir.resolve(coverFilename);
+                    Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                     int suffix = 1;
                     String base = coverFilename;
@@ -271,36 +281,35 @@ public class ArticleService {
                         base = coverFilename.substring(0, dot);
                         ext = coverFilename.substring(dot);
                     }
-                    while (Files.exists(coverTarget)) {
+                    while (mediaLayout.exists(imagesDir, coverFilename)) {
                         coverFilename = base + "-" + suffix + ext;
-                        coverTarget = imagesDir.resolve(coverFilename);
+                        coverTarget = mediaLayout.path(imagesDir, coverFilename);
                         suffix++;
                     }
+                    Files.createDirectories(coverTarget.getParent());
 
                     if (a.getCoverImageFilename() != null) {
-                        try { Path old = imagesDir.resolve(a.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
+                        try { Path old = mediaLayout.locate(imagesDir, a.getCoverImageFilename()); storageService.release(old); } catch (IOException ignored) {}
                     }
 
-                    try (java.io.InputStream is = new java.net.URL(url).openStream()) {
+                    try (RemoteDownload download = remoteFetcher.download("article_cover", url)) {
                         try {
-                            byte[] data = is.readAllBytes();
-                            java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(data);
-                            BufferedImage original = ImageIO.read(bis);
+                            BufferedImage original = imageProcessingEngine.decode("article_cover", download.getFile(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                             if (original != null) {
-                                BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                                BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                                 String writeExt = "png";
                                 if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                                ImageIO.write(resized, writeExt, coverTarget.toFile());
+                                imageProcessingEngine.write(resized, writeExt, coverTarget);
                             } else {
-                                Files.write(coverTarget, data);
+                                download.copyTo(coverTarget);
                             }
                         } catch (IOException ex) {
-                            try (java.io.InputStream is2 = new java.net.URL(url).openStream()) {
-                                Files.copy(is2, coverTarget, StandardCopyOption.REPLACE_EXISTING);
-                            }
+                            // not an image we can decode: keep the downloaded bytes as they are
+                            download.copyTo(coverTarget);
                         }
                     }
 
+                    storageService.store(coverTarget);
                     a.setCoverImageFilename(coverFilename);
                     a.setCoverImageOriginalUrl(request.getCoverImageOriginalUrl());
                 }
@@ -312,14 +321,15 @@ public class ArticleService {
                     !request.getCoverImageFilename().equals(a.getCoverImageFilename())) {
                 // change the image file name in local storage only (no re-download), implying a rename
                 Path imagesDir = Path.of(articleProperties.getCoverImage().getUpload().getDirectory());
-                Path oldPath = imagesDir.resolve(a.getCoverImageFilename());
-                Path newPath = imagesDir.resolve(request.getCoverImageFilename());
+                Path oldPath = mediaLayout.locate(imagesDir, a.getCoverImageFilename());
+                Path newPath = mediaLayout.path(imagesDir, request.getCoverImageFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(imagesDir, request.getCoverImageFilename())) {
                     throw new IllegalArgumentException("Cover image file with name " + request.getCoverImageFilename() + " already exists");
                 }
                 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -363,7 +373,7 @@ public class ArticleService {
 
     public java.io.File getCoverImageFileByFilename(String filename) {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path coverPath = Path.of(articleProperties.getCoverImage().getUpload().getDirectory(), "", filename);
+        Path coverPath = mediaLayout.locate(articleProperties.getCoverImage().getUpload().getDirectory(), filename);
         if (!Files.exists(coverPath)) {
             throw new IllegalArgumentException("Cover image file not found: " + filename);
         }
@@ -395,16 +405,4 @@ public class ArticleService {
         if (a.getUpdatedAt() != null) r.setUpdatedAt(a.getUpdatedAt().toString());
         return r;
     }
-
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType());
-        resized.getGraphics().drawImage(image, 0, 0, newWidth, newHeight, null);
-        return resized;
-    }
 }
@@ -7,6 +7,10 @@ import org.ganjp.blog.cms.model.dto.AudioResponse;
 import org.ganjp.blog.cms.model.dto.AudioUpdateRequest;
 import org.ganjp.blog.cms.model.entity.Audio;
 import org.ganjp.blog.cms.repository.AudioRepository;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.upload.service.ChunkedUploadService;
+import org.ganjp.blog.common.upload.service.UploadFiles;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +19,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -28,6 +31,9 @@ import java.util.Optional;
 public class AudioService {
     private final AudioRepository audioRepository;
     private final AudioUploadProperties uploadProperties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final ChunkedUploadService chunkedUploadService;
+    private final MediaLayout mediaLayout;
 
     public AudioResponse createAudio(AudioCreateRequest request, String userId) throws IOException {
         Audio audio = new Audio();
@@ -45,8 +51,8 @@ public class AudioService {
         if (request.getDisplayOrder() != null) audio.setDisplayOrder(request.getDisplayOrder());
         if (request.getIsActive() != null) audio.setIsActive(request.getIsActive());
 
-        if (request.getFile() != null && !request.getFile().isEmpty()) {
-            MultipartFile file = request.getFile();
+        MultipartFile file = chunkedUploadService.resolve(request.getFile(), request.getUploadId(), userId);
+        if (file != null && !file.isEmpty()) {
             String originalFilename = file.getOriginalFilename();
             String filename;
             if (request.getFilename() != null && !request.getFilename().isBlank() && request.getFilename().lastIndexOf(".") > 0) {
@@ -58,13 +64,13 @@ public class AudioService {
             }
             Path audioDir = Path.of(uploadProperties.getDirectory());
             Files.createDirectories(audioDir);
-            Path target = audioDir.resolve(filename);
+            Path target = mediaLayout.prepare(audioDir, filename);
 
-            if (Files.exists(target) || audioRepository.existsByFilename(filename)) {
+            if (mediaLayout.exists(audioDir, filename) || audioRepository.existsByFilename(filename)) {
                 throw new IllegalArgumentException("Filename already exists: " + filename);
             }
 
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            UploadFiles.store(file, target);
             audio.setFilename(filename);
             audio.setSizeBytes(Files.size(target));
         } else {
@@ -85,20 +91,20 @@ public class AudioService {
             }
             Path imagesDir = Path.of(uploadProperties.getDirectory(), "cover-images");
             Files.createDirectories(imagesDir);
-            Path coverTarget = imagesDir.resolve(coverFilename);
+            Path coverTarget = mediaLayout.prepare(imagesDir, coverFilename);
 
-            if (Files.exists(coverTarget) || audioRepository.existsByFilename(coverFilename)) {
+            if (mediaLayout.exists(imagesDir, coverFilename) || audioRepository.existsByFilename(coverFilename)) {
                 throw new IllegalArgumentException("Audio Cover image already exists: " + coverFilename);
             }
 
             try {
-                BufferedImage original = ImageIO.read(cover.getInputStream());
+                BufferedImage original = imageProcessingEngine.decode("audio_cover", cover.getInputStream(), uploadProperties.getCoverImage().getMaxSize());
                 if (original != null) {
-                    BufferedImage resized = resizeImageIfNeeded(original, uploadProperties.getCoverImage().getMaxSize());
+                    BufferedImage resized = imageProcessingEngine.resizeToFit(original, uploadProperties.getCoverImage().getMaxSize());
                     String ext = "png";
                     int dot = coverFilename.lastIndexOf('.');
                     if (dot > 0 && dot < coverFilename.length() - 1) ext = coverFilename.substring(dot + 1).toLowerCase();
-                    ImageIO.write(resized, ext, coverTarget.toFile());
+                    imageProcessingEngine.write(resized, ext, coverTarget);
                 } else {
                     Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                 }
@@ -138,7 +144,7 @@ public class AudioService {
                 }
                 Path imagesDir = Path.of(uploadProperties.getDirectory(), "cover-images");
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 int suffix = 1;
                 String base = coverFilename;
@@ -148,23 +154,24 @@ public class AudioService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget) || audioRepository.existsByFilename(coverFilename)) {
+                while (mediaLayout.exists(imagesDir, coverFilename) || audioRepository.existsByFilename(coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
                 if (audio.getCoverImageFilename() != null) {
-                    try { Path old = imagesDir.resolve(audio.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
+                    try { Path old = mediaLayout.locate(imagesDir, audio.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
                 }
 
                 try {
-                    BufferedImage original = ImageIO.read(cover.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("audio_cover", cover.getInputStream(), uploadProperties.getCoverImage().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, uploadProperties.getCoverImage().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, uploadProperties.getCoverImage().getMaxSize());
                         String writeExt = "png";
                         if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, writeExt, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, writeExt, coverTarget);
                     } else {
                         Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
@@ -180,14 +187,15 @@ public class AudioService {
                     !request.getCoverImageFilename().equals(audio.getCoverImageFilename())) {
                 // change the image file name in local storage only (no re-download), implying a rename
                 Path coverImagesDir = Path.of(uploadProperties.getDirectory(), "cover-images");
-                Path oldPath = coverImagesDir.resolve(audio.getCoverImageFilename());
-                Path newPath = coverImagesDir.resolve(request.getCoverImageFilename());
+                Path oldPath = mediaLayout.locate(coverImagesDir, audio.getCoverImageFilename());
+                Path newPath = mediaLayout.path(coverImagesDir, request.getCoverImageFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(coverImagesDir, request.getCoverImageFilename())) {
                     throw new IllegalArgumentException("Cover image file with name " + request.getCoverImageFilename() + " already exists");
                 }
                 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -199,14 +207,15 @@ public class AudioService {
                     request.getFilename().lastIndexOf('.') > 0 &&
                     !request.getFilename().equals(audio.getFilename())) {
                 Path audioDir = Path.of(uploadProperties.getDirectory());
-                Path oldPath = audioDir.resolve(audio.getFilename());
-                Path newPath = audioDir.resolve(request.getFilename());
+                Path oldPath = mediaLayout.locate(audioDir, audio.getFilename());
+                Path newPath = mediaLayout.path(audioDir, request.getFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(audioDir, request.getFilename())) {
                     throw new IllegalArgumentException("Audio file with name " + request.getFilename() + " already exists");
                 }
 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -242,7 +251,7 @@ public class AudioService {
 
     public java.io.File getAudioFileByFilename(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path audioPath = Path.of(uploadProperties.getDirectory(), filename);
+        Path audioPath = mediaLayout.locate(uploadProperties.getDirectory(), filename);
         if (!Files.exists(audioPath)) {
             throw new IllegalArgumentException("Audio file not found: " + filename);
         }
@@ -251,7 +260,7 @@ public class AudioService {
 
     public java.io.File getCoverImageFileByFilename(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path coverPath = Path.of(uploadProperties.getDirectory(), "cover-images", filename);
+        Path coverPath = mediaLayout.locate(Path.of(uploadProperties.getDirectory(), "cover-images"), filename);
         if (!Files.exists(coverPath)) {
             throw new IllegalArgumentException("Cover image file not found: " + filename);
         }
@@ -296,16 +305,4 @@ public class AudioService {
         if (a.getUpdatedAt() != null) r.setUpdatedAt(a.getUpdatedAt().toString());
         return r;
     }
-
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType());
-        resized.getGraphics().drawImage(image, 0, 0, newWidth, newHeight, null);
-        return resized;
-    }
 }
@@ -7,6 +7,9 @@ import org.ganjp.blog.cms.model.dto.FileResponse;
 import org.ganjp.blog.cms.model.dto.FileUpdateRequest;
 import org.ganjp.blog.cms.model.entity.File;
 import org.ganjp.blog.cms.repository.FileRepository;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,6 +29,8 @@ import java.util.UUID;
 public class FileService {
     private final FileRepository fileRepository;
     private final FileUploadProperties uploadProperties; // file upload config
+    private final RemoteFetcher remoteFetcher;
+    private final MediaLayout mediaLayout;
 
     public FileResponse createFile(FileCreateRequest request, String userId) {
         File f = new File();
@@ -47,17 +52,18 @@ public class FileService {
                 MultipartFile mf = request.getFile();
                 String orig = mf.getOriginalFilename();
                 String stored = (request.getFilename() != null && !request.getFilename().isBlank()) ? request.getFilename() : (orig == null ? System.currentTimeMillis()+"-file" : orig.replaceAll("\\s+", "-"));
-                Path target = filesDir.resolve(stored);
+                Path target = mediaLayout.path(filesDir, stored);
                 int suffix = 1;
                 String base = stored;
                 String ext = "";
                 int dot = stored.lastIndexOf('.');
                 if (dot > 0) { base = stored.substring(0, dot); ext = stored.substring(dot); }
-                while (Files.exists(target)) {
+                while (mediaLayout.exists(filesDir, stored)) {
                     stored = base + "-" + suffix + ext;
-                    target = filesDir.resolve(stored);
+                    target = mediaLayout.path(filesDir, stored);
                     suffix++;
                 }
+                Files.createDirectories(target.getParent());
                 Files.copy(mf.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
                 f.setFilename(stored);
                 f.setSizeBytes(mf.getSize());
@@ -69,17 +75,18 @@ public class FileService {
                 if (stored == null || stored.isBlank()) {
                     try { java.net.URL u = new java.net.URL(url); String p = u.getPath(); int last = p.lastIndexOf('/'); String lastSeg = last>=0? p.substring(last+1): p; if (lastSeg==null||lastSeg.isBlank()) lastSeg = System.currentTimeMillis()+"-file"; stored = lastSeg.replaceAll("\\s+","-"); } catch (Exception ex) { stored = System.currentTimeMillis()+"-file"; }
                 }
-                Path target = filesDir.resolve(stored);
+                Path target = mediaLayout.prepare(filesDir, stored);
                 int dot = stored.lastIndexOf('.');
                 // When downloading from an external originalUrl, do not auto-rename if the file already exists.
                 // Throw an error to let the caller decide how to handle duplicates.
-                if (Files.exists(target)) {
+                if (mediaLayout.exists(filesDir, stored)) {
                     throw new IllegalArgumentException("File already exists: " + stored);
                 }
-                try (java.io.InputStream is = new java.net.URL(url).openStream()) {
-                    byte[] data = is.readAllBytes();
-                    Files.write(target, data);
-                    f.setSizeBytes((long) data.length);
+                try (RemoteDownload download = uploadProperties.getMaxFileSize() != null
+                        ? remoteFetcher.download("file", url, uploadProperties.getMaxFileSize())
+                        : remoteFetcher.download("file", url)) {
+                    download.moveTo(target);
+                    f.setSizeBytes(download.getSize());
                     if (dot>0 && dot < stored.length()-1) f.setExtension(stored.substring(dot+1));
                 }
                 f.setFilename(stored);
@@ -119,18 +126,19 @@ public class FileService {
                 MultipartFile mf = request.getFile();
                 String orig = mf.getOriginalFilename();
                 String stored = (request.getFilename() != null && !request.getFilename().isBlank()) ? request.getFilename() : (orig == null ? System.currentTimeMillis()+"-file" : orig.replaceAll("\\s+", "-"));
-                Path target = filesDir.resolve(stored);
+                Path target = mediaLayout.path(filesDir, stored);
                 int suffix = 1;
                 String base = stored;
                 String ext = "";
                 int dot = stored.lastIndexOf('.');
                 if (dot > 0) { base = stored.substring(0, dot); ext = stored.substring(dot); }
-                while (Files.exists(target)) {
+                while (mediaLayout.exists(filesDir, stored)) {
                     stored = base + "-" + suffix + ext;
-                    target = filesDir.resolve(stored);
+                    target = mediaLayout.path(filesDir, stored);
                     suffix++;
                 }
-                if (f.getFilename() != null) { try { Path old = filesDir.resolve(f.getFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {} }
+                Files.createDirectories(target.getParent());
+                if (f.getFilename() != null) { try { Path old = mediaLayout.locate(filesDir, f.getFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {} }
                 Files.copy(mf.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
                 f.setFilename(stored);
                 f.setSizeBytes(mf.getSize());
@@ -159,7 +167,7 @@ public class FileService {
 
     public java.io.File getFileByFilename(String filename) {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path p = Path.of(uploadProperties.getDirectory(), filename);
+        Path p = mediaLayout.locate(uploadProperties.getDirectory(), filename);
         if (!Files.exists(p)) throw new IllegalArgumentException("File not found: " + filename);
         return p.toFile();
     }
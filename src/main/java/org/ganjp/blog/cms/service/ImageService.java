@@ -9,6 +9,16 @@ import org.ganjp.blog.cms.model.dto.ImageResponse;
 import org.ganjp.blog.cms.model.entity.Image;
 import org.ganjp.blog.cms.repository.ImageRepository;
 import org.ganjp.blog.cms.util.CmsUtil;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.ganjp.blog.common.storage.service.StorageService;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -24,7 +34,6 @@ import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import javax.imageio.ImageIO;
 import net.sourceforge.pinyin4j.PinyinHelper;
 import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
 import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
@@ -38,6 +47,12 @@ import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombi
 public class ImageService {
     private final ImageRepository imageRepository;
     private final ImageUploadProperties imageUploadProperties;
+    private final MediaMetrics mediaMetrics;
+    private final Bulkheads bulkheads;
+    private final RemoteFetcher remoteFetcher;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final StorageService storageService;
+    private final MediaLayout mediaLayout;
 
     public ImageResponse getImageById(String id) {
         Optional<Image> imageOpt = imageRepository.findByIdAndIsActiveTrue(id);
@@ -64,42 +79,20 @@ public class ImageService {
             String newExt = request.getExtension().toLowerCase();
             try {
                 Path uploadDir = Paths.get(imageUploadProperties.getDirectory());
-                Path oldImagePath = uploadDir.resolve(oldFilename);
-                Path oldThumbPath = uploadDir.resolve(oldThumbnail);
+                Path oldImagePath = mediaLayout.locate(uploadDir, oldFilename);
+                Path oldThumbPath = mediaLayout.locate(uploadDir, oldThumbnail);
 
                 String newFilename = request.getFilename() != null ? request.getFilename() : replaceExtension(oldFilename, newExt);
                 String newThumbnail = request.getThumbnailFilename() != null ? request.getThumbnailFilename() : replaceExtension(oldThumbnail, newExt);
-                Path newImagePath = uploadDir.resolve(newFilename);
-                Path newThumbPath = uploadDir.resolve(newThumbnail);
+                Path newImagePath = mediaLayout.prepare(uploadDir, newFilename);
+                Path newThumbPath = mediaLayout.prepare(uploadDir, newThumbnail);
 
-                // Try to read and write using ImageIO (conversion)
-                try {
-                    BufferedImage img = ImageIO.read(oldImagePath.toFile());
-                    if (img != null) {
-                        ImageIO.write(img, newExt, newImagePath.toFile());
-                    } else {
-                        // fallback to copy/rename if ImageIO cannot read (e.g., SVG)
-                        Files.copy(oldImagePath, newImagePath);
-                    }
-                } catch (Exception e) {
-                    // fallback: move/rename file
-                    Files.copy(oldImagePath, newImagePath);
-                }
-
-                try {
-                    BufferedImage timg = ImageIO.read(oldThumbPath.toFile());
-                    if (timg != null) {
-                        ImageIO.write(timg, newExt, newThumbPath.toFile());
-                    } else {
-                        Files.copy(oldThumbPath, newThumbPath);
-                    }
-                } catch (Exception e) {
-                    Files.copy(oldThumbPath, newThumbPath);
-                }
+                convert(oldImagePath, newExt, newImagePath);
+                convert(oldThumbPath, newExt, newThumbPath);
 
                 // Remove old files
-                try { Files.deleteIfExists(oldImagePath); } catch (Exception ignored) {}
-                try { Files.deleteIfExists(oldThumbPath); } catch (Exception ignored) {}
+                try { storageService.release(oldImagePath); } catch (Exception ignored) {}
+                try { storageService.release(oldThumbPath); } catch (Exception ignored) {}
 
                 // Update entity fields to new names/extension/mime/size
                 image.setFilename(newFilename);
@@ -116,8 +109,8 @@ public class ImageService {
             if (request.getFilename() != null && !request.getFilename().equals(oldFilename)) {
                 try {
                     Path uploadDir = Paths.get(imageUploadProperties.getDirectory());
-                    Path oldPath = uploadDir.resolve(oldFilename);
-                    Path newPath = uploadDir.resolve(request.getFilename());
+                    Path oldPath = mediaLayout.locate(uploadDir, oldFilename);
+                    Path newPath = mediaLayout.prepare(uploadDir, request.getFilename());
                     Files.move(oldPath, newPath);
                     image.setFilename(request.getFilename());
                 } catch (IOException e) {
@@ -127,8 +120,8 @@ public class ImageService {
             if (request.getThumbnailFilename() != null && !request.getThumbnailFilename().equals(oldThumbnail)) {
                 try {
                     Path uploadDir = Paths.get(imageUploadProperties.getDirectory());
-                    Path oldPath = uploadDir.resolve(oldThumbnail);
-                    Path newPath = uploadDir.resolve(request.getThumbnailFilename());
+                    Path oldPath = mediaLayout.locate(uploadDir, oldThumbnail);
+                    Path newPath = mediaLayout.prepare(uploadDir, request.getThumbnailFilename());
                     Files.move(oldPath, newPath);
                     image.setThumbnailFilename(request.getThumbnailFilename());
                 } catch (IOException e) {
@@ -172,28 +165,37 @@ public class ImageService {
         return images.map(this::toResponse);
     }
 
+    /**
+     * Create an image from an upload or a remote URL. The download runs on the fetch bulkhead
+     * before the decode, resize and encode take a slot on the image bulkhead.
+     */
     public ImageResponse createImage(ImageCreateRequest request, String userId) throws IOException {
-        String id = UUID.randomUUID().toString();
-        BufferedImage originalImage;
-        String extension;
         MultipartFile file = request.getFile();
+        RemoteDownload remote = null;
         if (file == null || file.isEmpty()) {
             if (request.getOriginalUrl() == null || request.getOriginalUrl().isBlank()) {
                 throw new IllegalArgumentException("originalUrl is required if file is empty");
             }
-            java.net.URL url = new java.net.URL(request.getOriginalUrl());
-            try (var inputStream = url.openStream()) {
-                originalImage = ImageIO.read(inputStream);
-                if (request.getFilename() != null && request.getFilename().lastIndexOf('.') != -1) {
-                    extension = request.getFilename().substring(request.getFilename().lastIndexOf('.') + 1).toLowerCase();
-                } else {
-                    String urlPath = url.getPath();
-                    int dotIdx = urlPath.lastIndexOf('.');
-                    extension = (dotIdx > 0 && dotIdx < urlPath.length() - 1) ? urlPath.substring(dotIdx + 1).toLowerCase() : "png";
-                }
+            remote = remoteFetcher.download("image", request.getOriginalUrl());
+        }
+        try (RemoteDownload download = remote) {
+            return bulkheads.image().call(() -> createImage(request, download, userId));
+        }
+    }
+
+    private ImageResponse createImage(ImageCreateRequest request, RemoteDownload download, String userId) throws IOException {
+        String id = UUID.randomUUID().toString();
+        String extension;
+        MultipartFile file = request.getFile();
+        if (download != null) {
+            if (request.getFilename() != null && request.getFilename().lastIndexOf('.') != -1) {
+                extension = request.getFilename().substring(request.getFilename().lastIndexOf('.') + 1).toLowerCase();
+            } else {
+                String urlPath = download.getUri().getPath();
+                int dotIdx = urlPath.lastIndexOf('.');
+                extension = (dotIdx > 0 && dotIdx < urlPath.length() - 1) ? urlPath.substring(dotIdx + 1).toLowerCase() : "png";
             }
         } else {
-            originalImage = ImageIO.read(file.getInputStream());
             String contentType = file.getContentType();
             if (contentType != null && contentType.contains("jpeg")) {
                 extension = "jpg";
@@ -207,8 +209,44 @@ public class ImageService {
                 extension = "png";
             }
         }
-        BufferedImage resizedImage = resizeImageIfNeeded(originalImage, imageUploadProperties.getResize().getMaxSize());
-        BufferedImage thumbnailImage = resizeImageIfNeeded(originalImage, imageUploadProperties.getResize().getThumbnailSize());
+        int maxSize = imageUploadProperties.getResize().getMaxSize();
+        int thumbnailSize = imageUploadProperties.getResize().getThumbnailSize();
+
+        // An upload with the same content and settings as an earlier one reuses its stored outputs
+        String sourceHash = download != null ? storageService.hash(download.getFile()) : storageService.hash(file);
+        String variant = "image/" + maxSize + "/" + thumbnailSize + "/" + extension + "/" + imageProcessingEngine.encoding();
+        StorageDerivative storedImage = storageService.findDerivative(sourceHash, variant + "/main").orElse(null);
+        StorageDerivative storedThumbnail = storageService.findDerivative(sourceHash, variant + "/thumbnail").orElse(null);
+        boolean reuse = storedImage != null && storedThumbnail != null;
+        mediaMetrics.recordDerivativeLookup("image", reuse);
+
+        BufferedImage resizedImage = null;
+        BufferedImage thumbnailImage = null;
+        int width;
+        int height;
+        int thumbnailWidth;
+        int thumbnailHeight;
+        if (reuse) {
+            width = storedImage.getWidth();
+            height = storedImage.getHeight();
+            thumbnailWidth = storedThumbnail.getWidth();
+            thumbnailHeight = storedThumbnail.getHeight();
+        } else {
+            long decodeStart = System.nanoTime();
+            BufferedImage originalImage = download != null
+                    ? imageProcessingEngine.decode("image", download.getFile(), maxSize)
+                    : imageProcessingEngine.decode("image", file.getInputStream(), maxSize);
+            mediaMetrics.recordStage("image", "decode", decodeStart);
+            long resizeStart = System.nanoTime();
+            List<BufferedImage> derivatives = imageProcessingEngine.derivatives(originalImage, maxSize, thumbnailSize);
+            resizedImage = derivatives.get(0);
+            thumbnailImage = derivatives.get(1);
+            mediaMetrics.recordStage("image", "resize", resizeStart);
+            width = resizedImage.getWidth();
+            height = resizedImage.getHeight();
+            thumbnailWidth = thumbnailImage.getWidth();
+            thumbnailHeight = thumbnailImage.getHeight();
+        }
         
         String filename;
         String thumbnailFilename;
@@ -219,17 +257,28 @@ public class ImageService {
             if (filename.lastIndexOf('.') != -1) {
                 onlyFilename = filename.substring(0, filename.lastIndexOf('.'));
             }
-            filename = generateFilename(onlyFilename, extension, resizedImage.getWidth(), resizedImage.getHeight());
-            thumbnailFilename = generateFilename(onlyFilename, extension, thumbnailImage.getWidth(), thumbnailImage.getHeight());
+            filename = generateFilename(onlyFilename, extension, width, height);
+            thumbnailFilename = generateFilename(onlyFilename, extension, thumbnailWidth, thumbnailHeight);
         } else {
-            filename = generateFilename(request.getName(), extension, resizedImage.getWidth(), resizedImage.getHeight());
-            thumbnailFilename = generateFilename(request.getName(), extension, thumbnailImage.getWidth(), thumbnailImage.getHeight());
+            filename = generateFilename(request.getName(), extension, width, height);
+            thumbnailFilename = generateFilename(request.getName(), extension, thumbnailWidth, thumbnailHeight);
         }
 
-        Path imagePath = Paths.get(imageUploadProperties.getDirectory(), filename);
-        Path thumbPath = Paths.get(imageUploadProperties.getDirectory(), thumbnailFilename);
-        ImageIO.write(resizedImage, extension, imagePath.toFile());
-        ImageIO.write(thumbnailImage, extension, thumbPath.toFile());
+        Path imagePath = mediaLayout.prepare(imageUploadProperties.getDirectory(), filename);
+        Path thumbPath = mediaLayout.prepare(imageUploadProperties.getDirectory(), thumbnailFilename);
+        if (reuse) {
+            if (!storageService.link(storedImage.getBlobHash(), imagePath) || !storageService.link(storedThumbnail.getBlobHash(), thumbPath)) {
+                throw new IOException("Stored image " + sourceHash + " was deleted while being reused, please retry");
+            }
+        } else {
+            long encodeStart = System.nanoTime();
+            imageProcessingEngine.writeAll(List.of(
+                    new ImageProcessingEngine.Derivative(resizedImage, extension, imagePath),
+                    new ImageProcessingEngine.Derivative(thumbnailImage, extension, thumbPath)));
+            mediaMetrics.recordStage("image", "encode", encodeStart);
+            storageService.saveDerivative(sourceHash, variant + "/main", storageService.store(imagePath), width, height);
+            storageService.saveDerivative(sourceHash, variant + "/thumbnail", storageService.store(thumbPath), thumbnailWidth, thumbnailHeight);
+        }
 
         Image image = new Image();
         image.setId(id);
@@ -241,8 +290,8 @@ public class ImageService {
         image.setExtension(extension);
         image.setMimeType(CmsUtil.determineContentType(filename));
         image.setSizeBytes(Files.size(imagePath));
-        image.setWidth(resizedImage.getWidth());
-        image.setHeight(resizedImage.getHeight());
+        image.setWidth(width);
+        image.setHeight(height);
         image.setAltText(request.getAltText());
         image.setTags(request.getTags());
         image.setLang(request.getLang());
@@ -275,28 +324,6 @@ public class ImageService {
         return getImageFile(filename);
     }
 
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        
-        int type = image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType();
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, type);
-        java.awt.Graphics2D g2d = resized.createGraphics();
-        try {
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, java.awt.RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_RENDERING, java.awt.RenderingHints.VALUE_RENDER_QUALITY);
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.drawImage(image, 0, 0, newWidth, newHeight, null);
-        } finally {
-            g2d.dispose();
-        }
-        return resized;
-    }
-
     private String generateFilename(String name, String extension, int width, int height) {
         // Null-safe: if name is null or blank, fall back to 'img'
         String safeName;
@@ -323,7 +350,7 @@ public class ImageService {
      * Convert Chinese characters in the input string to pinyin. Non-Chinese characters are kept as-is.
      * Uses the first pinyin reading when multiple exist.
      */
-    private String convertToPinyin(String input) {
+    static String convertToPinyin(String input) {
         StringBuilder sb = new StringBuilder();
         for (char ch : input.toCharArray()) {
             if (isChinese(ch)) {
@@ -342,7 +369,7 @@ public class ImageService {
         return sb.toString();
     }
 
-    private boolean isChinese(char ch) {
+    private static boolean isChinese(char ch) {
         Character.UnicodeScript sc = Character.UnicodeScript.of(ch);
         return sc == Character.UnicodeScript.HAN;
     }
@@ -380,7 +407,7 @@ public class ImageService {
      */
     public File getImageFile(String filename) throws IOException {
         Path uploadDir = Paths.get(imageUploadProperties.getDirectory());
-        Path fullPath = uploadDir.resolve(filename);
+        Path fullPath = mediaLayout.locate(uploadDir, filename);
 
         if (!Files.exists(fullPath)) {
             throw new IOException("Image file not found: " + filename);
@@ -395,6 +422,30 @@ public class ImageService {
         return file;
     }
 
+    /**
+     * Re-encode a stored file in another format on the image bulkhead; a file no image reader
+     * recognises (e.g. SVG) is copied as it is
+     */
+    private void convert(Path source, String extension, Path target) throws IOException {
+        try {
+            bulkheads.image().call(() -> {
+                BufferedImage img = imageProcessingEngine.decode("image", source, 0);
+                if (img == null) {
+                    Files.copy(source, target);
+                } else {
+                    imageProcessingEngine.write(img, extension, target);
+                }
+                return null;
+            });
+        } catch (ServiceBusyException | BusinessException e) {
+            // Busy bulkhead (503) or an image past image-processing.max-pixels (400)
+            throw e;
+        } catch (Exception e) {
+            // fallback: copy the file as it is
+            Files.copy(source, target);
+        }
+    }
+
     private String replaceExtension(String filename, String newExt) {
         int dot = filename.lastIndexOf('.');
         if (dot == -1) return filename + "." + newExt;
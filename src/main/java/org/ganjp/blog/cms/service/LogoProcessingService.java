@@ -2,17 +2,24 @@ package org.ganjp.blog.cms.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.coobird.thumbnailator.Thumbnails;
 import net.sourceforge.pinyin4j.PinyinHelper;
 import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
 import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
 import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
 import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
 import org.ganjp.blog.cms.config.LogoUploadProperties;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.concurrent.CpuBoundImageWork;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.ganjp.blog.common.storage.service.StorageService;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.file.Files;
@@ -21,6 +28,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -33,6 +41,12 @@ import java.util.UUID;
 public class LogoProcessingService {
 
     private final LogoUploadProperties uploadProperties;
+    private final MediaMetrics mediaMetrics;
+    private final Bulkheads bulkheads;
+    private final RemoteFetcher remoteFetcher;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final StorageService storageService;
+    private final MediaLayout mediaLayout;
     public LogoUploadProperties getUploadProperties() {
         return uploadProperties;
     }
@@ -43,12 +57,14 @@ public class LogoProcessingService {
          * @param logoName The logo name for filename generation
          * @return The new filename if successful, null if failed
          */
+    @CpuBoundImageWork
     public String convertImageFormat(File sourceFile, String targetExtension, String logoName) {
         String sourceExtension = getFileExtension(sourceFile.getName());
         String newFilename = generateFilename(logoName, targetExtension);
         Path uploadDir = Paths.get(uploadProperties.getDirectory());
-        Path newPath = uploadDir.resolve(newFilename);
+        Path newPath = mediaLayout.path(uploadDir, newFilename);
         try {
+            Files.createDirectories(newPath.getParent());
             if ("svg".equalsIgnoreCase(sourceExtension) && !"svg".equalsIgnoreCase(targetExtension)) {
                 // Only allow SVG to PNG directly
                 if ("png".equalsIgnoreCase(targetExtension)) {
@@ -71,11 +87,11 @@ public class LogoProcessingService {
                         transcoder.transcode(input, output);
                     }
                     // Now convert PNG to JPG
-                    BufferedImage pngImage = ImageIO.read(tempPngPath.toFile());
+                    BufferedImage pngImage = imageProcessingEngine.decode("logo", tempPngPath, 0);
                     if (pngImage == null) {
                         throw new IOException("Unable to read intermediate PNG file for SVG to JPG conversion: " + tempPngFilename);
                     }
-                    ImageIO.write(pngImage, targetExtension, newPath.toFile());
+                    imageProcessingEngine.write(pngImage, targetExtension, newPath);
                     // Delete temp PNG file
                     Files.deleteIfExists(tempPngPath);
                 } else {
@@ -84,11 +100,11 @@ public class LogoProcessingService {
                 }
             } else {
                 // Raster to raster conversion (PNG <-> JPG <-> BMP <-> WEBP)
-                BufferedImage image = ImageIO.read(sourceFile);
+                BufferedImage image = imageProcessingEngine.decode("logo", sourceFile.toPath(), 0);
                 if (image == null) {
                     throw new IOException("Unable to read image file for conversion: " + sourceFile.getName());
                 }
-                ImageIO.write(image, targetExtension, newPath.toFile());
+                imageProcessingEngine.write(imageProcessingEngine.palette(image, targetExtension), targetExtension, newPath);
             }
             log.info("Converted image {} to format {} as {}", sourceFile.getName(), targetExtension, newFilename);
             return newFilename;
@@ -104,6 +120,7 @@ public class LogoProcessingService {
      * @param logoName Logo name for filename generation
      * @return Processed image info
      */
+    @CpuBoundImageWork
     public ProcessedImage processUploadedFile(MultipartFile file, String logoName) throws IOException {
         log.debug("Processing uploaded file: {}", file.getOriginalFilename());
         
@@ -118,13 +135,21 @@ public class LogoProcessingService {
             return saveSvgFile(file.getInputStream(), extension, null, logoName);
         }
         
+        String sourceHash = storageService.hash(file);
+        ProcessedImage stored = reuseStored(sourceHash, extension, null, logoName);
+        if (stored != null) {
+            return stored;
+        }
+
         // Read image from multipart file
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
+        long decodeStart = System.nanoTime();
+        BufferedImage originalImage = imageProcessingEngine.decode("logo", file.getInputStream(), uploadProperties.getResize().getTargetSize());
+        mediaMetrics.recordStage("logo", "decode", decodeStart);
         if (originalImage == null) {
             throw new IOException("Unable to read image file");
         }
         
-        return resizeAndSave(originalImage, extension, null, logoName);
+        return resizeAndSave(originalImage, extension, null, logoName, sourceHash);
     }
 
     /**
@@ -139,29 +164,68 @@ public class LogoProcessingService {
         // Extract extension from URL
         String extension = getFileExtensionFromUrl(imageUrl);
         
-        // Check if SVG - handle differently (no resize needed)
-        if ("svg".equalsIgnoreCase(extension)) {
-            java.net.URI uri = java.net.URI.create(imageUrl);
-            try (InputStream inputStream = uri.toURL().openStream()) {
-                return saveSvgFile(inputStream, extension, imageUrl, logoName);
-            }
+        // Download on the fetch bulkhead, then render or resize on the image bulkhead
+        try (RemoteDownload download = remoteFetcher.download("logo", imageUrl)) {
+            return bulkheads.image().call(() -> {
+                // Check if SVG - handle differently (no resize needed)
+                if ("svg".equalsIgnoreCase(extension)) {
+                    try (InputStream svg = download.openStream()) {
+                        return saveSvgFile(svg, extension, imageUrl, logoName);
+                    }
+                }
+
+                String sourceHash = storageService.hash(download.getFile());
+                ProcessedImage stored = reuseStored(sourceHash, extension, imageUrl, logoName);
+                if (stored != null) {
+                    return stored;
+                }
+
+                long decodeStart = System.nanoTime();
+                BufferedImage originalImage = imageProcessingEngine.decode("logo", download.getFile(), uploadProperties.getResize().getTargetSize());
+                mediaMetrics.recordStage("logo", "decode", decodeStart);
+
+                if (originalImage == null) {
+                    throw new IOException("Unable to read image from URL: " + imageUrl);
+                }
+
+                return resizeAndSave(originalImage, extension, imageUrl, logoName, sourceHash);
+            });
         }
-        
-        // Download raster image from URL
-        java.net.URI uri = java.net.URI.create(imageUrl);
-        BufferedImage originalImage = ImageIO.read(uri.toURL());
-        
-        if (originalImage == null) {
-            throw new IOException("Unable to read image from URL: " + imageUrl);
+    }
+
+    /**
+     * Link the stored logo of an earlier upload with the same content, or return null if the image has to be processed
+     */
+    private ProcessedImage reuseStored(String sourceHash, String extension, String originalUrl, String logoName) throws IOException {
+        Optional<StorageDerivative> stored = storageService.findDerivative(sourceHash, variant(extension));
+        mediaMetrics.recordDerivativeLookup("logo", stored.isPresent());
+        if (stored.isEmpty()) {
+            return null;
         }
-        
-        return resizeAndSave(originalImage, extension, imageUrl, logoName);
+        String filename = generateFilename(logoName, extension);
+        Path fullPath = mediaLayout.path(uploadProperties.getDirectory(), filename);
+        if (!storageService.link(stored.get().getBlobHash(), fullPath)) {
+            return null;
+        }
+        log.info("Image reused: {}", fullPath);
+        return ProcessedImage.builder()
+                .filename(filename)
+                .extension(extension)
+                .originalUrl(originalUrl)
+                .build();
+    }
+
+    /**
+     * Pipeline settings a stored logo depends on
+     */
+    private String variant(String extension) {
+        return "logo/" + uploadProperties.getResize().getTargetSize() + "/" + extension.toLowerCase() + "/" + imageProcessingEngine.encoding();
     }
 
     /**
      * Resize image to 256px (width or height) and save
      */
-    private ProcessedImage resizeAndSave(BufferedImage originalImage, String extension, String originalUrl, String logoName) throws IOException {
+    private ProcessedImage resizeAndSave(BufferedImage originalImage, String extension, String originalUrl, String logoName, String sourceHash) throws IOException {
         int targetSize = uploadProperties.getResize().getTargetSize();
         int originalWidth = originalImage.getWidth();
         int originalHeight = originalImage.getHeight();
@@ -194,13 +258,14 @@ public class LogoProcessingService {
         }
         
         // Full path to save file
-        Path fullPath = uploadDir.resolve(filename);
+        Path fullPath = mediaLayout.prepare(uploadDir, filename);
         
         // Resize and save image
-        Thumbnails.of(originalImage)
-                .size(newWidth, newHeight)
-                .outputFormat(extension)
-                .toFile(fullPath.toFile());
+        long resizeStart = System.nanoTime();
+        BufferedImage resized = imageProcessingEngine.scale(originalImage, newWidth, newHeight);
+        imageProcessingEngine.write(imageProcessingEngine.palette(resized, extension), extension, fullPath);
+        mediaMetrics.recordStage("logo", "resize_encode", resizeStart);
+        storageService.saveDerivative(sourceHash, variant(extension), storageService.store(fullPath), newWidth, newHeight);
         
         log.info("Image saved: {}", fullPath);
         
@@ -228,10 +293,11 @@ public class LogoProcessingService {
         }
         
         // Full path to save file
-        Path fullPath = uploadDir.resolve(filename);
+        Path fullPath = mediaLayout.prepare(uploadDir, filename);
         
         // Copy SVG file directly (no resize needed)
         Files.copy(inputStream, fullPath, StandardCopyOption.REPLACE_EXISTING);
+        storageService.store(fullPath);
         
         log.info("SVG file saved: {}", fullPath);
         
@@ -252,7 +318,7 @@ public class LogoProcessingService {
     public String renameLogoFile(String oldFilename, String newLogoName, String extension) {
         try {
             Path uploadDir = Paths.get(uploadProperties.getDirectory());
-            Path oldPath = uploadDir.resolve(oldFilename);
+            Path oldPath = mediaLayout.locate(uploadDir, oldFilename);
             
             if (!Files.exists(oldPath)) {
                 log.warn("Logo file not found for renaming: {}", oldPath);
@@ -261,7 +327,7 @@ public class LogoProcessingService {
             
             // Generate new filename based on new logo name
             String newFilename = generateFilename(newLogoName, extension);
-            Path newPath = uploadDir.resolve(newFilename);
+            Path newPath = mediaLayout.prepare(uploadDir, newFilename);
             
             // Rename the file
             Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
@@ -274,6 +340,13 @@ public class LogoProcessingService {
         }
     }
 
+    /**
+     * Location of a stored logo file, in either media layout
+     */
+    public Path logoPath(String filename) {
+        return mediaLayout.locate(uploadProperties.getDirectory(), filename);
+    }
+
     /**
      * Get logo file from storage
      * @param filename The filename to retrieve
@@ -281,8 +354,7 @@ public class LogoProcessingService {
      * @throws IOException if file not found or error reading file
      */
     public File getLogoFile(String filename) throws IOException {
-        Path uploadDir = Paths.get(uploadProperties.getDirectory());
-        Path fullPath = uploadDir.resolve(filename);
+        Path fullPath = logoPath(filename);
         
         if (!Files.exists(fullPath)) {
             throw new IOException("Logo file not found: " + filename);
@@ -302,11 +374,10 @@ public class LogoProcessingService {
      */
     public void deleteLogoFile(String filename) {
         try {
-            Path uploadDir = Paths.get(uploadProperties.getDirectory());
-            Path fullPath = uploadDir.resolve(filename);
+            Path fullPath = logoPath(filename);
             
             if (Files.exists(fullPath)) {
-                Files.delete(fullPath);
+                storageService.release(fullPath);
                 log.info("Deleted logo file: {}", fullPath);
             } else {
                 log.warn("Logo file not found for deletion: {}", fullPath);
@@ -1,6 +1,5 @@
 package org.ganjp.blog.cms.service;
 import java.io.File;
-import java.nio.file.Paths;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -118,7 +117,7 @@ public class LogoService {
                 // If extension changed, convert image format
                 String nameForFilename = request.getName() != null ? request.getName() : logo.getName();
                 String extensionForFilename = request.getExtension() != null ? request.getExtension() : logo.getExtension();
-                File oldFile = Paths.get(logoProcessingService.getUploadProperties().getDirectory()).resolve(oldFilename).toFile();
+                File oldFile = logoProcessingService.logoPath(oldFilename).toFile();
                 String newFilename;
                 if (extensionChanged) {
                     newFilename = logoProcessingService.convertImageFormat(oldFile, extensionForFilename, nameForFilename);
@@ -7,6 +7,10 @@ import org.ganjp.blog.cms.model.dto.VideoResponse;
 import org.ganjp.blog.cms.model.dto.VideoUpdateRequest;
 import org.ganjp.blog.cms.model.entity.Video;
 import org.ganjp.blog.cms.repository.VideoRepository;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.upload.service.ChunkedUploadService;
+import org.ganjp.blog.common.upload.service.UploadFiles;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +19,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -29,6 +32,9 @@ import java.util.Optional;
 public class VideoService {
     private final VideoRepository videoRepository;
     private final VideoUploadProperties uploadProperties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final ChunkedUploadService chunkedUploadService;
+    private final MediaLayout mediaLayout;
 
     public VideoResponse createVideo(VideoCreateRequest request, String userId) throws IOException {
         Video video = new Video();
@@ -47,8 +53,8 @@ public class VideoService {
         if (request.getIsActive() != null) video.setIsActive(request.getIsActive());
 
         // handle file upload (required)
-        if (request.getFile() != null && !request.getFile().isEmpty()) {
-            MultipartFile file = request.getFile();
+        MultipartFile file = chunkedUploadService.resolve(request.getFile(), request.getUploadId(), userId);
+        if (file != null && !file.isEmpty()) {
             String originalFilename = file.getOriginalFilename();
             // prefer original filename; if missing, fall back to timestamp-based name
             String filename;
@@ -61,14 +67,14 @@ public class VideoService {
             }
             Path videoDir = Path.of(uploadProperties.getDirectory());
             Files.createDirectories(videoDir);
-            Path target = videoDir.resolve(filename);
+            Path target = mediaLayout.prepare(videoDir, filename);
 
             // If filename already exists on disk or in DB, reject to avoid overwrite
-            if (Files.exists(target) || videoRepository.existsByFilename(filename)) {
+            if (mediaLayout.exists(videoDir, filename) || videoRepository.existsByFilename(filename)) {
                 throw new IllegalArgumentException("Filename already exists: " + filename);
             }
 
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            UploadFiles.store(file, target);
             video.setFilename(filename);
             video.setSizeBytes(Files.size(target));
         } else {
@@ -89,22 +95,22 @@ public class VideoService {
             }
             Path imagesDir = Path.of(uploadProperties.getDirectory(), "cover-images");
             Files.createDirectories(imagesDir);
-            Path coverTarget = imagesDir.resolve(coverFilename);
+            Path coverTarget = mediaLayout.prepare(imagesDir, coverFilename);
 
             // if filename exists, auto-rename by appending a numeric suffix
-            if (Files.exists(coverTarget) || videoRepository.existsByFilename(coverFilename)) {
+            if (mediaLayout.exists(imagesDir, coverFilename) || videoRepository.existsByFilename(coverFilename)) {
                 throw new IllegalArgumentException("Video Cover image already exists: " + coverFilename);
             }
 
             // attempt to read and resize image; if not readable (e.g., SVG), fallback to raw copy
             try {
-                BufferedImage original = ImageIO.read(cover.getInputStream());
+                BufferedImage original = imageProcessingEngine.decode("video_cover", cover.getInputStream(), uploadProperties.getCoverImage().getMaxSize());
                 if (original != null) {
-                    BufferedImage resized = resizeImageIfNeeded(original, uploadProperties.getCoverImage().getMaxSize());
+                    BufferedImage resized = imageProcessingEngine.resizeToFit(original, uploadProperties.getCoverImage().getMaxSize());
                     String ext = "png";
                     int dot = coverFilename.lastIndexOf('.');
                     if (dot > 0 && dot < coverFilename.length() - 1) ext = coverFilename.substring(dot + 1).toLowerCase();
-                    ImageIO.write(resized, ext, coverTarget.toFile());
+                    imageProcessingEngine.write(resized, ext, coverTarget);
                 } else {
                     // unknown format (SVG etc.), copy raw bytes
                     Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
@@ -148,7 +154,7 @@ public class VideoService {
                 }
                 Path imagesDir = Path.of(uploadProperties.getDirectory(), "cover-images");
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 // If filename exists, auto-rename by appending numeric suffix
                 int suffix = 1;
@@ -159,28 +165,29 @@ public class VideoService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget) || videoRepository.existsByFilename(coverFilename)) {
+                while (mediaLayout.exists(imagesDir, coverFilename) || videoRepository.existsByFilename(coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
                 // delete old cover file if present
                 if (video.getCoverImageFilename() != null) {
                     try {
-                        Path old = imagesDir.resolve(video.getCoverImageFilename());
+                        Path old = mediaLayout.locate(imagesDir, video.getCoverImageFilename());
                         Files.deleteIfExists(old);
                     } catch (IOException ignored) {}
                 }
 
                 // resize like in create flow
                 try {
-                    BufferedImage original = ImageIO.read(cover.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("video_cover", cover.getInputStream(), uploadProperties.getCoverImage().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, uploadProperties.getCoverImage().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, uploadProperties.getCoverImage().getMaxSize());
                         String writeExt = "png";
                         if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, writeExt, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, writeExt, coverTarget);
                     } else {
                         Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
@@ -196,14 +203,15 @@ public class VideoService {
                     !request.getCoverImageFilename().equals(video.getCoverImageFilename())) {
                 // change the image file name in local storage only (no re-download), implying a rename
                 Path coverImagesDir = Path.of(uploadProperties.getDirectory(), "cover-images");
-                Path oldPath = coverImagesDir.resolve(video.getCoverImageFilename());
-                Path newPath = coverImagesDir.resolve(request.getCoverImageFilename());
+                Path oldPath = mediaLayout.locate(coverImagesDir, video.getCoverImageFilename());
+                Path newPath = mediaLayout.path(coverImagesDir, request.getCoverImageFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(coverImagesDir, request.getCoverImageFilename())) {
                     throw new IllegalArgumentException("Cover image file with name " + request.getCoverImageFilename() + " already exists");
                 }
                 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -215,14 +223,15 @@ public class VideoService {
                     request.getFilename().lastIndexOf('.') > 0 &&
                     !request.getFilename().equals(video.getFilename())) {
                 Path videoDir = Path.of(uploadProperties.getDirectory());
-                Path oldPath = videoDir.resolve(video.getFilename());
-                Path newPath = videoDir.resolve(request.getFilename());
+                Path oldPath = mediaLayout.locate(videoDir, video.getFilename());
+                Path newPath = mediaLayout.path(videoDir, request.getFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(videoDir, request.getFilename())) {
                     throw new IllegalArgumentException("Audio file with name " + request.getFilename() + " already exists");
                 }
 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -256,7 +265,7 @@ public class VideoService {
 
     public java.io.File getVideoFileByFilename(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path videoPath = Path.of(uploadProperties.getDirectory(), filename);
+        Path videoPath = mediaLayout.locate(uploadProperties.getDirectory(), filename);
         if (!Files.exists(videoPath)) {
             throw new IllegalArgumentException("Video file not found: " + filename);
         }
@@ -265,7 +274,7 @@ public class VideoService {
 
     public org.springframework.core.io.Resource getVideoResource(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path videoPath = Path.of(uploadProperties.getDirectory(), filename);
+        Path videoPath = mediaLayout.locate(uploadProperties.getDirectory(), filename);
         if (!Files.exists(videoPath)) {
             throw new IllegalArgumentException("Video file not found: " + filename);
         }
@@ -275,7 +284,7 @@ public class VideoService {
 
     public java.io.File getCoverImageFileByFilename(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path coverPath = Path.of(uploadProperties.getDirectory(), "cover-images", filename);
+        Path coverPath = mediaLayout.locate(Path.of(uploadProperties.getDirectory(), "cover-images"), filename);
         if (!Files.exists(coverPath)) {
             throw new IllegalArgumentException("Cover image file not found: " + filename);
         }
@@ -322,16 +331,4 @@ public class VideoService {
         if (v.getUpdatedAt() != null) r.setUpdatedAt(v.getUpdatedAt().toString());
         return r;
     }
-
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType());
-        resized.getGraphics().drawImage(image, 0, 0, newWidth, newHeight, null);
-        return resized;
-    }
 }
@@ -0,0 +1,24 @@
+package org.ganjp.blog.common.aspect;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs methods annotated with {@link org.ganjp.blog.common.concurrent.CpuBoundImageWork} on the image bulkhead.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ImageWorkAspect {
+
+    private final Bulkheads bulkheads;
+
+    @Around("@annotation(org.ganjp.blog.common.concurrent.CpuBoundImageWork)")
+    public Object runOnImageBulkhead(ProceedingJoinPoint joinPoint) throws Throwable {
+        return bulkheads.image().call(joinPoint::proceed);
+    }
+}
@@ -1,5 +1,7 @@
 package org.ganjp.blog.common.aspect;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
@@ -8,19 +10,29 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.ganjp.blog.common.config.LoggingConfig;
-import org.ganjp.blog.common.util.RequestUtils;
+import org.ganjp.blog.common.config.MethodLoggingProperties;
+import org.ganjp.blog.common.filter.PublicAssetLaneFilter;
 import org.slf4j.MDC;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Aspect for logging method execution details.
- * Adds entry/exit logging for services and controllers with timing information.
- * Also captures exceptions and enhances logs with request/user context.
+ * Aspect for instrumenting services and controllers.
+ * In METRICS mode (default) every call is recorded in a per-method latency timer and only slow calls
+ * are logged, at most once per interval per method. VERBOSE mode adds entry/exit logging with
+ * request/user context and is intended for debugging only. Exceptions are logged in both modes.
+ * Requests on the public asset lane (see PublicAssetLaneFilter) are not instrumented.
  */
 @Aspect
 @Component
@@ -28,6 +40,13 @@ import java.util.Arrays;
 @RequiredArgsConstructor
 public class LoggingAspect {
 
+    private static final String BASE_PACKAGE = "org.ganjp.blog.";
+
+    private final MethodLoggingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, MethodStats> methodStats = new ConcurrentHashMap<>();
+
     /**
      * Pointcut for all service methods, excluding AuditService to prevent circular dependencies
      */
@@ -47,7 +66,7 @@ public class LoggingAspect {
      */
     @Around("servicePointcut()")
     public Object logAroundService(ProceedingJoinPoint joinPoint) throws Throwable {
-        return logMethodExecution(joinPoint, "Service");
+        return instrument(joinPoint, "Service");
     }
 
     /**
@@ -55,7 +74,7 @@ public class LoggingAspect {
      */
     @Around("controllerPointcut()")
     public Object logAroundController(ProceedingJoinPoint joinPoint) throws Throwable {
-        return logMethodExecution(joinPoint, "Controller");
+        return instrument(joinPoint, "Controller");
     }
 
     /**
@@ -63,6 +82,14 @@ public class LoggingAspect {
      */
     @AfterThrowing(pointcut = "servicePointcut() || controllerPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
+        if (properties.getMode() != MethodLoggingProperties.Mode.VERBOSE) {
+            log.error("Exception in {}.{}() with message: {}",
+                    joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(),
+                    e.getMessage() != null ? e.getMessage() : "NULL");
+            return;
+        }
+
         // Get authenticated user if any
         String username = extractUsername();
         String userId = extractUserId();
@@ -83,9 +110,85 @@ public class LoggingAspect {
     }
     
     /**
-     * Helper method to log method execution with timing
+     * Record the call in the method's timer, logging it according to the configured mode
      */
-    private Object logMethodExecution(ProceedingJoinPoint joinPoint, String type) throws Throwable {
+    private Object instrument(ProceedingJoinPoint joinPoint, String type) throws Throwable {
+        MethodLoggingProperties.Mode mode = properties.getMode();
+        if (mode == MethodLoggingProperties.Mode.OFF || PublicAssetLaneFilter.isActive()) {
+            return joinPoint.proceed();
+        }
+        MethodStats stats = statsFor(joinPoint, type);
+        if (!stats.enabled) {
+            return joinPoint.proceed();
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = mode == MethodLoggingProperties.Mode.VERBOSE
+                    ? logMethodExecution(joinPoint)
+                    : joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            (failed ? stats.errorTimer : stats.successTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (mode == MethodLoggingProperties.Mode.METRICS) {
+                reportIfSlow(stats, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+        }
+    }
+
+    /**
+     * Log a slow call, sampled to at most one line per interval per method
+     */
+    private void reportIfSlow(MethodStats stats, long elapsedMs) {
+        if (elapsedMs < properties.getSlowThresholdMs()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long last = stats.lastSlowLog.get();
+        if (now - last >= properties.getSlowLogIntervalMs() && stats.lastSlowLog.compareAndSet(last, now)) {
+            long suppressed = stats.suppressedSlowCalls.getAndSet(0);
+            log.warn("Slow call: {}.{}() took {}ms (threshold {}ms, {} more slow calls since last report)",
+                    stats.className, stats.methodName, elapsedMs, properties.getSlowThresholdMs(), suppressed);
+        } else {
+            stats.suppressedSlowCalls.incrementAndGet();
+        }
+    }
+
+    private MethodStats statsFor(ProceedingJoinPoint joinPoint, String type) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodStats stats = methodStats.get(method);
+        if (stats == null) {
+            stats = methodStats.computeIfAbsent(method, key -> new MethodStats(
+                    joinPoint.getSignature().getDeclaringTypeName(), key.getName(), type));
+        }
+        return stats;
+    }
+
+    /**
+     * Whether instrumentation is enabled for a class, using the longest matching package switch
+     */
+    private boolean isPackageEnabled(String className) {
+        if (!className.startsWith(BASE_PACKAGE)) {
+            return true;
+        }
+        String relativeName = className.substring(BASE_PACKAGE.length());
+        String bestKey = null;
+        for (String key : properties.getPackages().keySet()) {
+            if ((relativeName.equals(key) || relativeName.startsWith(key + "."))
+                    && (bestKey == null || key.length() > bestKey.length())) {
+                bestKey = key;
+            }
+        }
+        return bestKey == null || !Boolean.FALSE.equals(properties.getPackages().get(bestKey));
+    }
+
+    /**
+     * Helper method to log method execution with timing (VERBOSE mode)
+     */
+    private Object logMethodExecution(ProceedingJoinPoint joinPoint) throws Throwable {
         // Get method signature for logging
         String className = joinPoint.getSignature().getDeclaringTypeName();
         String methodName = joinPoint.getSignature().getName();
@@ -160,4 +263,44 @@ public class LoggingAspect {
         }
         return null;
     }
+
+    /**
+     * Cached per-method timers and slow-call sampling state, so the hot path only does a map lookup
+     */
+    private final class MethodStats {
+        private final String className;
+        private final String methodName;
+        private final boolean enabled;
+        private final Timer successTimer;
+        private final Timer errorTimer;
+        private final AtomicLong lastSlowLog = new AtomicLong();
+        private final AtomicLong suppressedSlowCalls = new AtomicLong();
+
+        private MethodStats(String className, String methodName, String type) {
+            this.className = className;
+            this.methodName = methodName;
+            this.enabled = isPackageEnabled(className);
+            this.successTimer = enabled ? timer(type, "success") : null;
+            this.errorTimer = enabled ? timer(type, "error") : null;
+        }
+
+        private Timer timer(String type, String outcome) {
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            boolean percentiles = properties.getHistogramMethods().contains(simpleName)
+                    || properties.getHistogramMethods().contains(simpleName + "." + methodName);
+            Timer.Builder builder = Timer.builder("method.execution")
+                    .description("Execution time of service and controller methods")
+                    .tag("class", simpleName)
+                    .tag("method", methodName)
+                    .tag("layer", type.toLowerCase())
+                    .tag("outcome", outcome);
+            if (properties.isHistogram()) {
+                builder.serviceLevelObjectives(properties.getHistogramBuckets().toArray(Duration[]::new))
+                        .publishPercentileHistogram(percentiles)
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(30));
+            }
+            return builder.register(meterRegistry);
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package org.ganjp.blog.common.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.ganjp.blog.common.trace.RequestTrace;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Attributes time spent in Spring Data repository calls to the "db" phase of the request trace.
+ * Only registered while the flight recorder is enabled, so repositories are not proxied otherwise.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "flight-recorder", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryTraceAspect {
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (RequestTrace.Phase ignored = RequestTrace.phase("db")) {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -7,11 +7,13 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.ganjp.blog.common.audit.service.AuditService;
+import org.ganjp.blog.common.filter.PublicAssetLaneFilter;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * Aspect for auditing API calls.
@@ -19,7 +21,8 @@ import org.springframework.web.context.request.ServletRequestAttributes;
  * 
  * Note: Authentication endpoints (/auth/login, /auth/logout, /auth/signup, /auth/tokens) are excluded
  * from this aspect as they are specifically handled by AuthenticationAuditInterceptor
- * to prevent duplicate audit logging.
+ * to prevent duplicate audit logging. Requests on the public asset lane (see PublicAssetLaneFilter)
+ * are not audited either.
  */
 @Slf4j
 @Aspect
@@ -43,8 +46,12 @@ public class AuditAspect {
         }
         
         HttpServletRequest request = attributes.getRequest();
+        // Public asset hits are counted by AssetMetricsFilter rather than audited one row each
+        if (PublicAssetLaneFilter.isActive(request)) {
+            return joinPoint.proceed();
+        }
         String httpMethod = request.getMethod();
-        String endpoint = request.getRequestURI();
+        String endpoint = resolveEndpoint(request);
         
         // Skip authentication endpoints as they are handled by AuthenticationAuditInterceptor
         if (isAuthenticationEndpoint(endpoint)) {
@@ -111,6 +118,18 @@ public class AuditAspect {
         }
     }
 
+    /**
+     * Templated route pattern of the matched handler (e.g. /blog/v1/images/{id}), falling back to the raw URI.
+     * Route patterns keep the endpoint dictionary small; IDs are recorded separately as resourceId.
+     */
+    private String resolveEndpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern instanceof String routePattern) {
+            return request.getContextPath() + routePattern;
+        }
+        return request.getRequestURI();
+    }
+
     /**
      * Extract result message from response data and status code
      */
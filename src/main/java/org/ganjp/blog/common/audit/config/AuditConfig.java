@@ -1,14 +1,21 @@
 package org.ganjp.blog.common.audit.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.ganjp.blog.common.audit.interceptor.AuthenticationAuditInterceptor;
+import org.ganjp.blog.common.config.AsyncLoggerConfig;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -38,21 +45,42 @@ public class AuditConfig implements WebMvcConfigurer {
     /**
      * Configure async executor for audit logging to prevent blocking main threads
      * Also serves as the primary task executor for all async operations
+     * With spring.threads.virtual.enabled each audit write runs on its own virtual thread
+     * Writes beyond the pool's threads and queue are rejected rather than run on the request thread
      */
     @Bean(name = "auditTaskExecutor")
     @Primary
-    public Executor auditTaskExecutor() {
+    public Executor auditTaskExecutor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
         AuditProperties.ThreadPoolConfig config = auditProperties.getThreadPool();
-        
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(config.getThreadNamePrefix());
+            executor.setVirtualThreads(true);
+            // Admit as many writes as the platform pool runs and queues; beyond that the write is rejected
+            executor.setConcurrencyLimit(config.getMaxPoolSize() + config.getQueueCapacity());
+            executor.setRejectTasksWhenLimitReached(true);
+            executor.setTaskDecorator(new AsyncLoggerConfig.MdcContextDecorator());
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(config.getCorePoolSize());
         executor.setMaxPoolSize(config.getMaxPoolSize());
         executor.setQueueCapacity(config.getQueueCapacity());
         executor.setThreadNamePrefix(config.getThreadNamePrefix());
         executor.setKeepAliveSeconds(config.getKeepAliveSeconds());
+        executor.setTaskDecorator(new AsyncLoggerConfig.MdcContextDecorator());
+        // When saturated the write is rejected; AuditService journals or drops it, never running it on the caller
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.initialize();
+
+        // Pending audit writes waiting for a worker thread
+        meterRegistry.ifAvailable(registry -> Gauge.builder("audit.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Audit events queued for asynchronous persistence")
+                .register(registry));
         return executor;
     }
 
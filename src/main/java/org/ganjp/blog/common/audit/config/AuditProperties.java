@@ -82,6 +82,26 @@ public class AuditProperties {
      */
     private int maxFailedAttemptsPerMinute = 10;
 
+    /**
+     * Streaming export configuration
+     */
+    private ExportConfig export = new ExportConfig();
+
+    /**
+     * Local write-ahead journal configuration
+     */
+    private JournalConfig journal = new JournalConfig();
+
+    /**
+     * In-memory recent event buffer and live tail configuration
+     */
+    private TailConfig tail = new TailConfig();
+
+    /**
+     * Dictionary encoding configuration for repeating audit columns
+     */
+    private DictionaryConfig dictionary = new DictionaryConfig();
+
     @Data
     public static class ThreadPoolConfig {
         private int corePoolSize = 2;
@@ -90,4 +110,76 @@ public class AuditProperties {
         private int keepAliveSeconds = 60;
         private String threadNamePrefix = "audit-";
     }
+
+    @Data
+    public static class ExportConfig {
+        /**
+         * Rows fetched per keyset batch; bounds heap use regardless of export size
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Async timeout applied to the export response only; other async requests keep the default
+         */
+        private long timeoutMs = 1_800_000L;
+
+        /**
+         * Exports allowed to stream at once; they share the MVC async (stream) pool with media responses
+         */
+        private int maxConcurrent = 2;
+    }
+
+    @Data
+    public static class JournalConfig {
+        /**
+         * Whether audit events are appended to the local journal and replayed into the database
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding journal segments and the replay checkpoint
+         */
+        private String directory = "audit-journal";
+
+        /**
+         * Size of each memory-mapped segment file in bytes
+         */
+        private int segmentSizeBytes = 16 * 1024 * 1024;
+
+        /**
+         * Number of events written to the database per replay transaction
+         */
+        private int replayBatchSize = 500;
+
+        /**
+         * Delay between replay runs in milliseconds
+         */
+        private long replayIntervalMs = 1000;
+    }
+
+    @Data
+    public static class TailConfig {
+        /**
+         * Number of most recent audit events kept in memory
+         */
+        private int bufferSize = 1000;
+
+        /**
+         * Maximum number of concurrent live tail (SSE) subscribers
+         */
+        private int maxSubscribers = 20;
+
+        /**
+         * Live tail connection timeout in milliseconds
+         */
+        private long emitterTimeoutMs = 30 * 60 * 1000L;
+    }
+
+    @Data
+    public static class DictionaryConfig {
+        /**
+         * Maximum number of dictionary values cached in memory per direction (value to id, id to value)
+         */
+        private int cacheSize = 10000;
+    }
 }
@@ -1,18 +1,30 @@
 package org.ganjp.blog.common.audit.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 import org.ganjp.blog.cms.model.dto.ArticleResponse;
+import org.ganjp.blog.common.audit.config.AuditProperties;
 import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.model.enums.AuditExportFormat;
+import org.ganjp.blog.common.audit.service.AuditExportService;
 import org.ganjp.blog.common.audit.service.AuditQueryService;
+import org.ganjp.blog.common.audit.service.AuditTailService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -31,6 +43,9 @@ import java.util.Map;
 public class AuditController {
 
     private final AuditQueryService auditQueryService;
+    private final AuditExportService auditExportService;
+    private final AuditTailService auditTailService;
+    private final AuditProperties auditProperties;
 
     /**
      * Get audit logs with pagination and filtering
@@ -121,10 +136,8 @@ public class AuditController {
             @PathVariable String resourceId,
             Pageable pageable) {
 
-        // Use endpoint pattern to find logs for specific resource
-        String endpointPattern = "/" + resourceType + "/" + resourceId;
-        Page<AuditLog> auditLogs = auditQueryService.findAuditLogs(
-                null, null, null, endpointPattern, null, null, pageable);
+        // Endpoints are stored as route patterns, so match the resource type in the pattern and the ID path variable
+        Page<AuditLog> auditLogs = auditQueryService.findAuditLogsByResource(resourceType, resourceId, pageable);
         return ResponseEntity.ok(ApiResponse.success(PaginatedResponse.of(auditLogs), "Resource audit logs retrieved successfully"));
     }
 
@@ -141,14 +154,84 @@ public class AuditController {
     }
 
     /**
-     * Get recent audit logs (last 24 hours)
+     * Get recent audit logs (last 24 hours, newest first, at most the in-memory buffer size)
      */
     @GetMapping("/recent")
-    public ResponseEntity<ApiResponse<List<AuditLog>>> getRecentAuditLogs() {
-        List<AuditLog> recentLogs = auditQueryService.findRecentAuditLogs();
+    public ResponseEntity<ApiResponse<List<AuditLog>>> getRecentAuditLogs(
+            @RequestParam(defaultValue = "200") int limit) {
+        List<AuditLog> recentLogs = auditQueryService.findRecentAuditLogs(limit);
         return ResponseEntity.ok(ApiResponse.success(recentLogs, "Recent audit logs retrieved successfully"));
     }
 
+    /**
+     * Live tail of audit events as server-sent events (event name "audit").
+     * statusClass accepts 2, 3, 4 or 5 (also "4xx"); replay sends up to that many buffered events first.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAuditLogs(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String ipAddress,
+            @RequestParam(required = false) String statusClass,
+            @RequestParam(defaultValue = "0") int replay) {
+
+        AuditTailService.Filter filter = new AuditTailService.Filter(userId, username, ipAddress, statusClass);
+        return auditTailService.subscribe(filter, replay);
+    }
+
+    /**
+     * Stream audit logs for compliance export (CSV or NDJSON, optionally gzip-compressed).
+     * Rows are read in keyset batches and written directly to the response, so the export
+     * size is not limited by heap. The long async timeout is set on this response only, and at most
+     * audit.export.max-concurrent exports stream at once.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        AuditExportFormat exportFormat = AuditExportFormat.fromParameter(format);
+
+        LocalDateTime effectiveStartTime = startTime;
+        LocalDateTime effectiveEndTime = endTime;
+        if (effectiveStartTime == null) {
+            effectiveStartTime = startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusDays(1);
+        }
+        if (effectiveEndTime == null) {
+            effectiveEndTime = endDate != null ? endDate.atTime(LocalTime.MAX) : LocalDateTime.now();
+        }
+        if (effectiveEndTime.isBefore(effectiveStartTime)) {
+            throw new IllegalArgumentException("endTime must not be before startTime");
+        }
+
+        final LocalDateTime exportStart = effectiveStartTime;
+        final LocalDateTime exportEnd = effectiveEndTime;
+        StreamingResponseBody body = outputStream ->
+                auditExportService.export(exportStart, exportEnd, exportFormat, gzip, outputStream);
+
+        String filename = "audit-logs-" + exportStart.toLocalDate() + "-" + exportEnd.toLocalDate()
+                + "." + exportFormat.getFileExtension() + (gzip ? ".gz" : "");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+        } else {
+            headers.setContentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"));
+        }
+
+        auditExportService.acquireSlot();
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        asyncWebRequest.setTimeout(auditProperties.getExport().getTimeoutMs());
+        // Runs once the async response ends, whether it completed, failed, timed out or was rejected
+        asyncWebRequest.addCompletionHandler(auditExportService::releaseSlot);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
     /**
      * Get audit statistics for dashboard
      */
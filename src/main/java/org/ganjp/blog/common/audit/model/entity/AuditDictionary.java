@@ -0,0 +1,65 @@
+package org.ganjp.blog.common.audit.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ganjp.blog.common.audit.model.enums.AuditDictionaryType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an interned audit value.
+ * audit_logs stores the numeric ID of each distinct HTTP method, endpoint, result and user agent
+ * instead of repeating the string on every row.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audit_dictionary", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_audit_dictionary_type_hash", columnNames = {"type", "value_hash"})
+})
+public class AuditDictionary {
+
+    /**
+     * Numeric identifier referenced from audit_logs
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    /**
+     * Kind of value
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 20, nullable = false)
+    private AuditDictionaryType type;
+
+    /**
+     * SHA-256 hex digest of the value, used for the unique lookup since values can exceed index limits
+     */
+    @Column(name = "value_hash", columnDefinition = "CHAR(64)", nullable = false)
+    private String valueHash;
+
+    /**
+     * The interned value
+     */
+    @Column(name = "value", columnDefinition = "TEXT", nullable = false)
+    private String value;
+
+    /**
+     * Timestamp when the value was first seen
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
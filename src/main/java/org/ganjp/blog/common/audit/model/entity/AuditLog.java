@@ -1,5 +1,6 @@
 package org.ganjp.blog.common.audit.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,6 +13,8 @@ import java.time.LocalDateTime;
  * Entity representing audit logs for API operations.
  * Tracks all non-GET API calls for security and compliance purposes.
  * Simplified schema focusing on essential tracking information.
+ * HTTP method, endpoint, result and user agent are stored as audit_dictionary IDs;
+ * their string values are transient and filled by AuditDictionaryService.
  */
 @Data
 @Builder
@@ -21,8 +24,9 @@ import java.time.LocalDateTime;
 @Table(name = "audit_logs", indexes = {
     @Index(name = "idx_audit_user_id", columnList = "user_id"),
     @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
-    @Index(name = "idx_audit_result", columnList = "result"),
-    @Index(name = "idx_audit_endpoint", columnList = "endpoint"),
+    @Index(name = "idx_audit_result", columnList = "result_id"),
+    @Index(name = "idx_audit_endpoint", columnList = "endpoint_id"),
+    @Index(name = "idx_audit_endpoint_resource", columnList = "endpoint_id, resource_id"),
     @Index(name = "idx_audit_request_id", columnList = "request_id"),
     @Index(name = "idx_audit_user_timestamp", columnList = "user_id, timestamp"),
     @Index(name = "idx_audit_ip_address", columnList = "ip_address"),
@@ -52,15 +56,35 @@ public class AuditLog {
     /**
      * HTTP method of the request (POST, PUT, PATCH, DELETE, etc.)
      */
-    @Column(name = "http_method", length = 10, nullable = false)
+    @Transient
     private String httpMethod;
 
     /**
-     * API endpoint that was called
+     * Dictionary ID of the HTTP method
      */
-    @Column(name = "endpoint", length = 255, nullable = false)
+    @JsonIgnore
+    @Column(name = "http_method_id", nullable = false)
+    private Integer httpMethodId;
+
+    /**
+     * API endpoint that was called, as a templated route pattern
+     */
+    @Transient
     private String endpoint;
 
+    /**
+     * Dictionary ID of the endpoint
+     */
+    @JsonIgnore
+    @Column(name = "endpoint_id", nullable = false)
+    private Integer endpointId;
+
+    /**
+     * ID path variable of the called endpoint, if any
+     */
+    @Column(name = "resource_id", length = 36)
+    private String resourceId;
+
     /**
      * Request ID from response meta for tracing
      */
@@ -70,9 +94,16 @@ public class AuditLog {
     /**
      * Result message from response status.message (changed from enum to varchar)
      */
-    @Column(name = "result", length = 100, nullable = false)
+    @Transient
     private String result;
 
+    /**
+     * Dictionary ID of the result message
+     */
+    @JsonIgnore
+    @Column(name = "result_id", nullable = false)
+    private Integer resultId;
+
     /**
      * HTTP status code of the response
      */
@@ -94,9 +125,16 @@ public class AuditLog {
     /**
      * User agent string from the request
      */
-    @Column(name = "user_agent", columnDefinition = "TEXT")
+    @Transient
     private String userAgent;
 
+    /**
+     * Dictionary ID of the user agent
+     */
+    @JsonIgnore
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
+
     /**
      * Session ID if available
      */
@@ -0,0 +1,26 @@
+package org.ganjp.blog.common.audit.model.enums;
+
+/**
+ * Kinds of repeating audit values interned in the audit_dictionary table.
+ */
+public enum AuditDictionaryType {
+    /**
+     * HTTP method (GET, POST, PUT, PATCH, DELETE, ...)
+     */
+    HTTP_METHOD,
+
+    /**
+     * Templated route pattern, e.g. /blog/v1/images/{id}
+     */
+    ENDPOINT,
+
+    /**
+     * Result message from response status.message
+     */
+    RESULT,
+
+    /**
+     * Client user agent string
+     */
+    USER_AGENT
+}
@@ -0,0 +1,47 @@
+package org.ganjp.blog.common.audit.model.enums;
+
+/**
+ * Output formats supported by the streaming audit export.
+ */
+public enum AuditExportFormat {
+    /**
+     * Comma separated values with a header row (RFC 4180 quoting)
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * Newline delimited JSON, one audit log object per line
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    AuditExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Resolve a format from a request parameter, defaulting to CSV
+     */
+    public static AuditExportFormat fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        for (AuditExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
@@ -0,0 +1,20 @@
+package org.ganjp.blog.common.audit.repository;
+
+import org.ganjp.blog.common.audit.model.entity.AuditDictionary;
+import org.ganjp.blog.common.audit.model.enums.AuditDictionaryType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for AuditDictionary entity.
+ */
+@Repository
+public interface AuditDictionaryRepository extends JpaRepository<AuditDictionary, Integer> {
+
+    /**
+     * Find an interned value by type and value hash
+     */
+    Optional<AuditDictionary> findByTypeAndValueHash(AuditDictionaryType type, String valueHash);
+}
@@ -19,6 +19,14 @@ import java.util.List;
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
 
+    /**
+     * Dictionary lookups for the interned columns, used as IN subqueries so filters keep matching on values
+     */
+    String DICTIONARY = "SELECT d.id FROM AuditDictionary d WHERE d.type = org.ganjp.blog.common.audit.model.enums.AuditDictionaryType.";
+    String HTTP_METHOD_IDS = DICTIONARY + "HTTP_METHOD";
+    String ENDPOINT_IDS = DICTIONARY + "ENDPOINT";
+    String RESULT_IDS = DICTIONARY + "RESULT";
+
     /**
      * Find audit logs by user ID
      */
@@ -37,18 +45,19 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
     /**
      * Find audit logs by HTTP method
      */
-    Page<AuditLog> findByHttpMethodOrderByTimestampDesc(String httpMethod, Pageable pageable);
+    @Query("SELECT a FROM AuditLog a WHERE a.httpMethodId IN (" + HTTP_METHOD_IDS + " AND d.value = :httpMethod) ORDER BY a.timestamp DESC")
+    Page<AuditLog> findByHttpMethodOrderByTimestampDesc(@Param("httpMethod") String httpMethod, Pageable pageable);
 
     /**
      * Find audit logs by result message (like pattern)
      */
-    @Query("SELECT a FROM AuditLog a WHERE a.result LIKE %:resultPattern% ORDER BY a.timestamp DESC")
+    @Query("SELECT a FROM AuditLog a WHERE a.resultId IN (" + RESULT_IDS + " AND d.value LIKE %:resultPattern%) ORDER BY a.timestamp DESC")
     Page<AuditLog> findByResultContaining(@Param("resultPattern") String resultPattern, Pageable pageable);
 
     /**
      * Find failed operations for a specific user (based on result message patterns)
      */
-    @Query("SELECT a FROM AuditLog a WHERE a.userId = :userId AND (a.result LIKE '%failed%' OR a.result LIKE '%error%' OR a.errorMessage IS NOT NULL) ORDER BY a.timestamp DESC")
+    @Query("SELECT a FROM AuditLog a WHERE a.userId = :userId AND (a.resultId IN (" + RESULT_IDS + " AND (d.value LIKE '%failed%' OR d.value LIKE '%error%')) OR a.errorMessage IS NOT NULL) ORDER BY a.timestamp DESC")
     Page<AuditLog> findFailedOperationsByUser(@Param("userId") String userId, Pageable pageable);
 
     /**
@@ -60,6 +69,37 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
             @Param("endTime") LocalDateTime endTime,
             Pageable pageable);
 
+    /**
+     * First keyset batch for streaming export, ordered by (timestamp, id).
+     * InnoDB secondary indexes carry the primary key, so idx_audit_timestamp serves this order.
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :startTime AND a.timestamp <= :endTime ORDER BY a.timestamp ASC, a.id ASC")
+    List<AuditLog> findExportBatch(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            Pageable pageable);
+
+    /**
+     * Next keyset batch for streaming export, continuing strictly after the last (timestamp, id) seen
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp <= :endTime AND " +
+           "(a.timestamp > :lastTimestamp OR (a.timestamp = :lastTimestamp AND a.id > :lastId)) " +
+           "ORDER BY a.timestamp ASC, a.id ASC")
+    List<AuditLog> findExportBatchAfter(
+            @Param("endTime") LocalDateTime endTime,
+            @Param("lastTimestamp") LocalDateTime lastTimestamp,
+            @Param("lastId") String lastId,
+            Pageable pageable);
+
+    /**
+     * Find audit logs for a resource by endpoint pattern and ID path variable
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.resourceId = :resourceId AND a.endpointId IN (" + ENDPOINT_IDS + " AND d.value LIKE %:endpointPattern%) ORDER BY a.timestamp DESC")
+    Page<AuditLog> findByResource(
+            @Param("endpointPattern") String endpointPattern,
+            @Param("resourceId") String resourceId,
+            Pageable pageable);
+
     /**
      * Find audit logs by IP address
      */
@@ -69,25 +109,21 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
      * Count failed login attempts for a user within a time period
      * Updated to work with simplified schema
      */
-    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.userId = :userId AND a.endpoint LIKE '%/auth/login%' AND (a.result LIKE '%failed%' OR a.statusCode = 401) AND a.timestamp >= :since")
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.userId = :userId AND a.endpointId IN (" + ENDPOINT_IDS + " AND d.value LIKE '%/auth/login%') AND " +
+           "(a.resultId IN (" + RESULT_IDS + " AND d.value LIKE '%failed%') OR a.statusCode = 401) AND a.timestamp >= :since")
     long countFailedLoginAttempts(@Param("userId") String userId, @Param("since") LocalDateTime since);
 
     /**
      * Count failed login attempts from an IP address within a time period
      */
-    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.ipAddress = :ipAddress AND a.endpoint LIKE '%/auth/login%' AND (a.result LIKE '%failed%' OR a.statusCode = 401) AND a.timestamp >= :since")
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.ipAddress = :ipAddress AND a.endpointId IN (" + ENDPOINT_IDS + " AND d.value LIKE '%/auth/login%') AND " +
+           "(a.resultId IN (" + RESULT_IDS + " AND d.value LIKE '%failed%') OR a.statusCode = 401) AND a.timestamp >= :since")
     long countFailedLoginAttemptsByIp(@Param("ipAddress") String ipAddress, @Param("since") LocalDateTime since);
 
-    /**
-     * Find recent audit logs (last 24 hours)
-     */
-    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :since ORDER BY a.timestamp DESC")
-    List<AuditLog> findRecentAuditLogs(@Param("since") LocalDateTime since);
-
     /**
      * Count operations by user and endpoint pattern within a time period
      */
-    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.userId = :userId AND a.endpoint LIKE :endpointPattern AND a.timestamp >= :since")
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.userId = :userId AND a.endpointId IN (" + ENDPOINT_IDS + " AND d.value LIKE :endpointPattern) AND a.timestamp >= :since")
     long countOperationsByUserAndEndpoint(
             @Param("userId") String userId,
             @Param("endpointPattern") String endpointPattern,
@@ -98,9 +134,9 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
      */
     @Query("SELECT a FROM AuditLog a WHERE " +
            "(:userId IS NULL OR a.userId = :userId) AND " +
-           "(:httpMethod IS NULL OR a.httpMethod = :httpMethod) AND " +
-           "(:resultPattern IS NULL OR a.result LIKE %:resultPattern%) AND " +
-           "(:endpointPattern IS NULL OR a.endpoint LIKE %:endpointPattern%) AND " +
+           "(:httpMethod IS NULL OR a.httpMethodId IN (" + HTTP_METHOD_IDS + " AND d.value = :httpMethod)) AND " +
+           "(:resultPattern IS NULL OR a.resultId IN (" + RESULT_IDS + " AND d.value LIKE %:resultPattern%)) AND " +
+           "(:endpointPattern IS NULL OR a.endpointId IN (" + ENDPOINT_IDS + " AND d.value LIKE %:endpointPattern%)) AND " +
            "(:startTime IS NULL OR a.timestamp >= :startTime) AND " +
            "(:endTime IS NULL OR a.timestamp <= :endTime) " +
            "ORDER BY a.timestamp DESC")
@@ -119,9 +155,9 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
     @Query("SELECT a FROM AuditLog a WHERE " +
            "(:userId IS NULL OR a.userId = :userId) AND " +
            "(:username IS NULL OR a.username LIKE %:username%) AND " +
-           "(:httpMethod IS NULL OR a.httpMethod = :httpMethod) AND " +
-           "(:endpoint IS NULL OR a.endpoint LIKE %:endpoint%) AND " +
-           "(:result IS NULL OR a.result LIKE %:result%) AND " +
+           "(:httpMethod IS NULL OR a.httpMethodId IN (" + HTTP_METHOD_IDS + " AND d.value = :httpMethod)) AND " +
+           "(:endpoint IS NULL OR a.endpointId IN (" + ENDPOINT_IDS + " AND d.value LIKE %:endpoint%)) AND " +
+           "(:result IS NULL OR a.resultId IN (" + RESULT_IDS + " AND d.value LIKE %:result%)) AND " +
            "(:statusCode IS NULL OR a.statusCode = :statusCode) AND " +
            "(:ipAddress IS NULL OR a.ipAddress = :ipAddress) AND " +
            "(:minDurationMs IS NULL OR a.durationMs >= :minDurationMs) AND " +
@@ -157,9 +193,9 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
     long countTotalAuditLogs();
 
     /**
-     * Get audit log statistics for dashboard (simplified)
+     * Get audit log statistics for dashboard (simplified), grouped by HTTP method and result dictionary IDs
      */
-    @Query("SELECT a.httpMethod, a.result, COUNT(a) FROM AuditLog a WHERE a.timestamp >= :since GROUP BY a.httpMethod, a.result")
+    @Query("SELECT a.httpMethodId, a.resultId, COUNT(a) FROM AuditLog a WHERE a.timestamp >= :since GROUP BY a.httpMethodId, a.resultId")
     List<Object[]> getAuditStatistics(@Param("since") LocalDateTime since);
     
     /**
@@ -180,6 +216,6 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
     /**
      * Count operations by endpoint within a time period
      */
-    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.endpoint = :endpoint AND a.timestamp >= :since")
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.endpointId IN (" + ENDPOINT_IDS + " AND d.value = :endpoint) AND a.timestamp >= :since")
     long countOperationsByEndpoint(@Param("endpoint") String endpoint, @Param("since") LocalDateTime since);
 }
@@ -0,0 +1,51 @@
+package org.ganjp.blog.common.audit.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.repository.AuditLogRepository;
+import org.ganjp.blog.common.audit.service.AuditDictionaryService;
+import org.ganjp.blog.common.audit.service.AuditJournal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the local audit journal into audit_logs.
+ * While the database is unavailable batches stay in the journal and are retried on the next run;
+ * replay is idempotent because journal entries carry their pre-assigned IDs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "audit.journal.enabled", havingValue = "true")
+public class AuditJournalReplayer {
+
+    private final AuditJournal auditJournal;
+    private final AuditLogRepository auditLogRepository;
+    private final AuditDictionaryService auditDictionaryService;
+    private final AuditProperties auditProperties;
+
+    @Scheduled(fixedDelayString = "${audit.journal.replay-interval-ms:1000}")
+    public void replay() {
+        int batchSize = Math.max(1, auditProperties.getJournal().getReplayBatchSize());
+        auditJournal.flush();
+        try {
+            while (true) {
+                AuditJournal.ReplayBatch batch = auditJournal.readBatch(batchSize);
+                if (!batch.isEmpty()) {
+                    batch.getLogs().forEach(auditDictionaryService::encode);
+                    auditLogRepository.saveAll(batch.getLogs());
+                    log.debug("Replayed {} audit events from journal", batch.getLogs().size());
+                }
+                auditJournal.commit(batch);
+                if (batch.getLogs().size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Audit journal replay paused, will retry (pending {} bytes, lag {} ms): {}",
+                    auditJournal.getPendingBytes(), auditJournal.getReplayLagMillis(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.ganjp.blog.common.audit.service;
+
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditDictionary;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.model.enums.AuditDictionaryType;
+import org.ganjp.blog.common.audit.repository.AuditDictionaryRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interns repeating audit values (HTTP method, endpoint, result, user agent) in audit_dictionary.
+ * Writers translate values to numeric IDs through an in-memory cache, so after warm-up the write path
+ * adds no database round trips; readers translate IDs back to values the same way.
+ */
+@Component
+public class AuditDictionaryService {
+
+    private final AuditDictionaryRepository auditDictionaryRepository;
+    private final TransactionTemplate insertTransaction;
+
+    private final LruCache<Key, Integer> idCache;
+    private final LruCache<Integer, String> valueCache;
+
+    public AuditDictionaryService(AuditDictionaryRepository auditDictionaryRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  AuditProperties auditProperties) {
+        this.auditDictionaryRepository = auditDictionaryRepository;
+        this.insertTransaction = new TransactionTemplate(transactionManager);
+        this.insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int cacheSize = Math.max(1, auditProperties.getDictionary().getCacheSize());
+        this.idCache = new LruCache<>(cacheSize);
+        this.valueCache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Set the dictionary IDs of an audit log from its string values before it is written
+     */
+    public void encode(AuditLog auditLog) {
+        auditLog.setHttpMethodId(idFor(AuditDictionaryType.HTTP_METHOD, auditLog.getHttpMethod()));
+        auditLog.setEndpointId(idFor(AuditDictionaryType.ENDPOINT, auditLog.getEndpoint()));
+        auditLog.setResultId(idFor(AuditDictionaryType.RESULT, auditLog.getResult()));
+        auditLog.setUserAgentId(idFor(AuditDictionaryType.USER_AGENT, auditLog.getUserAgent()));
+    }
+
+    /**
+     * Fill the string values of loaded audit logs from their dictionary IDs,
+     * fetching any uncached IDs in a single query. Values are resolved into a map local to the call,
+     * so cache eviction while the batch is decoded cannot drop a value it needs.
+     */
+    public <T extends Collection<AuditLog>> T decode(T auditLogs) {
+        Map<Integer, String> values = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (AuditLog auditLog : auditLogs) {
+            resolveCached(values, missing, auditLog.getHttpMethodId());
+            resolveCached(values, missing, auditLog.getEndpointId());
+            resolveCached(values, missing, auditLog.getResultId());
+            resolveCached(values, missing, auditLog.getUserAgentId());
+        }
+        if (!missing.isEmpty()) {
+            for (AuditDictionary entry : auditDictionaryRepository.findAllById(missing)) {
+                values.put(entry.getId(), entry.getValue());
+                cache(new Key(entry.getType(), entry.getValue()), entry.getId());
+            }
+        }
+        for (AuditLog auditLog : auditLogs) {
+            auditLog.setHttpMethod(valueFor(values, auditLog.getHttpMethodId()));
+            auditLog.setEndpoint(valueFor(values, auditLog.getEndpointId()));
+            auditLog.setResult(valueFor(values, auditLog.getResultId()));
+            auditLog.setUserAgent(valueFor(values, auditLog.getUserAgentId()));
+        }
+        return auditLogs;
+    }
+
+    /**
+     * Fill the string values of a single loaded audit log
+     */
+    public AuditLog decode(AuditLog auditLog) {
+        decode(List.of(auditLog));
+        return auditLog;
+    }
+
+    /**
+     * Resolve a dictionary ID to its value
+     */
+    public String valueOf(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String value = valueCache.get(id);
+        if (value == null) {
+            AuditDictionary entry = auditDictionaryRepository.findById(id).orElse(null);
+            if (entry == null) {
+                return null;
+            }
+            cache(new Key(entry.getType(), entry.getValue()), entry.getId());
+            value = entry.getValue();
+        }
+        return value;
+    }
+
+    /**
+     * Resolve a value to its dictionary ID, interning it on first use
+     */
+    public Integer idFor(AuditDictionaryType type, String value) {
+        if (value == null) {
+            return null;
+        }
+        Key key = new Key(type, value);
+        Integer id = idCache.get(key);
+        if (id != null) {
+            return id;
+        }
+        String hash = sha256(value);
+        id = auditDictionaryRepository.findByTypeAndValueHash(type, hash)
+                .map(AuditDictionary::getId)
+                .orElseGet(() -> insert(type, value, hash));
+        cache(key, id);
+        return id;
+    }
+
+    private Integer insert(AuditDictionaryType type, String value, String hash) {
+        try {
+            return insertTransaction.execute(status -> auditDictionaryRepository.save(AuditDictionary.builder()
+                    .type(type)
+                    .valueHash(hash)
+                    .value(value)
+                    .build()).getId());
+        } catch (DataIntegrityViolationException e) {
+            // Another writer interned the same value concurrently
+            return auditDictionaryRepository.findByTypeAndValueHash(type, hash)
+                    .map(AuditDictionary::getId)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private void resolveCached(Map<Integer, String> values, Set<Integer> missing, Integer id) {
+        if (id == null || values.containsKey(id) || missing.contains(id)) {
+            return;
+        }
+        String value = valueCache.get(id);
+        if (value != null) {
+            values.put(id, value);
+        } else {
+            missing.add(id);
+        }
+    }
+
+    private static String valueFor(Map<Integer, String> values, Integer id) {
+        return id != null ? values.get(id) : null;
+    }
+
+    private void cache(Key key, Integer id) {
+        idCache.put(key, id);
+        valueCache.put(id, key.value());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Key(AuditDictionaryType type, String value) {
+    }
+
+    /**
+     * Bounded least-recently-used map; values are low-cardinality in practice, so the bound only
+     * matters for unusual traffic such as many distinct user agents
+     */
+    private static final class LruCache<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, V> entries;
+
+        LruCache(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        V get(K key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(K key, V value) {
+            lock.lock();
+            try {
+                entries.put(key, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.ganjp.blog.common.audit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.model.enums.AuditExportFormat;
+import org.ganjp.blog.common.audit.repository.AuditLogRepository;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service for streaming audit log exports.
+ * Walks audit_logs in (timestamp, id) keyset order with a bounded batch size and writes
+ * each batch straight to the response stream, so heap use stays constant for any export size.
+ * Each batch is read in its own short read-only transaction, so a slow client holds neither a
+ * pooled connection nor a database snapshot while the stream is written.
+ */
+@Slf4j
+@Service
+public class AuditExportService {
+
+    private static final String[] CSV_HEADER = {
+            "id", "timestamp", "userId", "username", "httpMethod", "endpoint", "requestId", "result",
+            "statusCode", "errorMessage", "ipAddress", "userAgent", "sessionId", "durationMs"
+    };
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditProperties auditProperties;
+    private final ObjectMapper objectMapper;
+    private final AuditDictionaryService auditDictionaryService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+
+    private Semaphore slots;
+
+    public AuditExportService(AuditLogRepository auditLogRepository,
+                              AuditProperties auditProperties,
+                              ObjectMapper objectMapper,
+                              AuditDictionaryService auditDictionaryService,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditProperties = auditProperties;
+        this.objectMapper = objectMapper;
+        this.auditDictionaryService = auditDictionaryService;
+        this.entityManager = entityManager;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(Math.max(1, auditProperties.getExport().getMaxConcurrent()));
+    }
+
+    /**
+     * Reserve an export slot before the response starts streaming; release it with {@link #releaseSlot()}
+     *
+     * @throws ServiceBusyException if audit.export.max-concurrent exports are already running
+     */
+    public void acquireSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceBusyException("Too many audit exports in progress, please retry later");
+        }
+    }
+
+    public void releaseSlot() {
+        slots.release();
+    }
+
+    /**
+     * Stream audit logs between startTime and endTime (inclusive) to the given output stream
+     *
+     * @param startTime Start of the export window
+     * @param endTime End of the export window
+     * @param format Output format
+     * @param gzip Whether to gzip the output
+     * @param outputStream Target stream (not closed by this method)
+     * @return Number of rows written
+     */
+    public long export(LocalDateTime startTime, LocalDateTime endTime, AuditExportFormat format,
+                       boolean gzip, OutputStream outputStream) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzipStream != null ? gzipStream : outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        ObjectWriter jsonWriter = objectMapper.writerFor(AuditLog.class);
+        Pageable batch = PageRequest.of(0, Math.max(1, auditProperties.getExport().getBatchSize()));
+
+        if (format == AuditExportFormat.CSV) {
+            writeCsvRow(writer, CSV_HEADER);
+        }
+
+        long rows = 0;
+        List<AuditLog> logs = readBatch(() -> auditLogRepository.findExportBatch(startTime, endTime, batch));
+        while (!logs.isEmpty()) {
+            for (AuditLog auditLog : logs) {
+                if (format == AuditExportFormat.CSV) {
+                    writeCsvRow(writer, toCsvValues(auditLog));
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(auditLog));
+                    writer.write('\n');
+                }
+            }
+            rows += logs.size();
+            writer.flush();
+
+            AuditLog last = logs.get(logs.size() - 1);
+            if (logs.size() < batch.getPageSize()) {
+                break;
+            }
+            logs = readBatch(() -> auditLogRepository.findExportBatchAfter(endTime, last.getTimestamp(), last.getId(), batch));
+        }
+
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        log.info("Exported {} audit logs between {} and {} as {}{}", rows, startTime, endTime, format,
+                gzip ? " (gzip)" : "");
+        return rows;
+    }
+
+    /**
+     * Read and decode one batch in its own read-only transaction. The batch is detached afterwards, because
+     * open-in-view keeps one persistence context on the streaming thread for the whole export.
+     */
+    private List<AuditLog> readBatch(Supplier<List<AuditLog>> query) {
+        List<AuditLog> logs = readTransaction.execute(status -> {
+            List<AuditLog> batch = query.get();
+            auditDictionaryService.decode(batch);
+            return batch;
+        });
+        entityManager.clear();
+        return logs != null ? logs : List.of();
+    }
+
+    private String[] toCsvValues(AuditLog auditLog) {
+        return new String[]{
+                auditLog.getId(),
+                auditLog.getTimestamp() != null ? auditLog.getTimestamp().toString() : null,
+                auditLog.getUserId(),
+                auditLog.getUsername(),
+                auditLog.getHttpMethod(),
+                auditLog.getEndpoint(),
+                auditLog.getRequestId(),
+                auditLog.getResult(),
+                auditLog.getStatusCode() != null ? auditLog.getStatusCode().toString() : null,
+                auditLog.getErrorMessage(),
+                auditLog.getIpAddress(),
+                auditLog.getUserAgent(),
+                auditLog.getSessionId(),
+                auditLog.getDurationMs() != null ? auditLog.getDurationMs().toString() : null
+        };
+    }
+
+    /**
+     * Write one CSV row, quoting values that contain separators, quotes or line breaks
+     */
+    private void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            boolean quote = false;
+            for (int c = 0; c < value.length() && !quote; c++) {
+                char ch = value.charAt(c);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (quote) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,387 @@
+package org.ganjp.blog.common.audit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segment-rotated local journal for audit events.
+ * Events are appended to memory-mapped segment files so that writing an audit event never waits
+ * on the database. AuditJournalReplayer drains the journal into audit_logs in batches and advances
+ * a checkpoint; fully replayed segments are deleted.
+ *
+ * Record layout: [int payloadLength][int crc32(payload)][long appendedAtMillis][payload (JSON)].
+ * The length is written last, so a zero length marks the end of the written region and a record
+ * torn by a crash is detected by its checksum.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.journal.enabled", havingValue = "true")
+public class AuditJournal {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "replay.checkpoint";
+    private static final int HEADER_BYTES = 16;
+
+    private final AuditProperties.JournalConfig config;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Active segment, guarded by writeLock
+    private long activeSegmentId;
+    private MappedByteBuffer activeBuffer;
+    private int activeWritePosition;
+
+    // Replay position, only touched by the replay thread
+    private long replaySegmentId;
+    private int replayPosition;
+    private long cachedReadSegmentId = -1;
+    private ByteBuffer cachedReadBuffer;
+
+    private final AtomicLong replayLagMillis = new AtomicLong();
+
+    public AuditJournal(AuditProperties auditProperties,
+                        @Qualifier("auditObjectMapper") ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry) {
+        this.config = auditProperties.getJournal();
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(config.getDirectory());
+        this.segmentSize = config.getSegmentSizeBytes();
+
+        Gauge.builder("audit.journal.pending.bytes", this, AuditJournal::getPendingBytes)
+                .description("Audit journal bytes not yet replayed into the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("audit.journal.segments", this, AuditJournal::getSegmentCount)
+                .description("Audit journal segment files on disk")
+                .register(meterRegistry);
+        TimeGauge.builder("audit.journal.replay.lag", replayLagMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .description("Age of the oldest audit event waiting to be replayed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recover the replay checkpoint and start a fresh active segment.
+     * Starting a new segment on every boot means a segment torn by a crash is never appended to again.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segmentIds = listSegmentIds();
+        long lastSegmentId = segmentIds.isEmpty() ? 0 : segmentIds.get(segmentIds.size() - 1);
+
+        long[] checkpoint = readCheckpoint();
+        if (checkpoint != null && segmentIds.contains(checkpoint[0])) {
+            replaySegmentId = checkpoint[0];
+            replayPosition = (int) checkpoint[1];
+        } else {
+            replaySegmentId = segmentIds.isEmpty() ? lastSegmentId + 1 : segmentIds.get(0);
+            replayPosition = 0;
+        }
+
+        writeLock.lock();
+        try {
+            mapNewActiveSegment(lastSegmentId + 1);
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Audit journal opened at {} ({} existing segment(s), replay from segment {} offset {})",
+                directory.toAbsolutePath(), segmentIds.size(), replaySegmentId, replayPosition);
+    }
+
+    /**
+     * Append an audit event to the journal
+     */
+    public void append(AuditLog auditLog) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(auditLog);
+        int recordSize = HEADER_BYTES + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IOException("Audit record of " + recordSize + " bytes exceeds journal segment size");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        writeLock.lock();
+        try {
+            if (activeWritePosition + recordSize > segmentSize) {
+                activeBuffer.force();
+                mapNewActiveSegment(activeSegmentId + 1);
+            }
+            int position = activeWritePosition;
+            activeBuffer.putLong(position + 8, System.currentTimeMillis());
+            activeBuffer.put(position + HEADER_BYTES, payload);
+            activeBuffer.putInt(position + 4, (int) crc.getValue());
+            activeBuffer.putInt(position, payload.length);
+            activeWritePosition = position + recordSize;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Read up to maxRecords events following the current replay position.
+     * The position only advances once the batch is committed.
+     */
+    public ReplayBatch readBatch(int maxRecords) throws IOException {
+        List<AuditLog> logs = new ArrayList<>();
+        long segmentId = replaySegmentId;
+        int position = replayPosition;
+        long oldestAppendedAt = 0;
+
+        while (logs.size() < maxRecords) {
+            long activeId;
+            int limit;
+            ByteBuffer buffer;
+            writeLock.lock();
+            try {
+                activeId = activeSegmentId;
+                limit = activeWritePosition;
+                buffer = segmentId == activeId ? activeBuffer.duplicate() : null;
+            } finally {
+                writeLock.unlock();
+            }
+            if (buffer == null) {
+                buffer = readBuffer(segmentId);
+                limit = buffer.capacity();
+            }
+
+            int length = position + HEADER_BYTES <= limit ? buffer.getInt(position) : 0;
+            if (length <= 0 || position + HEADER_BYTES + length > limit) {
+                if (segmentId < activeId) {
+                    segmentId++;
+                    position = 0;
+                    continue;
+                }
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.error("Checksum mismatch in audit journal segment {} at offset {}, skipping rest of segment",
+                        segmentId, position);
+                if (segmentId < activeId) {
+                    segmentId++;
+                    position = 0;
+                    continue;
+                }
+                break;
+            }
+
+            long appendedAt = buffer.getLong(position + 8);
+            if (oldestAppendedAt == 0) {
+                oldestAppendedAt = appendedAt;
+            }
+            try {
+                logs.add(objectMapper.readValue(payload, AuditLog.class));
+            } catch (IOException e) {
+                log.error("Dropping unreadable audit journal record in segment {} at offset {}", segmentId, position, e);
+            }
+            position += HEADER_BYTES + length;
+        }
+
+        replayLagMillis.set(oldestAppendedAt == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldestAppendedAt));
+        return new ReplayBatch(logs, segmentId, position);
+    }
+
+    /**
+     * Advance the replay checkpoint past a batch that has been written to the database,
+     * deleting segments that are now fully replayed
+     */
+    public void commit(ReplayBatch batch) throws IOException {
+        if (batch.segmentId == replaySegmentId && batch.position == replayPosition) {
+            return;
+        }
+        long previousSegmentId = replaySegmentId;
+        replaySegmentId = batch.segmentId;
+        replayPosition = batch.position;
+        writeCheckpoint();
+
+        for (long id = previousSegmentId; id < replaySegmentId; id++) {
+            Files.deleteIfExists(segmentPath(id));
+            if (cachedReadSegmentId == id) {
+                cachedReadSegmentId = -1;
+                cachedReadBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Flush the active segment to disk
+     */
+    public void flush() {
+        MappedByteBuffer buffer;
+        writeLock.lock();
+        try {
+            buffer = activeBuffer;
+        } finally {
+            writeLock.unlock();
+        }
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            log.warn("Failed to write audit journal checkpoint on shutdown", e);
+        }
+    }
+
+    /**
+     * Bytes appended but not yet replayed (approximate once segments were rotated)
+     */
+    public long getPendingBytes() {
+        writeLock.lock();
+        try {
+            if (replaySegmentId == activeSegmentId) {
+                return Math.max(0, activeWritePosition - replayPosition);
+            }
+            return (long) (segmentSize - replayPosition)
+                    + (activeSegmentId - replaySegmentId - 1) * (long) segmentSize
+                    + activeWritePosition;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long getSegmentCount() {
+        writeLock.lock();
+        try {
+            return activeSegmentId - replaySegmentId + 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long getReplayLagMillis() {
+        return replayLagMillis.get();
+    }
+
+    private void mapNewActiveSegment(long segmentId) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            activeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        activeSegmentId = segmentId;
+        activeWritePosition = 0;
+        log.debug("Audit journal rotated to segment {}", segmentId);
+    }
+
+    private ByteBuffer readBuffer(long segmentId) throws IOException {
+        if (cachedReadSegmentId != segmentId) {
+            Path path = segmentPath(segmentId);
+            if (!Files.exists(path)) {
+                cachedReadBuffer = ByteBuffer.allocate(0);
+            } else {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    cachedReadBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+                }
+            }
+            cachedReadSegmentId = segmentId;
+        }
+        return cachedReadBuffer;
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            log.warn("Ignoring unexpected file in audit journal directory: {}", name);
+                        }
+                    });
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private long[] readCheckpoint() {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            String[] parts = Files.readString(path, StandardCharsets.UTF_8).trim().split("\\s+");
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (Exception e) {
+            log.warn("Unreadable audit journal checkpoint, replaying from the oldest segment", e);
+            return null;
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, replaySegmentId + " " + replayPosition, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Events read from the journal together with the position following the last one
+     */
+    public static class ReplayBatch {
+        private final List<AuditLog> logs;
+        private final long segmentId;
+        private final int position;
+
+        ReplayBatch(List<AuditLog> logs, long segmentId, int position) {
+            this.logs = logs;
+            this.segmentId = segmentId;
+            this.position = position;
+        }
+
+        public List<AuditLog> getLogs() {
+            return logs;
+        }
+
+        public boolean isEmpty() {
+            return logs.isEmpty();
+        }
+    }
+}
@@ -26,6 +26,8 @@ import java.util.Map;
 public class AuditQueryService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditTailService auditTailService;
+    private final AuditDictionaryService auditDictionaryService;
 
     /**
      * Find audit logs with multiple criteria (simplified)
@@ -39,8 +41,8 @@ public class AuditQueryService {
             LocalDateTime endTime,
             Pageable pageable) {
 
-        return auditLogRepository.findByCriteria(
-                userId, httpMethod, resultPattern, endpointPattern, startTime, endTime, pageable);
+        return decode(auditLogRepository.findByCriteria(
+                userId, httpMethod, resultPattern, endpointPattern, startTime, endTime, pageable));
     }
 
     /**
@@ -60,9 +62,9 @@ public class AuditQueryService {
             LocalDateTime endTime,
             Pageable pageable) {
 
-        return auditLogRepository.findByEnhancedCriteria(
+        return decode(auditLogRepository.findByEnhancedCriteria(
                 userId, username, httpMethod, endpoint, result, statusCode, ipAddress,
-                minDurationMs, maxDurationMs, startTime, endTime, pageable);
+                minDurationMs, maxDurationMs, startTime, endTime, pageable));
     }
 
     /**
@@ -70,9 +72,9 @@ public class AuditQueryService {
      */
     public Page<AuditLog> findUserAuditLogs(String userId, LocalDateTime startTime, LocalDateTime endTime, Pageable pageable) {
         if (startTime != null && endTime != null) {
-            return auditLogRepository.findByUserIdAndTimestampBetween(userId, startTime, endTime, pageable);
+            return decode(auditLogRepository.findByUserIdAndTimestampBetween(userId, startTime, endTime, pageable));
         } else {
-            return auditLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
+            return decode(auditLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable));
         }
     }
 
@@ -80,29 +82,36 @@ public class AuditQueryService {
      * Find failed operations for a user
      */
     public Page<AuditLog> findFailedOperationsByUser(String userId, Pageable pageable) {
-        return auditLogRepository.findFailedOperationsByUser(userId, pageable);
+        return decode(auditLogRepository.findFailedOperationsByUser(userId, pageable));
     }
 
     /**
      * Find audit logs for a specific endpoint pattern
      */
     public Page<AuditLog> findAuditLogsByEndpoint(String endpointPattern, Pageable pageable) {
-        return auditLogRepository.findByCriteria(null, null, null, endpointPattern, null, null, pageable);
+        return decode(auditLogRepository.findByCriteria(null, null, null, endpointPattern, null, null, pageable));
+    }
+
+    /**
+     * Find audit logs for a specific resource (endpoint pattern plus ID path variable)
+     */
+    public Page<AuditLog> findAuditLogsByResource(String resourceType, String resourceId, Pageable pageable) {
+        return decode(auditLogRepository.findByResource("/" + resourceType + "/", resourceId, pageable));
     }
 
     /**
      * Find audit logs by IP address
      */
     public Page<AuditLog> findAuditLogsByIpAddress(String ipAddress, Pageable pageable) {
-        return auditLogRepository.findByIpAddressOrderByTimestampDesc(ipAddress, pageable);
+        return decode(auditLogRepository.findByIpAddressOrderByTimestampDesc(ipAddress, pageable));
     }
 
     /**
-     * Find recent audit logs (last 24 hours)
+     * Find recent audit logs (last 24 hours), served from the in-memory recent event buffer
      */
-    public List<AuditLog> findRecentAuditLogs() {
+    public List<AuditLog> findRecentAuditLogs(int limit) {
         LocalDateTime since = LocalDateTime.now().minusHours(24);
-        return auditLogRepository.findRecentAuditLogs(since);
+        return auditTailService.findRecent(since, limit);
     }
 
     /**
@@ -110,6 +119,7 @@ public class AuditQueryService {
      */
     public AuditLog findAuditLogById(String id) {
         return auditLogRepository.findById(id)
+                .map(auditDictionaryService::decode)
                 .orElseThrow(() -> new ResourceNotFoundException("AuditLog", "id", id));
     }
 
@@ -149,8 +159,8 @@ public class AuditQueryService {
         long totalFailed = 0;
         
         for (Object[] row : rawStats) {
-            String httpMethod = (String) row[0];
-            String result = (String) row[1];
+            String httpMethod = auditDictionaryService.valueOf((Integer) row[0]);
+            String result = auditDictionaryService.valueOf((Integer) row[1]);
             Long count = (Long) row[2];
             
             methodResultStats.computeIfAbsent(httpMethod, k -> new HashMap<>())
@@ -227,39 +237,39 @@ public class AuditQueryService {
         return analysis;
     }
 
-    /**
-     * Export audit logs for compliance (simplified version)
-     */
-    public List<AuditLog> exportAuditLogs(LocalDateTime startTime, LocalDateTime endTime) {
-        // For large datasets, this should be paginated or streamed
-        return auditLogRepository.findByTimestampBetween(startTime, endTime, Pageable.unpaged()).getContent();
-    }
-
     /**
      * Find audit logs by user ID
      */
     public Page<AuditLog> findAuditLogsByUserId(String userId, Pageable pageable) {
-        return auditLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
+        return decode(auditLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable));
     }
 
     /**
      * Find all audit logs
      */
     public Page<AuditLog> findAllAuditLogs(Pageable pageable) {
-        return auditLogRepository.findAllByOrderByTimestampDesc(pageable);
+        return decode(auditLogRepository.findAllByOrderByTimestampDesc(pageable));
     }
 
     /**
      * Find audit logs by HTTP method
      */
     public Page<AuditLog> findAuditLogsByHttpMethod(String httpMethod, Pageable pageable) {
-        return auditLogRepository.findByHttpMethodOrderByTimestampDesc(httpMethod, pageable);
+        return decode(auditLogRepository.findByHttpMethodOrderByTimestampDesc(httpMethod, pageable));
     }
 
     /**
      * Find audit logs by result pattern
      */
     public Page<AuditLog> findAuditLogsByResult(String resultPattern, Pageable pageable) {
-        return auditLogRepository.findByResultContaining(resultPattern, pageable);
+        return decode(auditLogRepository.findByResultContaining(resultPattern, pageable));
+    }
+
+    /**
+     * Fill dictionary-encoded values of a page of audit logs
+     */
+    private Page<AuditLog> decode(Page<AuditLog> page) {
+        auditDictionaryService.decode(page.getContent());
+        return page;
     }
 }
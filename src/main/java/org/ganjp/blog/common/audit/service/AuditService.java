@@ -1,17 +1,22 @@
 package org.ganjp.blog.common.audit.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.common.audit.model.entity.AuditLog;
 import org.ganjp.blog.common.audit.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.HandlerMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 /**
  * Service for creating audit log entries
@@ -27,10 +32,26 @@ public class AuditService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
+
+    @Autowired
+    private AuditTailService auditTailService;
+
+    @Autowired
+    private AuditDictionaryService auditDictionaryService;
+
+    @Autowired(required = false)
+    @Qualifier("auditTaskExecutor")
+    private Executor auditTaskExecutor;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     /**
-     * Log a successful operation
+     * Log a successful operation. The entry is built from the request on the calling thread,
+     * as the request is recycled once the response completes, and persisted asynchronously.
      */
-    @Async
     public void logSuccess(
             String httpMethod,
             String endpoint,
@@ -51,6 +72,7 @@ public class AuditService {
                     .username(username)
                     .httpMethod(httpMethod)
                     .endpoint(endpoint)
+                    .resourceId(getResourceId(request))
                     .result(resultMessage)
                     .statusCode(statusCode)
                     .ipAddress(getClientIpAddress(request))
@@ -61,7 +83,7 @@ public class AuditService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            auditLogRepository.save(auditLog);
+            persistAsync(auditLog);
             log.debug("Audit log created: {} - {} - {}", httpMethod, endpoint, resultMessage);
 
         } catch (Exception e) {
@@ -70,9 +92,8 @@ public class AuditService {
     }
 
     /**
-     * Log a failed operation
+     * Log a failed operation; the entry is built on the calling thread and persisted asynchronously
      */
-    @Async
     public void logFailure(
             String httpMethod,
             String endpoint,
@@ -94,6 +115,7 @@ public class AuditService {
                     .username(username)
                     .httpMethod(httpMethod)
                     .endpoint(endpoint)
+                    .resourceId(getResourceId(request))
                     .result(resultMessage)
                     .statusCode(statusCode)
                     .errorMessage(errorMessage)
@@ -105,7 +127,7 @@ public class AuditService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            auditLogRepository.save(auditLog);
+            persistAsync(auditLog);
             log.debug("Audit log created: {} - {} - {}", httpMethod, endpoint, resultMessage);
 
         } catch (Exception e) {
@@ -114,9 +136,8 @@ public class AuditService {
     }
 
     /**
-     * Log authentication events with detailed data
+     * Log authentication events with detailed data; the entry is built on the calling thread and persisted asynchronously
      */
-    @Async
     public void logAuthenticationEventWithData(
             String httpMethod,
             String endpoint,
@@ -142,6 +163,7 @@ public class AuditService {
                     .username(username)
                     .httpMethod(httpMethod)
                     .endpoint(endpoint)
+                    .resourceId(getResourceId(request))
                     .result(resultMessage)
                     .statusCode(statusCode)
                     .ipAddress(getClientIpAddress(request))
@@ -152,7 +174,7 @@ public class AuditService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            auditLogRepository.save(auditLog);
+            persistAsync(auditLog);
             log.debug("Authentication audit log created: {} - {} - {}", httpMethod, endpoint, resultMessage);
 
         } catch (Exception e) {
@@ -161,9 +183,8 @@ public class AuditService {
     }
 
     /**
-     * Log authentication events with extracted request data (for async processing)
+     * Log authentication events with extracted request data; the entry is persisted on the audit executor
      */
-    @Async
     public void logAuthenticationEvent(AuthenticationAuditData auditData) {
         try {
             if ("Login successful".equals(auditData.resultMessage)) {
@@ -188,7 +209,7 @@ public class AuditService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            auditLogRepository.save(auditLog);
+            persistAsync(auditLog);
             log.debug("Authentication audit log created: {} - {} - {}", auditData.httpMethod, auditData.endpoint, auditData.resultMessage);
 
         } catch (Exception e) {
@@ -263,6 +284,64 @@ public class AuditService {
 
     // Helper methods
 
+    /**
+     * Persist an entry built from a live request on the audit executor, or inline when audit config is off.
+     * When the executor is saturated the entry is appended to the journal if it is enabled, otherwise it is
+     * dropped and counted in audit.dropped; the database write never runs on the request thread.
+     */
+    private void persistAsync(AuditLog auditLog) {
+        if (auditTaskExecutor == null) {
+            persist(auditLog);
+            return;
+        }
+        try {
+            auditTaskExecutor.execute(() -> {
+                try {
+                    persist(auditLog);
+                } catch (Exception e) {
+                    log.error("Failed to persist audit log", e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            spillOrDrop(auditLog);
+        }
+    }
+
+    private void spillOrDrop(AuditLog auditLog) {
+        if (auditJournal != null) {
+            try {
+                auditTailService.publish(auditLog);
+                auditJournal.append(auditLog);
+                return;
+            } catch (Exception e) {
+                log.warn("Audit journal append failed for a rejected audit log: {}", e.getMessage());
+            }
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("audit.dropped").increment();
+        }
+        log.debug("Audit executor saturated, dropped audit log for {} {}", auditLog.getHttpMethod(), auditLog.getEndpoint());
+    }
+
+    /**
+     * Write an audit log entry, through the local journal when it is enabled,
+     * and publish it to the in-memory recent event buffer.
+     * Journaled events are dictionary-encoded when they are replayed.
+     */
+    private void persist(AuditLog auditLog) {
+        auditTailService.publish(auditLog);
+        if (auditJournal != null) {
+            try {
+                auditJournal.append(auditLog);
+                return;
+            } catch (Exception e) {
+                log.warn("Audit journal append failed, writing directly to database: {}", e.getMessage());
+            }
+        }
+        auditDictionaryService.encode(auditLog);
+        auditLogRepository.save(auditLog);
+    }
+
     /**
      * Get request ID from various sources
      */
@@ -362,6 +441,23 @@ public class AuditService {
         return request.getHeader("User-Agent");
     }
 
+    /**
+     * Get the ID path variable of the matched route ("id", or the only variable), if any
+     */
+    private String getResourceId(HttpServletRequest request) {
+        Object attribute = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(attribute instanceof Map<?, ?> variables) || variables.isEmpty()) {
+            return null;
+        }
+        Object value = variables.containsKey("id") ? variables.get("id")
+                : variables.size() == 1 ? variables.values().iterator().next() : null;
+        if (value == null) {
+            return null;
+        }
+        String resourceId = value.toString();
+        return resourceId.length() > 36 ? resourceId.substring(0, 36) : resourceId;
+    }
+
     /**
      * Get session ID from HTTP request
      */
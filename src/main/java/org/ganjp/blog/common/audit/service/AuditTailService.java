@@ -0,0 +1,290 @@
+package org.ganjp.blog.common.audit.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.repository.AuditLogRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recent audit events in a fixed-size in-memory ring and streams new events
+ * to live tail (SSE) subscribers. Fed by AuditService as events are written, so recent-activity
+ * dashboards are served without querying audit_logs.
+ */
+@Slf4j
+@Component
+public class AuditTailService {
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditDictionaryService auditDictionaryService;
+    private final AuditProperties.TailConfig config;
+
+    private final AuditLog[] ring;
+    private long sequence;
+    private final ReentrantLock ringLock = new ReentrantLock();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Fan-out runs off the audit pipeline so a slow client never delays audit writes
+    private final ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000), runnable -> {
+                Thread thread = new Thread(runnable, "audit-tail");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardOldestPolicy());
+
+    public AuditTailService(AuditLogRepository auditLogRepository, AuditDictionaryService auditDictionaryService,
+                            AuditProperties auditProperties) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditDictionaryService = auditDictionaryService;
+        this.config = auditProperties.getTail();
+        this.ring = new AuditLog[Math.max(1, config.getBufferSize())];
+    }
+
+    /**
+     * Warm the ring with the newest persisted events so it is useful right after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<AuditLog> newest = auditDictionaryService.decode(
+                    auditLogRepository.findAllByOrderByTimestampDesc(PageRequest.of(0, ring.length)).getContent());
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                addToRing(newest.get(i));
+            }
+            log.info("Audit tail buffer warmed with {} events", newest.size());
+        } catch (Exception e) {
+            log.warn("Could not warm audit tail buffer: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a new audit event and push it to matching subscribers
+     */
+    public void publish(AuditLog auditLog) {
+        addToRing(auditLog);
+        if (!subscribers.isEmpty()) {
+            dispatcher.execute(() -> dispatch(auditLog));
+        }
+    }
+
+    /**
+     * Most recent events at or after the given time, newest first
+     */
+    public List<AuditLog> findRecent(LocalDateTime since, int limit) {
+        ringLock.lock();
+        try {
+            return recent(since, limit);
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    /**
+     * Open a live tail stream, optionally replaying the latest matching buffered events first.
+     * The subscriber takes its slot and starts receiving live events in the same lock section that
+     * snapshots the ring, so no event falls between replay and live delivery; live events are held
+     * back until the replay is sent, and those already replayed are skipped by ID.
+     */
+    public SseEmitter subscribe(Filter filter, int replay) {
+        SseEmitter emitter = new SseEmitter(config.getEmitterTimeoutMs());
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscriber.lock.lock();
+        try {
+            List<AuditLog> recent;
+            ringLock.lock();
+            try {
+                if (subscribers.size() >= config.getMaxSubscribers()) {
+                    throw new IllegalStateException("Too many live audit tail subscribers");
+                }
+                subscribers.add(subscriber);
+                recent = replay > 0 ? recent(null, ring.length) : List.of();
+            } finally {
+                ringLock.unlock();
+            }
+
+            List<AuditLog> matching = new ArrayList<>();
+            for (AuditLog auditLog : recent) {
+                if (matching.size() >= replay) {
+                    break;
+                }
+                if (filter.matches(auditLog)) {
+                    matching.add(auditLog);
+                }
+            }
+            for (int i = matching.size() - 1; i >= 0; i--) {
+                AuditLog auditLog = matching.get(i);
+                if (auditLog.getId() != null) {
+                    subscriber.replayedIds.add(auditLog.getId());
+                }
+                subscriber.emitter.send(SseEmitter.event().name("audit").data(auditLog));
+            }
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        } finally {
+            subscriber.lock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Periodic comment frame keeps idle connections open through proxies and prunes dead ones
+     */
+    @Scheduled(fixedRate = 30000)
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            dispatcher.execute(() -> {
+                for (Subscriber subscriber : subscribers) {
+                    send(subscriber, null, SseEmitter.event().comment("keep-alive"));
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void addToRing(AuditLog auditLog) {
+        ringLock.lock();
+        try {
+            ring[(int) (sequence % ring.length)] = auditLog;
+            sequence++;
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    /**
+     * Newest events at or after the given time, newest first; the caller holds ringLock
+     */
+    private List<AuditLog> recent(LocalDateTime since, int limit) {
+        List<AuditLog> result = new ArrayList<>();
+        long available = Math.min(sequence, ring.length);
+        for (long i = 0; i < available && result.size() < limit; i++) {
+            AuditLog auditLog = ring[(int) ((sequence - 1 - i) % ring.length)];
+            if (since != null && auditLog.getTimestamp() != null && auditLog.getTimestamp().isBefore(since)) {
+                break;
+            }
+            result.add(auditLog);
+        }
+        return result;
+    }
+
+    private void dispatch(AuditLog auditLog) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(auditLog)) {
+                send(subscriber, auditLog.getId(), SseEmitter.event().name("audit").data(auditLog));
+            }
+        }
+    }
+
+    /**
+     * Send an event unless it was already replayed; waits for a replay in progress, so live events
+     * follow the replayed ones
+     */
+    private void send(Subscriber subscriber, String eventId, SseEmitter.SseEventBuilder event) {
+        subscriber.lock.lock();
+        try {
+            if (eventId != null && subscriber.replayedIds.contains(eventId)) {
+                return;
+            }
+            subscriber.emitter.send(event);
+        } catch (Exception e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.lock.unlock();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final ReentrantLock lock = new ReentrantLock();
+        // IDs sent during replay, whose dispatch may still be queued when the subscriber is added; guarded by lock
+        private final Set<String> replayedIds = new HashSet<>();
+
+        private Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+    }
+
+    /**
+     * Server-side live tail filter; null criteria match everything
+     */
+    public static class Filter {
+        private final String userId;
+        private final String username;
+        private final String ipAddress;
+        private final Integer statusClass;
+
+        public Filter(String userId, String username, String ipAddress, String statusClass) {
+            this.userId = userId;
+            this.username = username;
+            this.ipAddress = ipAddress;
+            this.statusClass = parseStatusClass(statusClass);
+        }
+
+        public boolean matches(AuditLog auditLog) {
+            if (userId != null && !userId.equals(auditLog.getUserId())) {
+                return false;
+            }
+            if (username != null && !username.equalsIgnoreCase(auditLog.getUsername())) {
+                return false;
+            }
+            if (ipAddress != null && !ipAddress.equals(auditLog.getIpAddress())) {
+                return false;
+            }
+            return statusClass == null
+                    || (auditLog.getStatusCode() != null && auditLog.getStatusCode() / 100 == statusClass);
+        }
+
+        /**
+         * Accepts "4", "4xx" or "400"-style values
+         */
+        private static Integer parseStatusClass(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            char first = value.trim().charAt(0);
+            if (first < '1' || first > '5') {
+                throw new IllegalArgumentException("Invalid status class: " + value);
+            }
+            return first - '0';
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.ganjp.blog.common.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.ganjp.blog.common.config.AsyncLoggerConfig;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.trace.RequestTrace;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A named, bounded thread pool isolating one kind of work from the request threads. Submissions beyond
+ * the worker threads plus the queue are rejected at once (ServiceBusyException, answered with 503) rather
+ * than piling up. Tasks run with the submitter's MDC; {@link #call} also carries the request trace, as the
+ * submitter waits for the result. Calls made from a worker of the same bulkhead run inline.
+ * Meters: executor.* tagged name=bulkhead.&lt;name&gt;, and bulkhead.rejected tagged bulkhead=&lt;name&gt;.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolTaskExecutor executor;
+    private final ThreadLocal<Boolean> worker = new ThreadLocal<>();
+    private final Counter rejected;
+
+    public Bulkhead(String name, BulkheadProperties.Pool config, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.rejected = meterRegistry == null ? null : Counter.builder("bulkhead.rejected")
+                .description("Tasks rejected because the bulkhead was saturated")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getThreads());
+        executor.setMaxPoolSize(config.getThreads());
+        executor.setQueueCapacity(config.getQueueCapacity());
+        executor.setThreadNamePrefix(name + "-");
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setTaskDecorator(runnable -> {
+            Runnable withMdc = new AsyncLoggerConfig.MdcContextDecorator().decorate(runnable);
+            return () -> {
+                worker.set(Boolean.TRUE);
+                try {
+                    withMdc.run();
+                } finally {
+                    worker.remove();
+                }
+            };
+        });
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new RejectedExecutionException("Bulkhead " + name + " is saturated");
+        });
+        executor.initialize();
+
+        if (meterRegistry != null) {
+            new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "bulkhead." + name, Tags.empty()).bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * Run the work on this bulkhead and wait for its result; exceptions of the work are rethrown as they are
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Throwable> T call(Work<T, E> work) throws E {
+        if (Boolean.TRUE.equals(worker.get())) {
+            return work.call();
+        }
+        RequestTrace trace = RequestTrace.current();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                RequestTrace previous = RequestTrace.attach(trace);
+                try {
+                    return work.call();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new UndeclaredFailure(t);
+                } finally {
+                    RequestTrace.attach(previous);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            throw busy();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for " + name + " work");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UndeclaredFailure failure ? failure.getCause() : e.getCause();
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * Run the work on this bulkhead without waiting for it
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (TaskRejectedException e) {
+            throw busy();
+        }
+    }
+
+    /**
+     * The underlying executor, e.g. for Spring MVC async processing; it throws TaskRejectedException when saturated
+     */
+    public AsyncTaskExecutor executor() {
+        return executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private ServiceBusyException busy() {
+        return new ServiceBusyException("Server is busy (" + name + "), please retry later");
+    }
+
+    @FunctionalInterface
+    public interface Work<T, E extends Throwable> {
+        T call() throws E;
+    }
+
+    /**
+     * Carries a throwable that is neither an Exception nor an Error through the Callable
+     */
+    private static final class UndeclaredFailure extends Exception {
+        private UndeclaredFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.ganjp.blog.common.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * The bulkhead pools: CPU-bound image work sized to the cores, blocking remote fetches, and long-lived
+ * media streams. Each is bounded and fails fast, so a batch of large uploads or many open streams cannot
+ * take the request threads the public JSON endpoints need. Image work runs on platform threads, which
+ * the OS time-slices, so it cannot occupy the carrier threads when requests run on virtual threads.
+ */
+@Slf4j
+@Component
+public class Bulkheads implements DisposableBean {
+
+    private final Bulkhead image;
+    private final Bulkhead fetch;
+    private final Bulkhead stream;
+
+    public Bulkheads(BulkheadProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        BulkheadProperties.Pool imageConfig = properties.getImage();
+        int imageThreads = imageConfig.getThreads() > 0 ? imageConfig.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.image = new Bulkhead("image", new BulkheadProperties.Pool(imageThreads, imageConfig.getQueueCapacity()), registry);
+        this.fetch = new Bulkhead("fetch", properties.getFetch(), registry);
+        this.stream = new Bulkhead("stream", properties.getStream(), registry);
+        log.info("Bulkheads: image {} threads, fetch {} threads, stream {} threads",
+                imageThreads, properties.getFetch().getThreads(), properties.getStream().getThreads());
+    }
+
+    public Bulkhead image() {
+        return image;
+    }
+
+    public Bulkhead fetch() {
+        return fetch;
+    }
+
+    public Bulkhead stream() {
+        return stream;
+    }
+
+    @Override
+    public void destroy() {
+        image.shutdown();
+        fetch.shutdown();
+        stream.shutdown();
+    }
+}
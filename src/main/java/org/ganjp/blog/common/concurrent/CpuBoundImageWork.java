@@ -0,0 +1,18 @@
+package org.ganjp.blog.common.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method that decodes, resizes, encodes or renders images. Calls run on the image
+ * {@link Bulkhead} and the caller waits for the result, so concurrent image work stays within the
+ * number of CPU cores however many requests arrive at once.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CpuBoundImageWork {
+}
@@ -1,8 +1,11 @@
 package org.ganjp.blog.common.config;
 
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -22,37 +25,49 @@ public class AsyncLoggerConfig {
     /**
      * Bean for the main async task executor.
      * This executor will propagate MDC context to the async methods.
+     * With spring.threads.virtual.enabled each task gets its own virtual thread instead of a pooled one.
      */
     @Bean(name = "asyncExecutor")
-    public Executor asyncExecutor() {
+    public Executor asyncExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("GjpbAsync-");
+            executor.setVirtualThreads(true);
+            // Same admission as the platform pool (max threads plus queue); further callers wait for a slot
+            executor.setConcurrencyLimit(35);
+            executor.setTaskDecorator(new MdcContextDecorator());
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        
+
         // Configure thread pool
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(25);
         executor.setThreadNamePrefix("GjpbAsync-");
-        
+
         // Add MDC context propagation decorator
         executor.setTaskDecorator(new MdcContextDecorator());
-        
+
         executor.initialize();
         return executor;
     }
-    
+
     /**
      * Task decorator that propagates the MDC context from the calling thread
      * to the thread that executes the task.
      */
-    static class MdcContextDecorator implements TaskDecorator {
+    public static class MdcContextDecorator implements TaskDecorator {
         @Override
         public Runnable decorate(Runnable runnable) {
             // Capture the context from the current thread
             Map<String, String> contextMap = MDC.getCopyOfContextMap();
-            
+
             // Return a runnable that sets up the MDC context before execution
-            // and clears it afterward
+            // and restores the previous one afterward
             return () -> {
+                // Tasks may run on the submitting thread (caller-runs policy), whose own context must survive
+                Map<String, String> previous = MDC.getCopyOfContextMap();
                 try {
                     // Set up the MDC context in the worker thread
                     if (contextMap != null) {
@@ -61,8 +76,11 @@ public class AsyncLoggerConfig {
                     // Execute the original task
                     runnable.run();
                 } finally {
-                    // Clear the MDC context
-                    MDC.clear();
+                    if (previous != null) {
+                        MDC.setContextMap(previous);
+                    } else {
+                        MDC.clear();
+                    }
                 }
             };
         }
@@ -0,0 +1,24 @@
+package org.ganjp.blog.common.config;
+
+import lombok.RequiredArgsConstructor;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs Spring MVC async work on the stream bulkhead, which exists for this alone. Streamed media and audit
+ * exports are both StreamingResponseBody responses that block on the client socket, so they share one bound
+ * on threads; exports are capped separately (audit.export.max-concurrent) so they cannot fill the pool.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final Bulkheads bulkheads;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(bulkheads.stream().executor());
+    }
+}
@@ -0,0 +1,46 @@
+package org.ganjp.blog.common.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the bulkhead pools that keep heavy work off the request threads.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * CPU-bound image work: decode, resize, encode and SVG rendering; 0 threads means one per CPU core
+     */
+    private Pool image = new Pool(0, 16);
+
+    /**
+     * Blocking downloads of remote URLs
+     */
+    private Pool fetch = new Pool(16, 64);
+
+    /**
+     * Spring MVC async responses: long-lived media streams (audio and video) and audit exports
+     */
+    private Pool stream = new Pool(64, 32);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        /**
+         * Worker threads of the pool
+         */
+        private int threads;
+
+        /**
+         * Tasks waiting for a worker; further submissions are rejected at once
+         */
+        private int queueCapacity;
+    }
+}
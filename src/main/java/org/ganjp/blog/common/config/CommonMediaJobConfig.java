@@ -0,0 +1,31 @@
+package org.ganjp.blog.common.config;
+
+import org.ganjp.blog.common.image.ImageReencoder;
+import org.ganjp.blog.common.job.service.MediaJobHandler;
+import org.ganjp.blog.common.job.service.MediaJobService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Media job handlers for maintenance jobs over the stored media
+ */
+@Configuration
+public class CommonMediaJobConfig {
+
+    /**
+     * Re-encodes one batch and queues the next one as the job's follow-up, so a retried job does not queue a
+     * second one; MediaJobService is looked up lazily since it is built from the handlers
+     */
+    @Bean
+    public MediaJobHandler<ImageReencoder.Request> imageReencodeMediaJobHandler(ImageReencoder imageReencoder,
+                                                                                ObjectProvider<MediaJobService> mediaJobService) {
+        return MediaJobHandler.of(ImageReencoder.JOB_TYPE, ImageReencoder.Request.class, (request, userId) -> {
+            ImageReencoder.Result result = imageReencoder.reencode(request);
+            if (result.next() != null) {
+                mediaJobService.getObject().submitNext(ImageReencoder.JOB_TYPE, result.next(), userId);
+            }
+            return result;
+        });
+    }
+}
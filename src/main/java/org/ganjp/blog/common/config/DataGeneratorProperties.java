@@ -0,0 +1,120 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the synthetic dataset generator (datagen profile).
+ * Row counts are per table and multiplied by scale; the same seed always produces the same rows and files.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datagen")
+public class DataGeneratorProperties {
+
+    /**
+     * Seed for every generated value, id and media file
+     */
+    private long seed = 42;
+
+    /**
+     * Multiplier applied to every row count, e.g. 10 for a ten times larger dataset
+     */
+    private double scale = 1.0;
+
+    /**
+     * Rows per JDBC batch; each batch is committed in its own transaction
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Delete all rows from the generated tables before generating (destructive, for dedicated perf databases only)
+     */
+    private boolean truncate = false;
+
+    /**
+     * Exit the JVM when generation finishes, so the profile can be used as a one-shot command
+     */
+    private boolean exitOnFinish = true;
+
+    /**
+     * Start of the generated created_at / audit timestamp range
+     */
+    private LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /**
+     * Length of the generated timestamp range in days
+     */
+    private int spanDays = 540;
+
+    /**
+     * Rows per table before scaling; tables missing from the map are skipped
+     */
+    private Map<String, Long> rows = defaultRows();
+
+    private Media media = new Media();
+
+    @Data
+    public static class Media {
+
+        /**
+         * Write matching image, audio, video and document files into the configured upload directories
+         */
+        private boolean enabled = true;
+
+        /**
+         * Distinct files generated per media kind; every row links to one of them
+         */
+        private int variants = 8;
+
+        /**
+         * Hard-link row files to the shared variants instead of copying them (falls back to copying)
+         */
+        private boolean hardLinks = true;
+
+        private int imageWidth = 1600;
+        private int imageHeight = 1200;
+        private int thumbnailSize = 300;
+        private int logoSize = 256;
+        private long audioBytes = 512 * 1024;
+        private long videoBytes = 8 * 1024 * 1024;
+        private long fileBytes = 256 * 1024;
+    }
+
+    private static Map<String, Long> defaultRows() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        rows.put("auth_users", 10_000L);
+        rows.put("auth_roles", 10L);
+        rows.put("auth_refresh_tokens", 20_000L);
+        rows.put("bm_app_settings", 200L);
+        rows.put("cms_website", 5_000L);
+        rows.put("cms_logo", 5_000L);
+        rows.put("cms_image", 50_000L);
+        rows.put("cms_video", 5_000L);
+        rows.put("cms_audio", 10_000L);
+        rows.put("cms_article", 20_000L);
+        rows.put("cms_article_image", 60_000L);
+        rows.put("cms_file", 10_000L);
+        rows.put("cms_question", 20_000L);
+        rows.put("rubi_vocabulary", 200_000L);
+        rows.put("rubi_expression", 50_000L);
+        rows.put("rubi_sentence", 100_000L);
+        rows.put("rubi_multiple_choice_question", 100_000L);
+        rows.put("rubi_free_text_question", 30_000L);
+        rows.put("rubi_true_false_question", 50_000L);
+        rows.put("rubi_fill_blank_question", 50_000L);
+        rows.put("rubi_question_image", 40_000L);
+        rows.put("rubi_image", 30_000L);
+        rows.put("rubi_video", 3_000L);
+        rows.put("rubi_audio", 10_000L);
+        rows.put("rubi_article", 10_000L);
+        rows.put("rubi_article_image", 30_000L);
+        rows.put("audit_logs", 2_000_000L);
+        return rows;
+    }
+}
@@ -0,0 +1,29 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the slow-request flight recorder.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "flight-recorder")
+public class FlightRecorderProperties {
+
+    /**
+     * Whether requests are traced per phase at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requests at or above this duration are kept in the buffer and emitted as JFR events
+     */
+    private long thresholdMs = 1000;
+
+    /**
+     * Number of slow requests kept in memory; the oldest are overwritten first
+     */
+    private int bufferSize = 200;
+}
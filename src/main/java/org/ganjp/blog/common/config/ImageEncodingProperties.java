@@ -0,0 +1,68 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for encoding the images written by the media services.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "image-encoding")
+public class ImageEncodingProperties {
+
+    /**
+     * Encode with the settings below; when off the ImageIO defaults are used
+     */
+    private boolean enabled = true;
+
+    /**
+     * JPEG quality from 0 to 1
+     */
+    private float jpegQuality = 0.85f;
+
+    /**
+     * Write progressive JPEGs, which are usually smaller and render early on slow connections
+     */
+    private boolean progressive = true;
+
+    /**
+     * PNG deflate level from 0 (fastest) to 9 (smallest); PNG stays lossless at every level
+     */
+    private int pngCompressionLevel = 9;
+
+    /**
+     * Store logos with at most 256 colours as palette PNGs; lossless, as the palette holds every colour
+     */
+    private boolean paletteReduction = true;
+
+    /**
+     * Media directories the re-encode job works through
+     */
+    private List<String> reencodeDirectories = new ArrayList<>();
+
+    /**
+     * A re-encoded file replaces the stored one only if it is at least this many percent smaller, so files
+     * already encoded with these settings are not recompressed again
+     */
+    private int reencodeMinSavingsPercent = 10;
+
+    /**
+     * Files one re-encode job handles; it queues a follow-up job for the rest, so a retry repeats one batch at most
+     */
+    private int reencodeBatchSize = 500;
+
+    /**
+     * Times a file is tried while the image bulkhead is saturated before its batch is queued again
+     */
+    private int reencodeBusyRetries = 5;
+
+    /**
+     * Wait before the first retry of a file; doubled for each further one
+     */
+    private long reencodeBusyBackoffMs = 1000;
+}
@@ -0,0 +1,24 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for decoding uploaded and downloaded images.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "image-processing")
+public class ImageProcessingProperties {
+
+    /**
+     * Largest width x height accepted; images whose header declares more are rejected before decoding
+     */
+    private long maxPixels = 100_000_000L;
+
+    /**
+     * Decode large JPEG photos with source subsampling, at no less than twice the size they are resized to
+     */
+    private boolean subsampling = true;
+}
@@ -0,0 +1,57 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the resized image variants served by the public image routes.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "image-variant")
+public class ImageVariantProperties {
+
+    /**
+     * Render variants for ?w, ?h, ?fit and ?q; when off the original is always served
+     */
+    private boolean enabled = true;
+
+    /**
+     * Directory of the rendered variants; keep it off the media directories, its files are deleted on eviction
+     */
+    private String cacheDirectory = "uploads/variants";
+
+    /**
+     * Size of the variant cache; the least recently served variants are deleted beyond it
+     */
+    private long maxCacheBytes = 1024L * 1024 * 1024;
+
+    /**
+     * Minutes between two updates of a served variant's modification time, which keeps the eviction order across restarts
+     */
+    private int touchIntervalMinutes = 10;
+
+    /**
+     * Seconds an evicted variant stays on disk, so a request that was just handed the file can still open it
+     */
+    private int evictionGraceSeconds = 60;
+
+    /**
+     * Widths (and heights, when only a height is asked for) a request is rounded up to
+     */
+    private List<Integer> widths = new ArrayList<>(List.of(160, 320, 480, 640, 960, 1280, 1920, 2560));
+
+    /**
+     * JPEG quality of variants requested without ?q
+     */
+    private int defaultQuality = 80;
+
+    /**
+     * Requested qualities are rounded to a multiple of this
+     */
+    private int qualityStep = 10;
+}
@@ -0,0 +1,79 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuration properties for the service/controller LoggingAspect.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "method-logging")
+public class MethodLoggingProperties {
+
+    /**
+     * Instrumentation mode
+     */
+    private Mode mode = Mode.METRICS;
+
+    /**
+     * Calls at or above this duration are reported as slow (METRICS mode)
+     */
+    private long slowThresholdMs = 500;
+
+    /**
+     * Minimum interval between slow-call log lines for the same method; calls in between are counted
+     */
+    private long slowLogIntervalMs = 10000;
+
+    /**
+     * Whether per-method timers publish latency histograms, with the fixed histogramBuckets boundaries
+     */
+    private boolean histogram = true;
+
+    /**
+     * Bucket boundaries of the per-method latency histograms; a short fixed list keeps each timer to a
+     * handful of series instead of the dozens a percentile histogram adds
+     */
+    private List<Duration> histogramBuckets = new ArrayList<>(List.of(
+            Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5)));
+
+    /**
+     * Timers that publish full percentile histograms on top of the fixed buckets, as simple class names
+     * ("ImageService") or class and method ("ImageService.createImage")
+     */
+    private Set<String> histogramMethods = new HashSet<>();
+
+    /**
+     * Per-package switches keyed by package relative to org.ganjp.blog (e.g. "cms", "auth.service").
+     * The longest matching key wins; packages without a key are enabled.
+     */
+    private Map<String, Boolean> packages = new HashMap<>();
+
+    public enum Mode {
+        /**
+         * Per-method latency timers and sampled slow-call logging
+         */
+        METRICS,
+
+        /**
+         * Entry/exit logging of every call, with arguments and results at DEBUG; for debugging only
+         */
+        VERBOSE,
+
+        /**
+         * No instrumentation
+         */
+        OFF
+    }
+}
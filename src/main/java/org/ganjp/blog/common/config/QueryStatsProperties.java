@@ -0,0 +1,34 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for Hibernate statistics, per-request statement counting and N+1 detection.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "query-stats")
+public class QueryStatsProperties {
+
+    /**
+     * Enables Hibernate statistics, the statement inspector and the /actuator/querystats endpoint
+     */
+    private boolean enabled = false;
+
+    /**
+     * A request running the same statement shape more than this many times is reported as a likely N+1
+     */
+    private int repeatThreshold = 10;
+
+    /**
+     * SQL statements slower than this are logged and kept by Hibernate as slow queries (0 disables)
+     */
+    private long slowQueryThresholdMs = 200;
+
+    /**
+     * Number of recent requests and N+1 warnings kept in memory
+     */
+    private int bufferSize = 100;
+}
@@ -0,0 +1,39 @@
+package org.ganjp.blog.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for downloads of remote images, audio and files.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "remote-fetch")
+public class RemoteFetchProperties {
+
+    /**
+     * Time allowed to open a connection to the remote host
+     */
+    private int connectTimeoutMs = 5000;
+
+    /**
+     * Time allowed for the response headers, and for each gap between body chunks
+     */
+    private int readTimeoutMs = 30000;
+
+    /**
+     * Largest download accepted; longer bodies are cancelled as soon as they pass it
+     */
+    private long maxBytes = 50L * 1024 * 1024;
+
+    /**
+     * Downloads running at the same time against one host
+     */
+    private int maxConnectionsPerHost = 4;
+
+    /**
+     * Directory for downloaded files while they are processed; empty means the system temp directory
+     */
+    private String tempDirectory = "";
+}
@@ -0,0 +1,86 @@
+package org.ganjp.blog.common.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Buffers rows for one table and writes them with JDBC batch inserts, one transaction per batch.
+ * Use rewriteBatchedStatements=true on the MySQL URL so each batch becomes a single multi-row INSERT.
+ */
+@Slf4j
+class BatchInserter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String table;
+    private final String sql;
+    private final int columns;
+    private final int batchSize;
+    private final long expected;
+    private final List<Object[]> buffer;
+    private long written;
+    private long nextProgress;
+    private final long startNanos = System.nanoTime();
+
+    BatchInserter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int batchSize,
+                  String table, long expected, String... columns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.table = table;
+        this.columns = columns.length;
+        this.batchSize = Math.max(1, batchSize);
+        this.expected = expected;
+        this.nextProgress = expected / 10;
+        this.buffer = new ArrayList<>(this.batchSize);
+        this.sql = "INSERT INTO " + table + " ("
+                + Stream.of(columns).map(column -> "`" + column + "`").collect(Collectors.joining(", "))
+                + ") VALUES (" + Stream.of(columns).map(column -> "?").collect(Collectors.joining(", ")) + ")";
+    }
+
+    void add(Object... values) {
+        if (values.length != columns) {
+            throw new IllegalArgumentException(table + " expects " + columns + " values but got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof LocalDateTime time) {
+                values[i] = Timestamp.valueOf(time);
+            }
+        }
+        buffer.add(values);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Write remaining rows and return the number of rows inserted
+     */
+    long finish() {
+        flush();
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Generated {} rows in {} ({} ms, {} rows/s)", written, table, millis,
+                millis > 0 ? written * 1000 / millis : written);
+        return written;
+    }
+
+    private void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, buffer));
+        written += buffer.size();
+        buffer.clear();
+        if (expected >= 100_000 && written >= nextProgress) {
+            log.info("{}: {} / {} rows", table, written, expected);
+            nextProgress += expected / 10;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.ganjp.blog.common.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.config.DataGeneratorProperties;
+import org.ganjp.blog.common.storage.service.MediaLayout;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Writes media files for generated rows. Each kind and size has a small number of seeded variants; the first
+ * row using a variant writes the real file and later rows hard-link to it, so millions of rows get distinct
+ * filenames on disk without millions of encodes or gigabytes of duplicate content.
+ */
+@Slf4j
+class MediaFileWriter {
+
+    private final DataGeneratorProperties.Media config;
+    private final long seed;
+    private final MediaLayout mediaLayout;
+    private final Map<String, Path> variants = new HashMap<>();
+    private boolean linkFallbackLogged;
+
+    MediaFileWriter(DataGeneratorProperties.Media config, long seed, MediaLayout mediaLayout) {
+        this.config = config;
+        this.seed = seed;
+        this.mediaLayout = mediaLayout;
+    }
+
+    /**
+     * Write a JPEG or PNG of the given size; returns the file size in bytes
+     */
+    long image(Path directory, String filename, long index, int width, int height) {
+        String format = filename.endsWith(".png") ? "png" : "jpg";
+        return write(directory, filename, "image-" + format + "-" + width + "x" + height, index, (long) width * height / 8,
+                out -> ImageIO.write(render(width, height, variantRandom("image", index)), format, out));
+    }
+
+    /**
+     * Write an MP3-like file (ID3 header and seeded frame data) of the configured audio size
+     */
+    long audio(Path directory, String filename, long index) {
+        return write(directory, filename, "audio", index, config.getAudioBytes(),
+                out -> writeBytes(out, "ID3\u0004\u0000\u0000\u0000\u0000\u0000\u0000", config.getAudioBytes(), variantRandom("audio", index)));
+    }
+
+    /**
+     * Write an MP4-like file (ftyp box and seeded payload) of the configured video size
+     */
+    long video(Path directory, String filename, long index) {
+        return write(directory, filename, "video", index, config.getVideoBytes(),
+                out -> writeBytes(out, "\u0000\u0000\u0000\u0018ftypmp42\u0000\u0000\u0000\u0000mp42isom", config.getVideoBytes(), variantRandom("video", index)));
+    }
+
+    /**
+     * Write a PDF-like document of the configured file size
+     */
+    long document(Path directory, String filename, long index) {
+        return write(directory, filename, "document", index, config.getFileBytes(),
+                out -> writeBytes(out, "%PDF-1.7\n", config.getFileBytes(), variantRandom("document", index)));
+    }
+
+    private long write(Path directory, String filename, String kind, long index, long estimatedSize, MediaContent content) {
+        if (!config.isEnabled()) {
+            return estimatedSize;
+        }
+        String key = kind + "#" + Math.floorMod(index, (long) Math.max(1, config.getVariants()));
+        try {
+            Path target = mediaLayout.prepare(directory, filename);
+            Path source = variants.get(key);
+            if (source == null) {
+                // Replace rather than write through, the old file may be a hard link shared with other rows
+                Files.deleteIfExists(target);
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    content.writeTo(out);
+                }
+                variants.put(key, target);
+                return Files.size(target);
+            }
+            if (!Files.exists(target)) {
+                link(source, target);
+            }
+            return Files.size(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write synthetic media " + filename, e);
+        }
+    }
+
+    private void link(Path source, Path target) throws IOException {
+        if (config.isHardLinks()) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                if (!linkFallbackLogged) {
+                    log.warn("Hard links not available ({}), copying media files instead", e.getMessage());
+                    linkFallbackLogged = true;
+                }
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private SplittableRandom variantRandom(String kind, long index) {
+        return new SplittableRandom(seed * 31 + kind.hashCode() * 17L + Math.floorMod(index, (long) Math.max(1, config.getVariants())));
+    }
+
+    /**
+     * A photo-like image: diagonal gradient with overlapping translucent shapes, so JPEG sizes are realistic
+     */
+    static BufferedImage render(int width, int height, SplittableRandom random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                    width, height, new Color(random.nextInt(0xFFFFFF))));
+            g2d.fillRect(0, 0, width, height);
+            for (int i = 0; i < 40; i++) {
+                g2d.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), 60 + random.nextInt(120)));
+                int w = 1 + random.nextInt(Math.max(1, width / 3));
+                int h = 1 + random.nextInt(Math.max(1, height / 3));
+                g2d.fillOval(random.nextInt(width), random.nextInt(height), w, h);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    private static void writeBytes(OutputStream out, String header, long size, SplittableRandom random) throws IOException {
+        byte[] headerBytes = header.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(headerBytes);
+        byte[] chunk = new byte[64 * 1024];
+        long remaining = Math.max(0, size - headerBytes.length);
+        while (remaining > 0) {
+            for (int i = 0; i < chunk.length; i += 8) {
+                long value = random.nextLong();
+                for (int b = 0; b < 8 && i + b < chunk.length; b++) {
+                    chunk[i + b] = (byte) (value >>> (b * 8));
+                }
+            }
+            int length = (int) Math.min(chunk.length, remaining);
+            out.write(chunk, 0, length);
+            remaining -= length;
+        }
+    }
+
+    @FunctionalInterface
+    private interface MediaContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,890 @@
+package org.ganjp.blog.common.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.audit.model.enums.AuditDictionaryType;
+import org.ganjp.blog.common.audit.service.AuditDictionaryService;
+import org.ganjp.blog.common.config.DataGeneratorProperties;
+import org.ganjp.blog.common.storage.service.MediaLayout;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Fills every table from resources/database/mysql with correlated synthetic rows and writes matching media
+ * files into the configured upload directories. Runs once at startup under the datagen profile, e.g.
+ * mvn spring-boot:run -Dspring-boot.run.profiles=dev,datagen -Dspring-boot.run.arguments=--datagen.scale=10
+ * <p>
+ * Output is a pure function of datagen.seed and the row counts: ids, names, tags, timestamps and file contents
+ * are identical across runs, so benchmark results from different machines are comparable.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    /**
+     * BCrypt hash of "123456", the same password as the seeded gjpb account
+     */
+    static final String PASSWORD_HASH = "$2a$10$PAvGvs85PZwxlV.u4c8q.u96smuyMlpcPFAXNKTlidf3F65gOfdbi";
+    static final String EMAIL_DOMAIN = "datagen.test";
+
+    private static final String[] TRAILER = {
+            "lang", "display_order", "created_at", "updated_at", "created_by", "updated_by", "is_active"
+    };
+    private static final String[][] STANDARD_ROLES = {
+            {"SUPER_ADMIN", "Super Administrator", null},
+            {"ADMIN", "System Administrator", null},
+            {"CONTENT_MANAGER", "Content Manager", "ADMIN"},
+            {"USER_MANAGER", "User Manager", "ADMIN"},
+            {"EDITOR", "Senior Editor", "CONTENT_MANAGER"},
+            {"AUTHOR", "Content Author", "EDITOR"},
+            {"MODERATOR", "Content Moderator", "CONTENT_MANAGER"},
+            {"SUPPORT_AGENT", "Customer Support Agent", "USER_MANAGER"},
+            {"API_CLIENT", "API Integration Client", null},
+            {"USER", "Regular User", null}
+    };
+    private static final String[] QUESTION_TABLES = {
+            "rubi_multiple_choice_question", "rubi_free_text_question", "rubi_true_false_question", "rubi_fill_blank_question"
+    };
+    /**
+     * REST resources with the table their {id} path variable points at, most requested first
+     */
+    private static final String[][] AUDITED_RESOURCES = {
+            {"vocabulary-rus", "rubi_vocabulary"}, {"images", "cms_image"}, {"articles", "cms_article"},
+            {"multiple-choice-question-rus", "rubi_multiple_choice_question"}, {"sentence-rus", "rubi_sentence"},
+            {"audios", "cms_audio"}, {"videos", "cms_video"}, {"expression-rus", "rubi_expression"},
+            {"image-rus", "rubi_image"}, {"logos", "cms_logo"}, {"websites", "cms_website"}, {"files", "cms_file"},
+            {"questions", "cms_question"}, {"fill-blank-question-rus", "rubi_fill_blank_question"},
+            {"true-false-question-rus", "rubi_true_false_question"}, {"users", "auth_users"}
+    };
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+            "okhttp/4.12.0"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataGeneratorProperties properties;
+    private final Environment environment;
+    private final AuditDictionaryService auditDictionaryService;
+    private final ConfigurableApplicationContext applicationContext;
+    private final SyntheticValues values;
+    private final MediaFileWriter media;
+
+    private final Map<String, String> roleIds = new LinkedHashMap<>();
+    private long users;
+    private long admins;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  DataGeneratorProperties properties, Environment environment,
+                                  AuditDictionaryService auditDictionaryService,
+                                  ConfigurableApplicationContext applicationContext, MediaLayout mediaLayout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.environment = environment;
+        this.auditDictionaryService = auditDictionaryService;
+        this.applicationContext = applicationContext;
+        this.values = new SyntheticValues(properties.getSeed(), properties.getStartTime(), properties.getSpanDays());
+        this.media = new MediaFileWriter(properties.getMedia(), properties.getSeed(), mediaLayout);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            generate();
+        } catch (RuntimeException e) {
+            log.error("Synthetic data generation failed", e);
+            exitCode = 1;
+        }
+        if (properties.isExitOnFinish()) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        }
+    }
+
+    /**
+     * Generate all tables in foreign key order
+     */
+    public void generate() {
+        long startNanos = System.nanoTime();
+        log.info("Generating synthetic dataset: seed={}, scale={}, media={}", properties.getSeed(),
+                properties.getScale(), properties.getMedia().isEnabled());
+        if (properties.isTruncate()) {
+            truncate();
+        } else if (exists("auth_users", values.id("auth_users", 0))) {
+            throw new IllegalStateException("Dataset for seed " + properties.getSeed()
+                    + " already exists; use another datagen.seed or set datagen.truncate=true");
+        }
+
+        generateUsers();
+        generateRoles();
+        generateUserRoles();
+        generateRefreshTokens();
+        generateAppSettings();
+
+        generateWebsites();
+        generateLogos();
+        generateImages();
+        generateVideos("cms_video", directory("video.upload.directory"));
+        generateAudios("cms_audio", directory("audio.upload.directory"));
+        generateArticles("cms_article", directory("article.cover-image.upload.directory"));
+        generateArticleImages("cms_article_image", "cms_article", "article_id", "article_title",
+                directory("article.content-image.upload.directory"));
+        generateFiles();
+        generateCmsQuestions();
+
+        generateVocabularies();
+        generateExpressions();
+        generateSentences();
+        generateMultipleChoiceQuestions();
+        generateFreeTextQuestions();
+        generateTrueFalseQuestions();
+        generateFillBlankQuestions();
+        generateQuestionImages();
+        generateRubiImages();
+        generateVideos("rubi_video", directory("rubi.video.upload.directory"));
+        generateAudios("rubi_audio", directory("rubi.audio.upload.directory"));
+        generateArticles("rubi_article", directory("rubi.article.cover-image.upload.directory"));
+        generateArticleImages("rubi_article_image", "rubi_article", "article_ru_id", "article_ru_title",
+                directory("rubi.article.content-image.upload.directory"));
+
+        generateAuditLogs();
+        log.info("Synthetic dataset complete in {} s", (System.nanoTime() - startNanos) / 1_000_000_000);
+    }
+
+    // ---------------------------------------------------------------- auth and settings
+
+    private void generateUsers() {
+        users = rows("auth_users");
+        admins = Math.max(1, users / 1000);
+        BatchInserter insert = inserter("auth_users", users, "id", "nickname", "username", "email",
+                "mobile_country_code", "mobile_number", "password_hash", "account_status", "last_login_at",
+                "last_login_ip", "password_changed_at", "failed_login_attempts", "created_at", "updated_at", "is_active");
+        for (long i = 0; i < users; i++) {
+            SplittableRandom random = values.random("auth_users", i);
+            int status = random.nextInt(100);
+            String accountStatus = status < 90 ? "active" : status < 94 ? "locked" : status < 97 ? "suspended" : "pending_verification";
+            LocalDateTime createdAt = values.timestamp(random);
+            LocalDateTime lastLogin = "active".equals(accountStatus) ? createdAt.plusHours(random.nextInt(24 * 90)) : null;
+            insert.add(userId(i),
+                    random.nextInt(3) == 0 ? SyntheticValues.chineseName(random) : SyntheticValues.englishName(random),
+                    username(i), username(i) + "@" + EMAIL_DOMAIN, "65", String.format("8%08d", i), PASSWORD_HASH,
+                    accountStatus, lastLogin, lastLogin != null ? SyntheticValues.ipAddress(random) : null, createdAt,
+                    "locked".equals(accountStatus) ? 5 : 0, createdAt, lastLogin != null ? lastLogin : createdAt,
+                    !"suspended".equals(accountStatus));
+        }
+        insert.finish();
+    }
+
+    /**
+     * Reuse the seeded role hierarchy when present, create it otherwise, then add custom roles up to the row count
+     */
+    private void generateRoles() {
+        jdbcTemplate.query("SELECT code, id FROM auth_roles", rs -> {
+            roleIds.put(rs.getString(1), rs.getString(2));
+        });
+        long total = Math.max(STANDARD_ROLES.length, rows("auth_roles"));
+        BatchInserter insert = inserter("auth_roles", total, "id", "code", "name", "description", "parent_role_id",
+                "level", "is_system_role", "sort_order", "created_at", "updated_at", "is_active");
+        for (int i = 0; i < total; i++) {
+            String code = i < STANDARD_ROLES.length ? STANDARD_ROLES[i][0] : "CUSTOM_ROLE_" + i;
+            if (roleIds.containsKey(code)) {
+                continue;
+            }
+            String parent = i < STANDARD_ROLES.length && STANDARD_ROLES[i][2] != null ? roleIds.get(STANDARD_ROLES[i][2]) : null;
+            String name = i < STANDARD_ROLES.length ? STANDARD_ROLES[i][1] : "Custom Role " + i;
+            String id = values.id("auth_roles", i);
+            roleIds.put(code, id);
+            // Parents precede children in STANDARD_ROLES and rows are inserted in order, so parent FKs resolve
+            insert.add(id, code, name, name + " (generated)", parent, parent != null ? 1 : 0,
+                    i < 2 || "USER".equals(code), i + 1, properties.getStartTime(), properties.getStartTime(), true);
+        }
+        insert.finish();
+    }
+
+    private void generateUserRoles() {
+        List<String> extraRoles = List.of("EDITOR", "AUTHOR", "MODERATOR", "SUPPORT_AGENT", "API_CLIENT");
+        BatchInserter insert = inserter("auth_user_roles", users, "user_id", "role_id", "granted_at", "created_at",
+                "updated_at", "is_active");
+        for (long i = 0; i < users; i++) {
+            SplittableRandom random = values.random("auth_user_roles", i);
+            LocalDateTime granted = values.timestamp(random);
+            String primary = i == 0 ? "SUPER_ADMIN" : i < admins ? "ADMIN" : "USER";
+            insert.add(userId(i), roleIds.get(primary), granted, granted, granted, true);
+            if (i >= admins && random.nextInt(5) == 0) {
+                insert.add(userId(i), roleIds.get(extraRoles.get(random.nextInt(extraRoles.size()))), granted, granted,
+                        granted, random.nextInt(10) != 0);
+            }
+        }
+        insert.finish();
+    }
+
+    private void generateRefreshTokens() {
+        long total = users == 0 ? 0 : rows("auth_refresh_tokens");
+        BatchInserter insert = inserter("auth_refresh_tokens", total, "id", "user_id", "token_hash", "expires_at",
+                "is_revoked", "revoked_at", "last_used_at", "created_at", "updated_at");
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random("auth_refresh_tokens", i);
+            String id = values.id("auth_refresh_tokens", i);
+            LocalDateTime createdAt = values.timestamp(random);
+            boolean revoked = random.nextInt(10) < 3;
+            insert.add(id, userId(SyntheticValues.parentIndex(random, users)), sha256(id), createdAt.plusDays(30),
+                    revoked, revoked ? createdAt.plusDays(random.nextInt(30)) : null,
+                    createdAt.plusHours(random.nextInt(720)), createdAt, createdAt);
+        }
+        insert.finish();
+    }
+
+    private void generateAppSettings() {
+        long total = rows("bm_app_settings");
+        BatchInserter insert = inserter("bm_app_settings", total, "id", "name", "value", "lang", "is_system",
+                "is_public", "created_at", "created_by", "updated_at", "updated_by");
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random("bm_app_settings", i);
+            String lang = i % 2 == 0 ? "EN" : "ZH";
+            LocalDateTime createdAt = values.timestamp(random);
+            String admin = adminId(random);
+            insert.add(values.id("bm_app_settings", i), "synthetic_setting_" + i / 2,
+                    SyntheticValues.title(random, lang, 3), lang, random.nextInt(5) == 0, random.nextBoolean(),
+                    createdAt, admin, createdAt, admin);
+        }
+        insert.finish();
+    }
+
+    // ---------------------------------------------------------------- cms
+
+    private void generateWebsites() {
+        String table = "cms_website";
+        long total = rows(table);
+        BatchInserter insert = inserter(table, total, columns("id", "name", "url", "logo_url", "description", "tags"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 2) + " " + i;
+            String slug = slug(name, i);
+            insert.add(row(new Object[]{values.id(table, i), name, "https://" + slug + ".example.com",
+                    "https://" + slug + ".example.com/logo.png", SyntheticValues.paragraph(random, lang, 2),
+                    SyntheticValues.tags(random)}, trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateLogos() {
+        String table = "cms_logo";
+        long total = rows(table);
+        Path directory = directory("logo.upload.directory");
+        int size = properties.getMedia().getLogoSize();
+        BatchInserter insert = inserter(table, total, columns("id", "name", "original_url", "filename", "extension", "tags"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 2);
+            String filename = slug(name, i) + ".png";
+            media.image(directory, filename, i, size, size);
+            insert.add(row(new Object[]{values.id(table, i), name, "https://cdn.example.com/logos/" + filename, filename,
+                    "png", SyntheticValues.tags(random)}, trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateImages() {
+        String table = "cms_image";
+        long total = rows(table);
+        Path directory = directory("image.upload.directory");
+        BatchInserter insert = inserter(table, total, columns("id", "name", "original_url", "source_name", "filename",
+                "thumbnail_filename", "extension", "mime_type", "size_bytes", "width", "height", "alt_text", "tags"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 2 + random.nextInt(2));
+            Object[] image = image(directory, name, i);
+            insert.add(row(new Object[]{values.id(table, i), name, "https://images.example.com/" + image[0],
+                    SyntheticValues.pick(random, SyntheticValues.SOURCES), image[0], image[1], "jpg", "image/jpeg",
+                    image[2], image[3], image[4], name, SyntheticValues.tags(random)}, trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateVideos(String table, Path directory) {
+        long total = rows(table);
+        boolean rubi = table.startsWith("rubi");
+        BatchInserter insert = inserter(table, total, columns(rubi ? new String[]{"id", "name", "description",
+                "filename", "size_bytes", "original_url", "source_name", "cover_image_filename", "term", "week", "tags"}
+                : new String[]{"id", "name", "description", "filename", "size_bytes", "original_url", "source_name",
+                "cover_image_filename", "tags"}));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 3);
+            String base = slug(name, i);
+            long size = media.video(directory, base + ".mp4", i);
+            String cover = base + "-cover.jpg";
+            media.image(directory.resolve("cover-images"), cover, i, 1280, 720);
+            List<Object> row = new ArrayList<>(List.of(values.id(table, i), name, SyntheticValues.paragraph(random, lang, 2),
+                    base + ".mp4", size, "https://videos.example.com/" + base,
+                    SyntheticValues.pick(random, SyntheticValues.SOURCES), cover));
+            if (rubi) {
+                row.add(SyntheticValues.term(random));
+                row.add(SyntheticValues.week(random));
+            }
+            row.add(SyntheticValues.tags(random));
+            insert.add(row(row.toArray(), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateAudios(String table, Path directory) {
+        long total = rows(table);
+        boolean rubi = table.startsWith("rubi");
+        BatchInserter insert = inserter(table, total, columns(rubi ? new String[]{"id", "name", "original_url",
+                "source_name", "filename", "size_bytes", "cover_image_filename", "description", "subtitle", "artist",
+                "term", "week", "tags"} : new String[]{"id", "name", "original_url", "source_name", "filename",
+                "size_bytes", "cover_image_filename", "description", "subtitle", "artist", "tags"}));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 2);
+            String base = slug(name, i);
+            long size = media.audio(directory, base + ".mp3", i);
+            String cover = random.nextInt(3) == 0 ? null : base + "-cover.jpg";
+            if (cover != null) {
+                media.image(directory.resolve("cover-images"), cover, i, 600, 600);
+            }
+            List<Object> row = new ArrayList<>(List.of(values.id(table, i), name, "https://audio.example.com/" + base,
+                    SyntheticValues.pick(random, SyntheticValues.SOURCES), base + ".mp3", size));
+            row.add(cover);
+            row.add(SyntheticValues.sentence(random, lang, 6));
+            row.add(SyntheticValues.paragraph(random, lang, 3 + random.nextInt(6)));
+            row.add("ZH".equals(lang) ? SyntheticValues.chineseName(random) : SyntheticValues.englishName(random));
+            if (rubi) {
+                row.add(SyntheticValues.term(random));
+                row.add(SyntheticValues.week(random));
+            }
+            row.add(SyntheticValues.tags(random));
+            insert.add(row(row.toArray(), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateArticles(String table, Path coverDirectory) {
+        long total = rows(table);
+        boolean rubi = table.startsWith("rubi");
+        BatchInserter insert = inserter(table, total, columns(rubi ? new String[]{"id", "title", "summary", "content",
+                "original_url", "source_name", "cover_image_filename", "cover_image_original_url", "term", "week", "tags"}
+                : new String[]{"id", "title", "summary", "content", "original_url", "source_name", "cover_image_filename",
+                "cover_image_original_url", "tags"}));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = articleLang(table, i);
+            String title = articleTitle(table, i);
+            String cover = slug(title, i) + "-cover.jpg";
+            media.image(coverDirectory, cover, i, 1200, 630);
+            StringBuilder content = new StringBuilder();
+            int paragraphs = 3 + random.nextInt(12);
+            for (int p = 0; p < paragraphs; p++) {
+                content.append("<p>").append(SyntheticValues.paragraph(random, lang, 3 + random.nextInt(5))).append("</p>\n");
+            }
+            List<Object> row = new ArrayList<>(List.of(values.id(table, i), title, SyntheticValues.paragraph(random, lang, 1),
+                    content.toString(), "https://news.example.com/" + slug(title, i),
+                    SyntheticValues.pick(random, SyntheticValues.SOURCES), cover,
+                    "https://images.example.com/" + cover));
+            if (rubi) {
+                row.add(SyntheticValues.term(random));
+                row.add(SyntheticValues.week(random));
+            }
+            row.add(SyntheticValues.tags(random));
+            insert.add(row(row.toArray(), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    /**
+     * Content images belong to a skewed subset of articles and copy the parent's title and language
+     */
+    private void generateArticleImages(String table, String articleTable, String articleIdColumn,
+                                       String articleTitleColumn, Path directory) {
+        long total = rows(table);
+        long articles = rows(articleTable);
+        if (articles == 0) {
+            return;
+        }
+        BatchInserter insert = inserter(table, total, columns("id", articleIdColumn, articleTitleColumn, "filename",
+                "original_url", "width", "height"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            long article = SyntheticValues.parentIndex(random, articles);
+            String lang = articleLang(articleTable, article);
+            String title = articleTitle(articleTable, article);
+            int width = 800 + 100 * random.nextInt(5);
+            int height = width * 2 / 3;
+            String filename = slug(title, article) + "-" + i + ".jpg";
+            media.image(directory, filename, i, width, height);
+            insert.add(row(new Object[]{values.id(table, i), values.id(articleTable, article), title, filename,
+                    "https://images.example.com/" + filename, width, height}, trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateFiles() {
+        String table = "cms_file";
+        long total = rows(table);
+        Path directory = directory("file.upload.directory");
+        BatchInserter insert = inserter(table, total, columns("id", "name", "original_url", "source_name", "filename",
+                "size_bytes", "extension", "mime_type", "tags"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 3);
+            String filename = slug(name, i) + ".pdf";
+            long size = media.document(directory, filename, i);
+            insert.add(row(new Object[]{values.id(table, i), name, "https://docs.example.com/" + filename,
+                    SyntheticValues.pick(random, SyntheticValues.SOURCES), filename, size, "pdf", "application/pdf",
+                    SyntheticValues.tags(random)}, trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateCmsQuestions() {
+        String table = "cms_question";
+        long total = rows(table);
+        BatchInserter insert = inserter(table, total, columns("id", "question", "answer", "tags"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            insert.add(row(new Object[]{values.id(table, i), question(random, lang, i),
+                    SyntheticValues.paragraph(random, lang, 2 + random.nextInt(4)), SyntheticValues.tags(random)},
+                    trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    // ---------------------------------------------------------------- rubi
+
+    private void generateVocabularies() {
+        String table = "rubi_vocabulary";
+        long total = rows(table);
+        Path imageDirectory = directory("rubi.vocabulary.image.directory");
+        Path audioDirectory = directory("rubi.vocabulary.audio.directory");
+        BatchInserter insert = inserter(table, total, columns("id", "name", "phonetic", "part_of_speech",
+                "noun_plural_form", "verb_simple_past_tense", "verb_present_participle", "translation", "synonyms",
+                "definition", "example", "dictionary_url", "image_filename", "phonetic_audio_filename", "term", "week",
+                "tags", "difficulty_level"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = random.nextInt(5) == 0 ? "ZH" : "EN";
+            String word = "ZH".equals(lang) ? SyntheticValues.pick(random, SyntheticValues.CHINESE_WORDS)
+                    : SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS);
+            String name = word + i;
+            String partOfSpeech = SyntheticValues.pick(random, SyntheticValues.PARTS_OF_SPEECH);
+            String file = "vocabulary-" + i;
+            String image = random.nextInt(4) == 0 ? file + ".jpg" : null;
+            if (image != null) {
+                media.image(imageDirectory, image, i, 640, 480);
+            }
+            media.audio(audioDirectory, file + ".mp3", i);
+            insert.add(row(new Object[]{values.id(table, i), name, "/" + word + "/", partOfSpeech,
+                    "noun".equals(partOfSpeech) ? name + "s" : null, "verb".equals(partOfSpeech) ? name + "ed" : null,
+                    "verb".equals(partOfSpeech) ? name + "ing" : null,
+                    "ZH".equals(lang) ? SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS)
+                            : SyntheticValues.pick(random, SyntheticValues.CHINESE_WORDS),
+                    SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS) + ","
+                            + SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS),
+                    SyntheticValues.sentence(random, lang, 8), SyntheticValues.sentence(random, lang, 6),
+                    "https://dictionary.example.com/" + word, image, file + ".mp3", SyntheticValues.term(random),
+                    SyntheticValues.week(random), SyntheticValues.tags(random), SyntheticValues.difficulty(random)},
+                    trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateExpressions() {
+        generatePhrases("rubi_expression", directory("rubi.expression.audio.directory"), 3, "explanation", "example");
+    }
+
+    private void generateSentences() {
+        generatePhrases("rubi_sentence", directory("rubi.sentence.audio.directory"), 8, "explanation", null);
+    }
+
+    private void generatePhrases(String table, Path audioDirectory, int words, String explanationColumn, String exampleColumn) {
+        long total = rows(table);
+        List<String> specific = new ArrayList<>(List.of("id", "name", "phonetic", "phonetic_audio_filename",
+                "translation", explanationColumn));
+        if (exampleColumn != null) {
+            specific.add(exampleColumn);
+        }
+        specific.addAll(List.of("tags", "difficulty_level", "term", "week"));
+        BatchInserter insert = inserter(table, total, columns(specific.toArray(String[]::new)));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = random.nextInt(5) == 0 ? "ZH" : "EN";
+            String name = SyntheticValues.sentence(random, lang, words) + " (" + i + ")";
+            String audio = table.substring(5) + "-" + i + ".mp3";
+            media.audio(audioDirectory, audio, i);
+            List<Object> row = new ArrayList<>(List.of(values.id(table, i), name, "/" + slug(name, i) + "/", audio,
+                    SyntheticValues.sentence(random, "ZH".equals(lang) ? "EN" : "ZH", words),
+                    SyntheticValues.paragraph(random, lang, 1)));
+            if (exampleColumn != null) {
+                row.add(SyntheticValues.sentence(random, lang, 6));
+            }
+            row.addAll(List.of(SyntheticValues.tags(random), SyntheticValues.difficulty(random),
+                    SyntheticValues.term(random), SyntheticValues.week(random)));
+            insert.add(row(row.toArray(), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateMultipleChoiceQuestions() {
+        String table = "rubi_multiple_choice_question";
+        long total = rows(table);
+        BatchInserter insert = inserter(table, total, columns(questionColumns("option_a", "option_b", "option_c", "option_d")));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String answer = String.valueOf((char) ('A' + random.nextInt(4)));
+            if (random.nextInt(10) == 0) {
+                answer = "A,C";
+            }
+            insert.add(row(questionRow(table, random, lang, i, question(random, lang, i), answer,
+                    SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS),
+                    SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS),
+                    SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS),
+                    SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS)), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateFreeTextQuestions() {
+        String table = "rubi_free_text_question";
+        long total = rows(table);
+        BatchInserter insert = inserter(table, total, columns(questionColumns("description", "questiona", "answera",
+                "questionb", "answerb")));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            insert.add(row(questionRow(table, random, lang, i, question(random, lang, i),
+                    SyntheticValues.paragraph(random, lang, 2), SyntheticValues.paragraph(random, lang, 2),
+                    SyntheticValues.sentence(random, lang, 6), SyntheticValues.sentence(random, lang, 4),
+                    SyntheticValues.sentence(random, lang, 6), SyntheticValues.sentence(random, lang, 4)),
+                    trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateTrueFalseQuestions() {
+        String table = "rubi_true_false_question";
+        long total = rows(table);
+        BatchInserter insert = inserter(table, total, columns(questionColumns()));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            insert.add(row(questionRow(table, random, lang, i, question(random, lang, i),
+                    random.nextBoolean() ? "TRUE" : "FALSE"), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    private void generateFillBlankQuestions() {
+        String table = "rubi_fill_blank_question";
+        long total = rows(table);
+        BatchInserter insert = inserter(table, total, columns(questionColumns()));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String word = SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS);
+            insert.add(row(questionRow(table, random, lang, i, "I saw a ___ near the " + word + " (" + i + ").",
+                    SyntheticValues.pick(random, SyntheticValues.ENGLISH_WORDS)), trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    /**
+     * Each image is attached to exactly one question of one of the four question types
+     */
+    private void generateQuestionImages() {
+        String table = "rubi_question_image";
+        long total = rows(table);
+        Path directory = directory("rubi.question-image.upload.directory");
+        BatchInserter insert = inserter(table, total, columns("id", "multiple_choice_question_id",
+                "free_text_question_id", "true_false_question_id", "fill_blank_question_id", "filename", "original_url",
+                "width", "height"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            Object[] parents = new Object[QUESTION_TABLES.length];
+            int type = random.nextInt(QUESTION_TABLES.length);
+            long questions = rows(QUESTION_TABLES[type]);
+            if (questions > 0) {
+                parents[type] = values.id(QUESTION_TABLES[type], SyntheticValues.parentIndex(random, questions));
+            }
+            String filename = "question-image-" + i + ".png";
+            media.image(directory, filename, i, 800, 600);
+            insert.add(row(new Object[]{values.id(table, i), parents[0], parents[1], parents[2], parents[3], filename,
+                    "https://images.example.com/" + filename, 800, 600}, trailer(random, SyntheticValues.lang(random))));
+        }
+        insert.finish();
+    }
+
+    private void generateRubiImages() {
+        String table = "rubi_image";
+        long total = rows(table);
+        Path directory = directory("rubi.image.upload.directory");
+        BatchInserter insert = inserter(table, total, columns("id", "name", "original_url", "source_name", "filename",
+                "thumbnail_filename", "extension", "mime_type", "size_bytes", "width", "height", "alt_text", "term",
+                "week", "tags"));
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String lang = SyntheticValues.lang(random);
+            String name = SyntheticValues.title(random, lang, 2);
+            Object[] image = image(directory, name, i);
+            insert.add(row(new Object[]{values.id(table, i), name, "https://images.example.com/" + image[0],
+                    SyntheticValues.pick(random, SyntheticValues.SOURCES), image[0], image[1], "jpg", "image/jpeg",
+                    image[2], image[3], image[4], name, SyntheticValues.term(random), SyntheticValues.week(random),
+                    SyntheticValues.tags(random)}, trailer(random, lang)));
+        }
+        insert.finish();
+    }
+
+    // ---------------------------------------------------------------- audit
+
+    /**
+     * Audit rows are written in timestamp order like the live pipeline, with a realistic method, status and latency mix
+     */
+    private void generateAuditLogs() {
+        String table = "audit_logs";
+        long total = rows(table);
+        if (total == 0) {
+            return;
+        }
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        BatchInserter insert = inserter(table, total, "id", "user_id", "username", "http_method_id", "endpoint_id",
+                "resource_id", "request_id", "result_id", "status_code", "error_message", "ip_address", "user_agent_id",
+                "session_id", "duration_ms", "timestamp");
+        for (long i = 0; i < total; i++) {
+            SplittableRandom random = values.random(table, i);
+            String[] resource = AUDITED_RESOURCES[SyntheticValues.zipf(random, AUDITED_RESOURCES.length)];
+            int methodRoll = random.nextInt(100);
+            String method = methodRoll < 70 ? "GET" : methodRoll < 82 ? "POST" : methodRoll < 94 ? "PUT" : "DELETE";
+            boolean byId = !"POST".equals(method) && ("GET".equals(method) ? random.nextInt(3) == 0 : true);
+            String endpoint = "/blog/v1/" + resource[0] + (byId ? "/{id}" : "");
+            long resourceRows = rows(resource[1]);
+            String resourceId = byId && resourceRows > 0
+                    ? values.id(resource[1], SyntheticValues.parentIndex(random, resourceRows)) : null;
+
+            int statusRoll = random.nextInt(1000);
+            int status = statusRoll < 930 ? ("POST".equals(method) ? 201 : 200) : statusRoll < 960 ? 404
+                    : statusRoll < 980 ? 400 : statusRoll < 990 ? 401 : statusRoll < 995 ? 403 : 500;
+            String result = switch (status) {
+                case 200 -> "Operation successful";
+                case 201 -> "Created successfully";
+                case 400 -> "Validation failed";
+                case 401 -> "Unauthorized";
+                case 403 -> "Access denied";
+                case 404 -> "Resource not found";
+                default -> "Internal server error";
+            };
+            String errorMessage = status >= 400 ? result + " for " + method + " " + endpoint : null;
+
+            boolean anonymous = users == 0 || status == 401 || random.nextInt(5) == 0;
+            long user = anonymous ? -1 : SyntheticValues.parentIndex(random, users);
+            double latency = Math.exp(3.2 + 0.9 * random.nextDouble() + ("GET".equals(method) ? 0 : 0.8));
+            insert.add(values.id(table, i), user >= 0 ? userId(user) : null, user >= 0 ? username(user) : null,
+                    dictionary(dictionary, AuditDictionaryType.HTTP_METHOD, method),
+                    dictionary(dictionary, AuditDictionaryType.ENDPOINT, endpoint), resourceId,
+                    values.id("request", i), dictionary(dictionary, AuditDictionaryType.RESULT, result), status,
+                    errorMessage, SyntheticValues.ipAddress(random),
+                    dictionary(dictionary, AuditDictionaryType.USER_AGENT, SyntheticValues.pick(random, USER_AGENTS)),
+                    anonymous ? null : values.id("session", user * 16 + random.nextInt(16)),
+                    (long) (status >= 400 ? latency / 3 : latency), values.sequentialTimestamp(random, i, total));
+        }
+        insert.finish();
+    }
+
+    private Integer dictionary(Map<String, Integer> cache, AuditDictionaryType type, String value) {
+        return cache.computeIfAbsent(type + ":" + value, key -> auditDictionaryService.idFor(type, value));
+    }
+
+    // ---------------------------------------------------------------- shared row helpers
+
+    private String[] questionColumns(String... extra) {
+        List<String> columns = new ArrayList<>(List.of("id", "question", "answer"));
+        columns.addAll(List.of(extra));
+        columns.addAll(List.of("explanation", "difficulty_level", "grammar_chapter", "science_chapter", "term", "week",
+                "fail_count", "success_count", "tags"));
+        return columns.toArray(String[]::new);
+    }
+
+    /**
+     * Question columns in questionColumns order; attempts follow the difficulty so hard questions fail more often
+     */
+    private Object[] questionRow(String table, SplittableRandom random, String lang, long index, String question,
+                                 String answer, Object... extra) {
+        String difficulty = SyntheticValues.difficulty(random);
+        int attempts = random.nextInt(500);
+        int failPercent = "hard".equals(difficulty) ? 55 : "medium".equals(difficulty) ? 35 : 15;
+        int fails = attempts * failPercent / 100;
+        List<Object> row = new ArrayList<>();
+        row.add(values.id(table, index));
+        row.add(question);
+        row.add(answer);
+        row.addAll(List.of(extra));
+        row.add(SyntheticValues.paragraph(random, lang, 1));
+        row.add(difficulty);
+        row.add("Chapter " + (1 + random.nextInt(12)));
+        row.add(random.nextInt(3) == 0 ? "Unit " + (1 + random.nextInt(8)) : null);
+        row.add(SyntheticValues.term(random));
+        row.add(SyntheticValues.week(random));
+        row.add(fails);
+        row.add(attempts - fails);
+        row.add(SyntheticValues.tags(random));
+        return row.toArray();
+    }
+
+    private String question(SplittableRandom random, String lang, long index) {
+        return ("ZH".equals(lang) ? "哪个词的意思是" + SyntheticValues.pick(random, SyntheticValues.CHINESE_WORDS)
+                : "Which word best completes: " + SyntheticValues.sentence(random, lang, 5)) + " (" + index + ")";
+    }
+
+    /**
+     * Generated image plus thumbnail: {filename, thumbnailFilename, sizeBytes, width, height}
+     */
+    private Object[] image(Path directory, String name, long index) {
+        DataGeneratorProperties.Media config = properties.getMedia();
+        int width = config.getImageWidth();
+        int height = config.getImageHeight();
+        String base = slug(name, index) + "-" + width + "-" + height;
+        long size = media.image(directory, base + ".jpg", index, width, height);
+        int thumbWidth = Math.min(width, config.getThumbnailSize());
+        int thumbHeight = Math.max(1, height * thumbWidth / width);
+        String thumbnail = slug(name, index) + "-" + thumbWidth + "-" + thumbHeight + "-thumb.jpg";
+        media.image(directory, thumbnail, index, thumbWidth, thumbHeight);
+        return new Object[]{base + ".jpg", thumbnail, size, width, height};
+    }
+
+    /**
+     * lang, display_order, created_at, updated_at, created_by, updated_by, is_active
+     */
+    private Object[] trailer(SplittableRandom random, String lang) {
+        LocalDateTime createdAt = values.timestamp(random);
+        LocalDateTime updatedAt = random.nextInt(3) == 0 ? createdAt.plusHours(1 + random.nextInt(24 * 60)) : createdAt;
+        String admin = adminId(random);
+        return new Object[]{lang, random.nextInt(1000), createdAt, updatedAt, admin,
+                random.nextInt(4) == 0 ? adminId(random) : admin, random.nextInt(20) != 0};
+    }
+
+    private String articleLang(String table, long index) {
+        return SyntheticValues.lang(values.random(table + ":title", index));
+    }
+
+    private String articleTitle(String table, long index) {
+        SplittableRandom random = values.random(table + ":title", index);
+        String lang = SyntheticValues.lang(random);
+        return SyntheticValues.title(random, lang, 3 + random.nextInt(3)) + " " + index;
+    }
+
+    private String userId(long index) {
+        return values.id("auth_users", index);
+    }
+
+    /**
+     * Username derived from the user index alone, so audit rows can repeat it without a lookup
+     */
+    private String username(long index) {
+        SplittableRandom random = values.random("auth_users:username", index);
+        return (SyntheticValues.pick(random, SyntheticValues.FIRST_NAMES) + "."
+                + SyntheticValues.pick(random, SyntheticValues.LAST_NAMES)).toLowerCase(Locale.ROOT) + index;
+    }
+
+    private String adminId(SplittableRandom random) {
+        return users == 0 ? null : userId(random.nextLong(admins));
+    }
+
+    private static String[] columns(String... specific) {
+        String[] columns = new String[specific.length + TRAILER.length];
+        System.arraycopy(specific, 0, columns, 0, specific.length);
+        System.arraycopy(TRAILER, 0, columns, specific.length, TRAILER.length);
+        return columns;
+    }
+
+    private static Object[] row(Object[] specific, Object[] trailer) {
+        Object[] row = new Object[specific.length + trailer.length];
+        System.arraycopy(specific, 0, row, 0, specific.length);
+        System.arraycopy(trailer, 0, row, specific.length, trailer.length);
+        return row;
+    }
+
+    /**
+     * ASCII file-safe slug; Chinese titles fall back to "zh" like filenames for non-Latin names
+     */
+    static String slug(String name, long index) {
+        String slug = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        return (slug.isEmpty() ? "zh" : slug.length() > 60 ? slug.substring(0, 60) : slug) + "-" + index;
+    }
+
+    private long rows(String table) {
+        Long rows = properties.getRows().get(table);
+        return rows == null ? 0 : Math.round(rows * properties.getScale());
+    }
+
+    private BatchInserter inserter(String table, long expected, String... columns) {
+        return new BatchInserter(jdbcTemplate, transactionTemplate, properties.getBatchSize(), table, expected, columns);
+    }
+
+    private Path directory(String property) {
+        return Path.of(environment.getProperty(property, "datagen-media/" + property.replace('.', '/')));
+    }
+
+    private boolean exists(String table, String id) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Long.class, id);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Remove previously generated content. Content and audit tables are emptied; only generated users are
+     * deleted (their roles and refresh tokens cascade), so real accounts and the role hierarchy survive.
+     */
+    private void truncate() {
+        List<String> tables = new ArrayList<>(properties.getRows().keySet());
+        tables.removeAll(List.of("auth_users", "auth_roles", "auth_user_roles", "auth_refresh_tokens", "bm_app_settings"));
+        for (String table : tables) {
+            int deleted = jdbcTemplate.update("DELETE FROM " + table);
+            log.info("Deleted {} rows from {}", deleted, table);
+        }
+        jdbcTemplate.update("DELETE FROM bm_app_settings WHERE name LIKE 'synthetic_setting_%'");
+        jdbcTemplate.update("DELETE FROM auth_roles WHERE code LIKE 'CUSTOM_ROLE_%'");
+        int deleted = jdbcTemplate.update("DELETE FROM auth_users WHERE email LIKE ?", "%@" + EMAIL_DOMAIN);
+        log.info("Deleted {} generated users", deleted);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
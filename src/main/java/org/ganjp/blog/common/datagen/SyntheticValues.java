@@ -0,0 +1,216 @@
+package org.ganjp.blog.common.datagen;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic value source for synthetic rows.
+ * Every row gets its own random stream derived from (seed, table, index), so a row's id and content can be
+ * recomputed from its index alone: children reference parents without keeping parent rows in memory, and
+ * the output does not depend on generation order or on the row counts of other tables.
+ */
+public class SyntheticValues {
+
+    static final String[] SURNAMES = {
+            "王", "李", "张", "刘", "陈", "杨", "黄", "赵", "吴", "周", "徐", "孙", "马", "朱", "胡", "郭", "何", "林", "罗", "高"
+    };
+    static final String[] GIVEN_NAMES = {
+            "伟", "芳", "娜", "敏", "静", "丽", "强", "磊", "洋", "艳", "勇", "军", "杰", "娟", "涛", "明", "超", "秀英", "晓燕", "建华",
+            "子涵", "欣怡", "浩然", "梓萱", "宇轩", "雨桐", "思远", "嘉怡", "俊杰", "佳琪"
+    };
+    static final String[] CHINESE_WORDS = {
+            "春天", "学校", "朋友", "图书馆", "老师", "电脑", "音乐", "旅行", "城市", "花园", "科学", "历史", "天气", "运动", "早餐",
+            "地图", "博物馆", "星空", "海洋", "森林", "熊猫", "长城", "月亮", "故事", "作业", "考试", "假期", "节日", "家庭", "动物"
+    };
+    static final String[] ENGLISH_WORDS = {
+            "apple", "river", "mountain", "library", "teacher", "computer", "music", "journey", "city", "garden", "science",
+            "history", "weather", "sport", "breakfast", "map", "museum", "star", "ocean", "forest", "panda", "bridge", "moon",
+            "story", "homework", "exam", "holiday", "festival", "family", "animal", "window", "planet", "island", "village",
+            "kitchen", "market", "picture", "rainbow", "desert", "harbour"
+    };
+    static final String[] FIRST_NAMES = {
+            "Alice", "Ben", "Chloe", "Daniel", "Emma", "Felix", "Grace", "Henry", "Isla", "Jack", "Kai", "Lily", "Mason",
+            "Nora", "Oscar", "Priya", "Ryan", "Sofia", "Tom", "Wei"
+    };
+    static final String[] LAST_NAMES = {
+            "Tan", "Lim", "Lee", "Ng", "Wong", "Smith", "Brown", "Chen", "Garcia", "Kumar", "Taylor", "Nguyen", "Martin", "Ong"
+    };
+    /**
+     * Tags ordered by popularity; picked with a Zipf-like skew so a few tags dominate as in real content
+     */
+    static final String[] TAGS = {
+            "English", "Primary", "Grammar", "Vocabulary", "Reading", "Science", "Math", "Tech", "Programming", "Tutorial",
+            "Travel", "Photo", "Nature", "History", "Music", "Food", "Culture", "Exam", "Spelling", "Writing", "Chinese",
+            "Idiom", "Listening", "Oral", "Revision", "Holiday", "Festival", "Animals", "Space", "Ocean"
+    };
+    static final String[] DIFFICULTY_LEVELS = {"easy", "easy", "easy", "medium", "medium", "hard"};
+    static final String[] PARTS_OF_SPEECH = {"noun", "noun", "noun", "verb", "verb", "adjective", "adverb"};
+    static final String[] SOURCES = {"Wikipedia", "Unsplash", "BBC", "Khan Academy", "YouTube", "Pexels", "Oxford", "Cambridge"};
+
+    private final long seed;
+    private final LocalDateTime startTime;
+    private final long spanSeconds;
+
+    public SyntheticValues(long seed, LocalDateTime startTime, int spanDays) {
+        this.seed = seed;
+        this.startTime = startTime;
+        this.spanSeconds = Math.max(1, spanDays) * 86_400L;
+    }
+
+    /**
+     * Random stream for one row of one table
+     */
+    public SplittableRandom random(String table, long index) {
+        return new SplittableRandom(mix(seed ^ mix(table.hashCode()) ^ mix(index + 0x9E3779B97F4A7C15L)));
+    }
+
+    /**
+     * Stable UUID of a row, derived from seed, table and index
+     */
+    public String id(String table, long index) {
+        return UUID.nameUUIDFromBytes((seed + ":" + table + ":" + index).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Content language: roughly one row in three is Chinese so pinyin paths get exercised
+     */
+    public static String lang(SplittableRandom random) {
+        return random.nextInt(3) == 0 ? "ZH" : "EN";
+    }
+
+    public static String chineseName(SplittableRandom random) {
+        return pick(random, SURNAMES) + pick(random, GIVEN_NAMES);
+    }
+
+    public static String englishName(SplittableRandom random) {
+        return pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+    }
+
+    /**
+     * A short title in the row's language, e.g. "Ocean Museum" or "熊猫图书馆"
+     */
+    public static String title(SplittableRandom random, String lang, int words) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if ("ZH".equals(lang)) {
+                title.append(pick(random, CHINESE_WORDS));
+            } else {
+                if (i > 0) {
+                    title.append(' ');
+                }
+                String word = pick(random, ENGLISH_WORDS);
+                title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            }
+        }
+        return title.toString();
+    }
+
+    public static String sentence(SplittableRandom random, String lang, int words) {
+        if ("ZH".equals(lang)) {
+            return title(random, lang, words) + "。";
+        }
+        StringBuilder sentence = new StringBuilder(pick(random, FIRST_NAMES)).append(" likes the");
+        for (int i = 0; i < words; i++) {
+            sentence.append(' ').append(pick(random, ENGLISH_WORDS));
+        }
+        return sentence.append('.').toString();
+    }
+
+    public static String paragraph(SplittableRandom random, String lang, int sentences) {
+        StringBuilder paragraph = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0 && !"ZH".equals(lang)) {
+                paragraph.append(' ');
+            }
+            paragraph.append(sentence(random, lang, 4 + random.nextInt(8)));
+        }
+        return paragraph.toString();
+    }
+
+    /**
+     * One to four comma-separated tags, skewed towards the most popular ones
+     */
+    public static String tags(SplittableRandom random) {
+        int count = 1 + random.nextInt(4);
+        Set<String> tags = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            tags.add(TAGS[zipf(random, TAGS.length)]);
+        }
+        return String.join(",", tags);
+    }
+
+    /**
+     * School term 1 to 4
+     */
+    public static int term(SplittableRandom random) {
+        return 1 + random.nextInt(4);
+    }
+
+    /**
+     * Week 1 to 10 within a term, weighted towards the early weeks where most material is entered
+     */
+    public static int week(SplittableRandom random) {
+        return 1 + Math.min(random.nextInt(10), random.nextInt(10));
+    }
+
+    public static String difficulty(SplittableRandom random) {
+        return pick(random, DIFFICULTY_LEVELS);
+    }
+
+    /**
+     * A timestamp inside the configured range, uniformly distributed
+     */
+    public LocalDateTime timestamp(SplittableRandom random) {
+        return startTime.plusSeconds(random.nextLong(spanSeconds));
+    }
+
+    /**
+     * The i-th timestamp of n, evenly spread over the range with jitter, so time-ordered tables stay ordered by index
+     */
+    public LocalDateTime sequentialTimestamp(SplittableRandom random, long index, long count) {
+        long step = Math.max(1, spanSeconds / Math.max(1, count));
+        return startTime.plusSeconds(Math.min(spanSeconds - 1, index * spanSeconds / Math.max(1, count) + random.nextLong(step)));
+    }
+
+    public static String ipAddress(SplittableRandom random) {
+        return (10 + random.nextInt(200)) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+
+    public static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Rank in [0, size) with probability roughly proportional to 1 / (rank + 1)
+     */
+    public static int zipf(SplittableRandom random, int size) {
+        double harmonic = Math.log(size) + 0.5772;
+        double target = random.nextDouble() * harmonic;
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1.0 / (rank + 1);
+            if (sum >= target) {
+                return rank;
+            }
+        }
+        return size - 1;
+    }
+
+    /**
+     * Index of a parent row for child i, skewed so some parents have many children and some none
+     */
+    public static long parentIndex(SplittableRandom random, long parents) {
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return Math.min(parents - 1, (long) (skewed * parents));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -1,6 +1,7 @@
 package org.ganjp.blog.common.exception;
 
 import org.ganjp.blog.common.model.ApiResponse;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -75,6 +76,30 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(400, "Business error", errors));
     }
     
+    /**
+     * Handles requests rejected because a bounded resource is saturated
+     */
+    @ExceptionHandler({ServiceBusyException.class, TaskRejectedException.class})
+    public ResponseEntity<ApiResponse<Object>> handleServiceBusyException(RuntimeException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error(503, "Service busy", errors));
+    }
+
+    /**
+     * Handles requests that would take a user past a per-user limit
+     */
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<ApiResponse<Object>> handleQuotaExceededException(QuotaExceededException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("error", ex.getMessage());
+
+        return ResponseEntity.status(ex.getStatus())
+                .body(ApiResponse.error(ex.getStatus().value(), "Quota exceeded", errors));
+    }
+
     /**
      * Handles general runtime exceptions
      */
@@ -0,0 +1,19 @@
+package org.ganjp.blog.common.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request would take a user past a per-user limit.
+ * The GlobalExceptionHandler answers with the given status, e.g. 429 for too many open items or 413 for too many bytes.
+ */
+@Getter
+public class QuotaExceededException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public QuotaExceededException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
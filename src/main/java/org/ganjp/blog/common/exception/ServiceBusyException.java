@@ -0,0 +1,12 @@
+package org.ganjp.blog.common.exception;
+
+/**
+ * Exception thrown when a bounded resource stays saturated and the request is rejected instead of queued.
+ * The GlobalExceptionHandler maps it to 503 so clients can retry later.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,80 @@
+package org.ganjp.blog.common.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A remote body downloaded once to a temp file. Decoding, fallbacks and the final copy all read the same
+ * file, so no stage downloads the URL again. Closing deletes the file unless it was moved away.
+ */
+@Slf4j
+public class RemoteDownload implements AutoCloseable {
+
+    private final URI uri;
+    private final Path file;
+    private final long size;
+    private final String contentType;
+
+    RemoteDownload(URI uri, Path file, long size, String contentType) {
+        this.uri = uri;
+        this.file = file;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Content-Type of the response, or null if the server sent none
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    public byte[] readAllBytes() throws IOException {
+        return Files.readAllBytes(file);
+    }
+
+    /**
+     * Copy the body to the target, replacing an existing file
+     */
+    public void copyTo(Path target) throws IOException {
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Move the body to the target, replacing an existing file; the temp file is gone afterwards
+     */
+    public void moveTo(Path target) throws IOException {
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete downloaded file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package org.ganjp.blog.common.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.RemoteFetchProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Downloads remote media through one shared HttpClient: HTTP/2 where the server offers it, pooled
+ * keep-alive connections otherwise. Each download runs on the fetch bulkhead, holds one of a bounded
+ * number of slots for its host, is streamed to a temp file and cancelled as soon as it passes the size
+ * limit or stalls for longer than the read timeout. Only http and https URLs are accepted.
+ */
+@Slf4j
+@Component
+public class RemoteFetcher implements DisposableBean {
+
+    private final Bulkheads bulkheads;
+    private final RemoteFetchProperties properties;
+    private final MediaMetrics mediaMetrics;
+    private final HttpClient httpClient;
+    private final Map<String, Semaphore> hostSlots = new ConcurrentHashMap<>();
+
+    public RemoteFetcher(Bulkheads bulkheads, RemoteFetchProperties properties, MediaMetrics mediaMetrics) {
+        this.bulkheads = bulkheads;
+        this.properties = properties;
+        this.mediaMetrics = mediaMetrics;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+    }
+
+    /**
+     * Download the content of a remote URL into memory, recording its latency under the given pipeline
+     */
+    public byte[] fetch(String pipeline, String url) throws IOException {
+        try (RemoteDownload download = download(pipeline, url)) {
+            return download.readAllBytes();
+        }
+    }
+
+    /**
+     * Download a remote URL to a temp file, limited to remote-fetch.max-bytes; close the result when done
+     */
+    public RemoteDownload download(String pipeline, String url) throws IOException {
+        return download(pipeline, url, properties.getMaxBytes());
+    }
+
+    /**
+     * Download a remote URL to a temp file, limited to maxBytes; close the result when done
+     *
+     * @throws IllegalArgumentException if the URL is not an absolute http or https URL
+     * @throws BusinessException if the body is larger than maxBytes
+     * @throws ServiceBusyException if the host has no free download slot within the connect timeout
+     */
+    public RemoteDownload download(String pipeline, String url, long maxBytes) throws IOException {
+        URI uri = toUri(url);
+        return bulkheads.fetch().call(() -> {
+            long downloadStart = System.nanoTime();
+            boolean downloaded = false;
+            Semaphore slots = acquireHostSlot(uri);
+            try {
+                RemoteDownload download = transfer(uri, maxBytes);
+                downloaded = true;
+                return download;
+            } finally {
+                slots.release();
+                mediaMetrics.recordDownload(pipeline, downloadStart, downloaded);
+            }
+        });
+    }
+
+    private RemoteDownload transfer(URI uri, long maxBytes) throws IOException {
+        Path file = Files.createTempFile(tempDirectory(), "fetch-", ".tmp");
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(properties.getReadTimeoutMs()))
+                    .GET()
+                    .build();
+            FileBodySubscriber body = new FileBodySubscriber(file, maxBytes);
+            CompletableFuture<HttpResponse<Long>> future = httpClient.sendAsync(request, info -> body.start(uri, info));
+            HttpResponse<Long> response = await(uri, future, body);
+            return new RemoteDownload(uri, file, response.body(), response.headers().firstValue("Content-Type").orElse(null));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for the response while the body keeps arriving; give up once nothing arrived for the read timeout
+     */
+    private HttpResponse<Long> await(URI uri, CompletableFuture<HttpResponse<Long>> future, FileBodySubscriber body) throws IOException {
+        long readTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getReadTimeoutMs());
+        while (true) {
+            long idle = System.nanoTime() - body.lastProgress;
+            try {
+                return future.get(Math.max(1, readTimeoutNanos - idle), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (System.nanoTime() - body.lastProgress >= readTimeoutNanos) {
+                    future.cancel(true);
+                    body.cancel();
+                    throw new HttpTimeoutException("No data from " + uri.getHost() + " for " + properties.getReadTimeoutMs() + " ms");
+                }
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                body.cancel();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while downloading " + uri);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException io) {
+                    throw io;
+                }
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IOException("Failed to download " + uri, cause);
+            }
+        }
+    }
+
+    private Semaphore acquireHostSlot(URI uri) throws InterruptedIOException {
+        Semaphore slots = hostSlots.computeIfAbsent(uri.getHost() + ":" + uri.getPort(),
+                host -> new Semaphore(Math.max(1, properties.getMaxConnectionsPerHost())));
+        try {
+            if (!slots.tryAcquire(properties.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new ServiceBusyException("Too many downloads from " + uri.getHost() + ", please retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to download from " + uri.getHost());
+        }
+        return slots;
+    }
+
+    private Path tempDirectory() throws IOException {
+        String directory = properties.getTempDirectory();
+        if (directory == null || directory.isBlank()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        return Files.createDirectories(Paths.get(directory));
+    }
+
+    private static URI toUri(String url) {
+        try {
+            URI uri = new URI(url == null ? "" : url.trim());
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || scheme == null
+                    || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                throw new IllegalArgumentException("Only http and https URLs can be downloaded: " + url);
+            }
+            return uri;
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid URL: " + url, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Writes the body to a file chunk by chunk, failing once it passes the size limit
+     */
+    private static final class FileBodySubscriber implements HttpResponse.BodySubscriber<Long> {
+
+        private final Path file;
+        private final long maxBytes;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private volatile long lastProgress = System.nanoTime();
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable rejection;
+        private volatile FileChannel channel;
+        private long written;
+
+        private FileBodySubscriber(Path file, long maxBytes) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * Checks the status and declared length once the headers are in
+         */
+        private HttpResponse.BodySubscriber<Long> start(URI uri, HttpResponse.ResponseInfo info) {
+            lastProgress = System.nanoTime();
+            if (info.statusCode() < 200 || info.statusCode() > 299) {
+                rejection = new IOException("Download of " + uri + " failed with HTTP " + info.statusCode());
+            } else if (info.headers().firstValueAsLong("Content-Length").orElse(-1) > maxBytes) {
+                rejection = tooLarge();
+            }
+            return this;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (rejection != null) {
+                fail(rejection);
+                return;
+            }
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) {
+                return;
+            }
+            FileChannel out = channel;
+            if (out == null) {
+                return;
+            }
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    written += buffer.remaining();
+                    if (written > maxBytes) {
+                        fail(tooLarge());
+                        return;
+                    }
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            lastProgress = System.nanoTime();
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closeChannel();
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            closeChannel();
+            result.complete(written);
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return result;
+        }
+
+        private void cancel() {
+            fail(new HttpTimeoutException("Download cancelled"));
+        }
+
+        private void fail(Throwable throwable) {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            closeChannel();
+            result.completeExceptionally(throwable);
+        }
+
+        private synchronized void closeChannel() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Could not close download file {}: {}", file, e.getMessage());
+                }
+                channel = null;
+            }
+        }
+
+        private BusinessException tooLarge() {
+            return new BusinessException("Remote file is larger than " + maxBytes + " bytes");
+        }
+    }
+}
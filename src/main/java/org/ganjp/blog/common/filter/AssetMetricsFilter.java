@@ -0,0 +1,184 @@
+package org.ganjp.blog.common.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.trace.RequestTrace;
+import org.ganjp.blog.common.util.Sendfile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filter that records bytes served and range vs. full requests for public asset files.
+ * The asset type is taken from the matched route (e.g. /v1/public/articles/cover-images/{filename}
+ * becomes "articles/cover-images"), so unknown paths cannot create new meters.
+ * The time from the first body byte to the end of the response (file read plus socket write)
+ * is attributed to the "file" phase of the request trace; bodies streamed asynchronously are counted
+ * when the async request completes, times out or fails, after the trace has ended. Files handed to sendfile
+ * count with their length.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AssetMetricsFilter extends OncePerRequestFilter {
+
+    private static final String PUBLIC_PREFIX = "/v1/public/";
+    private static final String FILENAME_SUFFIX = "/{filename}";
+
+    private final MediaMetrics mediaMetrics;
+
+    public AssetMetricsFilter(MediaMetrics mediaMetrics) {
+        this.mediaMetrics = mediaMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@org.springframework.lang.NonNull HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !request.getServletPath().startsWith(PUBLIC_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streamed bodies are written on the stream bulkhead after this dispatch returns. A timed out
+                // or failed stream is counted with the bytes it got out; the completion that follows is ignored.
+                AtomicBoolean recorded = new AtomicBoolean();
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        recordOnce();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        recordOnce();
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        recordOnce();
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+
+                    private void recordOnce() {
+                        if (recorded.compareAndSet(false, true)) {
+                            record(request, response, countingResponse);
+                        }
+                    }
+                });
+            } else {
+                record(request, response, countingResponse);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, CountingResponse countingResponse) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern instanceof String route && route.startsWith(PUBLIC_PREFIX) && route.endsWith(FILENAME_SUFFIX)) {
+            String asset = route.substring(PUBLIC_PREFIX.length(), route.length() - FILENAME_SUFFIX.length());
+            boolean partial = response.getStatus() == HttpServletResponse.SC_PARTIAL_CONTENT;
+            mediaMetrics.recordAssetServed(asset, partial, countingResponse.getBytesWritten() + Sendfile.length(request));
+            long firstWriteNanos = countingResponse.getFirstWriteNanos();
+            if (firstWriteNanos != 0) {
+                RequestTrace.record("file", System.nanoTime() - firstWriteNanos);
+            }
+        }
+    }
+
+    /**
+     * Response wrapper counting the bytes written to the output stream
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private CountingOutputStream outputStream;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        private long getBytesWritten() {
+            return outputStream != null ? outputStream.count : 0;
+        }
+
+        private long getFirstWriteNanos() {
+            return outputStream != null ? outputStream.firstWriteNanos : 0;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private long count;
+        private long firstWriteNanos;
+
+        private CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (firstWriteNanos == 0) {
+                firstWriteNanos = System.nanoTime();
+            }
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (firstWriteNanos == 0) {
+                firstWriteNanos = System.nanoTime();
+            }
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
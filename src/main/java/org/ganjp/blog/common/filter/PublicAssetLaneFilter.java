@@ -0,0 +1,69 @@
+package org.ganjp.blog.common.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ganjp.blog.auth.config.SecurityProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter that marks GET requests for public asset files (security.public-asset-lane.endpoints).
+ * Marked requests keep the request ID and asset metrics but go through a lean security chain without
+ * JWT authentication, and LoggingAspect and AuditAspect pass them through untouched.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class PublicAssetLaneFilter extends OncePerRequestFilter {
+
+    public static final String LANE_ATTRIBUTE = PublicAssetLaneFilter.class.getName() + ".lane";
+
+    private final RequestMatcher matcher;
+
+    public PublicAssetLaneFilter(SecurityProperties securityProperties) {
+        SecurityProperties.PublicAssetLane lane = securityProperties.getPublicAssetLane();
+        this.matcher = lane.isEnabled() && !lane.getEndpoints().isEmpty()
+                ? new OrRequestMatcher(lane.getEndpoints().stream()
+                        .map(pattern -> (RequestMatcher) new AntPathRequestMatcher(pattern, HttpMethod.GET.name()))
+                        .toList())
+                : request -> false;
+    }
+
+    /**
+     * Whether the request was marked for the public asset lane
+     */
+    public static boolean isActive(HttpServletRequest request) {
+        return request.getAttribute(LANE_ATTRIBUTE) != null;
+    }
+
+    /**
+     * Whether the request bound to the current thread was marked for the public asset lane
+     */
+    public static boolean isActive() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(LANE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (matcher.matches(request)) {
+            request.setAttribute(LANE_ATTRIBUTE, Boolean.TRUE);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
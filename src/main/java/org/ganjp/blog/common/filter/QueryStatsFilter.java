@@ -0,0 +1,48 @@
+package org.ganjp.blog.common.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ganjp.blog.common.query.QueryCounter;
+import org.ganjp.blog.common.query.QueryStatsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter that counts the SQL statements each request runs (including those issued while
+ * authenticating) and hands them to QueryStatsService. Only registered when query-stats.enabled is true.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(prefix = "query-stats", name = "enabled", havingValue = "true")
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private final QueryStatsService queryStatsService;
+
+    public QueryStatsFilter(QueryStatsService queryStatsService) {
+        this.queryStatsService = queryStatsService;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.stop(scope);
+            Object requestId = request.getAttribute(RequestIdFilter.REQUEST_ID_ATTRIBUTE);
+            queryStatsService.record(requestId != null ? requestId.toString() : null,
+                    request.getMethod(), request.getRequestURI(), scope);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.ganjp.blog.common.config.LoggingConfig;
+import org.ganjp.blog.common.trace.RequestTrace;
+import org.ganjp.blog.common.trace.SlowRequestRecorder;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -18,7 +20,8 @@ import java.util.UUID;
 /**
  * Filter that adds a unique request ID to each incoming HTTP request.
  * The request ID is stored in the request attributes and can be retrieved
- * throughout the request processing.
+ * throughout the request processing. Also starts the per-request phase trace
+ * used by the slow-request flight recorder.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -31,6 +34,12 @@ public class RequestIdFilter extends OncePerRequestFilter {
     public static final String SESSION_ID_HEADER = "X-Session-ID";
     public static final String NO_SESSION = "no-session";
 
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    public RequestIdFilter(SlowRequestRecorder slowRequestRecorder) {
+        this.slowRequestRecorder = slowRequestRecorder;
+    }
+
     @Override
     protected void doFilterInternal(
             @org.springframework.lang.NonNull HttpServletRequest request,
@@ -62,9 +71,17 @@ public class RequestIdFilter extends OncePerRequestFilter {
         log.debug("Processing request with ID: {}, Session ID: {}, URI: {}, Method: {}, Client IP: {}", 
                 requestId, sessionId, request.getRequestURI(), request.getMethod(), clientIp);
         
+        RequestTrace trace = slowRequestRecorder.isEnabled()
+                ? RequestTrace.begin(requestId, request.getMethod(), request.getRequestURI())
+                : null;
         try {
             filterChain.doFilter(request, response);
         } finally {
+            if (trace != null) {
+                RequestTrace.end();
+                slowRequestRecorder.complete(trace, response.getStatus());
+            }
+
             // Log completion of request processing
             log.debug("Completed request with ID: {}, Session ID: {}", requestId, sessionId);
             
@@ -0,0 +1,112 @@
+package org.ganjp.blog.common.image;
+
+import org.w3c.dom.Node;
+
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The EXIF orientation of JPEG photos. Cameras store the image as the sensor saw it and record the rotation in
+ * the Orientation tag; ImageIO ignores the tag, and re-encoded images carry no EXIF, so it is applied to the pixels.
+ */
+final class ExifOrientation {
+
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+    private static final String APP1 = "225";
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * The Orientation tag of the EXIF segment in JPEG metadata, 1 (as stored) if there is none or it cannot be read
+     */
+    static int read(IIOMetadata metadata) {
+        if (metadata == null || !JPEG_METADATA.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        for (Node child = metadata.getAsTree(JPEG_METADATA).getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (!"markerSequence".equals(child.getNodeName())) {
+                continue;
+            }
+            for (Node marker = child.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                if ("unknown".equals(marker.getNodeName()) && marker instanceof IIOMetadataNode node
+                        && APP1.equals(node.getAttribute("MarkerTag")) && node.getUserObject() instanceof byte[] data) {
+                    int orientation = parse(data);
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Orientation tag of IFD0 in the payload of an APP1 segment, 0 if it is not EXIF or has no valid tag
+     */
+    static int parse(byte[] data) {
+        if (data.length < EXIF_HEADER.length + 8 || !Arrays.equals(data, 0, EXIF_HEADER.length, EXIF_HEADER, 0, EXIF_HEADER.length)) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(data, EXIF_HEADER.length, data.length - EXIF_HEADER.length).slice();
+        try {
+            if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+                tiff.order(ByteOrder.LITTLE_ENDIAN);
+            } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+                return 0;
+            }
+            int ifd = tiff.getInt(4);
+            int entries = tiff.getShort(ifd) & 0xFFFF;
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if ((tiff.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                    int orientation = tiff.getShort(entry + 8) & 0xFFFF;
+                    return orientation >= 1 && orientation <= 8 ? orientation : 0;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Truncated segment
+        }
+        return 0;
+    }
+
+    /**
+     * The image turned and mirrored as the orientation says, so it displays upright without the tag
+     */
+    static BufferedImage apply(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height, type);
+        Graphics2D g2d = target.createGraphics();
+        try {
+            g2d.drawImage(image, transform, null);
+        } finally {
+            g2d.dispose();
+        }
+        return target;
+    }
+}
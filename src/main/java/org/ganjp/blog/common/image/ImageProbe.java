@@ -0,0 +1,232 @@
+package org.ganjp.blog.common.image;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the width and height of an image from its container header without decoding pixels:
+ * PNG IHDR, JPEG SOF (turned by the EXIF orientation, as the decoder turns the pixels), GIF logical screen, WebP VP8/VP8L/VP8X, BMP info header and the SVG root
+ * element (width/height, else viewBox). Other formats fall back to the header of their ImageReader.
+ */
+@Slf4j
+public final class ImageProbe {
+
+    /**
+     * Bytes of an SVG file searched for the root element
+     */
+    private static final int SVG_HEAD_LIMIT = 16 * 1024;
+
+    private static final Pattern SVG_ROOT = Pattern.compile("<svg\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SVG_WIDTH = Pattern.compile("\\swidth\\s*=\\s*[\"']\\s*([0-9.]+)\\s*(px)?\\s*[\"']");
+    private static final Pattern SVG_HEIGHT = Pattern.compile("\\sheight\\s*=\\s*[\"']\\s*([0-9.]+)\\s*(px)?\\s*[\"']");
+    private static final Pattern SVG_VIEW_BOX = Pattern.compile("\\sviewBox\\s*=\\s*[\"']\\s*[-0-9.]+[\\s,]+[-0-9.]+[\\s,]+([0-9.]+)[\\s,]+([0-9.]+)\\s*[\"']");
+
+    private ImageProbe() {
+    }
+
+    /**
+     * Width and height of the image file, or empty if the format is unknown or the header is broken
+     */
+    public static Optional<ImageSize> probe(Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            return probe(input);
+        } catch (IOException e) {
+            log.debug("Could not probe image dimensions of {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Width and height of the image at the start of the stream; reads only as far as the header
+     */
+    public static Optional<ImageSize> probe(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 8192);
+        buffered.mark(SVG_HEAD_LIMIT);
+        byte[] head = buffered.readNBytes(12);
+        buffered.reset();
+        DataInputStream data = new DataInputStream(buffered);
+        try {
+            if (startsWith(head, 0x89, 'P', 'N', 'G')) {
+                return png(data);
+            }
+            if (startsWith(head, 0xFF, 0xD8)) {
+                return jpeg(data);
+            }
+            if (startsWith(head, 'G', 'I', 'F', '8')) {
+                data.skipNBytes(6);
+                return size(Short.toUnsignedInt(Short.reverseBytes(data.readShort())), Short.toUnsignedInt(Short.reverseBytes(data.readShort())));
+            }
+            if (startsWith(head, 'R', 'I', 'F', 'F') && head.length == 12 && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+                return webp(data);
+            }
+            if (startsWith(head, 'B', 'M')) {
+                data.skipNBytes(18);
+                return size(Integer.reverseBytes(data.readInt()), Math.abs(Integer.reverseBytes(data.readInt())));
+            }
+            if (looksLikeText(head)) {
+                return svg(buffered);
+            }
+        } catch (EOFException | NumberFormatException e) {
+            // Truncated header or malformed SVG size
+            return Optional.empty();
+        }
+        return imageReader(buffered);
+    }
+
+    private static Optional<ImageSize> png(DataInputStream data) throws IOException {
+        // Signature (8), IHDR length (4) and type (4), then width and height
+        data.skipNBytes(16);
+        return size(data.readInt(), data.readInt());
+    }
+
+    private static Optional<ImageSize> jpeg(DataInputStream data) throws IOException {
+        data.skipNBytes(2);
+        int orientation = 1;
+        while (true) {
+            int marker = data.readUnsignedByte();
+            if (marker != 0xFF) {
+                return Optional.empty();
+            }
+            int type = data.readUnsignedByte();
+            while (type == 0xFF) {
+                type = data.readUnsignedByte();
+            }
+            if (type == 0xD8 || type == 0x01 || (type >= 0xD0 && type <= 0xD7)) {
+                continue;
+            }
+            if (type == 0xD9 || type == 0xDA) {
+                // End of image or start of scan before any frame header
+                return Optional.empty();
+            }
+            int length = data.readUnsignedShort();
+            boolean startOfFrame = type >= 0xC0 && type <= 0xCF && type != 0xC4 && type != 0xC8 && type != 0xCC;
+            if (startOfFrame) {
+                data.skipNBytes(1);
+                int height = data.readUnsignedShort();
+                int width = data.readUnsignedShort();
+                // Orientations 5-8 turn the image by a quarter, so the stored sides swap
+                return orientation >= 5 ? size(height, width) : size(width, height);
+            }
+            if (type == 0xE1 && orientation == 1) {
+                // APP1 comes before the frame header; only EXIF segments carry an orientation
+                int exif = ExifOrientation.parse(data.readNBytes(length - 2));
+                orientation = exif > 0 ? exif : 1;
+                continue;
+            }
+            data.skipNBytes(length - 2L);
+        }
+    }
+
+    private static Optional<ImageSize> webp(DataInputStream data) throws IOException {
+        data.skipNBytes(12);
+        byte[] chunk = new byte[4];
+        data.readFully(chunk);
+        String type = new String(chunk, StandardCharsets.US_ASCII);
+        data.skipNBytes(4);
+        switch (type) {
+            case "VP8X" -> {
+                data.skipNBytes(4);
+                return size(readUInt24LE(data) + 1, readUInt24LE(data) + 1);
+            }
+            case "VP8L" -> {
+                if (data.readUnsignedByte() != 0x2F) {
+                    return Optional.empty();
+                }
+                int bits = Integer.reverseBytes(data.readInt());
+                return size((bits & 0x3FFF) + 1, (bits >>> 14 & 0x3FFF) + 1);
+            }
+            case "VP8 " -> {
+                // Frame tag (3) and start code (3), then 14-bit width and height
+                data.skipNBytes(6);
+                int width = Short.toUnsignedInt(Short.reverseBytes(data.readShort())) & 0x3FFF;
+                int height = Short.toUnsignedInt(Short.reverseBytes(data.readShort())) & 0x3FFF;
+                return size(width, height);
+            }
+            default -> {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static Optional<ImageSize> svg(InputStream input) throws IOException {
+        String head = new String(input.readNBytes(SVG_HEAD_LIMIT), StandardCharsets.UTF_8);
+        Matcher root = SVG_ROOT.matcher(head);
+        if (!root.find()) {
+            return Optional.empty();
+        }
+        String element = root.group();
+        Matcher width = SVG_WIDTH.matcher(element);
+        Matcher height = SVG_HEIGHT.matcher(element);
+        if (width.find() && height.find()) {
+            return size((int) Math.round(Double.parseDouble(width.group(1))), (int) Math.round(Double.parseDouble(height.group(1))));
+        }
+        Matcher viewBox = SVG_VIEW_BOX.matcher(element);
+        if (viewBox.find()) {
+            return size((int) Math.round(Double.parseDouble(viewBox.group(1))), (int) Math.round(Double.parseDouble(viewBox.group(2))));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<ImageSize> imageReader(InputStream input) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                return size(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int readUInt24LE(DataInputStream data) throws IOException {
+        return data.readUnsignedByte() | data.readUnsignedByte() << 8 | data.readUnsignedByte() << 16;
+    }
+
+    private static boolean startsWith(byte[] head, int... prefix) {
+        if (head.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((head[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean looksLikeText(byte[] head) {
+        String text = new String(head, StandardCharsets.UTF_8).stripLeading();
+        // Allow a UTF-8 byte order mark before the first tag
+        return text.startsWith("<") || text.startsWith("\uFEFF<");
+    }
+
+    private static Optional<ImageSize> size(int width, int height) {
+        return width > 0 && height > 0 ? Optional.of(new ImageSize(width, height)) : Optional.empty();
+    }
+
+    /**
+     * Width and height in pixels
+     */
+    public record ImageSize(int width, int height) {
+    }
+}
@@ -0,0 +1,511 @@
+package org.ganjp.blog.common.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.config.AsyncLoggerConfig;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.config.ImageProcessingProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resizes and encodes uploaded images for every media service. Downscaling halves the image with a 2x2 box
+ * filter until it is within twice the target, then finishes with one bilinear step; unlike a single large
+ * interpolation step, every source pixel contributes, so photos do not alias. Palette images (GIF) are
+ * mapped back onto their own palette, which keeps them small and quick to encode. Several sizes of one image
+ * are chained from large to small, each computed from the previous one, and encoded in parallel on a pool
+ * sized to the cores; when all its threads are busy the caller encodes the file itself, so callers on the
+ * image bulkhead never wait or get rejected. Decoding reads the dimensions from the header first, rejects
+ * images over image-processing.max-pixels, and subsamples large photos while decoding so their
+ * full-resolution raster is never held in memory; photos are turned upright by their EXIF orientation. JPEG
+ * and PNG are written with the image-encoding settings and without metadata.
+ */
+@Slf4j
+@Component
+public class ImageProcessingEngine implements DisposableBean {
+
+    /**
+     * Formats whose ImageIO writers cannot store an alpha channel
+     */
+    private static final Set<String> OPAQUE_FORMATS = Set.of("jpg", "jpeg", "bmp");
+
+    private static final Set<String> JPEG_FORMATS = Set.of("jpg", "jpeg");
+
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    private final ImageProcessingProperties properties;
+    private final ImageEncodingProperties encoding;
+    private final MediaMetrics mediaMetrics;
+    private final ThreadPoolTaskExecutor encoder;
+
+    public ImageProcessingEngine(ImageProcessingProperties properties, ImageEncodingProperties encoding, MediaMetrics mediaMetrics) {
+        this.properties = properties;
+        this.encoding = encoding;
+        this.mediaMetrics = mediaMetrics;
+        // Decode from memory instead of spooling every image stream through a temp file
+        ImageIO.setUseCache(false);
+        int threads = Runtime.getRuntime().availableProcessors();
+        encoder = new ThreadPoolTaskExecutor();
+        encoder.setCorePoolSize(threads);
+        encoder.setMaxPoolSize(threads);
+        encoder.setQueueCapacity(0);
+        encoder.setThreadNamePrefix("image-derivative-");
+        encoder.setAllowCoreThreadTimeOut(true);
+        encoder.setTaskDecorator(new AsyncLoggerConfig.MdcContextDecorator());
+        // Run on the caller even after shutdown, so writeAll never waits on a dropped task
+        encoder.setRejectedExecutionHandler((task, pool) -> task.run());
+        encoder.initialize();
+        log.info("Image processing engine: {} encoder threads", threads);
+    }
+
+    /**
+     * Decode the first image of the stream at full size; returns null, like ImageIO.read, when the format is
+     * unknown
+     */
+    public BufferedImage decode(String pipeline, InputStream input) throws IOException {
+        return decode(pipeline, input, 0);
+    }
+
+    /**
+     * Decode the first image of the stream for an image that will be fitted into maxSize: of JPEG photos only
+     * every n-th pixel is read, with n chosen so the longer side stays at least twice maxSize, which leaves the
+     * resize at least one box-filter step. Returns null when the format is unknown.
+     */
+    public BufferedImage decode(String pipeline, InputStream input, int maxSize) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(input)) {
+            return decode(pipeline, stream, maxSize);
+        }
+    }
+
+    /**
+     * Decode an image file, e.g. a remote download, as {@link #decode(String, InputStream, int)} does; the file is
+     * read in place rather than copied into a stream cache
+     */
+    public BufferedImage decode(String pipeline, Path file, int maxSize) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file.toFile())) {
+            return decode(pipeline, stream, maxSize);
+        }
+    }
+
+    private BufferedImage decode(String pipeline, ImageInputStream stream, int maxSize) throws IOException {
+        Iterator<ImageReader> readers = stream == null ? Collections.emptyIterator() : ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(stream, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            if ((long) width * height > properties.getMaxPixels()) {
+                throw new BusinessException("Image is too large: " + width + "x" + height + " pixels");
+            }
+            ImageReadParam param = reader.getDefaultReadParam();
+            // Photos only: skipping pixels of sharp-edged PNG and GIF graphics would alias visibly
+            boolean photo = "jpeg".equalsIgnoreCase(reader.getFormatName());
+            int step = properties.isSubsampling() && photo && maxSize > 0 ? Math.max(1, Math.max(width, height) / (2 * maxSize)) : 1;
+            if (step > 1) {
+                param.setSourceSubsampling(step, step, 0, 0);
+            }
+            long estimatedBytes = (long) ((width + step - 1) / step) * ((height + step - 1) / step) * 4;
+            long decodedBytes = 0;
+            mediaMetrics.decodeStarted(estimatedBytes);
+            try {
+                BufferedImage image = reader.read(0, param);
+                decodedBytes = rasterBytes(image);
+                return photo ? ExifOrientation.apply(image, orientation(reader)) : image;
+            } finally {
+                mediaMetrics.decodeFinished(pipeline, estimatedBytes, decodedBytes);
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Scale the image down so neither side exceeds maxSize, keeping the aspect ratio; smaller images are
+     * returned as they are
+     */
+    public BufferedImage resizeToFit(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= maxSize && height <= maxSize) {
+            return image;
+        }
+        double scale = Math.min((double) maxSize / width, (double) maxSize / height);
+        return scale(image, Math.max(1, (int) Math.round(width * scale)), Math.max(1, (int) Math.round(height * scale)));
+    }
+
+    /**
+     * Scale the image to exactly width x height, downscaling progressively
+     */
+    public BufferedImage scale(BufferedImage image, int width, int height) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            current = halve(current, type);
+            currentWidth = current.getWidth();
+            currentHeight = current.getHeight();
+        }
+        if (currentWidth != width || currentHeight != height) {
+            current = draw(current, width, height, type, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        if (current != image && image.getColorModel() instanceof IndexColorModel palette) {
+            BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, palette);
+            Graphics2D g2d = indexed.createGraphics();
+            try {
+                g2d.setComposite(AlphaComposite.Src);
+                g2d.drawImage(current, 0, 0, null);
+            } finally {
+                g2d.dispose();
+            }
+            current = indexed;
+        }
+        return current;
+    }
+
+    /**
+     * Fit the image into each of the given max sizes; the results are in the order of the sizes. Sizes are
+     * processed from large to small so each derivative is scaled from the previous one, not from the original.
+     */
+    public List<BufferedImage> derivatives(BufferedImage image, int... maxSizes) {
+        Integer[] order = new Integer[maxSizes.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> maxSizes[i]).reversed());
+
+        BufferedImage[] results = new BufferedImage[maxSizes.length];
+        BufferedImage previous = image;
+        for (int i : order) {
+            previous = resizeToFit(previous, maxSizes[i]);
+            results[i] = previous;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Encode one image; images with alpha are flattened onto white for formats without transparency.
+     * Returns false, like ImageIO.write, when no writer exists for the format.
+     */
+    public boolean write(BufferedImage image, String format, Path target) throws IOException {
+        String lower = format.toLowerCase(Locale.ROOT);
+        if (encoding.isEnabled() && (JPEG_FORMATS.contains(lower) || lower.equals("png"))) {
+            return encode(image, lower, target, encoding.getJpegQuality());
+        }
+        boolean written = ImageIO.write(opaque(image, format), format, target.toFile());
+        if (!written) {
+            log.warn("No image writer for format {}, {} not written", format, target.getFileName());
+        } else {
+            mediaMetrics.recordEncoded(lower, Files.size(target));
+        }
+        return written;
+    }
+
+    /**
+     * Encode one image as {@link #write(BufferedImage, String, Path)} does, JPEG at the given quality (0 to 1);
+     * other formats have no quality setting and ignore it
+     */
+    public boolean write(BufferedImage image, String format, Path target, float quality) throws IOException {
+        String lower = format.toLowerCase(Locale.ROOT);
+        if (!JPEG_FORMATS.contains(lower)) {
+            return write(image, format, target);
+        }
+        return encode(image, lower, target, quality);
+    }
+
+    /**
+     * Write JPEG at the quality, progressive if configured, or PNG at the configured deflate level. No metadata
+     * is passed to the writer, so nothing of the source's EXIF, ICC or comments is kept.
+     */
+    private boolean encode(BufferedImage image, String format, Path target, float quality) throws IOException {
+        boolean jpeg = JPEG_FORMATS.contains(format);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(jpeg ? "jpeg" : format).next();
+        Files.deleteIfExists(target);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (jpeg) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                if (encoding.isEnabled() && encoding.isProgressive()) {
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                }
+            } else if (param.canWriteCompressed()) {
+                // The PNG writer uses deflate level (int) (9 * (1 - quality)); aim at the middle of the level
+                int level = Math.min(9, Math.max(0, encoding.getPngCompressionLevel()));
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(Math.max(0f, (8.5f - level) / 9f));
+            }
+            writer.write(null, new IIOImage(opaque(image, format), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        mediaMetrics.recordEncoded(format, Files.size(target));
+        return true;
+    }
+
+    /**
+     * The image as a palette image for PNG when palette reduction is on and it has at most 256 colours; every
+     * colour, with its alpha, gets an entry, so nothing changes visibly, and PNG stores one byte per pixel
+     * instead of three or four. Otherwise the image is returned as it is.
+     */
+    public BufferedImage palette(BufferedImage image, String format) {
+        if (!encoding.isEnabled() || !encoding.isPaletteReduction() || !"png".equalsIgnoreCase(format)
+                || image.getColorModel() instanceof IndexColorModel) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Map<Integer, Integer> colours = new LinkedHashMap<>();
+        byte[] pixels = new byte[width * height];
+        int[] row = new int[width];
+        boolean alpha = false;
+        for (int y = 0; y < height; y++) {
+            readRow(image, y, row);
+            for (int x = 0; x < width; x++) {
+                // Fully transparent pixels are one colour whatever their RGB
+                int argb = row[x] >>> 24 == 0 ? 0 : row[x];
+                Integer index = colours.get(argb);
+                if (index == null) {
+                    if (colours.size() == MAX_PALETTE_SIZE) {
+                        return image;
+                    }
+                    index = colours.size();
+                    colours.put(argb, index);
+                    alpha |= argb >>> 24 != 0xFF;
+                }
+                pixels[y * width + x] = index.byteValue();
+            }
+        }
+        int size = colours.size();
+        byte[] r = new byte[size];
+        byte[] g = new byte[size];
+        byte[] b = new byte[size];
+        byte[] a = new byte[size];
+        colours.forEach((argb, index) -> {
+            a[index] = (byte) (argb >>> 24);
+            r[index] = (byte) (argb >> 16);
+            g[index] = (byte) (argb >> 8);
+            b[index] = (byte) (int) argb;
+        });
+        IndexColorModel model = alpha ? new IndexColorModel(8, size, r, g, b, a) : new IndexColorModel(8, size, r, g, b);
+        BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, model);
+        indexed.getRaster().setDataElements(0, 0, width, height, pixels);
+        return indexed;
+    }
+
+    /**
+     * Short form of the encoding settings, for keys of stored outputs that must not be reused once they change
+     */
+    public String encoding() {
+        if (!encoding.isEnabled()) {
+            return "default";
+        }
+        return "q" + Math.round(encoding.getJpegQuality() * 100) + (encoding.isProgressive() ? "p" : "")
+                + "-z" + encoding.getPngCompressionLevel() + (encoding.isPaletteReduction() ? "-pal" : "");
+    }
+
+    /**
+     * The image flattened onto white if it has alpha and the format cannot store it
+     */
+    private static BufferedImage opaque(BufferedImage image, String format) {
+        if (!image.getColorModel().hasAlpha() || !OPAQUE_FORMATS.contains(format.toLowerCase())) {
+            return image;
+        }
+        BufferedImage output = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = output.createGraphics();
+        try {
+            g2d.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g2d.dispose();
+        }
+        return output;
+    }
+
+    /**
+     * Encode all derivatives in parallel and wait for them; the first failure is rethrown
+     */
+    public void writeAll(List<Derivative> derivatives) throws IOException {
+        if (derivatives.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (Derivative derivative : derivatives.subList(1, derivatives.size())) {
+            pending.add(CompletableFuture.runAsync(() -> {
+                try {
+                    write(derivative.image(), derivative.format(), derivative.target());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, encoder));
+        }
+        Derivative first = derivatives.get(0);
+        write(first.image(), first.format(), first.target());
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        encoder.shutdown();
+    }
+
+    /**
+     * Average each 2x2 block into one pixel, weighting colours by alpha so transparent pixels do not darken edges
+     */
+    private static BufferedImage halve(BufferedImage source, int type) {
+        int width = source.getWidth() / 2;
+        int height = source.getHeight() / 2;
+        boolean alpha = type == BufferedImage.TYPE_INT_ARGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        int[] pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        int[] top = new int[source.getWidth()];
+        int[] bottom = new int[source.getWidth()];
+        for (int y = 0; y < height; y++) {
+            readRow(source, y * 2, top);
+            readRow(source, y * 2 + 1, bottom);
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int p0 = top[x * 2];
+                int p1 = top[x * 2 + 1];
+                int p2 = bottom[x * 2];
+                int p3 = bottom[x * 2 + 1];
+                if (alpha) {
+                    int a0 = p0 >>> 24;
+                    int a1 = p1 >>> 24;
+                    int a2 = p2 >>> 24;
+                    int a3 = p3 >>> 24;
+                    int a = a0 + a1 + a2 + a3;
+                    if (a == 0) {
+                        pixels[row + x] = 0;
+                        continue;
+                    }
+                    int r = ((p0 >> 16 & 0xFF) * a0 + (p1 >> 16 & 0xFF) * a1 + (p2 >> 16 & 0xFF) * a2 + (p3 >> 16 & 0xFF) * a3 + a / 2) / a;
+                    int g = ((p0 >> 8 & 0xFF) * a0 + (p1 >> 8 & 0xFF) * a1 + (p2 >> 8 & 0xFF) * a2 + (p3 >> 8 & 0xFF) * a3 + a / 2) / a;
+                    int b = ((p0 & 0xFF) * a0 + (p1 & 0xFF) * a1 + (p2 & 0xFF) * a2 + (p3 & 0xFF) * a3 + a / 2) / a;
+                    pixels[row + x] = (a + 2) / 4 << 24 | r << 16 | g << 8 | b;
+                } else {
+                    int r = ((p0 >> 16 & 0xFF) + (p1 >> 16 & 0xFF) + (p2 >> 16 & 0xFF) + (p3 >> 16 & 0xFF) + 2) >> 2;
+                    int g = ((p0 >> 8 & 0xFF) + (p1 >> 8 & 0xFF) + (p2 >> 8 & 0xFF) + (p3 >> 8 & 0xFF) + 2) >> 2;
+                    int b = ((p0 & 0xFF) + (p1 & 0xFF) + (p2 & 0xFF) + (p3 & 0xFF) + 2) >> 2;
+                    pixels[row + x] = r << 16 | g << 8 | b;
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Read one row as ARGB; the layouts ImageIO decodes JPEG and PNG into are read straight from the raster
+     */
+    private static void readRow(BufferedImage image, int y, int[] argb) {
+        WritableRaster raster = image.getRaster();
+        int width = image.getWidth();
+        boolean plain = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getOffset() == 0;
+        if (plain && raster.getSampleModel() instanceof SinglePixelPackedSampleModel model
+                && (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)) {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            System.arraycopy(data, y * model.getScanlineStride(), argb, 0, width);
+            if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+                for (int x = 0; x < width; x++) {
+                    argb[x] |= 0xFF000000;
+                }
+            }
+        } else if (plain && raster.getSampleModel() instanceof ComponentSampleModel model
+                && (image.getType() == BufferedImage.TYPE_3BYTE_BGR || image.getType() == BufferedImage.TYPE_4BYTE_ABGR)) {
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            int stride = model.getPixelStride();
+            int offset = y * model.getScanlineStride();
+            for (int x = 0; x < width; x++, offset += stride) {
+                argb[x] = stride == 4
+                        ? (data[offset] & 0xFF) << 24 | (data[offset + 3] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8 | data[offset + 1] & 0xFF
+                        : 0xFF000000 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 1] & 0xFF) << 8 | data[offset] & 0xFF;
+            }
+        } else {
+            image.getRGB(0, y, width, 1, argb, 0, width);
+        }
+    }
+
+    /**
+     * EXIF orientation of the image just read, 1 if its metadata cannot be read
+     */
+    private static int orientation(ImageReader reader) {
+        try {
+            return ExifOrientation.read(reader.getImageMetadata(0));
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private static long rasterBytes(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, int type, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g2d = target.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g2d.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * One image to encode and where to write it
+     */
+    public record Derivative(BufferedImage image, String format, Path target) {
+    }
+}
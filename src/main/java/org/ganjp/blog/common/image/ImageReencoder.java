@@ -0,0 +1,230 @@
+package org.ganjp.blog.common.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.storage.service.StorageService;
+import org.ganjp.blog.common.upload.service.UploadFiles;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Encodes the stored JPEG and PNG files of the configured media directories again with the current
+ * image-encoding settings, for the library written before them. A file is only replaced when the new encoding
+ * is at least image-encoding.reencode-min-savings-percent smaller, so a second run leaves the files of the first
+ * alone instead of recompressing JPEGs again. Replacements go through the content store like new outputs: the
+ * old file is released and the new one stored under the same name. Runs as image_reencode media jobs of one
+ * batch each; every job queues the next batch with a cursor, so a retried job resumes instead of starting over.
+ */
+@Slf4j
+@Service
+public class ImageReencoder {
+
+    public static final String JOB_TYPE = "image_reencode";
+
+    private static final String PIPELINE = "reencode";
+    private static final Set<String> FORMATS = Set.of("jpg", "jpeg", "png");
+
+    private final ImageEncodingProperties properties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final StorageService storageService;
+    private final Bulkheads bulkheads;
+    private final MediaMetrics mediaMetrics;
+
+    public ImageReencoder(ImageEncodingProperties properties, ImageProcessingEngine imageProcessingEngine,
+                          StorageService storageService, Bulkheads bulkheads, MediaMetrics mediaMetrics) {
+        this.properties = properties;
+        this.imageProcessingEngine = imageProcessingEngine;
+        this.storageService = storageService;
+        this.bulkheads = bulkheads;
+        this.mediaMetrics = mediaMetrics;
+    }
+
+    /**
+     * Directories to re-encode, all configured ones when empty. The first one is worked on from the file after
+     * cursor, a path relative to it; null starts at its beginning.
+     */
+    public record Request(List<String> directories, String cursor) {
+
+        public Request(List<String> directories) {
+            this(directories, null);
+        }
+    }
+
+    /**
+     * Counts of one batch; next is the request for the following batch, null once all directories are done
+     */
+    public record Result(int scanned, int reencoded, long bytesSaved, Request next) {
+    }
+
+    /**
+     * Re-encode the next image-encoding.reencode-batch-size files of the requested directories, flat and sharded,
+     * in path order. A file is retried with a growing wait while the image bulkhead is saturated.
+     *
+     * @throws BusinessException    if a requested directory is not configured for re-encoding
+     * @throws ServiceBusyException if the bulkhead stayed saturated; the same request resumes at the same file
+     */
+    public Result reencode(Request request) throws IOException {
+        if (!properties.isEnabled()) {
+            throw new BusinessException("Image encoding is disabled");
+        }
+        List<String> directories = request == null || request.directories() == null || request.directories().isEmpty()
+                ? properties.getReencodeDirectories() : request.directories();
+        for (String directory : directories) {
+            if (!properties.getReencodeDirectories().contains(directory)) {
+                throw new BusinessException("Not a re-encode directory: " + directory);
+            }
+        }
+        if (directories.isEmpty()) {
+            return new Result(0, 0, 0, null);
+        }
+        String directory = directories.get(0);
+        Path root = Paths.get(directory);
+        int batchSize = Math.max(1, properties.getReencodeBatchSize());
+        List<Path> batch = batch(root, request == null ? null : request.cursor(), batchSize);
+        int reencoded = 0;
+        long bytesSaved = 0;
+        for (Path file : batch) {
+            try {
+                long saved = reencodeWhenIdle(file);
+                if (saved > 0) {
+                    reencoded++;
+                    bytesSaved += saved;
+                }
+            } catch (IOException | BusinessException e) {
+                log.warn("Could not re-encode {}: {}", file, e.getMessage());
+            }
+        }
+        Request next;
+        if (batch.size() == batchSize) {
+            next = new Request(directories, relative(root, batch.get(batch.size() - 1)));
+        } else {
+            next = directories.size() > 1 ? new Request(List.copyOf(directories.subList(1, directories.size()))) : null;
+        }
+        log.info("Re-encoded {} of {} images in {}, saving {} bytes{}", reencoded, batch.size(), directory, bytesSaved,
+                next == null ? "" : "; more to do");
+        return new Result(batch.size(), reencoded, bytesSaved, next);
+    }
+
+    /**
+     * Encode one file again, waiting for the image bulkhead while it is saturated
+     */
+    private long reencodeWhenIdle(Path file) throws IOException {
+        long backoff = Math.max(1, properties.getReencodeBusyBackoffMs());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return reencode(file);
+            } catch (ServiceBusyException e) {
+                if (attempt >= properties.getReencodeBusyRetries()) {
+                    throw e;
+                }
+                log.debug("Image workers busy, retrying {} in {} ms", file, backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff *= 2;
+            }
+        }
+    }
+
+    /**
+     * Encode one file again and replace it if that saves enough
+     *
+     * @return bytes saved, 0 if the file was kept
+     */
+    long reencode(Path file) throws IOException {
+        String format = extension(file.getFileName().toString());
+        long before = Files.size(file);
+        Path temp = file.resolveSibling("." + file.getFileName() + ".reencode");
+        try {
+            boolean written = bulkheads.image().call(() -> {
+                BufferedImage image = imageProcessingEngine.decode(PIPELINE, file, 0);
+                return image != null && imageProcessingEngine.write(image, format, temp);
+            });
+            if (!written) {
+                return 0;
+            }
+            long after = Files.size(temp);
+            if (after > before * (100 - properties.getReencodeMinSavingsPercent()) / 100) {
+                return 0;
+            }
+            storageService.release(file);
+            UploadFiles.move(temp, file);
+            storageService.store(file);
+            mediaMetrics.recordBytesSaved(PIPELINE, before - after);
+            return before - after;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Up to limit JPEG and PNG files after the cursor, directly in the directory or in its ab/cd shards, in the
+     * order of their paths relative to the directory. Shards entirely before the cursor are not listed.
+     */
+    static List<Path> batch(Path directory, String cursor, int limit) throws IOException {
+        List<Path> batch = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            collect(directory, directory, 0, cursor, limit, batch);
+        }
+        return batch;
+    }
+
+    private static void collect(Path root, Path directory, int depth, String cursor, int limit, List<Path> batch) throws IOException {
+        record Entry(Path path, String relative, boolean directory) {
+            // Sorting directories by "name/" keeps the walk in the order of the relative paths
+            String key() {
+                return directory ? relative + "/" : relative;
+            }
+        }
+        List<Entry> entries;
+        try (Stream<Path> children = Files.list(directory)) {
+            entries = children.map(path -> new Entry(path, relative(root, path), Files.isDirectory(path)))
+                    .sorted(Comparator.comparing(Entry::key))
+                    .toList();
+        }
+        for (Entry entry : entries) {
+            if (batch.size() >= limit) {
+                return;
+            }
+            if (entry.directory()) {
+                String prefix = entry.relative() + "/";
+                if (depth < 2 && (cursor == null || cursor.compareTo(prefix) < 0 || cursor.startsWith(prefix))) {
+                    collect(root, entry.path(), depth + 1, cursor, limit, batch);
+                }
+            } else if ((cursor == null || entry.relative().compareTo(cursor) > 0)
+                    && !entry.path().getFileName().toString().startsWith(".")
+                    && FORMATS.contains(extension(entry.path().getFileName().toString()))
+                    && Files.isRegularFile(entry.path())) {
+                batch.add(entry.path());
+            }
+        }
+    }
+
+    private static String relative(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String extension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
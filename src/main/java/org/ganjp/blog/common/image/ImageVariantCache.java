@@ -0,0 +1,230 @@
+package org.ganjp.blog.common.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.config.ImageVariantProperties;
+import org.ganjp.blog.common.upload.service.UploadFiles;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Rendered image variants on disk, bounded by image-variant.max-cache-bytes. Entries are kept in access order and
+ * the least recently served ones are evicted once the cache is over its size. A hit also touches the file, at most
+ * once per image-variant.touch-interval-minutes, so after a restart the order is rebuilt from the modification
+ * times. Evicted files stay on disk for image-variant.eviction-grace-seconds, since a request that was just handed
+ * one may not have opened it yet.
+ */
+@Slf4j
+@Component
+public class ImageVariantCache {
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long touchIntervalMillis;
+    private final long graceMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // Evicted names and when their files may be deleted, oldest first
+    private final LinkedHashMap<String, Long> evicted = new LinkedHashMap<>();
+    private long totalBytes;
+
+    public ImageVariantCache(ImageVariantProperties properties) {
+        this.directory = Paths.get(properties.getCacheDirectory());
+        this.maxBytes = properties.getMaxCacheBytes();
+        this.touchIntervalMillis = TimeUnit.MINUTES.toMillis(properties.getTouchIntervalMinutes());
+        this.graceMillis = TimeUnit.SECONDS.toMillis(properties.getEvictionGraceSeconds());
+        load();
+    }
+
+    /**
+     * The cached variant with this name, or null
+     */
+    public Path get(String name) {
+        Path path = path(name);
+        long now = System.currentTimeMillis();
+        boolean touch;
+        lock.lock();
+        try {
+            Entry entry = entries.get(name);
+            if (entry == null) {
+                return null;
+            }
+            touch = now - entry.touched >= touchIntervalMillis;
+            if (touch) {
+                entry.touched = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (touch) {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+            } else if (!Files.isRegularFile(path)) {
+                throw new NoSuchFileException(path.toString());
+            }
+            return path;
+        } catch (IOException e) {
+            // Deleted behind our back
+            remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * A file to render a variant into before it is added with {@link #put}
+     */
+    public Path temp(String name) throws IOException {
+        Path path = path(name);
+        Files.createDirectories(path.getParent());
+        return path.resolveSibling("." + path.getFileName() + ".tmp");
+    }
+
+    /**
+     * Move a rendered variant into the cache and evict the least recently served variants beyond the size limit
+     */
+    public Path put(String name, Path rendered) throws IOException {
+        Path path = path(name);
+        long size = Files.size(rendered);
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            // An earlier copy waiting for deletion must not take the new file with it
+            evicted.remove(name);
+            UploadFiles.move(rendered, path);
+            Entry previous = entries.put(name, new Entry(size, now));
+            totalBytes += size - (previous == null ? 0 : previous.size);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue().size;
+                evicted.put(entry.getKey(), now + graceMillis);
+                eldest.remove();
+            }
+            deleteEvicted(now);
+        } finally {
+            lock.unlock();
+        }
+        return path;
+    }
+
+    /**
+     * Delete evicted variants whose grace period is over, also when no new variants are added
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void purgeEvicted() {
+        lock.lock();
+        try {
+            deleteEvicted(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String name) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(name);
+            if (entry != null) {
+                totalBytes -= entry.size;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delete the evicted files due at now; called with the lock held, so a variant put again meanwhile is safe
+     */
+    private void deleteEvicted(long now) {
+        Iterator<Map.Entry<String, Long>> due = evicted.entrySet().iterator();
+        while (due.hasNext()) {
+            Map.Entry<String, Long> entry = due.next();
+            if (entry.getValue() > now) {
+                break;
+            }
+            due.remove();
+            try {
+                Files.deleteIfExists(path(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Could not delete evicted image variant {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private Path path(String name) {
+        return directory.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    /**
+     * Rebuild the entries from the files of an earlier run, oldest first
+     */
+    private void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        record Cached(String name, long size, FileTime modified) {
+        }
+        List<Cached> cached = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                if (name.startsWith(".")) {
+                    // Left over from a render that did not finish
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                cached.add(new Cached(name, attributes.size(), attributes.lastModifiedTime()));
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the image variant cache {}: {}", directory, e.getMessage());
+        }
+        cached.sort(Comparator.comparing(Cached::modified));
+        for (Cached entry : cached) {
+            entries.put(entry.name(), new Entry(entry.size(), entry.modified().toMillis()));
+            totalBytes += entry.size();
+        }
+        log.info("Image variant cache: {} variants, {} bytes in {}", entries.size(), totalBytes, directory);
+    }
+
+    private static final class Entry {
+        private final long size;
+        private long touched;
+
+        private Entry(long size, long touched) {
+            this.size = size;
+            this.touched = touched;
+        }
+    }
+}
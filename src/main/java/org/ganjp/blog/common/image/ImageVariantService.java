@@ -0,0 +1,260 @@
+package org.ganjp.blog.common.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.ImageVariantProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resized variants of public images for ?w, ?h, ?fit and ?q. Widths are rounded up to the configured ladder
+ * (a height alone to the same ladder) and qualities to a step, so arbitrary client sizes map onto a few
+ * variants per image. A variant is rendered once on the image bulkhead from the original and kept in the
+ * {@link ImageVariantCache}; it is named after the original's path, size and modification time, so replacing the
+ * original starts new variants and the old ones age out. Images are never scaled up.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Formats that are decoded and written again; others (SVG, WebP) are always served as they are
+     */
+    private static final Set<String> FORMATS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+
+    private final ImageVariantProperties properties;
+    private final ImageVariantCache cache;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final Bulkheads bulkheads;
+    private final MediaMetrics mediaMetrics;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ImageVariantService(ImageVariantProperties properties, ImageVariantCache cache,
+                               ImageProcessingEngine imageProcessingEngine, Bulkheads bulkheads, MediaMetrics mediaMetrics) {
+        this.properties = properties;
+        this.cache = cache;
+        this.imageProcessingEngine = imageProcessingEngine;
+        this.bulkheads = bulkheads;
+        this.mediaMetrics = mediaMetrics;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public enum Fit {
+        /**
+         * Scale to fit inside the box, keeping the aspect ratio
+         */
+        CONTAIN,
+        /**
+         * Scale to cover the box and crop the overflow around the centre; needs both w and h
+         */
+        COVER
+    }
+
+    /**
+     * A normalized variant request; 0 means not given (width, height) or not applicable (quality)
+     */
+    public record Variant(int width, int height, Fit fit, int quality) {
+    }
+
+    /**
+     * The file to serve for an image and the ?w, ?h, ?fit and ?q of the request: the original when none is given,
+     * variants are disabled or the format has none; otherwise the variant, rendered on first use
+     *
+     * @throws BusinessException when a parameter is invalid
+     */
+    public File variant(String pipeline, File original, Integer width, Integer height, String fit, Integer quality) throws IOException {
+        if (!properties.isEnabled() || original == null || (width == null && height == null && quality == null)) {
+            return original;
+        }
+        String format = extension(original.getName());
+        if (!FORMATS.contains(format) || !original.isFile()) {
+            return original;
+        }
+        Variant variant = normalize(width, height, fit, quality, format);
+        String name = name(original, variant, format);
+        Path cached = cache.get(name);
+        if (cached != null) {
+            mediaMetrics.recordVariantLookup(pipeline, true);
+            return cached.toFile();
+        }
+        Path rendered = bulkheads.image().call(() -> render(pipeline, original.toPath(), variant, format, name, quality != null));
+        return rendered == null ? original : rendered.toFile();
+    }
+
+    /**
+     * Validate the parameters and round them onto the width ladder and quality step
+     */
+    public Variant normalize(Integer width, Integer height, String fit, Integer quality, String format) {
+        if ((width != null && width <= 0) || (height != null && height <= 0)) {
+            throw new BusinessException("w and h must be positive");
+        }
+        Fit mode;
+        try {
+            mode = fit == null || fit.isBlank() ? Fit.CONTAIN : Fit.valueOf(fit.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("fit must be contain or cover");
+        }
+        int w = 0;
+        int h = 0;
+        if (width != null) {
+            w = snap(width);
+            if (height != null) {
+                // Keep the requested aspect ratio
+                h = Math.max(1, (int) Math.round((double) height * w / width));
+            }
+        } else if (height != null) {
+            h = snap(height);
+        }
+        if (w == 0 || h == 0) {
+            mode = Fit.CONTAIN;
+        }
+        int q = 0;
+        if (format.equals("jpg") || format.equals("jpeg")) {
+            if (quality != null && (quality < 1 || quality > 100)) {
+                throw new BusinessException("q must be between 1 and 100");
+            }
+            int step = Math.max(1, properties.getQualityStep());
+            q = quality == null ? properties.getDefaultQuality() : Math.min(100, Math.max(step, Math.round((float) quality / step) * step));
+        }
+        return new Variant(w, h, mode, q);
+    }
+
+    /**
+     * Smallest ladder width at least the requested size, or the largest one
+     */
+    private int snap(int size) {
+        List<Integer> ladder = properties.getWidths();
+        if (ladder == null || ladder.isEmpty()) {
+            return size;
+        }
+        int largest = 0;
+        int best = Integer.MAX_VALUE;
+        for (int step : ladder) {
+            largest = Math.max(largest, step);
+            if (step >= size && step < best) {
+                best = step;
+            }
+        }
+        return best == Integer.MAX_VALUE ? largest : best;
+    }
+
+    /**
+     * Render the variant into the cache; null when the original should be served instead
+     */
+    private Path render(String pipeline, Path original, Variant variant, String format, String name, boolean reencode) throws IOException {
+        ReentrantLock lock = lock(name);
+        lock.lock();
+        try {
+            Path cached = cache.get(name);
+            if (cached != null) {
+                mediaMetrics.recordVariantLookup(pipeline, true);
+                return cached;
+            }
+            ImageProbe.ImageSize size = ImageProbe.probe(original).orElse(null);
+            if (size == null || size.width() <= 0 || size.height() <= 0) {
+                return null;
+            }
+            double scale = scale(size, variant);
+            int scaledWidth = Math.max(1, (int) Math.round(size.width() * scale));
+            int scaledHeight = Math.max(1, (int) Math.round(size.height() * scale));
+            boolean crop = variant.fit() == Fit.COVER && (scaledWidth > variant.width() || scaledHeight > variant.height());
+            if (scale == 1 && !crop && !(reencode && variant.quality() > 0)) {
+                // Nothing to change
+                return null;
+            }
+
+            long start = System.nanoTime();
+            BufferedImage image = imageProcessingEngine.decode(pipeline, original, Math.max(scaledWidth, scaledHeight));
+            if (image == null) {
+                return null;
+            }
+            if ((size.width() > size.height() && image.getWidth() < image.getHeight())
+                    || (size.width() < size.height() && image.getWidth() > image.getHeight())) {
+                // Turned upright by its EXIF orientation while decoding
+                size = new ImageProbe.ImageSize(size.height(), size.width());
+                scale = scale(size, variant);
+                scaledWidth = Math.max(1, (int) Math.round(size.width() * scale));
+                scaledHeight = Math.max(1, (int) Math.round(size.height() * scale));
+                crop = variant.fit() == Fit.COVER && (scaledWidth > variant.width() || scaledHeight > variant.height());
+            }
+            image = imageProcessingEngine.scale(image, scaledWidth, scaledHeight);
+            if (crop) {
+                int width = Math.min(variant.width(), scaledWidth);
+                int height = Math.min(variant.height(), scaledHeight);
+                image = image.getSubimage((scaledWidth - width) / 2, (scaledHeight - height) / 2, width, height);
+            }
+            Path temp = cache.temp(name);
+            boolean written = variant.quality() > 0
+                    ? imageProcessingEngine.write(image, format, temp, variant.quality() / 100f)
+                    : imageProcessingEngine.write(image, format, temp);
+            if (!written) {
+                Files.deleteIfExists(temp);
+                return null;
+            }
+            Path path = cache.put(name, temp);
+            mediaMetrics.recordStage(pipeline, "variant", start);
+            mediaMetrics.recordVariantLookup(pipeline, false);
+            return path;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Scale factor from the original to the variant before any crop, at most 1
+     */
+    private static double scale(ImageProbe.ImageSize size, Variant variant) {
+        double widthScale = variant.width() > 0 ? (double) variant.width() / size.width() : Double.NaN;
+        double heightScale = variant.height() > 0 ? (double) variant.height() / size.height() : Double.NaN;
+        double scale;
+        if (Double.isNaN(widthScale) && Double.isNaN(heightScale)) {
+            scale = 1;
+        } else if (Double.isNaN(widthScale)) {
+            scale = heightScale;
+        } else if (Double.isNaN(heightScale)) {
+            scale = widthScale;
+        } else {
+            scale = variant.fit() == Fit.COVER ? Math.max(widthScale, heightScale) : Math.min(widthScale, heightScale);
+        }
+        return Math.min(1, scale);
+    }
+
+    private static String name(File original, Variant variant, String format) {
+        String key = original.getAbsolutePath() + "|" + original.length() + "|" + original.lastModified()
+                + "|" + variant.width() + "x" + variant.height() + "|" + variant.fit() + "|" + variant.quality();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + "." + format;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String extension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private ReentrantLock lock(String name) {
+        return locks[Math.floorMod(name.hashCode(), LOCK_STRIPES)];
+    }
+}
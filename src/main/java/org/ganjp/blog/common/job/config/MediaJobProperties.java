@@ -0,0 +1,54 @@
+package org.ganjp.blog.common.job.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for asynchronous media processing jobs.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "media-jobs")
+public class MediaJobProperties {
+
+    /**
+     * Jobs processed at the same time
+     */
+    private int concurrency = 2;
+
+    /**
+     * Jobs handed to the workers ahead of time; the rest wait in the database for the next sweep
+     */
+    private int queueCapacity = 50;
+
+    /**
+     * Directory holding uploaded files until their job has been processed
+     */
+    private String spoolDirectory = "uploads/media-jobs";
+
+    /**
+     * How often the database is checked for queued jobs that no worker has picked up
+     */
+    private long sweepIntervalMs = 10000;
+
+    /**
+     * How often the workers record that their running jobs are still alive
+     */
+    private long heartbeatIntervalMs = 30000;
+
+    /**
+     * Minutes without a heartbeat after which a running job is assumed lost, e.g. because its instance stopped
+     */
+    private int staleAfterMinutes = 5;
+
+    /**
+     * Times a job may be claimed; a lost job that reached this is failed instead of queued again
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Days finished jobs are kept before they are deleted
+     */
+    private int retentionDays = 7;
+}
@@ -0,0 +1,88 @@
+package org.ganjp.blog.common.job.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.ganjp.blog.auth.security.JwtUtils;
+import org.ganjp.blog.common.image.ImageReencoder;
+import org.ganjp.blog.common.job.model.entity.MediaJob;
+import org.ganjp.blog.common.job.service.MediaJobService;
+import org.ganjp.blog.common.model.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Status of media uploads accepted for asynchronous processing.
+ */
+@RestController
+@RequestMapping("/v1/media-jobs")
+@RequiredArgsConstructor
+public class MediaJobController {
+
+    private static final Set<String> ADMIN_AUTHORITIES = Set.of("ROLE_SUPER_ADMIN", "ROLE_ADMIN");
+
+    private final MediaJobService mediaJobService;
+    private final JwtUtils jwtUtils;
+
+    /**
+     * Location of a job's status, returned with 202 responses
+     */
+    public static URI location(MediaJob job) {
+        return URI.create("/v1/media-jobs/" + job.getId());
+    }
+
+    /**
+     * Answer a create request with 202 and the queued job
+     */
+    public static ResponseEntity<ApiResponse<?>> accepted(MediaJob job, String message) {
+        return ResponseEntity.accepted().location(location(job)).body(ApiResponse.success(job, message));
+    }
+
+    /**
+     * Get a job's status; once SUCCEEDED, resourceId is the ID of the created resource.
+     * Only the submitting user and admins see a job; anyone else gets 404.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<MediaJob>> getJob(@PathVariable String id, HttpServletRequest httpRequest) {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        boolean admin = isAdmin();
+        return mediaJobService.getJob(id)
+                .filter(job -> admin || (userId != null && userId.equals(job.getCreatedBy())))
+                .map(job -> ResponseEntity.ok(ApiResponse.success(job, "Media job found")))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error(404, "Media job not found", null)));
+    }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(ADMIN_AUTHORITIES::contains);
+    }
+
+    /**
+     * Queue re-encoding of the stored images with the current image-encoding settings; the body may name
+     * some of the image-encoding.reencode-directories, otherwise all of them are done
+     */
+    @PostMapping("/image-reencode")
+    @PreAuthorize("hasAuthority('ROLE_SUPER_ADMIN') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse<?>> reencodeImages(@RequestBody(required = false) ImageReencoder.Request request,
+                                                         HttpServletRequest httpRequest) throws IOException {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        ImageReencoder.Request body = request == null ? new ImageReencoder.Request(null) : request;
+        return accepted(mediaJobService.submit(ImageReencoder.JOB_TYPE, body, userId), "Image re-encode queued");
+    }
+}
@@ -0,0 +1,99 @@
+package org.ganjp.blog.common.job.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ganjp.blog.common.job.model.enums.MediaJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a media upload accepted for asynchronous processing.
+ * The request is stored as JSON and its files are staged on disk until a worker has processed them,
+ * so queued jobs survive a restart.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "media_jobs", indexes = {
+    @Index(name = "idx_media_jobs_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_media_jobs_created_by", columnList = "created_by")
+})
+public class MediaJob {
+
+    @Id
+    @Column(columnDefinition = "CHAR(36)")
+    private String id;
+
+    /**
+     * Kind of media, selecting the handler that processes the job (image, logo, video, ...)
+     */
+    @Column(name = "type", length = 30, nullable = false)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private MediaJobStatus status;
+
+    /**
+     * The create request as JSON, without its files
+     */
+    @JsonIgnore
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    /**
+     * Staged files as JSON, keyed by request property
+     */
+    @JsonIgnore
+    @Column(name = "files", columnDefinition = "TEXT")
+    private String files;
+
+    /**
+     * ID of the resource created by the job
+     */
+    @Column(name = "resource_id", columnDefinition = "CHAR(36)")
+    private String resourceId;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    /**
+     * Number of times a worker has claimed the job
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_by", columnDefinition = "CHAR(36)")
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /**
+     * Last heartbeat of the worker running the job
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = java.util.UUID.randomUUID().toString();
+        }
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
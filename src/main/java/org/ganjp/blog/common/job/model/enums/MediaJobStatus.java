@@ -0,0 +1,23 @@
+package org.ganjp.blog.common.job.model.enums;
+
+/**
+ * Lifecycle of a media processing job.
+ */
+public enum MediaJobStatus {
+    /**
+     * Accepted and waiting for a worker
+     */
+    QUEUED,
+    /**
+     * Claimed by a worker and being processed
+     */
+    RUNNING,
+    /**
+     * Processed; the created resource is referenced by the job
+     */
+    SUCCEEDED,
+    /**
+     * Processing failed; the error is recorded on the job
+     */
+    FAILED
+}
@@ -0,0 +1,106 @@
+package org.ganjp.blog.common.job.repository;
+
+import org.ganjp.blog.common.job.model.entity.MediaJob;
+import org.ganjp.blog.common.job.model.enums.MediaJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for MediaJob entity.
+ */
+@Repository
+public interface MediaJobRepository extends JpaRepository<MediaJob, String> {
+
+    /**
+     * IDs of jobs in the given status, oldest first
+     */
+    @Query("SELECT j.id FROM MediaJob j WHERE j.status = :status ORDER BY j.createdAt")
+    List<String> findIdsByStatus(@Param("status") MediaJobStatus status, Pageable pageable);
+
+    /**
+     * Move a queued job to running; returns 0 if another worker claimed it first
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaJob j SET j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING, " +
+            "j.startedAt = :now, j.updatedAt = :now, j.attempts = j.attempts + 1 " +
+            "WHERE j.id = :id AND j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.QUEUED")
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Record the outcome of a running job; returns 0 if it is no longer running, e.g. a sweep failed or requeued it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaJob j SET j.status = :status, j.resourceId = :resourceId, j.errorMessage = :message, " +
+            "j.finishedAt = :now, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING")
+    int finish(@Param("id") String id, @Param("status") MediaJobStatus status, @Param("resourceId") String resourceId,
+               @Param("message") String message, @Param("now") LocalDateTime now);
+
+    /**
+     * Put a running job back in the queue without counting its claim; returns 0 if it is no longer running
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaJob j SET j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.QUEUED, " +
+            "j.attempts = CASE WHEN j.attempts > 0 THEN j.attempts - 1 ELSE 0 END, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING")
+    int release(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Record that the given running jobs are still being worked on
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaJob j SET j.updatedAt = :now " +
+            "WHERE j.id IN :ids AND j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING")
+    int heartbeat(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Put running jobs without a heartbeat since the cutoff back in the queue, e.g. after the worker's JVM stopped,
+     * as long as they have been claimed fewer than maxAttempts times
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaJob j SET j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.QUEUED " +
+            "WHERE j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING " +
+            "AND COALESCE(j.updatedAt, j.startedAt) < :cutoff AND j.attempts < :maxAttempts")
+    int requeueStale(@Param("cutoff") LocalDateTime cutoff, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * IDs of running jobs without a heartbeat since the cutoff that have used up their attempts
+     */
+    @Query("SELECT j.id FROM MediaJob j WHERE j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING " +
+            "AND COALESCE(j.updatedAt, j.startedAt) < :cutoff AND j.attempts >= :maxAttempts")
+    List<String> findExhaustedStaleIds(@Param("cutoff") LocalDateTime cutoff, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fail a running job that is still without a heartbeat since the cutoff; returns 0 if it has moved on
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaJob j SET j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.FAILED, " +
+            "j.finishedAt = :now, j.errorMessage = :message " +
+            "WHERE j.id = :id AND j.status = org.ganjp.blog.common.job.model.enums.MediaJobStatus.RUNNING " +
+            "AND COALESCE(j.updatedAt, j.startedAt) < :cutoff")
+    int failStale(@Param("id") String id, @Param("cutoff") LocalDateTime cutoff,
+                  @Param("now") LocalDateTime now, @Param("message") String message);
+
+    /**
+     * Delete finished jobs older than the cutoff
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MediaJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,55 @@
+package org.ganjp.blog.common.job.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.job.service.MediaJobService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled tasks for media jobs: dispatching queued jobs left in the database, heartbeats for running ones and removing old finished ones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaJobScheduler {
+
+    private final MediaJobService mediaJobService;
+
+    /**
+     * Dispatch queued jobs the workers could not take when they were submitted, or that were queued before a restart
+     */
+    @Scheduled(fixedDelayString = "${media-jobs.sweep-interval-ms:10000}", initialDelayString = "${media-jobs.sweep-interval-ms:10000}")
+    public void sweep() {
+        try {
+            mediaJobService.sweep();
+        } catch (Exception e) {
+            log.warn("Media job sweep failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Keep the jobs running on this instance from being taken for lost by the sweep
+     */
+    @Scheduled(fixedDelayString = "${media-jobs.heartbeat-interval-ms:30000}", initialDelayString = "${media-jobs.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        try {
+            mediaJobService.heartbeat();
+        } catch (Exception e) {
+            log.warn("Media job heartbeat failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Clean up finished jobs daily at 3 AM
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanupFinishedJobs() {
+        try {
+            int deleted = mediaJobService.cleanup();
+            log.info("Deleted {} finished media jobs", deleted);
+        } catch (Exception e) {
+            log.error("Failed to clean up finished media jobs", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.ganjp.blog.common.job.service;
+
+import java.io.IOException;
+
+/**
+ * Processes one type of media job by running the synchronous create of the owning service.
+ * Handlers are beans; MediaJobService picks them up by {@link #type()}.
+ *
+ * @param <R> the create request, serialized with the job
+ */
+public interface MediaJobHandler<R> {
+
+    String type();
+
+    Class<R> requestType();
+
+    /**
+     * Create the resource; the returned response's id is recorded on the job
+     */
+    Object process(R request, String userId) throws IOException;
+
+    static <R> MediaJobHandler<R> of(String type, Class<R> requestType, Processor<R> processor) {
+        return new MediaJobHandler<>() {
+            @Override
+            public String type() {
+                return type;
+            }
+
+            @Override
+            public Class<R> requestType() {
+                return requestType;
+            }
+
+            @Override
+            public Object process(R request, String userId) throws IOException {
+                return processor.process(request, userId);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Processor<R> {
+        Object process(R request, String userId) throws IOException;
+    }
+}
@@ -0,0 +1,353 @@
+package org.ganjp.blog.common.job.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.config.AsyncLoggerConfig;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.job.config.MediaJobProperties;
+import org.ganjp.blog.common.job.model.entity.MediaJob;
+import org.ganjp.blog.common.job.model.enums.MediaJobStatus;
+import org.ganjp.blog.common.job.repository.MediaJobRepository;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts media create requests for asynchronous processing. Submitting stages the uploaded files in the
+ * spool directory, stores the request as a QUEUED job and returns at once; a bounded worker pool claims
+ * queued jobs and runs the synchronous create of the matching {@link MediaJobHandler}. Jobs the workers
+ * could not take (pool full, restart) stay QUEUED in the database and are picked up by {@link #sweep()}.
+ * The spool directory must be shared if several instances process jobs.
+ */
+@Slf4j
+@Service
+public class MediaJobService implements DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MediaJobRepository mediaJobRepository;
+    private final MediaJobProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, MediaJobHandler<?>> handlers;
+    private final ThreadPoolTaskExecutor workers;
+    private final Set<String> dispatched = ConcurrentHashMap.newKeySet();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+
+    public MediaJobService(MediaJobRepository mediaJobRepository,
+                           MediaJobProperties properties,
+                           ObjectMapper objectMapper,
+                           List<MediaJobHandler<?>> handlers,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.mediaJobRepository = mediaJobRepository;
+        this.properties = properties;
+        // Payloads may outlive a deploy that drops a request property
+        this.objectMapper = objectMapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.handlers = handlers.stream().collect(Collectors.toMap(MediaJobHandler::type, Function.identity()));
+
+        workers = new ThreadPoolTaskExecutor();
+        workers.setCorePoolSize(Math.max(1, properties.getConcurrency()));
+        workers.setMaxPoolSize(Math.max(1, properties.getConcurrency()));
+        workers.setQueueCapacity(Math.max(0, properties.getQueueCapacity()));
+        workers.setThreadNamePrefix("media-job-");
+        workers.setTaskDecorator(new AsyncLoggerConfig.MdcContextDecorator());
+        workers.setWaitForTasksToCompleteOnShutdown(true);
+        workers.setAwaitTerminationSeconds(30);
+        workers.initialize();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            new ExecutorServiceMetrics(workers.getThreadPoolExecutor(), "media.jobs", Tags.empty()).bindTo(registry);
+        }
+    }
+
+    /**
+     * Queue a create request for processing. Its non-empty MultipartFile properties are moved to the spool
+     * directory and cleared on the request before it is stored.
+     *
+     * @throws IllegalArgumentException if no handler is registered for the type
+     */
+    public MediaJob submit(String type, Object request, String userId) throws IOException {
+        return submit(UUID.randomUUID().toString(), type, request, userId);
+    }
+
+    /**
+     * Queue the follow-up of the job this worker thread is running, e.g. the next batch of a chain of jobs. Its ID
+     * is derived from the running job's, so a job that runs again after it queued its follow-up (requeued after a
+     * lost heartbeat, retried after a crash) gets the follow-up already queued instead of starting a second chain.
+     * Meant for requests without files.
+     *
+     * @throws IllegalStateException    if the calling thread is not running a media job
+     * @throws IllegalArgumentException if no handler is registered for the type
+     */
+    public MediaJob submitNext(String type, Object request, String userId) throws IOException {
+        String parentId = current.get();
+        if (parentId == null) {
+            throw new IllegalStateException("Follow-up jobs can only be queued by a running media job");
+        }
+        String id = UUID.nameUUIDFromBytes((parentId + "/next").getBytes(StandardCharsets.UTF_8)).toString();
+        Optional<MediaJob> existing = mediaJobRepository.findById(id);
+        if (existing.isPresent()) {
+            log.info("Media job {} already queued its follow-up {}", parentId, id);
+            return existing.get();
+        }
+        try {
+            return submit(id, type, request, userId);
+        } catch (DataIntegrityViolationException e) {
+            // Another run of the same job inserted it first
+            return mediaJobRepository.findById(id).orElseThrow(() -> e);
+        }
+    }
+
+    private MediaJob submit(String id, String type, Object request, String userId) throws IOException {
+        if (!handlers.containsKey(type)) {
+            throw new IllegalArgumentException("Unknown media job type: " + type);
+        }
+        Map<String, StagedFile> files = stage(request, spoolDirectory(id));
+
+        MediaJob job = MediaJob.builder()
+                .id(id)
+                .type(type)
+                .status(MediaJobStatus.QUEUED)
+                .payload(objectMapper.writeValueAsString(request))
+                .files(files.isEmpty() ? null : objectMapper.writeValueAsString(files))
+                .createdBy(userId)
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            job = mediaJobRepository.save(job);
+        } catch (RuntimeException e) {
+            deleteSpool(id);
+            throw e;
+        }
+        dispatch(id);
+        return job;
+    }
+
+    public Optional<MediaJob> getJob(String id) {
+        return mediaJobRepository.findById(id);
+    }
+
+    /**
+     * Hand queued jobs that no worker holds to the pool. Running jobs whose worker stopped sending heartbeats
+     * are queued again, or failed once they have been claimed media-jobs.max-attempts times.
+     */
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(properties.getStaleAfterMinutes());
+        int maxAttempts = Math.max(1, properties.getMaxAttempts());
+        int requeued = mediaJobRepository.requeueStale(cutoff, maxAttempts);
+        if (requeued > 0) {
+            log.warn("Queued {} media jobs again that had no heartbeat for {} minutes", requeued, properties.getStaleAfterMinutes());
+        }
+        for (String id : mediaJobRepository.findExhaustedStaleIds(cutoff, maxAttempts)) {
+            if (mediaJobRepository.failStale(id, cutoff, LocalDateTime.now(),
+                    "Lost without a heartbeat after " + maxAttempts + " attempts") > 0) {
+                log.warn("Media job {} failed, it was lost {} times", id, maxAttempts);
+                deleteSpool(id);
+            }
+        }
+        int capacity = Math.max(1, properties.getConcurrency() + properties.getQueueCapacity() - dispatched.size());
+        for (String id : mediaJobRepository.findIdsByStatus(MediaJobStatus.QUEUED, PageRequest.of(0, capacity))) {
+            dispatch(id);
+        }
+    }
+
+    /**
+     * Record that the jobs this instance is running are still alive, so {@link #sweep()} on any instance
+     * leaves them alone however long they take
+     */
+    public void heartbeat() {
+        if (!running.isEmpty()) {
+            mediaJobRepository.heartbeat(List.copyOf(running), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Delete finished jobs past the retention period
+     */
+    public int cleanup() {
+        return mediaJobRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    private void dispatch(String id) {
+        if (!dispatched.add(id)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    dispatched.remove(id);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Stays QUEUED; the next sweep picks it up
+            dispatched.remove(id);
+            log.debug("Media job {} left queued, workers are busy", id);
+        }
+    }
+
+    void run(String id) {
+        if (mediaJobRepository.claim(id, LocalDateTime.now()) == 0) {
+            return;
+        }
+        running.add(id);
+        try {
+            runClaimed(id);
+        } finally {
+            running.remove(id);
+        }
+    }
+
+    private void runClaimed(String id) {
+        MediaJob job = mediaJobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return;
+        }
+        MediaJobHandler<?> handler = handlers.get(job.getType());
+        long start = System.nanoTime();
+        Object response;
+        current.set(id);
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("No handler for media job type " + job.getType());
+            }
+            response = process(handler, job);
+        } catch (ServiceBusyException e) {
+            // The image bulkhead was saturated: try again on a later sweep, without using up an attempt
+            if (mediaJobRepository.release(id, LocalDateTime.now()) > 0) {
+                log.debug("Media job {} queued again: {}", id, e.getMessage());
+            }
+            return;
+        } catch (Exception e) {
+            log.warn("Media job {} ({}) failed", id, job.getType(), e);
+            finish(id, MediaJobStatus.FAILED, null, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            return;
+        } finally {
+            current.remove();
+        }
+        if (finish(id, MediaJobStatus.SUCCEEDED, resourceId(response), null)) {
+            log.info("Media job {} ({}) succeeded in {} ms", id, job.getType(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private <R> Object process(MediaJobHandler<R> handler, MediaJob job) throws IOException {
+        R request = objectMapper.readValue(job.getPayload(), handler.requestType());
+        if (job.getFiles() != null) {
+            Map<String, StagedFile> files = objectMapper.readValue(job.getFiles(), new TypeReference<LinkedHashMap<String, StagedFile>>() {
+            });
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(request);
+            Path directory = spoolDirectory(job.getId());
+            files.forEach((property, file) -> wrapper.setPropertyValue(property,
+                    new StagedMultipartFile(property, file.originalFilename(), file.contentType(), directory.resolve(property))));
+        }
+        return handler.process(request, job.getCreatedBy());
+    }
+
+    /**
+     * Record the outcome unless a sweep has taken the job over meanwhile; its spooled files are then left to
+     * whoever holds the job now
+     */
+    private boolean finish(String id, MediaJobStatus status, String resourceId, String errorMessage) {
+        if (errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH) {
+            errorMessage = errorMessage.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (mediaJobRepository.finish(id, status, resourceId, errorMessage, LocalDateTime.now()) == 0) {
+            log.warn("Media job {} was taken over by a sweep before it finished, its {} outcome is dropped", id, status);
+            return false;
+        }
+        deleteSpool(id);
+        return true;
+    }
+
+    private Map<String, StagedFile> stage(Object request, Path directory) throws IOException {
+        Map<String, StagedFile> files = new LinkedHashMap<>();
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(request);
+        try {
+            for (PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+                String property = descriptor.getName();
+                if (!MultipartFile.class.isAssignableFrom(descriptor.getPropertyType())
+                        || !wrapper.isReadableProperty(property) || !wrapper.isWritableProperty(property)) {
+                    continue;
+                }
+                MultipartFile file = (MultipartFile) wrapper.getPropertyValue(property);
+                if (file != null && !file.isEmpty()) {
+                    Files.createDirectories(directory);
+                    // Moves the container's temp file where possible instead of copying it
+                    file.transferTo(directory.resolve(property));
+                    files.put(property, new StagedFile(file.getOriginalFilename(), file.getContentType()));
+                }
+                wrapper.setPropertyValue(property, null);
+            }
+        } catch (IOException | RuntimeException e) {
+            FileSystemUtils.deleteRecursively(directory);
+            throw e;
+        }
+        return files;
+    }
+
+    private static String resourceId(Object response) {
+        if (response == null) {
+            return null;
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(response);
+        return wrapper.isReadableProperty("id") && wrapper.getPropertyValue("id") != null
+                ? wrapper.getPropertyValue("id").toString() : null;
+    }
+
+    private Path spoolDirectory(String jobId) {
+        return Paths.get(properties.getSpoolDirectory()).toAbsolutePath().resolve(jobId);
+    }
+
+    private void deleteSpool(String jobId) {
+        try {
+            FileSystemUtils.deleteRecursively(spoolDirectory(jobId));
+        } catch (IOException e) {
+            log.warn("Could not delete spooled files of media job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Jobs not yet started stay QUEUED in the database; only running ones are waited for
+        workers.getThreadPoolExecutor().getQueue().clear();
+        workers.shutdown();
+    }
+
+    /**
+     * An uploaded file of a job; its content is at spool/&lt;job id&gt;/&lt;property&gt;
+     */
+    record StagedFile(String originalFilename, String contentType) {
+    }
+}
@@ -0,0 +1,152 @@
+package org.ganjp.blog.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.ganjp.blog.common.trace.RequestTrace;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Custom meters for media hot paths: image pipeline stages, remote downloads and public asset serving.
+ * Meters are cached per tag combination so recording is a map lookup plus an update.
+ * Stage and download times are also attributed to the current request trace.
+ */
+@Component
+public class MediaMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong decodingBytes = new AtomicLong();
+
+    public MediaMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("image.decode.inflight", decodingBytes, AtomicLong::get)
+                .description("Estimated pixel memory of the images being decoded right now")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record one stage (download, decode, resize, encode, ...) of an image pipeline that started at startNanos
+     */
+    public void recordStage(String pipeline, String stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        RequestTrace.record("image." + stage, elapsed);
+        timers.computeIfAbsent("image.processing|" + pipeline + "|" + stage, key -> Timer.builder("image.processing")
+                        .description("Image processing time per pipeline stage")
+                        .tag("pipeline", pipeline)
+                        .tag("stage", stage)
+                        .register(meterRegistry))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a remote download that started at startNanos
+     */
+    public void recordDownload(String pipeline, long startNanos, boolean success) {
+        String outcome = success ? "success" : "error";
+        long elapsed = System.nanoTime() - startNanos;
+        RequestTrace.record("download", elapsed);
+        timers.computeIfAbsent("remote.download|" + pipeline + "|" + outcome, key -> Timer.builder("remote.download")
+                        .description("Latency of downloads from remote URLs")
+                        .tag("pipeline", pipeline)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the bytes of one public asset response; the count doubles as range vs. full request counts
+     */
+    public void recordAssetServed(String asset, boolean partial, long bytes) {
+        String range = partial ? "partial" : "full";
+        summaries.computeIfAbsent(asset + "|" + range, key -> DistributionSummary.builder("asset.bytes.served")
+                        .description("Bytes served per public asset response")
+                        .baseUnit("bytes")
+                        .tag("asset", asset)
+                        .tag("range", range)
+                        .register(meterRegistry))
+                .record(bytes);
+    }
+
+    /**
+     * Count an upload whose outputs were reused from an earlier upload with the same content (hit) or had to be processed (miss)
+     */
+    public void recordDerivativeLookup(String pipeline, boolean hit) {
+        String result = hit ? "hit" : "miss";
+        counters.computeIfAbsent("image.derivative.lookup|" + pipeline + "|" + result, key -> Counter.builder("image.derivative.lookup")
+                        .description("Uploads served from stored outputs of identical content versus processed")
+                        .tag("pipeline", pipeline)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Count a resized image variant request served from the variant cache (hit) or rendered (miss)
+     */
+    public void recordVariantLookup(String pipeline, boolean hit) {
+        String result = hit ? "hit" : "miss";
+        counters.computeIfAbsent("image.variant.lookup|" + pipeline + "|" + result, key -> Counter.builder("image.variant.lookup")
+                        .description("Image variant requests served from the variant cache versus rendered")
+                        .tag("pipeline", pipeline)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Record the size of one encoded image file
+     */
+    public void recordEncoded(String format, long bytes) {
+        summaries.computeIfAbsent("image.encode.bytes|" + format, key -> DistributionSummary.builder("image.encode.bytes")
+                        .description("Size of each encoded image file")
+                        .baseUnit("bytes")
+                        .tag("format", format)
+                        .register(meterRegistry))
+                .record(bytes);
+    }
+
+    /**
+     * Count the bytes a stored image shrank by when it was encoded again
+     */
+    public void recordBytesSaved(String pipeline, long bytes) {
+        counters.computeIfAbsent("image.encode.saved|" + pipeline, key -> Counter.builder("image.encode.saved")
+                        .description("Bytes saved by encoding stored images again with the current settings")
+                        .baseUnit("bytes")
+                        .tag("pipeline", pipeline)
+                        .register(meterRegistry))
+                .increment(bytes);
+    }
+
+    /**
+     * Reserve the estimated pixel memory of a decode that is about to start; release it with decodeFinished
+     */
+    public void decodeStarted(long estimatedBytes) {
+        decodingBytes.addAndGet(estimatedBytes);
+    }
+
+    /**
+     * Release the estimate of a finished decode and record the pixel memory the decoded image takes (0 if it failed)
+     */
+    public void decodeFinished(String pipeline, long estimatedBytes, long decodedBytes) {
+        decodingBytes.addAndGet(-estimatedBytes);
+        if (decodedBytes > 0) {
+            summaries.computeIfAbsent("image.decode.bytes|" + pipeline, key -> DistributionSummary.builder("image.decode.bytes")
+                            .description("Pixel memory of each decoded image; the max is the peak per decode")
+                            .baseUnit("bytes")
+                            .tag("pipeline", pipeline)
+                            .register(meterRegistry))
+                    .record(decodedBytes);
+        }
+    }
+}
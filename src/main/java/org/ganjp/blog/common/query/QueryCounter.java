@@ -0,0 +1,103 @@
+package org.ganjp.blog.common.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate statement inspector counting the SQL statements prepared on the current thread,
+ * grouped by statement shape (literals and IN-list lengths normalized away).
+ * Counting scopes nest: a statement counts towards every open scope on the thread.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            String shape = shapeOf(sql);
+            for (; scope != null; scope = scope.parent) {
+                scope.add(shape);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Open a counting scope on the current thread; always pair with {@link #stop(Scope)}
+     */
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Close a scope opened by {@link #start()}, restoring the enclosing one
+     */
+    public static void stop(Scope scope) {
+        if (scope.parent != null) {
+            CURRENT.set(scope.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Normalize a statement so executions differing only in bind values share one shape
+     */
+    public static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    /**
+     * Statements counted while a scope was open
+     */
+    public static final class Scope {
+        private final Scope parent;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private int total;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void add(String shape) {
+            shapes.merge(shape, 1, Integer::sum);
+            total++;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Integer> getShapes() {
+            return Collections.unmodifiableMap(shapes);
+        }
+
+        /**
+         * Shapes executed more than threshold times, most repeated first
+         */
+        public List<Map.Entry<String, Integer>> getRepeated(int threshold) {
+            return shapes.entrySet().stream()
+                    .filter(entry -> entry.getValue() > threshold)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                    .toList();
+        }
+    }
+}
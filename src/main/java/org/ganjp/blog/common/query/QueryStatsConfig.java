@@ -0,0 +1,28 @@
+package org.ganjp.blog.common.query;
+
+import org.ganjp.blog.common.config.QueryStatsProperties;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns on Hibernate statistics, slow-query capture and the counting statement inspector
+ * when query-stats.enabled is true. Statistics add bookkeeping to every query, so they stay off by default.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "query-stats", name = "enabled", havingValue = "true")
+public class QueryStatsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsHibernateCustomizer(QueryStatsProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+            if (properties.getSlowQueryThresholdMs() > 0) {
+                hibernateProperties.put(AvailableSettings.LOG_SLOW_QUERY, properties.getSlowQueryThresholdMs());
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package org.ganjp.blog.common.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting statement counts per request, slowest queries and N+1 warnings
+ * (GET /actuator/querystats?limit=20, DELETE to reset)
+ */
+@Component
+@Endpoint(id = "querystats")
+@ConditionalOnProperty(prefix = "query-stats", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryStatsEndpoint {
+
+    private final QueryStatsService queryStatsService;
+
+    @ReadOperation
+    public Map<String, Object> queryStats(@Nullable Integer limit) {
+        int max = limit != null && limit > 0 ? limit : 20;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totals", queryStatsService.getTotals());
+        result.put("topRequests", queryStatsService.getTopRequests(max));
+        result.put("nPlusOneWarnings", queryStatsService.getWarnings());
+        result.put("slowestQueries", queryStatsService.getSlowestQueries(max));
+        result.put("slowStatements", queryStatsService.getSlowStatements());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryStatsService.clear();
+    }
+}
@@ -0,0 +1,175 @@
+package org.ganjp.blog.common.query;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.config.QueryStatsProperties;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps per-request statement counts and N+1 warnings in fixed-size rings and
+ * summarizes Hibernate statistics for the querystats actuator endpoint.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "query-stats", name = "enabled", havingValue = "true")
+public class QueryStatsService {
+
+    private final QueryStatsProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final RequestQueryStats[] requests;
+    private final RequestQueryStats[] warnings;
+    private long requestSequence;
+    private long warningSequence;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public QueryStatsService(QueryStatsProperties properties, EntityManagerFactory entityManagerFactory) {
+        this.properties = properties;
+        this.entityManagerFactory = entityManagerFactory;
+        int size = Math.max(1, properties.getBufferSize());
+        this.requests = new RequestQueryStats[size];
+        this.warnings = new RequestQueryStats[size];
+    }
+
+    /**
+     * Record the statements counted for one request; requests without statements are ignored
+     */
+    public void record(String requestId, String method, String uri, QueryCounter.Scope scope) {
+        if (scope.getTotal() == 0) {
+            return;
+        }
+        List<RequestQueryStats.RepeatedQuery> repeated = scope.getRepeated(properties.getRepeatThreshold()).stream()
+                .map(entry -> new RequestQueryStats.RepeatedQuery(entry.getKey(), entry.getValue()))
+                .toList();
+        RequestQueryStats stats = new RequestQueryStats(requestId, method, uri, Instant.now(),
+                scope.getTotal(), scope.getShapes().size(), repeated);
+
+        lock.lock();
+        try {
+            requests[(int) (requestSequence++ % requests.length)] = stats;
+            if (!repeated.isEmpty()) {
+                warnings[(int) (warningSequence++ % warnings.length)] = stats;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!repeated.isEmpty()) {
+            log.warn("Possible N+1 in {} {} (request {}): {} statements, \"{}\" ran {} times",
+                    method, uri, requestId, stats.statements(), repeated.get(0).shape(), repeated.get(0).count());
+        }
+    }
+
+    /**
+     * Buffered requests with the most statements first
+     */
+    public List<RequestQueryStats> getTopRequests(int limit) {
+        List<RequestQueryStats> result;
+        lock.lock();
+        try {
+            result = snapshot(requests, requestSequence);
+        } finally {
+            lock.unlock();
+        }
+        result.sort(Comparator.comparingInt(RequestQueryStats::statements).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Buffered N+1 warnings, newest first
+     */
+    public List<RequestQueryStats> getWarnings() {
+        List<RequestQueryStats> result;
+        lock.lock();
+        try {
+            result = snapshot(warnings, warningSequence);
+        } finally {
+            lock.unlock();
+        }
+        result.sort(Comparator.comparing(RequestQueryStats::completedAt).reversed());
+        return result;
+    }
+
+    /**
+     * Session factory totals since startup
+     */
+    public Map<String, Long> getTotals() {
+        Statistics statistics = statistics();
+        Map<String, Long> totals = new LinkedHashMap<>();
+        totals.put("preparedStatements", statistics.getPrepareStatementCount());
+        totals.put("queryExecutions", statistics.getQueryExecutionCount());
+        totals.put("queryExecutionMaxTimeMs", statistics.getQueryExecutionMaxTime());
+        totals.put("entityLoads", statistics.getEntityLoadCount());
+        totals.put("entityFetches", statistics.getEntityFetchCount());
+        totals.put("collectionLoads", statistics.getCollectionLoadCount());
+        totals.put("collectionFetches", statistics.getCollectionFetchCount());
+        totals.put("transactions", statistics.getTransactionCount());
+        totals.put("flushes", statistics.getFlushCount());
+        return totals;
+    }
+
+    /**
+     * HQL/JPQL queries ordered by their slowest execution; named parameters show the bind shape
+     */
+    public List<Map<String, Object>> getSlowestQueries(int limit) {
+        Statistics statistics = statistics();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("query", query);
+            entry.put("executions", queryStatistics.getExecutionCount());
+            entry.put("avgMs", queryStatistics.getExecutionAvgTimeAsDouble());
+            entry.put("maxMs", queryStatistics.getExecutionMaxTime());
+            entry.put("rows", queryStatistics.getExecutionRowCount());
+            result.add(entry);
+        }
+        result.sort(Comparator.comparingLong((Map<String, Object> entry) -> (Long) entry.get("maxMs")).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * SQL statements above query-stats.slow-query-threshold-ms with their slowest time in ms
+     */
+    public Map<String, Long> getSlowStatements() {
+        return statistics().getSlowQueries();
+    }
+
+    public void clear() {
+        statistics().clear();
+        lock.lock();
+        try {
+            requestSequence = 0;
+            warningSequence = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Copy of the filled slots of a ring; the caller holds lock and read the sequence under it
+     */
+    private List<RequestQueryStats> snapshot(RequestQueryStats[] ring, long sequence) {
+        List<RequestQueryStats> result = new ArrayList<>();
+        long available = Math.min(sequence, ring.length);
+        for (int i = 0; i < available; i++) {
+            result.add(ring[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package org.ganjp.blog.common.query;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Statements executed by one request.
+ *
+ * @param repeated Statement shapes executed more than the repeat threshold (likely N+1), most repeated first
+ */
+public record RequestQueryStats(
+        String requestId,
+        String method,
+        String uri,
+        Instant completedAt,
+        int statements,
+        int distinctShapes,
+        List<RepeatedQuery> repeated) {
+
+    public record RepeatedQuery(String shape, int count) {
+    }
+}
@@ -0,0 +1,61 @@
+package org.ganjp.blog.common.storage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the content-addressed file store.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+
+    /**
+     * Directory holding blobs by SHA-256; on the same volume as the media directories, media files are hard links to it
+     */
+    private String directory = "uploads/blobs";
+
+    /**
+     * Reuse the outputs of an earlier upload with identical content instead of processing it again
+     */
+    private boolean reuseDerivatives = true;
+
+    /**
+     * Placement of files inside the media directories
+     */
+    private Layout layout = new Layout();
+
+    @Data
+    public static class Layout {
+
+        /**
+         * FLAT keeps files directly in their directory, SHARDED in subdirectories by the hash of the filename
+         */
+        private Mode mode = Mode.FLAT;
+
+        /**
+         * Media directories whose flat files are moved into the sharded layout in the background
+         */
+        private List<String> directories = new ArrayList<>();
+
+        /**
+         * Files moved per migration run
+         */
+        private int migrationBatchSize = 1000;
+
+        /**
+         * Pause between migration runs
+         */
+        private long migrationIntervalMs = 60000;
+    }
+
+    public enum Mode {
+        FLAT,
+        SHARDED
+    }
+}
@@ -0,0 +1,68 @@
+package org.ganjp.blog.common.storage.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An output a pipeline produced from a source with the given content, such as the main image or thumbnail
+ * of an upload. An upload with the same content and settings reuses the blob instead of being processed again.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "storage_derivatives", indexes = {
+    @Index(name = "idx_storage_derivatives_blob", columnList = "blob_hash")
+})
+public class StorageDerivative {
+
+    /**
+     * Source hash and variant, see {@link #id(String, String)}
+     */
+    @Id
+    @Column(length = 200)
+    private String id;
+
+    @Column(name = "source_hash", columnDefinition = "CHAR(64)", nullable = false)
+    private String sourceHash;
+
+    /**
+     * Pipeline and the settings the output depends on, e.g. image/1200/300/jpg/main
+     */
+    @Column(name = "variant", length = 120, nullable = false)
+    private String variant;
+
+    @Column(name = "blob_hash", columnDefinition = "CHAR(64)", nullable = false)
+    private String blobHash;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public static String id(String sourceHash, String variant) {
+        return sourceHash + "/" + variant;
+    }
+}
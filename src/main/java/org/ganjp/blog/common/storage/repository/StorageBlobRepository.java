@@ -0,0 +1,43 @@
+package org.ganjp.blog.common.storage.repository;
+
+import org.ganjp.blog.common.storage.model.entity.StorageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for StorageBlob entity. Reference counts are changed with single UPDATE statements,
+ * so concurrent changes from several threads or instances are not lost.
+ */
+@Repository
+public interface StorageBlobRepository extends JpaRepository<StorageBlob, String> {
+
+    /**
+     * Add a reference; returns 0 if no blob with this hash is recorded
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    /**
+     * Drop a reference unless it is the last one; returns 0 if it is the last one or no blob is recorded
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now WHERE b.hash = :hash AND b.refCount > 1")
+    int decrementRefCount(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete the blob record if at most one reference is left; returns 0 if it gained references in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StorageBlob b WHERE b.hash = :hash AND b.refCount <= 1")
+    int deleteUnreferenced(@Param("hash") String hash);
+}
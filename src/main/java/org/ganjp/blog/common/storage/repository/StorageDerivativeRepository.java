@@ -0,0 +1,24 @@
+package org.ganjp.blog.common.storage.repository;
+
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for StorageDerivative entity.
+ */
+@Repository
+public interface StorageDerivativeRepository extends JpaRepository<StorageDerivative, String> {
+
+    /**
+     * Forget the outputs held by a blob that is being deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StorageDerivative d WHERE d.blobHash = :blobHash")
+    int deleteByBlobHash(@Param("blobHash") String blobHash);
+}
@@ -0,0 +1,29 @@
+package org.ganjp.blog.common.storage.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.ganjp.blog.common.storage.service.MediaLayoutMigrator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migrates the configured media directories into the sharded layout in the background.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaLayoutScheduler {
+
+    private final MediaLayoutMigrator mediaLayoutMigrator;
+    private final StorageProperties storageProperties;
+
+    @Scheduled(fixedDelayString = "${storage.layout.migration-interval-ms:60000}", initialDelayString = "${storage.layout.migration-interval-ms:60000}")
+    public void migrateLayout() {
+        try {
+            mediaLayoutMigrator.migrate(storageProperties.getLayout().getMigrationBatchSize());
+        } catch (Exception e) {
+            log.warn("Media layout migration failed, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.ganjp.blog.common.storage.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.ganjp.blog.common.storage.model.entity.StorageBlob;
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.ganjp.blog.common.storage.repository.StorageBlobRepository;
+import org.ganjp.blog.common.storage.repository.StorageDerivativeRepository;
+import org.ganjp.blog.common.upload.service.UploadFiles;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores blobs on the local file system under directory/ab/cd/&lt;sha256&gt; and places hard links to them in the
+ * media directories, so a file shared by several entities takes its space once. Where hard links are not
+ * possible (another volume) the media file is a copy and only the processing is saved. Blobs are made read-only
+ * so nothing rewrites shared content in place; replacing or deleting a media file is unaffected. File changes
+ * of one hash are serialised within this instance; reference counts change with atomic updates in the database.
+ */
+@Slf4j
+@Service
+public class LocalStorageService implements StorageService {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StorageProperties properties;
+    private final StorageBlobRepository blobRepository;
+    private final StorageDerivativeRepository derivativeRepository;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private volatile boolean linkWarningLogged;
+
+    public LocalStorageService(StorageProperties properties,
+                               StorageBlobRepository blobRepository,
+                               StorageDerivativeRepository derivativeRepository) {
+        this.properties = properties;
+        this.blobRepository = blobRepository;
+        this.derivativeRepository = derivativeRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public String hash(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return hash(input);
+        }
+    }
+
+    @Override
+    public String hash(MultipartFile file) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return hash(input);
+        }
+    }
+
+    @Override
+    public String store(Path path) throws IOException {
+        String hash = hash(path);
+        Path blob = blobPath(hash);
+        ReentrantLock lock = lock(hash);
+        lock.lock();
+        try {
+            if (Files.exists(blob)) {
+                placeLink(blob, path);
+                if (blobRepository.incrementRefCount(hash, LocalDateTime.now()) == 0) {
+                    blobRepository.save(StorageBlob.builder().hash(hash).sizeBytes(Files.size(blob)).refCount(1).build());
+                }
+            } else {
+                Files.createDirectories(blob.getParent());
+                UploadFiles.move(path, blob);
+                blob.toFile().setReadOnly();
+                placeLink(blob, path);
+                // Content lost on disk starts counting again
+                blobRepository.save(StorageBlob.builder().hash(hash).sizeBytes(Files.size(blob)).refCount(1).build());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean link(String hash, Path target) throws IOException {
+        Path blob = blobPath(hash);
+        ReentrantLock lock = lock(hash);
+        lock.lock();
+        try {
+            if (!Files.exists(blob) || !blobRepository.existsById(hash)) {
+                return false;
+            }
+            placeLink(blob, target);
+            if (blobRepository.incrementRefCount(hash, LocalDateTime.now()) == 0) {
+                // Released elsewhere since the check; the link keeps the content alive, so record it again
+                blobRepository.save(StorageBlob.builder().hash(hash).sizeBytes(Files.size(blob)).refCount(1).build());
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        String hash = hash(path);
+        ReentrantLock lock = lock(hash);
+        lock.lock();
+        try {
+            Files.delete(path);
+            if (blobRepository.decrementRefCount(hash, LocalDateTime.now()) > 0) {
+                return;
+            }
+            if (!blobRepository.existsById(hash)) {
+                // Written before the store existed, or by a path that does not use it
+                return;
+            }
+            derivativeRepository.deleteByBlobHash(hash);
+            if (blobRepository.deleteUnreferenced(hash) > 0) {
+                Files.deleteIfExists(blobPath(hash));
+                log.debug("Deleted blob {} with its last reference", hash);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<StorageDerivative> findDerivative(String sourceHash, String variant) {
+        if (!properties.isReuseDerivatives()) {
+            return Optional.empty();
+        }
+        return derivativeRepository.findById(StorageDerivative.id(sourceHash, variant))
+                .filter(derivative -> Files.exists(blobPath(derivative.getBlobHash())));
+    }
+
+    @Override
+    public void saveDerivative(String sourceHash, String variant, String blobHash, Integer width, Integer height) {
+        derivativeRepository.save(StorageDerivative.builder()
+                .id(StorageDerivative.id(sourceHash, variant))
+                .sourceHash(sourceHash)
+                .variant(variant)
+                .blobHash(blobHash)
+                .width(width)
+                .height(height)
+                .build());
+    }
+
+    /**
+     * Location of the blob with this hash, sharded by its first two bytes
+     */
+    Path blobPath(String hash) {
+        return Paths.get(properties.getDirectory(), hash.substring(0, 2), hash.substring(2, 4), hash);
+    }
+
+    private void placeLink(Path blob, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling("." + target.getFileName() + ".link");
+        Files.deleteIfExists(temp);
+        try {
+            try {
+                Files.createLink(temp, blob);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                if (!linkWarningLogged) {
+                    linkWarningLogged = true;
+                    log.warn("Cannot hard link {} to {} ({}); media files are stored as copies", target, blob, e.getMessage());
+                }
+                Files.copy(blob, temp);
+            }
+            // Replaces a freshly written file with the same content atomically
+            UploadFiles.move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private ReentrantLock lock(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String hash(InputStream input) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (DigestInputStream digesting = new DigestInputStream(input, digest)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (digesting.read(buffer) != -1) {
+                // Digest only
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,96 @@
+package org.ganjp.blog.common.storage.service;
+
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Placement of files inside a media directory. In the FLAT layout a file is directory/filename; in the SHARDED
+ * layout it is directory/3f/a2/filename, named after the first two bytes of the SHA-256 of the filename, which
+ * spreads a large directory over 65536 small ones. New files go where the configured layout puts them;
+ * lookups also find a file in the other layout, so directories can be migrated while they are being served.
+ */
+@Component
+public class MediaLayout {
+
+    private final StorageProperties properties;
+
+    public MediaLayout(StorageProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Where a new file goes in the configured layout
+     */
+    public Path path(Path directory, String filename) {
+        return sharded() ? shardedPath(directory, filename) : directory.resolve(filename);
+    }
+
+    public Path path(String directory, String filename) {
+        return path(Paths.get(directory), filename);
+    }
+
+    /**
+     * Where a new file goes in the configured layout, with its parent directories created
+     */
+    public Path prepare(Path directory, String filename) throws IOException {
+        Path path = path(directory, filename);
+        Files.createDirectories(path.getParent());
+        return path;
+    }
+
+    public Path prepare(String directory, String filename) throws IOException {
+        return prepare(Paths.get(directory), filename);
+    }
+
+    /**
+     * Where an existing file is: in the configured layout, else in the other one; the configured location if neither exists
+     */
+    public Path locate(Path directory, String filename) {
+        Path path = path(directory, filename);
+        if (Files.exists(path)) {
+            return path;
+        }
+        Path other = sharded() ? directory.resolve(filename) : shardedPath(directory, filename);
+        return Files.exists(other) ? other : path;
+    }
+
+    public Path locate(String directory, String filename) {
+        return locate(Paths.get(directory), filename);
+    }
+
+    /**
+     * Whether a file with this name exists in either layout
+     */
+    public boolean exists(Path directory, String filename) {
+        return Files.exists(directory.resolve(filename)) || Files.exists(shardedPath(directory, filename));
+    }
+
+    public boolean sharded() {
+        return properties.getLayout().getMode() == StorageProperties.Mode.SHARDED;
+    }
+
+    /**
+     * Location of a file in the sharded layout
+     */
+    public static Path shardedPath(Path directory, String filename) {
+        String hash = HexFormat.of().formatHex(sha256(filename.getBytes(StandardCharsets.UTF_8)), 0, 2);
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(filename);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
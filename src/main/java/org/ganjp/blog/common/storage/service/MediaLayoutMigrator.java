@@ -0,0 +1,85 @@
+package org.ganjp.blog.common.storage.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Moves files that still sit directly in a media directory into the sharded layout, a batch at a time.
+ * Each move is a rename within the directory's volume, and lookups find a file on either side of it.
+ */
+@Slf4j
+@Service
+public class MediaLayoutMigrator {
+
+    private final StorageProperties properties;
+    private final MediaLayout mediaLayout;
+
+    public MediaLayoutMigrator(StorageProperties properties, MediaLayout mediaLayout) {
+        this.properties = properties;
+        this.mediaLayout = mediaLayout;
+    }
+
+    /**
+     * Move up to limit flat files of the configured directories into their shard
+     *
+     * @return number of files moved
+     */
+    public int migrate(int limit) throws IOException {
+        if (!mediaLayout.sharded()) {
+            return 0;
+        }
+        int moved = 0;
+        for (String directory : properties.getLayout().getDirectories()) {
+            if (moved >= limit) {
+                break;
+            }
+            moved += migrate(Paths.get(directory), limit - moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Move up to limit flat files of one directory into their shard
+     */
+    int migrate(Path directory, int limit) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int moved = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, entry -> Files.isRegularFile(entry)
+                && !entry.getFileName().toString().startsWith("."))) {
+            for (Path source : entries) {
+                if (moved >= limit) {
+                    break;
+                }
+                String filename = source.getFileName().toString();
+                Path target = MediaLayout.shardedPath(directory, filename);
+                if (Files.exists(target)) {
+                    // Lookups already prefer the sharded copy
+                    log.warn("Not migrating {}: {} already exists", source, target);
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(source, target);
+                }
+                moved++;
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} files of {} into the sharded layout", moved, directory);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,56 @@
+package org.ganjp.blog.common.storage.service;
+
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for media files. Files keep their names in the media directories, but identical
+ * contents are stored once and reference-counted, and outputs derived from a source are remembered by the
+ * source's hash so identical uploads are not processed again.
+ */
+public interface StorageService {
+
+    /**
+     * SHA-256 of the file as lower-case hex
+     */
+    String hash(Path file) throws IOException;
+
+    /**
+     * SHA-256 of the uploaded file as lower-case hex
+     */
+    String hash(MultipartFile file) throws IOException;
+
+    /**
+     * Take the file just written at path into the store. Afterwards path refers to the stored content, which
+     * gains a reference; if the same content is already stored, the new copy is dropped.
+     *
+     * @return hash of the content
+     */
+    String store(Path path) throws IOException;
+
+    /**
+     * Place a reference to stored content at target
+     *
+     * @return false if no content with this hash is stored
+     */
+    boolean link(String hash, Path target) throws IOException;
+
+    /**
+     * Delete the media file at path and drop its reference; the content is deleted with its last reference
+     */
+    void release(Path path) throws IOException;
+
+    /**
+     * Output of an earlier run of a pipeline variant on a source with this hash, if it is still stored
+     */
+    Optional<StorageDerivative> findDerivative(String sourceHash, String variant);
+
+    /**
+     * Remember that the pipeline variant produced the stored content blobHash from the source sourceHash
+     */
+    void saveDerivative(String sourceHash, String variant, String blobHash, Integer width, Integer height);
+}
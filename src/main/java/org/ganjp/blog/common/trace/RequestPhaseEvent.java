@@ -0,0 +1,32 @@
+package org.ganjp.blog.common.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one phase of a slow request, so phases can be aggregated across requests offline
+ */
+@Name("org.ganjp.blog.RequestPhase")
+@Label("Slow Request Phase")
+@Category({"GJPB", "HTTP"})
+@Description("Exclusive time spent in one phase of a slow request")
+@StackTrace(false)
+class RequestPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Request ID")
+    String requestId;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long phaseDuration;
+
+    @Label("Count")
+    int count;
+}
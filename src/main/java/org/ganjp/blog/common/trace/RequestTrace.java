@@ -0,0 +1,182 @@
+package org.ganjp.blog.common.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-request phase tracer bound to the request thread.
+ * Phases (jwt, db, file, image.*) accumulate exclusive time: when phases nest, time spent in the
+ * inner phase is not counted again for the outer one. Work handed off to other threads is not traced,
+ * unless the request thread waits for it and the worker attaches the trace meanwhile (see Bulkhead).
+ * All static helpers are no-ops when no trace is active, so call sites need no guards.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final Phase NOOP = new Phase(null, null, null);
+
+    private final String requestId;
+    private final String method;
+    private final String uri;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, PhaseTotal> phases = new LinkedHashMap<>();
+    private final SlowRequestEvent event = new SlowRequestEvent();
+    private Phase open;
+
+    private RequestTrace(String requestId, String method, String uri) {
+        this.requestId = requestId;
+        this.method = method;
+        this.uri = uri;
+        event.begin();
+    }
+
+    /**
+     * Start tracing the current request on this thread
+     */
+    public static RequestTrace begin(String requestId, String method, String uri) {
+        RequestTrace trace = new RequestTrace(requestId, method, uri);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Stop tracing on this thread
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Bind a trace to this thread, e.g. a worker running on behalf of a request thread that waits for it.
+     * Returns the trace bound before, to be restored with another attach call.
+     */
+    public static RequestTrace attach(RequestTrace trace) {
+        RequestTrace previous = CURRENT.get();
+        if (trace == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(trace);
+        }
+        return previous;
+    }
+
+    /**
+     * The trace of the request running on this thread, or null
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Open a phase; close it (try-with-resources) when the work is done
+     */
+    public static Phase phase(String name) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return NOOP;
+        }
+        Phase phase = new Phase(trace, name, trace.open);
+        trace.open = phase;
+        return phase;
+    }
+
+    /**
+     * Attribute already measured time to a phase
+     */
+    public static void record(String name, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(name, nanos);
+            if (trace.open != null) {
+                trace.open.childNanos += nanos;
+            }
+        }
+    }
+
+    private void add(String name, long nanos) {
+        phases.computeIfAbsent(name, key -> new PhaseTotal()).add(nanos);
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public Map<String, PhaseTotal> getPhases() {
+        return phases;
+    }
+
+    SlowRequestEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * Accumulated exclusive time and number of entries of one phase
+     */
+    public static final class PhaseTotal {
+        private long nanos;
+        private int count;
+
+        private void add(long elapsed) {
+            nanos += elapsed;
+            count++;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * An open phase; closing it adds its exclusive time to the trace
+     */
+    public static final class Phase implements AutoCloseable {
+        private final RequestTrace trace;
+        private final String name;
+        private final Phase parent;
+        private final long startNanos;
+        private long childNanos;
+        private boolean closed;
+
+        private Phase(RequestTrace trace, String name, Phase parent) {
+            this.trace = trace;
+            this.name = name;
+            this.parent = parent;
+            this.startNanos = trace != null ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void close() {
+            if (trace == null || closed) {
+                return;
+            }
+            closed = true;
+            long elapsed = System.nanoTime() - startNanos;
+            trace.add(name, elapsed - childNanos);
+            if (parent != null) {
+                parent.childNanos += elapsed;
+            }
+            trace.open = parent;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.ganjp.blog.common.trace;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Snapshot of a request that exceeded the flight recorder threshold.
+ *
+ * @param phases Exclusive time per phase, in descending order of time
+ * @param unattributedMs Time not covered by any phase (controller/service code, serialization, filters)
+ */
+public record SlowRequest(
+        String requestId,
+        String method,
+        String uri,
+        int status,
+        Instant startedAt,
+        double durationMs,
+        Map<String, PhaseTiming> phases,
+        double unattributedMs) {
+
+    /**
+     * @param durationMs Exclusive time spent in the phase
+     * @param count Number of times the phase was entered (e.g. repository calls)
+     */
+    public record PhaseTiming(double durationMs, int count) {
+    }
+}
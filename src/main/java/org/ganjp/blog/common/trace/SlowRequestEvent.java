@@ -0,0 +1,34 @@
+package org.ganjp.blog.common.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a request that exceeded the flight recorder threshold; spans the whole request
+ */
+@Name("org.ganjp.blog.SlowRequest")
+@Label("Slow Request")
+@Category({"GJPB", "HTTP"})
+@Description("HTTP request above the flight recorder threshold, with its phase breakdown")
+@StackTrace(false)
+class SlowRequestEvent extends jdk.jfr.Event {
+
+    @Label("Request ID")
+    String requestId;
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+
+    @Label("Phases")
+    @Description("Exclusive milliseconds per phase, e.g. db=12.5(3) jwt=2.1(1)")
+    String phases;
+}
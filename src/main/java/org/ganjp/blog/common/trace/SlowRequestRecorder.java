@@ -0,0 +1,119 @@
+package org.ganjp.blog.common.trace;
+
+import org.ganjp.blog.common.config.FlightRecorderProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recent requests above the configured threshold in a fixed-size ring,
+ * together with their phase breakdown, and emits matching JFR events.
+ * Requests under the threshold cost only the trace allocation and a clock read.
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private final FlightRecorderProperties properties;
+    private final long thresholdNanos;
+    private final SlowRequest[] ring;
+    private long sequence;
+    private final ReentrantLock ringLock = new ReentrantLock();
+
+    public SlowRequestRecorder(FlightRecorderProperties properties) {
+        this.properties = properties;
+        this.thresholdNanos = properties.getThresholdMs() * 1_000_000L;
+        this.ring = new SlowRequest[Math.max(1, properties.getBufferSize())];
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Finish a trace; keeps it only if it exceeded the threshold
+     */
+    public void complete(RequestTrace trace, int status) {
+        long elapsed = trace.getElapsedNanos();
+        if (elapsed < thresholdNanos) {
+            return;
+        }
+
+        Map<String, SlowRequest.PhaseTiming> phases = new LinkedHashMap<>();
+        long attributed = 0;
+        List<Map.Entry<String, RequestTrace.PhaseTotal>> entries = new ArrayList<>(trace.getPhases().entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, RequestTrace.PhaseTotal> e) -> e.getValue().getNanos()).reversed());
+        for (Map.Entry<String, RequestTrace.PhaseTotal> entry : entries) {
+            RequestTrace.PhaseTotal total = entry.getValue();
+            phases.put(entry.getKey(), new SlowRequest.PhaseTiming(toMillis(total.getNanos()), total.getCount()));
+            attributed += total.getNanos();
+        }
+
+        SlowRequest slowRequest = new SlowRequest(trace.getRequestId(), trace.getMethod(), trace.getUri(), status,
+                Instant.ofEpochMilli(trace.getStartMillis()), toMillis(elapsed), phases,
+                toMillis(Math.max(0, elapsed - attributed)));
+        ringLock.lock();
+        try {
+            ring[(int) (sequence % ring.length)] = slowRequest;
+            sequence++;
+        } finally {
+            ringLock.unlock();
+        }
+        emitEvents(trace, slowRequest);
+    }
+
+    /**
+     * Buffered slow requests, slowest first
+     */
+    public List<SlowRequest> getSlowest(int limit) {
+        List<SlowRequest> result = new ArrayList<>();
+        ringLock.lock();
+        try {
+            long available = Math.min(sequence, ring.length);
+            for (int i = 0; i < available; i++) {
+                result.add(ring[i]);
+            }
+        } finally {
+            ringLock.unlock();
+        }
+        result.sort(Comparator.comparingDouble(SlowRequest::durationMs).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private void emitEvents(RequestTrace trace, SlowRequest slowRequest) {
+        SlowRequestEvent event = trace.getEvent();
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder();
+        slowRequest.phases().forEach((name, timing) -> summary.append(summary.isEmpty() ? "" : " ")
+                .append(name).append('=').append(timing.durationMs()).append('(').append(timing.count()).append(')'));
+        event.requestId = slowRequest.requestId();
+        event.method = slowRequest.method();
+        event.uri = slowRequest.uri();
+        event.status = slowRequest.status();
+        event.phases = summary.toString();
+        event.commit();
+
+        trace.getPhases().forEach((name, total) -> {
+            RequestPhaseEvent phaseEvent = new RequestPhaseEvent();
+            if (phaseEvent.isEnabled()) {
+                phaseEvent.requestId = slowRequest.requestId();
+                phaseEvent.phase = name;
+                phaseEvent.phaseDuration = total.getNanos();
+                phaseEvent.count = total.getCount();
+                phaseEvent.commit();
+            }
+        });
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
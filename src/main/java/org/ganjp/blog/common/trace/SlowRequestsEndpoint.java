@@ -0,0 +1,26 @@
+package org.ganjp.blog.common.trace;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing the slowest recent requests with their phase breakdown
+ * (GET /actuator/slowrequests?limit=20)
+ */
+@Component
+@Endpoint(id = "slowrequests")
+@RequiredArgsConstructor
+public class SlowRequestsEndpoint {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    @ReadOperation
+    public List<SlowRequest> slowRequests(@Nullable Integer limit) {
+        return slowRequestRecorder.getSlowest(limit != null && limit > 0 ? limit : 20);
+    }
+}
@@ -0,0 +1,44 @@
+package org.ganjp.blog.common.upload.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for resumable chunked uploads.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "chunked-upload")
+public class ChunkedUploadProperties {
+
+    /**
+     * Directory holding uploads in progress; on the same volume as the media directories, completing an upload is a rename
+     */
+    private String directory = "uploads/chunked";
+
+    /**
+     * Largest total upload length accepted
+     */
+    private long maxUploadSize = 1073741824L;
+
+    /**
+     * Unfinished or unused uploads a user may hold at once; more are rejected with 429
+     */
+    private int maxOpenUploadsPerUser = 5;
+
+    /**
+     * Total length of the uploads a user may hold at once; more is rejected with 413
+     */
+    private long maxReservedBytesPerUser = 4294967296L;
+
+    /**
+     * Hours without a chunk after which an unfinished upload is deleted
+     */
+    private int expireAfterHours = 24;
+
+    /**
+     * How often expired uploads are looked for
+     */
+    private long cleanupIntervalMs = 3600000;
+}
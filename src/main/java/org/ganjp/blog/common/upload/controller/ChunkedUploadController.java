@@ -0,0 +1,109 @@
+package org.ganjp.blog.common.upload.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.auth.security.JwtUtils;
+import org.ganjp.blog.common.model.ApiResponse;
+import org.ganjp.blog.common.upload.model.ChunkedUpload;
+import org.ganjp.blog.common.upload.model.dto.ChunkedUploadCreateRequest;
+import org.ganjp.blog.common.upload.service.ChunkedUploadService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Resumable chunked uploads for large media files. Create an upload with its length, send the bytes with PATCH
+ * (Content-Type application/offset+octet-stream, Upload-Offset of the first byte), ask HEAD for the offset to
+ * resume after a broken connection, and pass the upload ID as uploadId to a create endpoint once it is complete.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/uploads")
+@RequiredArgsConstructor
+public class ChunkedUploadController {
+
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+    public static final String UPLOAD_LENGTH = "Upload-Length";
+    public static final String UPLOAD_CHECKSUM = "Upload-Checksum";
+    public static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
+
+    private final ChunkedUploadService chunkedUploadService;
+    private final JwtUtils jwtUtils;
+
+    /**
+     * Start an upload; answers 429 or 413 if the user already holds too many uploads or bytes
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_SUPER_ADMIN') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse<ChunkedUpload>> createUpload(@Valid @RequestBody ChunkedUploadCreateRequest request, HttpServletRequest httpRequest) throws IOException {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        ChunkedUpload upload = chunkedUploadService.create(request, userId);
+        return ResponseEntity.created(URI.create("/v1/uploads/" + upload.getId()))
+                .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(upload.getLength()))
+                .body(ApiResponse.success(upload, "Upload created"));
+    }
+
+    /**
+     * Offset to resume from
+     */
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> uploadOffset(@PathVariable String id, HttpServletRequest httpRequest) throws IOException {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        ChunkedUpload upload = chunkedUploadService.getUpload(id, userId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(upload.getLength()))
+                .build();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ChunkedUpload>> getUpload(@PathVariable String id, HttpServletRequest httpRequest) throws IOException {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        return ResponseEntity.ok(ApiResponse.success(chunkedUploadService.getUpload(id, userId), "Upload found"));
+    }
+
+    /**
+     * Append a chunk; answers 204 with the new Upload-Offset, or 409 if the offset is not the current one
+     */
+    @PatchMapping(value = "/{id}", consumes = OFFSET_OCTET_STREAM)
+    public ResponseEntity<ApiResponse<Void>> appendChunk(@PathVariable String id,
+                                                         @RequestHeader(UPLOAD_OFFSET) long offset,
+                                                         @RequestHeader(value = UPLOAD_CHECKSUM, required = false) String checksum,
+                                                         HttpServletRequest httpRequest) throws IOException {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        try {
+            ChunkedUpload upload = chunkedUploadService.append(id, offset, checksum, httpRequest.getInputStream(), userId);
+            return ResponseEntity.noContent()
+                    .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                    .build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(409, e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteUpload(@PathVariable String id, HttpServletRequest httpRequest) throws IOException {
+        String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+        chunkedUploadService.delete(id, userId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Upload deleted"));
+    }
+}
@@ -0,0 +1,27 @@
+package org.ganjp.blog.common.upload.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable upload, kept next to its data file so an upload survives a restart.
+ */
+@Data
+@NoArgsConstructor
+public class ChunkedUpload {
+    private String id;
+    private long length;
+    private long offset;
+    private String filename;
+    private String contentType;
+    /**
+     * Expected SHA-256 as given on create, or the computed one once the upload is complete
+     */
+    private String checksum;
+    private boolean completed;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
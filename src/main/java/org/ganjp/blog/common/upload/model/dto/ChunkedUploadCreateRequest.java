@@ -0,0 +1,26 @@
+package org.ganjp.blog.common.upload.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadCreateRequest {
+    @NotNull
+    @Positive
+    private Long length;
+    private String filename;
+    private String contentType;
+    /**
+     * Expected SHA-256 of the whole file as hex; checked when the last chunk arrives
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "checksum must be a hex SHA-256")
+    private String checksum;
+}
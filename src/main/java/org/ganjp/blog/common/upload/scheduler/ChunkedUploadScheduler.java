@@ -0,0 +1,30 @@
+package org.ganjp.blog.common.upload.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.upload.service.ChunkedUploadService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes chunked uploads that were abandoned before they were complete or used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChunkedUploadScheduler {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @Scheduled(fixedDelayString = "${chunked-upload.cleanup-interval-ms:3600000}", initialDelayString = "${chunked-upload.cleanup-interval-ms:3600000}")
+    public void cleanupExpiredUploads() {
+        try {
+            int deleted = chunkedUploadService.cleanup();
+            if (deleted > 0) {
+                log.info("Deleted {} expired chunked uploads", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to clean up chunked uploads", e);
+        }
+    }
+}
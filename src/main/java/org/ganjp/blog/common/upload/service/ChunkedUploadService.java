@@ -0,0 +1,449 @@
+package org.ganjp.blog.common.upload.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.QuotaExceededException;
+import org.ganjp.blog.common.exception.ResourceNotFoundException;
+import org.ganjp.blog.common.upload.config.ChunkedUploadProperties;
+import org.ganjp.blog.common.upload.model.ChunkedUpload;
+import org.ganjp.blog.common.upload.model.dto.ChunkedUploadCreateRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable uploads: create reserves the full length on disk, each chunk is written at its offset straight into
+ * that file while a SHA-256 over the whole upload is kept up to date, and a completed upload is handed to the
+ * create services as the uploaded file, which moves it into place. Offsets only advance after the chunk is on
+ * disk, so a client that lost its connection asks for the offset and continues from there.
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    private static final String DATA_SUFFIX = ".part";
+    private static final String STATE_SUFFIX = ".json";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ChunkedUploadProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Every upload on disk, loaded or not, for the per-user limits
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ReentrantLock reservationLock = new ReentrantLock();
+
+    public ChunkedUploadService(ChunkedUploadProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Count the uploads left on disk by an earlier run against their users' limits
+     */
+    @PostConstruct
+    void loadReservations() {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> states = Files.newDirectoryStream(directory, "*" + STATE_SUFFIX)) {
+            for (Path state : states) {
+                try {
+                    ChunkedUpload upload = objectMapper.readValue(state.toFile(), ChunkedUpload.class);
+                    reservations.put(upload.getId(), new Reservation(upload.getCreatedBy(), upload.getLength()));
+                } catch (IOException e) {
+                    log.warn("Could not read chunked upload state {}: {}", state.getFileName(), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list chunked uploads in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Start an upload of request.length bytes and preallocate its data file
+     *
+     * @throws QuotaExceededException with 429 if the user holds max-open-uploads-per-user uploads,
+     *                                or 413 if this one would take them past max-reserved-bytes-per-user
+     */
+    public ChunkedUpload create(ChunkedUploadCreateRequest request, String userId) throws IOException {
+        if (request.getLength() == null || request.getLength() <= 0) {
+            throw new IllegalArgumentException("length must be positive");
+        }
+        if (request.getLength() > properties.getMaxUploadSize()) {
+            throw new BusinessException("Upload length " + request.getLength() + " exceeds the limit of " + properties.getMaxUploadSize() + " bytes");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ChunkedUpload upload = new ChunkedUpload();
+        upload.setId(UUID.randomUUID().toString());
+        upload.setLength(request.getLength());
+        upload.setFilename(request.getFilename());
+        upload.setContentType(request.getContentType());
+        upload.setChecksum(request.getChecksum() == null ? null : request.getChecksum().toLowerCase());
+        upload.setCreatedBy(userId);
+        upload.setCreatedAt(now);
+        upload.setUpdatedAt(now);
+
+        reserve(upload);
+        try {
+            Files.createDirectories(directory());
+            try (RandomAccessFile file = new RandomAccessFile(dataFile(upload.getId()).toFile(), "rw")) {
+                // Reserve the space now so chunks fail early on a full disk and the file does not fragment
+                file.setLength(upload.getLength());
+            }
+            save(upload);
+        } catch (IOException | RuntimeException e) {
+            reservations.remove(upload.getId());
+            Files.deleteIfExists(dataFile(upload.getId()));
+            throw e;
+        }
+        sessions.put(upload.getId(), new Session(upload, sha256()));
+        log.info("Chunked upload {} created by {}: {} bytes", upload.getId(), userId, upload.getLength());
+        return upload;
+    }
+
+    /**
+     * Current state of an upload
+     */
+    public ChunkedUpload getUpload(String id, String userId) throws IOException {
+        Session session = session(id, userId);
+        session.lock.lock();
+        try {
+            return session.upload;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Write the chunk read from body at offset, which must be the current offset of the upload.
+     *
+     * @param checksum optional "sha256 &lt;base64&gt;" of this chunk; on mismatch the chunk is discarded
+     * @return the upload with its new offset
+     * @throws IllegalStateException if offset is not the current offset, another chunk is being written or the upload is complete
+     */
+    public ChunkedUpload append(String id, long offset, String checksum, InputStream body, String userId) throws IOException {
+        Session session = session(id, userId);
+        if (!session.lock.tryLock()) {
+            throw new IllegalStateException("Another chunk of upload " + id + " is being written");
+        }
+        try {
+            ChunkedUpload upload = session.upload;
+            if (upload.isCompleted()) {
+                throw new IllegalStateException("Upload " + id + " is already complete");
+            }
+            if (offset != upload.getOffset()) {
+                throw new IllegalStateException("Upload-Offset " + offset + " does not match the current offset " + upload.getOffset());
+            }
+            byte[] expectedChunk = chunkChecksum(checksum);
+            MessageDigest chunkDigest = expectedChunk == null ? null : sha256();
+            MessageDigest before = copy(session.digest);
+
+            long position = offset;
+            IOException interrupted = null;
+            try (FileChannel channel = FileChannel.open(dataFile(id), StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                try {
+                    int read;
+                    while ((read = body.read(buffer)) != -1) {
+                        if (position + read > upload.getLength()) {
+                            session.digest = before;
+                            throw new BusinessException("Chunk exceeds the upload length of " + upload.getLength() + " bytes");
+                        }
+                        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                        while (bytes.hasRemaining()) {
+                            channel.write(bytes, position + bytes.position());
+                        }
+                        session.digest.update(buffer, 0, read);
+                        if (chunkDigest != null) {
+                            chunkDigest.update(buffer, 0, read);
+                        }
+                        position += read;
+                    }
+                } catch (IOException e) {
+                    // Client went away mid-chunk; keep what arrived unless the chunk has to be verified as a whole
+                    interrupted = e;
+                }
+                channel.force(false);
+            }
+
+            if (chunkDigest != null && (interrupted != null || !MessageDigest.isEqual(expectedChunk, chunkDigest.digest()))) {
+                session.digest = before;
+                if (interrupted != null) {
+                    throw interrupted;
+                }
+                throw new BusinessException("Upload-Checksum does not match the chunk");
+            }
+            upload.setOffset(position);
+            upload.setUpdatedAt(LocalDateTime.now());
+            if (position == upload.getLength()) {
+                complete(session);
+            }
+            save(upload);
+            if (interrupted != null) {
+                log.debug("Chunked upload {} interrupted at offset {}: {}", id, position, interrupted.getMessage());
+                throw interrupted;
+            }
+            return upload;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * The file for a create request: the uploaded file if there is one, else the completed chunked upload uploadId
+     */
+    public MultipartFile resolve(MultipartFile file, String uploadId, String userId) throws IOException {
+        if ((file != null && !file.isEmpty()) || uploadId == null || uploadId.isBlank()) {
+            return file;
+        }
+        Session session = session(uploadId, userId);
+        session.lock.lock();
+        try {
+            if (!session.upload.isCompleted()) {
+                throw new BusinessException("Upload " + uploadId + " is incomplete: " + session.upload.getOffset() + " of " + session.upload.getLength() + " bytes");
+            }
+            return new CompletedUploadFile(session.upload, dataFile(uploadId), () -> remove(uploadId));
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Abort an upload and delete its data
+     */
+    public void delete(String id, String userId) throws IOException {
+        Session session = session(id, userId);
+        session.lock.lock();
+        try {
+            remove(id);
+            Files.deleteIfExists(dataFile(id));
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Delete uploads without a chunk for expire-after-hours, and state left behind by uploads already moved into place
+     *
+     * @return number of uploads deleted
+     */
+    public int cleanup() throws IOException {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(properties.getExpireAfterHours());
+        int deleted = 0;
+        try (DirectoryStream<Path> states = Files.newDirectoryStream(directory, "*" + STATE_SUFFIX)) {
+            for (Path state : states) {
+                String name = state.getFileName().toString();
+                String id = name.substring(0, name.length() - STATE_SUFFIX.length());
+                Session session = sessions.get(id);
+                if (session != null && !session.lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    ChunkedUpload upload = read(id);
+                    if (upload == null || upload.getUpdatedAt().isBefore(cutoff) || !Files.exists(dataFile(id))) {
+                        remove(id);
+                        Files.deleteIfExists(dataFile(id));
+                        deleted++;
+                    }
+                } finally {
+                    if (session != null) {
+                        session.lock.unlock();
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private void complete(Session session) {
+        ChunkedUpload upload = session.upload;
+        String actual = HexFormat.of().formatHex(session.digest.digest());
+        if (upload.getChecksum() != null && !upload.getChecksum().equals(actual)) {
+            // The data cannot be repaired chunk by chunk; start again
+            remove(upload.getId());
+            try {
+                Files.deleteIfExists(dataFile(upload.getId()));
+            } catch (IOException e) {
+                log.warn("Could not delete chunked upload {}: {}", upload.getId(), e.getMessage());
+            }
+            throw new BusinessException("Checksum of upload " + upload.getId() + " does not match: " + actual);
+        }
+        upload.setChecksum(actual);
+        upload.setCompleted(true);
+        log.info("Chunked upload {} complete: {} bytes, sha256 {}", upload.getId(), upload.getLength(), actual);
+    }
+
+    private Session session(String id, String userId) throws IOException {
+        Session session = sessions.get(validId(id));
+        if (session == null) {
+            ChunkedUpload upload = read(id);
+            if (upload == null || !Files.exists(dataFile(id))) {
+                throw new ResourceNotFoundException("Upload", "id", id);
+            }
+            // Picked up after a restart: hash what has been received so far
+            MessageDigest digest = sha256();
+            if (!upload.isCompleted()) {
+                try (InputStream input = Files.newInputStream(dataFile(id))) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    long remaining = upload.getOffset();
+                    int read;
+                    while (remaining > 0 && (read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                        digest.update(buffer, 0, read);
+                        remaining -= read;
+                    }
+                }
+            }
+            Session loaded = new Session(upload, digest);
+            Session existing = sessions.putIfAbsent(id, loaded);
+            session = existing != null ? existing : loaded;
+        }
+        if (!Objects.equals(session.upload.getCreatedBy(), userId)) {
+            throw new ResourceNotFoundException("Upload", "id", id);
+        }
+        return session;
+    }
+
+    private void reserve(ChunkedUpload upload) {
+        reservationLock.lock();
+        try {
+            int open = 0;
+            long reserved = 0;
+            for (Reservation reservation : reservations.values()) {
+                if (Objects.equals(reservation.userId(), upload.getCreatedBy())) {
+                    open++;
+                    reserved += reservation.length();
+                }
+            }
+            if (open >= properties.getMaxOpenUploadsPerUser()) {
+                throw new QuotaExceededException(HttpStatus.TOO_MANY_REQUESTS,
+                        "At most " + properties.getMaxOpenUploadsPerUser() + " uploads may be open at once");
+            }
+            if (reserved + upload.getLength() > properties.getMaxReservedBytesPerUser()) {
+                throw new QuotaExceededException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Open uploads may reserve at most " + properties.getMaxReservedBytesPerUser() + " bytes, "
+                                + reserved + " are reserved already");
+            }
+            reservations.put(upload.getId(), new Reservation(upload.getCreatedBy(), upload.getLength()));
+        } finally {
+            reservationLock.unlock();
+        }
+    }
+
+    private void remove(String id) {
+        sessions.remove(id);
+        reservations.remove(id);
+        try {
+            Files.deleteIfExists(stateFile(id));
+        } catch (IOException e) {
+            log.warn("Could not delete state of chunked upload {}: {}", id, e.getMessage());
+        }
+    }
+
+    private ChunkedUpload read(String id) throws IOException {
+        Path state = stateFile(id);
+        return Files.exists(state) ? objectMapper.readValue(state.toFile(), ChunkedUpload.class) : null;
+    }
+
+    private void save(ChunkedUpload upload) throws IOException {
+        Path state = stateFile(upload.getId());
+        Path temp = state.resolveSibling(state.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), upload);
+        UploadFiles.move(temp, state);
+    }
+
+    private static byte[] chunkChecksum(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        String[] parts = header.trim().split("\\s+", 2);
+        if (parts.length != 2 || !"sha256".equalsIgnoreCase(parts[0])) {
+            throw new BusinessException("Unsupported Upload-Checksum, expected \"sha256 <base64>\"");
+        }
+        try {
+            return Base64.getDecoder().decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Upload-Checksum is not valid base64");
+        }
+    }
+
+    private static String validId(String id) {
+        try {
+            if (UUID.fromString(id).toString().equals(id)) {
+                return id;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new ResourceNotFoundException("Upload", "id", id);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest copy(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path directory() {
+        return Paths.get(properties.getDirectory());
+    }
+
+    private Path dataFile(String id) {
+        return directory().resolve(id + DATA_SUFFIX);
+    }
+
+    private Path stateFile(String id) {
+        return directory().resolve(id + STATE_SUFFIX);
+    }
+
+    private record Reservation(String userId, long length) {
+    }
+
+    private static final class Session {
+        private final ChunkedUpload upload;
+        private final ReentrantLock lock = new ReentrantLock();
+        private MessageDigest digest;
+
+        private Session(ChunkedUpload upload, MessageDigest digest) {
+            this.upload = upload;
+            this.digest = digest;
+        }
+    }
+}
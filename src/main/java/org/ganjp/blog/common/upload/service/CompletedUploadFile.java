@@ -0,0 +1,73 @@
+package org.ganjp.blog.common.upload.service;
+
+import org.ganjp.blog.common.upload.model.ChunkedUpload;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A completed chunked upload handed to a create service as the uploaded file. Transferring it moves the data file
+ * into place and ends the upload; until then the upload can be used again, for example after a rejected create.
+ */
+class CompletedUploadFile implements MultipartFile {
+
+    private final ChunkedUpload upload;
+    private final Path path;
+    private final Runnable onTransferred;
+
+    CompletedUploadFile(ChunkedUpload upload, Path path, Runnable onTransferred) {
+        this.upload = upload;
+        this.path = path;
+        this.onTransferred = onTransferred;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return upload.getFilename();
+    }
+
+    @Override
+    public String getContentType() {
+        return upload.getContentType();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return upload.getLength() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return upload.getLength();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        UploadFiles.move(path, dest);
+        onTransferred.run();
+    }
+}
@@ -0,0 +1,47 @@
+package org.ganjp.blog.common.upload.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes uploaded files into the media directories without copying them a second time.
+ */
+public final class UploadFiles {
+
+    private UploadFiles() {
+    }
+
+    /**
+     * Store an uploaded file at target. The upload is transferred to a hidden sibling first, which for a part the
+     * container spooled to disk (or a completed chunked upload) is a rename rather than a copy, and then moved into
+     * place atomically, so a file under its final name is always complete.
+     */
+    public static void store(MultipartFile file, Path target) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Path partial = absolute.resolveSibling("." + absolute.getFileName() + ".part");
+        try {
+            // The container only moves its spooled file for an absolute destination
+            file.transferTo(partial.toFile());
+            move(partial, absolute);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Move source to target atomically where the file system supports it
+     */
+    public static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Different volumes: copy and delete
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.ganjp.blog.common.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.File;
+
+/**
+ * Zero-copy file responses through Tomcat's sendfile support, as its DefaultServlet uses for static files.
+ * The connector sends the file from the page cache to the socket once the servlet returns, so the body is never
+ * copied through the JVM. Only available on connectors that announce it (NIO/NIO2 without TLS).
+ */
+public final class Sendfile {
+
+    private static final String SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String START = "org.apache.tomcat.sendfile.start";
+    private static final String END = "org.apache.tomcat.sendfile.end";
+
+    private Sendfile() {
+    }
+
+    /**
+     * Hand the whole file to sendfile; returns false, and does nothing, where the connector does not support it.
+     * The caller sets the Content-Length and writes no body.
+     */
+    public static boolean send(HttpServletRequest request, File file) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SUPPORT))) {
+            return false;
+        }
+        request.setAttribute(FILENAME, file.getAbsolutePath());
+        request.setAttribute(START, 0L);
+        request.setAttribute(END, file.length());
+        return true;
+    }
+
+    /**
+     * Bytes handed to sendfile for this request, 0 if none
+     */
+    public static long length(HttpServletRequest request) {
+        if (request.getAttribute(FILENAME) == null
+                || !(request.getAttribute(START) instanceof Long start)
+                || !(request.getAttribute(END) instanceof Long end)) {
+            return 0;
+        }
+        return end - start;
+    }
+}
@@ -1,22 +1,27 @@
 package org.ganjp.blog.open.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.image.ImageVariantService;
 import org.ganjp.blog.common.model.ApiResponse;
+import org.ganjp.blog.common.util.Sendfile;
 import org.ganjp.blog.open.model.PublicAppSettingDto;
 import org.ganjp.blog.open.service.PublicAssetService;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpRange;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.util.List;
 
 /**
@@ -29,7 +34,10 @@ import java.util.List;
 @Slf4j
 public class PublicAssetController {
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final PublicAssetService publicAssetService;
+    private final ImageVariantService imageVariantService;
 
     /**
      * Get all public app settings (only name, value, lang)
@@ -77,16 +85,15 @@ public class PublicAssetController {
      * Returns the actual image file to be displayed in browser
      */
     @GetMapping("/images/{filename}")
-    public ResponseEntity<Resource> viewImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> viewImage(@PathVariable String filename,
+                                              @RequestParam(required = false) Integer w, @RequestParam(required = false) Integer h,
+                                              @RequestParam(required = false) String fit, @RequestParam(required = false) Integer q,
+                                              HttpServletRequest request) {
         try {
-            File imageFile = publicAssetService.getImageFile(filename);
-            Resource resource = new FileSystemResource(imageFile);
+            File imageFile = imageVariantService.variant("image", publicAssetService.getImageFile(filename), w, h, fit, q);
             // Determine content type based on file extension
             String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return serveImage(imageFile, filename, contentType, request);
         } catch (IllegalArgumentException e) {
             log.error("Image not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -144,19 +151,19 @@ public class PublicAssetController {
     }
 
     @GetMapping("/articles/cover-images/{filename}")
-    public ResponseEntity<Resource> viewArticleCoverImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> viewArticleCoverImage(@PathVariable String filename,
+                                                          @RequestParam(required = false) Integer w, @RequestParam(required = false) Integer h,
+                                                          @RequestParam(required = false) String fit, @RequestParam(required = false) Integer q,
+                                                          HttpServletRequest request) {
         try {
             File imageFile = publicAssetService.getArticleCoverFile(filename);
             if (imageFile == null || !imageFile.exists()) {
                 log.error("Article cover image not found: {}", filename);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
-            Resource resource = new FileSystemResource(imageFile);
+            imageFile = imageVariantService.variant("article_cover", imageFile, w, h, fit, q);
             String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return serveImage(imageFile, filename, contentType, request);
         } catch (IllegalArgumentException e) {
             log.error("Article cover image not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -167,19 +174,19 @@ public class PublicAssetController {
     }
 
     @GetMapping("/articles/content-images/{filename}")
-    public ResponseEntity<Resource> viewArticleContentImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> viewArticleContentImage(@PathVariable String filename,
+                                                            @RequestParam(required = false) Integer w, @RequestParam(required = false) Integer h,
+                                                            @RequestParam(required = false) String fit, @RequestParam(required = false) Integer q,
+                                                            HttpServletRequest request) {
         try {
             File imageFile = publicAssetService.getArticleContentImageFile(filename);
             if (imageFile == null || !imageFile.exists()) {
                 log.error("Article content image not found: {}", filename);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
-            Resource resource = new FileSystemResource(imageFile);
+            imageFile = imageVariantService.variant("article_image", imageFile, w, h, fit, q);
             String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return serveImage(imageFile, filename, contentType, request);
         } catch (IllegalArgumentException e) {
             log.error("Article content image not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -216,60 +223,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewVocabularyAudio(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getVocabularyAudioFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Vocabulary audio not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -283,60 +237,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewExpressionAudio(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getExpressionAudioFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Expression audio not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -350,60 +251,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewSentenceAudio(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getSentenceAudioFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Sentence audio not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -437,15 +285,14 @@ public class PublicAssetController {
     }
 
     @GetMapping("/image-rus/{filename}")
-    public ResponseEntity<Resource> viewImageRu(@PathVariable String filename) {
+    public ResponseEntity<Resource> viewImageRu(@PathVariable String filename,
+                                                @RequestParam(required = false) Integer w, @RequestParam(required = false) Integer h,
+                                                @RequestParam(required = false) String fit, @RequestParam(required = false) Integer q,
+                                                HttpServletRequest request) {
         try {
-            File imageFile = publicAssetService.getImageRuFile(filename);
-            Resource resource = new FileSystemResource(imageFile);
+            File imageFile = imageVariantService.variant("image_ru", publicAssetService.getImageRuFile(filename), w, h, fit, q);
             String contentType = org.ganjp.blog.rubi.util.RubiUtil.determineContentType(filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return serveImage(imageFile, filename, contentType, request);
         } catch (IllegalArgumentException e) {
             log.error("Rubi image not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -459,60 +306,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewVideoRu(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getVideoRuFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.rubi.util.RubiUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Rubi video not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -549,60 +343,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewAudioRu(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getAudioRuFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.rubi.util.RubiUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Rubi audio not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -636,19 +377,19 @@ public class PublicAssetController {
     }
 
     @GetMapping("/article-rus/cover-images/{filename}")
-    public ResponseEntity<Resource> viewArticleRuCoverImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> viewArticleRuCoverImage(@PathVariable String filename,
+                                                            @RequestParam(required = false) Integer w, @RequestParam(required = false) Integer h,
+                                                            @RequestParam(required = false) String fit, @RequestParam(required = false) Integer q,
+                                                            HttpServletRequest request) {
         try {
             File imageFile = publicAssetService.getArticleRuCoverFile(filename);
             if (imageFile == null || !imageFile.exists()) {
                 log.error("Rubi article cover image not found: {}", filename);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
-            Resource resource = new FileSystemResource(imageFile);
+            imageFile = imageVariantService.variant("article_ru_cover", imageFile, w, h, fit, q);
             String contentType = org.ganjp.blog.rubi.util.RubiUtil.determineContentType(filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return serveImage(imageFile, filename, contentType, request);
         } catch (IllegalArgumentException e) {
             log.error("Rubi article cover image not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -659,19 +400,19 @@ public class PublicAssetController {
     }
 
     @GetMapping("/article-rus/content-images/{filename}")
-    public ResponseEntity<Resource> viewArticleRuContentImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> viewArticleRuContentImage(@PathVariable String filename,
+                                                              @RequestParam(required = false) Integer w, @RequestParam(required = false) Integer h,
+                                                              @RequestParam(required = false) String fit, @RequestParam(required = false) Integer q,
+                                                              HttpServletRequest request) {
         try {
             File imageFile = publicAssetService.getArticleRuContentImageFile(filename);
             if (imageFile == null || !imageFile.exists()) {
                 log.error("Rubi article content image not found: {}", filename);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
-            Resource resource = new FileSystemResource(imageFile);
+            imageFile = imageVariantService.variant("article_image_ru", imageFile, w, h, fit, q);
             String contentType = org.ganjp.blog.rubi.util.RubiUtil.determineContentType(filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return serveImage(imageFile, filename, contentType, request);
         } catch (IllegalArgumentException e) {
             log.error("Rubi article content image not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -713,60 +454,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewAudio(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getAudioFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Audio not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -786,60 +474,7 @@ public class PublicAssetController {
     public ResponseEntity<?> viewVideo(@PathVariable String filename, @RequestHeader(value = "Range", required = false) String rangeHeader) {
         try {
             java.io.File file = publicAssetService.getVideoFile(filename);
-            long contentLength = file.length();
-            String contentType = org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename);
-
-            if (rangeHeader == null) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .contentLength(contentLength)
-                        .body(resource);
-            }
-
-            HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
-            long start = httpRange.getRangeStart(contentLength);
-            long end = httpRange.getRangeEnd(contentLength);
-            long rangeLength = end - start + 1;
-
-            java.io.InputStream rangeStream = new java.io.InputStream() {
-                private final java.io.RandomAccessFile raf;
-                private long remaining = rangeLength;
-                {
-                    this.raf = new java.io.RandomAccessFile(file, "r");
-                    this.raf.seek(start);
-                }
-                @Override
-                public int read() throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int b = raf.read();
-                    if (b != -1) remaining--;
-                    return b;
-                }
-                @Override
-                public int read(byte[] b, int off, int len) throws java.io.IOException {
-                    if (remaining <= 0) return -1;
-                    int toRead = (int) Math.min(len, remaining);
-                    int r = raf.read(b, off, toRead);
-                    if (r > 0) remaining -= r;
-                    return r;
-                }
-                @Override
-                public void close() throws java.io.IOException {
-                    try { raf.close(); } finally { super.close(); }
-                }
-            };
-
-            InputStreamResource resource = new InputStreamResource(rangeStream);
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
-                    .contentLength(rangeLength)
-                    .body(resource);
-
+            return streamMedia(file, filename, rangeHeader);
         } catch (IllegalArgumentException e) {
             log.error("Video not found: {}", filename, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -849,6 +484,64 @@ public class PublicAssetController {
         }
     }
 
+    /**
+     * Serve an image file inline; handed to sendfile where the connector supports it, else streamed
+     */
+    private ResponseEntity<Resource> serveImage(File file, String filename, String contentType, HttpServletRequest request) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+        if (Sendfile.send(request, file)) {
+            return response.contentLength(file.length()).build();
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    /**
+     * Stream an audio or video file, honouring a single byte range. The body is written on the stream
+     * bulkhead (Spring MVC async), so slow clients do not hold request threads.
+     */
+    private ResponseEntity<StreamingResponseBody> streamMedia(File file, String filename, String rangeHeader) {
+        long contentLength = file.length();
+        MediaType contentType = MediaType.parseMediaType(org.ganjp.blog.cms.util.CmsUtil.determineContentType(filename));
+
+        if (rangeHeader == null) {
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                    .contentLength(contentLength)
+                    .body(outputStream -> copyRange(file, 0, contentLength, outputStream));
+        }
+
+        HttpRange httpRange = HttpRange.parseRanges(rangeHeader).get(0);
+        long start = httpRange.getRangeStart(contentLength);
+        long end = httpRange.getRangeEnd(contentLength);
+        long rangeLength = end - start + 1;
+
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
+                .contentLength(rangeLength)
+                .body(outputStream -> copyRange(file, start, rangeLength, outputStream));
+    }
+
+    private void copyRange(File file, long start, long length, OutputStream outputStream) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(start);
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = raf.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                outputStream.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
     /**
      * Determine content type based on file extension
      */
@@ -74,7 +74,7 @@ public class PublicCmsService {
      * Join a base URL and a path (filename). Returns null if path is empty.
      * If base is blank and path is absolute (starts with http or /) returns path.
      */
-    private String joinBaseAndPath(String base, String path) {
+    static String joinBaseAndPath(String base, String path) {
         if (path == null || path.isBlank()) return null;
         if (base != null && !base.isBlank()) {
             String prefix = base;
@@ -90,7 +90,7 @@ public class PublicCmsService {
     /**
      * Join base + segment + path. Segment should not be null (e.g. "cover-images").
      */
-    private String joinBasePathWithSegment(String base, String segment, String path) {
+    static String joinBasePathWithSegment(String base, String segment, String path) {
         if (path == null || path.isBlank()) return null;
         if (segment == null) segment = "";
         // normalize
@@ -59,57 +59,62 @@ public class PublicRubiService {
         Page<VocabularyRuResponse> pageResult = vocabularyRuService.getVocabularies(word, lang, tags, true, term, week, difficultyLevel, partOfSpeech, pageable);
 
         // Map internal VocabularyRuResponse -> PublicVocabularyRuResponse and compute urls
-        List<PublicVocabularyRuResponse> publicList = pageResult.getContent().stream().map(r -> {
-            PublicVocabularyRuResponse.PublicVocabularyRuResponseBuilder b = PublicVocabularyRuResponse.builder()
-                .id(r.getId())
-                .name(r.getName())
-                .phonetic(r.getPhonetic())
-                .partOfSpeech(r.getPartOfSpeech())
-                .nounPluralForm(r.getNounPluralForm())
-                .nounForm(r.getNounForm())
-                .nounMeaning(r.getNounMeaning())
-                .nounExample(r.getNounExample())
-                .verbSimplePastTense(r.getVerbSimplePastTense())
-                .verbPastPerfectTense(r.getVerbPastPerfectTense())
-                .verbPresentParticiple(r.getVerbPresentParticiple())
-                .adjectiveComparativeForm(r.getAdjectiveComparativeForm())
-                .adjectiveSuperlativeForm(r.getAdjectiveSuperlativeForm())
-                .verbForm(r.getVerbForm())
-                .verbMeaning(r.getVerbMeaning())
-                .verbExample(r.getVerbExample())
-                .adjectiveForm(r.getAdjectiveForm())
-                .adjectiveMeaning(r.getAdjectiveMeaning())
-                .adjectiveExample(r.getAdjectiveExample())
-                .adverbForm(r.getAdverbForm())
-                .adverbMeaning(r.getAdverbMeaning())
-                .adverbExample(r.getAdverbExample())
-                .translation(r.getTranslation())
-                .synonyms(r.getSynonyms())
-                .definition(r.getDefinition())
-                .example(r.getExample())
-                .dictionaryUrl(r.getDictionaryUrl())
-                .term(r.getTerm())
-                .week(r.getWeek())
-                .tags(r.getTags())
-                .difficultyLevel(r.getDifficultyLevel())
-                .lang(r.getLang())
-                .displayOrder(r.getDisplayOrder())
-                .updatedAt(r.getUpdatedAt() != null ? r.getUpdatedAt().toString() : null);
-
-            // Build imageUrl from imageFilename
-            String imageFilename = r.getImageFilename();
-            b.imageUrl(joinBasePathWithSegment(vocabularyBaseUrl, "images", imageFilename));
-
-            // Build phoneticAudioUrl from phoneticAudioFilename
-            String audioFilename = r.getPhoneticAudioFilename();
-            b.phoneticAudioUrl(joinBasePathWithSegment(vocabularyBaseUrl, "audios", audioFilename));
-
-            return b.build();
-        }).toList();
+        List<PublicVocabularyRuResponse> publicList = pageResult.getContent().stream().map(this::toPublicVocabulary).toList();
 
         return PaginatedResponse.of(publicList, page, size, pageResult.getTotalElements());
     }
 
+    /**
+     * Map an internal VocabularyRuResponse to its public form, computing image and audio URLs
+     */
+    PublicVocabularyRuResponse toPublicVocabulary(VocabularyRuResponse r) {
+        PublicVocabularyRuResponse.PublicVocabularyRuResponseBuilder b = PublicVocabularyRuResponse.builder()
+            .id(r.getId())
+            .name(r.getName())
+            .phonetic(r.getPhonetic())
+            .partOfSpeech(r.getPartOfSpeech())
+            .nounPluralForm(r.getNounPluralForm())
+            .nounForm(r.getNounForm())
+            .nounMeaning(r.getNounMeaning())
+            .nounExample(r.getNounExample())
+            .verbSimplePastTense(r.getVerbSimplePastTense())
+            .verbPastPerfectTense(r.getVerbPastPerfectTense())
+            .verbPresentParticiple(r.getVerbPresentParticiple())
+            .adjectiveComparativeForm(r.getAdjectiveComparativeForm())
+            .adjectiveSuperlativeForm(r.getAdjectiveSuperlativeForm())
+            .verbForm(r.getVerbForm())
+            .verbMeaning(r.getVerbMeaning())
+            .verbExample(r.getVerbExample())
+            .adjectiveForm(r.getAdjectiveForm())
+            .adjectiveMeaning(r.getAdjectiveMeaning())
+            .adjectiveExample(r.getAdjectiveExample())
+            .adverbForm(r.getAdverbForm())
+            .adverbMeaning(r.getAdverbMeaning())
+            .adverbExample(r.getAdverbExample())
+            .translation(r.getTranslation())
+            .synonyms(r.getSynonyms())
+            .definition(r.getDefinition())
+            .example(r.getExample())
+            .dictionaryUrl(r.getDictionaryUrl())
+            .term(r.getTerm())
+            .week(r.getWeek())
+            .tags(r.getTags())
+            .difficultyLevel(r.getDifficultyLevel())
+            .lang(r.getLang())
+            .displayOrder(r.getDisplayOrder())
+            .updatedAt(r.getUpdatedAt() != null ? r.getUpdatedAt().toString() : null);
+
+        // Build imageUrl from imageFilename
+        String imageFilename = r.getImageFilename();
+        b.imageUrl(joinBasePathWithSegment(vocabularyBaseUrl, "images", imageFilename));
+
+        // Build phoneticAudioUrl from phoneticAudioFilename
+        String audioFilename = r.getPhoneticAudioFilename();
+        b.phoneticAudioUrl(joinBasePathWithSegment(vocabularyBaseUrl, "audios", audioFilename));
+
+        return b.build();
+    }
+
     public PaginatedResponse<PublicExpressionRuResponse> getExpressions(String name, ExpressionRu.Language lang, String tags, Integer term, Integer week, String difficultyLevel, int page, int size, String sort, String direction) {
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
@@ -0,0 +1,33 @@
+package org.ganjp.blog.rubi.config;
+
+import org.ganjp.blog.common.job.service.MediaJobHandler;
+import org.ganjp.blog.rubi.model.dto.AudioRuCreateRequest;
+import org.ganjp.blog.rubi.model.dto.ImageRuCreateRequest;
+import org.ganjp.blog.rubi.model.dto.VideoRuCreateRequest;
+import org.ganjp.blog.rubi.service.AudioRuService;
+import org.ganjp.blog.rubi.service.ImageRuService;
+import org.ganjp.blog.rubi.service.VideoRuService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Media job handlers for Rubi uploads created with async=true
+ */
+@Configuration
+public class RubiMediaJobConfig {
+
+    @Bean
+    public MediaJobHandler<ImageRuCreateRequest> imageRuMediaJobHandler(ImageRuService imageRuService) {
+        return MediaJobHandler.of("image_ru", ImageRuCreateRequest.class, imageRuService::createImage);
+    }
+
+    @Bean
+    public MediaJobHandler<VideoRuCreateRequest> videoRuMediaJobHandler(VideoRuService videoRuService) {
+        return MediaJobHandler.of("video_ru", VideoRuCreateRequest.class, videoRuService::createVideo);
+    }
+
+    @Bean
+    public MediaJobHandler<AudioRuCreateRequest> audioRuMediaJobHandler(AudioRuService audioRuService) {
+        return MediaJobHandler.of("audio_ru", AudioRuCreateRequest.class, audioRuService::createAudio);
+    }
+}
@@ -5,6 +5,8 @@ import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.rubi.model.dto.*;
 import org.ganjp.blog.rubi.model.entity.AudioRu;
 import org.ganjp.blog.rubi.service.AudioRuService;
+import org.ganjp.blog.common.job.controller.MediaJobController;
+import org.ganjp.blog.common.job.service.MediaJobService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.core.io.InputStreamResource;
@@ -32,6 +34,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AudioRuController {
     private final AudioRuService audioRuService;
+    private final MediaJobService mediaJobService;
     private final JwtUtils jwtUtils;
 
     /**
@@ -86,9 +89,12 @@ public class AudioRuController {
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<AudioRuResponse>> uploadAudio(@Valid @ModelAttribute AudioRuCreateRequest request, HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<?>> uploadAudio(@Valid @ModelAttribute AudioRuCreateRequest request, @RequestParam(defaultValue = "false") boolean async, HttpServletRequest httpRequest) {
         try {
             String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("audio_ru", request, userId), "AudioRu queued for processing");
+            }
             AudioRuResponse res = audioRuService.createAudio(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(res, "AudioRu uploaded"));
         } catch (IOException e) {
@@ -5,6 +5,8 @@ import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.rubi.model.dto.*;
 import org.ganjp.blog.rubi.service.ImageRuService;
 import org.ganjp.blog.rubi.util.RubiUtil;
+import org.ganjp.blog.common.job.controller.MediaJobController;
+import org.ganjp.blog.common.job.service.MediaJobService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.core.io.FileSystemResource;
@@ -34,6 +36,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ImageRuController {
     private final ImageRuService imageRuService;
+    private final MediaJobService mediaJobService;
     private final JwtUtils jwtUtils;
 
     /**
@@ -102,11 +105,15 @@ public class ImageRuController {
      * POST /v1/images
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<ImageRuResponse>> createImage(
+    public ResponseEntity<ApiResponse<?>> createImage(
             @Valid @ModelAttribute ImageRuCreateRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         try {
             String userId = extractUserIdFromRequest(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("image_ru", request, userId), "ImageRu queued for processing");
+            }
             ImageRuResponse response = imageRuService.createImage(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(response, "ImageRu created successfully"));
         } catch (IOException e) {
@@ -123,14 +130,18 @@ public class ImageRuController {
      * POST /v1/images (application/json)
      */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse<ImageRuResponse>> createImageFromUrl(
+    public ResponseEntity<ApiResponse<?>> createImageFromUrl(
             @Valid @RequestBody ImageRuCreateRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         try {
             if (request.getOriginalUrl() == null || request.getOriginalUrl().trim().isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error(400, "originalUrl is required", null));
             }
             String userId = extractUserIdFromRequest(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("image_ru", request, userId), "ImageRu queued for processing");
+            }
             ImageRuResponse response = imageRuService.createImage(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(response, "ImageRu created successfully from URL"));
         } catch (IOException e) {
@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import org.ganjp.blog.auth.security.JwtUtils;
 import org.ganjp.blog.rubi.model.dto.*;
 import org.ganjp.blog.rubi.service.VideoRuService;
+import org.ganjp.blog.common.job.controller.MediaJobController;
+import org.ganjp.blog.common.job.service.MediaJobService;
 import org.ganjp.blog.common.model.ApiResponse;
 import org.ganjp.blog.common.model.PaginatedResponse;
 import org.springframework.core.io.InputStreamResource;
@@ -31,6 +33,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class VideoRuController {
     private final VideoRuService videoRuService;
+    private final MediaJobService mediaJobService;
     private final JwtUtils jwtUtils;
 
     /**
@@ -85,9 +88,12 @@ public class VideoRuController {
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<VideoRuResponse>> uploadVideo(@Valid @ModelAttribute VideoRuCreateRequest request, HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<?>> uploadVideo(@Valid @ModelAttribute VideoRuCreateRequest request, @RequestParam(defaultValue = "false") boolean async, HttpServletRequest httpRequest) {
         try {
             String userId = jwtUtils.extractUserIdFromToken(httpRequest);
+            if (async) {
+                return MediaJobController.accepted(mediaJobService.submit("video_ru", request, userId), "VideoRu queued for processing");
+            }
             VideoRuResponse res = videoRuService.createVideo(request, userId);
             return ResponseEntity.status(201).body(ApiResponse.success(res, "VideoRu uploaded"));
         } catch (IOException e) {
@@ -14,6 +14,10 @@ public class AudioRuCreateRequest {
     private String name;
     private String filename;
     private MultipartFile file;
+    /**
+     * Completed chunked upload to use instead of file
+     */
+    private String uploadId;
     private String originalUrl;
     private String sourceName;
     private String coverImageFilename;
@@ -1,19 +1,22 @@
 package org.ganjp.blog.rubi.service;
 
 import lombok.RequiredArgsConstructor;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
 import org.ganjp.blog.rubi.config.ArticleRuProperties;
 import org.ganjp.blog.rubi.model.dto.ArticleRuCreateRequest;
 import org.ganjp.blog.rubi.model.dto.ArticleRuResponse;
 import org.ganjp.blog.rubi.model.dto.ArticleRuUpdateRequest;
 import org.ganjp.blog.rubi.model.entity.ArticleRu;
 import org.ganjp.blog.rubi.repository.ArticleRuRepository;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -28,6 +31,9 @@ import java.util.UUID;
 public class ArticleRuService {
     private final ArticleRuRepository articleRepository;
     private final ArticleRuProperties articleProperties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final RemoteFetcher remoteFetcher;
+    private final MediaLayout mediaLayout;
 
     public ArticleRuResponse createArticle(ArticleRuCreateRequest request, String userId) {
         ArticleRu a = new ArticleRu();
@@ -61,20 +67,20 @@ public class ArticleRuService {
                 }
                 Path imagesDir = Path.of(articleCoverImageDir);
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.prepare(imagesDir, coverFilename);
 
-                if (Files.exists(coverTarget)) {
+                if (mediaLayout.exists(imagesDir, coverFilename)) {
                     throw new IllegalArgumentException("Cover image already exists: " + coverFilename);
                 }
 
                 try {
-                    BufferedImage original = ImageIO.read(cover.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("article_ru_cover", cover.getInputStream(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                         String ext = "png";
                         int dot = coverFilename.lastIndexOf('.');
                         if (dot > 0 && dot < coverFilename.length() - 1) ext = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, ext, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, ext, coverTarget);
                     } else {
                         Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
@@ -102,7 +108,7 @@ public class ArticleRuService {
 
                 Path imagesDir = Path.of(articleCoverImageDir);
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 // ensure unique filename
                 int suffix = 1;
@@ -113,32 +119,29 @@ public class ArticleRuService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget)) {
+                while (mediaLayout.exists(imagesDir, coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
-                try (java.io.InputStream is = new java.net.URL(url).openStream()) {
+                try (RemoteDownload download = remoteFetcher.download("article_ru_cover", url)) {
                     // try to read as image
                     try {
-                        byte[] data = is.readAllBytes();
-                        java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(data);
-                        BufferedImage original = ImageIO.read(bis);
+                        BufferedImage original = imageProcessingEngine.decode("article_ru_cover", download.getFile(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                         if (original != null) {
-                            BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                            BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                             String writeExt = "png";
                             if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                            ImageIO.write(resized, writeExt, coverTarget.toFile());
+                            imageProcessingEngine.write(resized, writeExt, coverTarget);
                         } else {
                             // fallback - write raw bytes
-                            Files.write(coverTarget, data);
+                            download.copyTo(coverTarget);
                         }
                     } catch (IOException ex) {
-                        // fallback - stream copy
-                        try (java.io.InputStream is2 = new java.net.URL(url).openStream()) {
-                            Files.copy(is2, coverTarget, StandardCopyOption.REPLACE_EXISTING);
-                        }
+                        // not an image we can decode: keep the downloaded bytes as they are
+                        download.copyTo(coverTarget);
                     }
                 }
 
@@ -205,7 +208,7 @@ public class ArticleRuService {
                 }
                 Path imagesDir = Path.of(articleCoverImageDir);
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 int suffix = 1;
                 String base = coverFilename;
@@ -215,23 +218,24 @@ public class ArticleRuService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget)) {
+                while (mediaLayout.exists(imagesDir, coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
                 if (a.getCoverImageFilename() != null) {
-                    try { Path old = imagesDir.resolve(a.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
+                    try { Path old = mediaLayout.locate(imagesDir, a.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
                 }
 
                 try {
-                    BufferedImage original = ImageIO.read(coverFile.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("article_ru_cover", coverFile.getInputStream(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                         String writeExt = "png";
                         if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, writeExt, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, writeExt, coverTarget);
                     } else {
                         Files.copy(coverFile.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
@@ -263,7 +267,7 @@ public class ArticleRuService {
 
                     Path imagesDir = Path.of(articleCoverImageDir);
                     Files.createDirectories(imagesDir);
-                    Path coverTarget = imagesDir.resolve(coverFilename);
+                    Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                     int suffix = 1;
                     String base = coverFilename;
@@ -273,33 +277,31 @@ public class ArticleRuService {
                         base = coverFilename.substring(0, dot);
                         ext = coverFilename.substring(dot);
                     }
-                    while (Files.exists(coverTarget)) {
+                    while (mediaLayout.exists(imagesDir, coverFilename)) {
                         coverFilename = base + "-" + suffix + ext;
-                        coverTarget = imagesDir.resolve(coverFilename);
+                        coverTarget = mediaLayout.path(imagesDir, coverFilename);
                         suffix++;
                     }
+                    Files.createDirectories(coverTarget.getParent());
 
                     if (a.getCoverImageFilename() != null) {
-                        try { Path old = imagesDir.resolve(a.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
+                        try { Path old = mediaLayout.locate(imagesDir, a.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
                     }
 
-                    try (java.io.InputStream is = new java.net.URL(url).openStream()) {
+                    try (RemoteDownload download = remoteFetcher.download("article_ru_cover", url)) {
                         try {
-                            byte[] data = is.readAllBytes();
-                            java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(data);
-                            BufferedImage original = ImageIO.read(bis);
+                            BufferedImage original = imageProcessingEngine.decode("article_ru_cover", download.getFile(), articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                             if (original != null) {
-                                BufferedImage resized = resizeImageIfNeeded(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
+                                BufferedImage resized = imageProcessingEngine.resizeToFit(original, articleProperties.getCoverImage().getUpload().getResize().getMaxSize());
                                 String writeExt = "png";
                                 if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                                ImageIO.write(resized, writeExt, coverTarget.toFile());
+                                imageProcessingEngine.write(resized, writeExt, coverTarget);
                             } else {
-                                Files.write(coverTarget, data);
+                                download.copyTo(coverTarget);
                             }
                         } catch (IOException ex) {
-                            try (java.io.InputStream is2 = new java.net.URL(url).openStream()) {
-                                Files.copy(is2, coverTarget, StandardCopyOption.REPLACE_EXISTING);
-                            }
+                            // not an image we can decode: keep the downloaded bytes as they are
+                            download.copyTo(coverTarget);
                         }
                     }
 
@@ -314,14 +316,15 @@ public class ArticleRuService {
                     !request.getCoverImageFilename().equals(a.getCoverImageFilename())) {
                 // change the image file name in local storage only (no re-download), implying a rename
                 Path imagesDir = Path.of(articleProperties.getCoverImage().getUpload().getDirectory());
-                Path oldPath = imagesDir.resolve(a.getCoverImageFilename());
-                Path newPath = imagesDir.resolve(request.getCoverImageFilename());
+                Path oldPath = mediaLayout.locate(imagesDir, a.getCoverImageFilename());
+                Path newPath = mediaLayout.path(imagesDir, request.getCoverImageFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(imagesDir, request.getCoverImageFilename())) {
                     throw new IllegalArgumentException("Cover image file with name " + request.getCoverImageFilename() + " already exists");
                 }
                 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -367,7 +370,7 @@ public class ArticleRuService {
 
     public java.io.File getCoverImageFileByFilename(String filename) {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path coverPath = Path.of(articleProperties.getCoverImage().getUpload().getDirectory(), "", filename);
+        Path coverPath = mediaLayout.locate(articleProperties.getCoverImage().getUpload().getDirectory(), filename);
         if (!Files.exists(coverPath)) {
             throw new IllegalArgumentException("Cover image file not found: " + filename);
         }
@@ -404,16 +407,4 @@ public class ArticleRuService {
         if (a.getUpdatedAt() != null) r.setUpdatedAt(a.getUpdatedAt().toString());
         return r;
     }
-
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType());
-        resized.getGraphics().drawImage(image, 0, 0, newWidth, newHeight, null);
-        return resized;
-    }
 }
@@ -1,12 +1,16 @@
 package org.ganjp.blog.rubi.service;
 
 import lombok.RequiredArgsConstructor;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.upload.service.ChunkedUploadService;
+import org.ganjp.blog.common.upload.service.UploadFiles;
 import org.ganjp.blog.rubi.config.AudioRuProperties;
 import org.ganjp.blog.rubi.model.dto.AudioRuCreateRequest;
 import org.ganjp.blog.rubi.model.dto.AudioRuResponse;
 import org.ganjp.blog.rubi.model.dto.AudioRuUpdateRequest;
 import org.ganjp.blog.rubi.model.entity.AudioRu;
 import org.ganjp.blog.rubi.repository.AudioRuRepository;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +19,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -28,6 +31,9 @@ import java.util.Optional;
 public class AudioRuService {
     private final AudioRuRepository audioRepository;
     private final AudioRuProperties audioProperties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final ChunkedUploadService chunkedUploadService;
+    private final MediaLayout mediaLayout;
 
     public AudioRuResponse createAudio(AudioRuCreateRequest request, String userId) throws IOException {
         AudioRu audio = new AudioRu();
@@ -47,8 +53,8 @@ public class AudioRuService {
         if (request.getDisplayOrder() != null) audio.setDisplayOrder(request.getDisplayOrder());
         if (request.getIsActive() != null) audio.setIsActive(request.getIsActive());
 
-        if (request.getFile() != null && !request.getFile().isEmpty()) {
-            MultipartFile file = request.getFile();
+        MultipartFile file = chunkedUploadService.resolve(request.getFile(), request.getUploadId(), userId);
+        if (file != null && !file.isEmpty()) {
             String originalFilename = file.getOriginalFilename();
             String filename;
             if (request.getFilename() != null && !request.getFilename().isBlank() && request.getFilename().lastIndexOf(".") > 0) {
@@ -60,13 +66,13 @@ public class AudioRuService {
             }
             Path audioDir = Path.of(audioProperties.getUpload().getDirectory());
             Files.createDirectories(audioDir);
-            Path target = audioDir.resolve(filename);
+            Path target = mediaLayout.prepare(audioDir, filename);
 
-            if (Files.exists(target) || audioRepository.existsByFilename(filename)) {
+            if (mediaLayout.exists(audioDir, filename) || audioRepository.existsByFilename(filename)) {
                 throw new IllegalArgumentException("Filename already exists: " + filename);
             }
 
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            UploadFiles.store(file, target);
             audio.setFilename(filename);
             audio.setSizeBytes(Files.size(target));
         } else {
@@ -87,20 +93,20 @@ public class AudioRuService {
             }
             Path imagesDir = Path.of(audioProperties.getUpload().getDirectory(), "cover-images");
             Files.createDirectories(imagesDir);
-            Path coverTarget = imagesDir.resolve(coverFilename);
+            Path coverTarget = mediaLayout.prepare(imagesDir, coverFilename);
 
-            if (Files.exists(coverTarget) || audioRepository.existsByFilename(coverFilename)) {
+            if (mediaLayout.exists(imagesDir, coverFilename) || audioRepository.existsByFilename(coverFilename)) {
                 throw new IllegalArgumentException("AudioRu Cover image already exists: " + coverFilename);
             }
 
             try {
-                BufferedImage original = ImageIO.read(cover.getInputStream());
+                BufferedImage original = imageProcessingEngine.decode("audio_ru_cover", cover.getInputStream(), audioProperties.getUpload().getCoverImage().getMaxSize());
                 if (original != null) {
-                    BufferedImage resized = resizeImageIfNeeded(original, audioProperties.getUpload().getCoverImage().getMaxSize());
+                    BufferedImage resized = imageProcessingEngine.resizeToFit(original, audioProperties.getUpload().getCoverImage().getMaxSize());
                     String ext = "png";
                     int dot = coverFilename.lastIndexOf('.');
                     if (dot > 0 && dot < coverFilename.length() - 1) ext = coverFilename.substring(dot + 1).toLowerCase();
-                    ImageIO.write(resized, ext, coverTarget.toFile());
+                    imageProcessingEngine.write(resized, ext, coverTarget);
                 } else {
                     Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                 }
@@ -140,7 +146,7 @@ public class AudioRuService {
                 }
                 Path imagesDir = Path.of(audioProperties.getUpload().getDirectory(), "cover-images");
                 Files.createDirectories(imagesDir);
-                Path coverTarget = imagesDir.resolve(coverFilename);
+                Path coverTarget = mediaLayout.path(imagesDir, coverFilename);
 
                 int suffix = 1;
                 String base = coverFilename;
@@ -150,23 +156,24 @@ public class AudioRuService {
                     base = coverFilename.substring(0, dot);
                     ext = coverFilename.substring(dot);
                 }
-                while (Files.exists(coverTarget) || audioRepository.existsByFilename(coverFilename)) {
+                while (mediaLayout.exists(imagesDir, coverFilename) || audioRepository.existsByFilename(coverFilename)) {
                     coverFilename = base + "-" + suffix + ext;
-                    coverTarget = imagesDir.resolve(coverFilename);
+                    coverTarget = mediaLayout.path(imagesDir, coverFilename);
                     suffix++;
                 }
+                Files.createDirectories(coverTarget.getParent());
 
                 if (audio.getCoverImageFilename() != null) {
-                    try { Path old = imagesDir.resolve(audio.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
+                    try { Path old = mediaLayout.locate(imagesDir, audio.getCoverImageFilename()); Files.deleteIfExists(old); } catch (IOException ignored) {}
                 }
 
                 try {
-                    BufferedImage original = ImageIO.read(cover.getInputStream());
+                    BufferedImage original = imageProcessingEngine.decode("audio_ru_cover", cover.getInputStream(), audioProperties.getUpload().getCoverImage().getMaxSize());
                     if (original != null) {
-                        BufferedImage resized = resizeImageIfNeeded(original, audioProperties.getUpload().getCoverImage().getMaxSize());
+                        BufferedImage resized = imageProcessingEngine.resizeToFit(original, audioProperties.getUpload().getCoverImage().getMaxSize());
                         String writeExt = "png";
                         if (dot > 0 && dot < coverFilename.length() - 1) writeExt = coverFilename.substring(dot + 1).toLowerCase();
-                        ImageIO.write(resized, writeExt, coverTarget.toFile());
+                        imageProcessingEngine.write(resized, writeExt, coverTarget);
                     } else {
                         Files.copy(cover.getInputStream(), coverTarget, StandardCopyOption.REPLACE_EXISTING);
                     }
@@ -182,14 +189,15 @@ public class AudioRuService {
                     !request.getCoverImageFilename().equals(audio.getCoverImageFilename())) {
                 // change the image file name in local storage only (no re-download), implying a rename
                 Path coverImagesDir = Path.of(audioProperties.getUpload().getDirectory(), "cover-images");
-                Path oldPath = coverImagesDir.resolve(audio.getCoverImageFilename());
-                Path newPath = coverImagesDir.resolve(request.getCoverImageFilename());
+                Path oldPath = mediaLayout.locate(coverImagesDir, audio.getCoverImageFilename());
+                Path newPath = mediaLayout.path(coverImagesDir, request.getCoverImageFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(coverImagesDir, request.getCoverImageFilename())) {
                     throw new IllegalArgumentException("Cover image file with name " + request.getCoverImageFilename() + " already exists");
                 }
                 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -201,14 +209,15 @@ public class AudioRuService {
                     request.getFilename().lastIndexOf('.') > 0 &&
                     !request.getFilename().equals(audio.getFilename())) {
                 Path audioDir = Path.of(audioProperties.getUpload().getDirectory());
-                Path oldPath = audioDir.resolve(audio.getFilename());
-                Path newPath = audioDir.resolve(request.getFilename());
+                Path oldPath = mediaLayout.locate(audioDir, audio.getFilename());
+                Path newPath = mediaLayout.path(audioDir, request.getFilename());
                 // if newPath exists, it will not be overwritten
-                if (Files.exists(newPath)) {
+                if (mediaLayout.exists(audioDir, request.getFilename())) {
                     throw new IllegalArgumentException("AudioRu file with name " + request.getFilename() + " already exists");
                 }
 
                 if (Files.exists(oldPath)) {
+                    Files.createDirectories(newPath.getParent());
                     Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                 }
 
@@ -246,7 +255,7 @@ public class AudioRuService {
 
     public java.io.File getAudioFileByFilename(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path audioPath = Path.of(audioProperties.getUpload().getDirectory(), filename);
+        Path audioPath = mediaLayout.locate(audioProperties.getUpload().getDirectory(), filename);
         if (!Files.exists(audioPath)) {
             throw new IllegalArgumentException("AudioRu file not found: " + filename);
         }
@@ -255,7 +264,7 @@ public class AudioRuService {
 
     public java.io.File getCoverImageFileByFilename(String filename) throws java.io.IOException {
         if (filename == null) throw new IllegalArgumentException("filename is null");
-        Path coverPath = Path.of(audioProperties.getUpload().getDirectory(), "cover-images", filename);
+        Path coverPath = mediaLayout.locate(Path.of(audioProperties.getUpload().getDirectory(), "cover-images"), filename);
         if (!Files.exists(coverPath)) {
             throw new IllegalArgumentException("Cover image file not found: " + filename);
         }
@@ -313,16 +322,4 @@ public class AudioRuService {
         if (a.getUpdatedAt() != null) r.setUpdatedAt(a.getUpdatedAt().toString());
         return r;
     }
-
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType());
-        resized.getGraphics().drawImage(image, 0, 0, newWidth, newHeight, null);
-        return resized;
-    }
 }
@@ -5,12 +5,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.ganjp.blog.common.exception.BusinessException;
 import org.ganjp.blog.common.exception.ResourceNotFoundException;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
 import org.ganjp.blog.rubi.config.RubiProperties;
 import org.ganjp.blog.rubi.model.dto.CreateExpressionRuRequest;
 import org.ganjp.blog.rubi.model.dto.UpdateExpressionRuRequest;
 import org.ganjp.blog.rubi.model.dto.ExpressionRuResponse;
 import org.ganjp.blog.rubi.model.entity.ExpressionRu;
 import org.ganjp.blog.rubi.repository.ExpressionRuRepository;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -20,7 +23,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -37,6 +39,8 @@ public class ExpressionRuService {
 
     private final ExpressionRuRepository expressionRepository;
     private final RubiProperties rubiProperties;
+    private final RemoteFetcher remoteFetcher;
+    private final MediaLayout mediaLayout;
 
     /**
      * Create a new expression
@@ -197,7 +201,7 @@ public class ExpressionRuService {
             if (!StringUtils.hasText(ext)) ext = "mp3";
             String filename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
 
-            Path targetPath = Path.of(audioDir).resolve(filename);
+            Path targetPath = mediaLayout.path(audioDir, filename);
             try {
                 Files.createDirectories(targetPath.getParent());
                 Files.copy(newFile.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
@@ -215,11 +219,11 @@ public class ExpressionRuService {
                     String ext = getFileExtension(url.getPath());
                     if (!StringUtils.hasText(ext)) ext = "mp3";
                     String filename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
-                    Path targetPath = Path.of(audioDir).resolve(filename);
+                    Path targetPath = mediaLayout.path(audioDir, filename);
                     Files.createDirectories(targetPath.getParent());
 
-                    try (InputStream in = url.openStream()) {
-                        Files.copy(in, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                    try (RemoteDownload download = remoteFetcher.download("expression_ru_audio", newOriginalUrl)) {
+                        download.moveTo(targetPath);
                         expression.setPhoneticAudioFilename(filename);
                     }
                 } catch (Exception e) {
@@ -234,10 +238,11 @@ public class ExpressionRuService {
                     String newFilename = baseName.endsWith("." + newExt) ? baseName : baseName + "." + newExt;
                     
                     if (!newFilename.equals(currentFilename)) {
-                        Path oldPath = Path.of(audioDir).resolve(currentFilename);
-                        Path newPath = Path.of(audioDir).resolve(newFilename);
+                        Path oldPath = mediaLayout.locate(audioDir, currentFilename);
+                        Path newPath = mediaLayout.path(audioDir, newFilename);
                         try {
                             if (Files.exists(oldPath)) {
+                                Files.createDirectories(newPath.getParent());
                                 Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                                 expression.setPhoneticAudioFilename(newFilename);
                             }
@@ -266,7 +271,7 @@ public class ExpressionRuService {
      */
     public java.io.File getAudioFile(String filename) {
         Path audioPath = Path.of(rubiProperties.getExpression().getAudio().getDirectory());
-        Path filePath = audioPath.resolve(filename);
+        Path filePath = mediaLayout.locate(audioPath, filename);
         return filePath.toFile();
     }
 }
@@ -2,6 +2,15 @@ package org.ganjp.blog.rubi.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.ganjp.blog.common.storage.service.StorageService;
 import org.ganjp.blog.rubi.config.ImageRuProperties;
 import org.ganjp.blog.rubi.model.dto.ImageRuCreateRequest;
 import org.ganjp.blog.rubi.model.dto.ImageRuUpdateRequest;
@@ -9,6 +18,7 @@ import org.ganjp.blog.rubi.model.dto.ImageRuResponse;
 import org.ganjp.blog.rubi.model.entity.ImageRu;
 import org.ganjp.blog.rubi.repository.ImageRuRepository;
 import org.ganjp.blog.rubi.util.RubiUtil;
+import org.ganjp.blog.common.storage.service.MediaLayout;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -24,7 +34,6 @@ import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import javax.imageio.ImageIO;
 import net.sourceforge.pinyin4j.PinyinHelper;
 import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
 import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
@@ -38,6 +47,12 @@ import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombi
 public class ImageRuService {
     private final ImageRuRepository imageRepository;
     private final ImageRuProperties imageProperties;
+    private final Bulkheads bulkheads;
+    private final RemoteFetcher remoteFetcher;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final MediaMetrics mediaMetrics;
+    private final StorageService storageService;
+    private final MediaLayout mediaLayout;
 
     public ImageRuResponse getImageById(String id) {
         Optional<ImageRu> imageOpt = imageRepository.findByIdAndIsActiveTrue(id);
@@ -64,42 +79,20 @@ public class ImageRuService {
             String newExt = request.getExtension().toLowerCase();
             try {
                 Path uploadDir = Paths.get(imageProperties.getUpload().getDirectory());
-                Path oldImagePath = uploadDir.resolve(oldFilename);
-                Path oldThumbPath = uploadDir.resolve(oldThumbnail);
+                Path oldImagePath = mediaLayout.locate(uploadDir, oldFilename);
+                Path oldThumbPath = mediaLayout.locate(uploadDir, oldThumbnail);
 
                 String newFilename = request.getFilename() != null ? request.getFilename() : replaceExtension(oldFilename, newExt);
                 String newThumbnail = request.getThumbnailFilename() != null ? request.getThumbnailFilename() : replaceExtension(oldThumbnail, newExt);
-                Path newImagePath = uploadDir.resolve(newFilename);
-                Path newThumbPath = uploadDir.resolve(newThumbnail);
+                Path newImagePath = mediaLayout.prepare(uploadDir, newFilename);
+                Path newThumbPath = mediaLayout.prepare(uploadDir, newThumbnail);
 
-                // Try to read and write using ImageIO (conversion)
-                try {
-                    BufferedImage img = ImageIO.read(oldImagePath.toFile());
-                    if (img != null) {
-                        ImageIO.write(img, newExt, newImagePath.toFile());
-                    } else {
-                        // fallback to copy/rename if ImageIO cannot read (e.g., SVG)
-                        Files.copy(oldImagePath, newImagePath);
-                    }
-                } catch (Exception e) {
-                    // fallback: move/rename file
-                    Files.copy(oldImagePath, newImagePath);
-                }
-
-                try {
-                    BufferedImage timg = ImageIO.read(oldThumbPath.toFile());
-                    if (timg != null) {
-                        ImageIO.write(timg, newExt, newThumbPath.toFile());
-                    } else {
-                        Files.copy(oldThumbPath, newThumbPath);
-                    }
-                } catch (Exception e) {
-                    Files.copy(oldThumbPath, newThumbPath);
-                }
+                convert(oldImagePath, newExt, newImagePath);
+                convert(oldThumbPath, newExt, newThumbPath);
 
                 // Remove old files
-                try { Files.deleteIfExists(oldImagePath); } catch (Exception ignored) {}
-                try { Files.deleteIfExists(oldThumbPath); } catch (Exception ignored) {}
+                try { storageService.release(oldImagePath); } catch (Exception ignored) {}
+                try { storageService.release(oldThumbPath); } catch (Exception ignored) {}
 
                 // Update entity fields to new names/extension/mime/size
                 image.setFilename(newFilename);
@@ -116,8 +109,8 @@ public class ImageRuService {
             if (request.getFilename() != null && !request.getFilename().equals(oldFilename)) {
                 try {
                     Path uploadDir = Paths.get(imageProperties.getUpload().getDirectory());
-                    Path oldPath = uploadDir.resolve(oldFilename);
-                    Path newPath = uploadDir.resolve(request.getFilename());
+                    Path oldPath = mediaLayout.locate(uploadDir, oldFilename);
+                    Path newPath = mediaLayout.prepare(uploadDir, request.getFilename());
                     Files.move(oldPath, newPath);
                     image.setFilename(request.getFilename());
                 } catch (IOException e) {
@@ -127,8 +120,8 @@ public class ImageRuService {
             if (request.getThumbnailFilename() != null && !request.getThumbnailFilename().equals(oldThumbnail)) {
                 try {
                     Path uploadDir = Paths.get(imageProperties.getUpload().getDirectory());
-                    Path oldPath = uploadDir.resolve(oldThumbnail);
-                    Path newPath = uploadDir.resolve(request.getThumbnailFilename());
+                    Path oldPath = mediaLayout.locate(uploadDir, oldThumbnail);
+                    Path newPath = mediaLayout.prepare(uploadDir, request.getThumbnailFilename());
                     Files.move(oldPath, newPath);
                     image.setThumbnailFilename(request.getThumbnailFilename());
                 } catch (IOException e) {
@@ -174,28 +167,37 @@ public class ImageRuService {
         return images.map(this::toResponse);
     }
 
+    /**
+     * Create an image from an upload or a remote URL. The download runs on the fetch bulkhead
+     * before the decode, resize and encode take a slot on the image bulkhead.
+     */
     public ImageRuResponse createImage(ImageRuCreateRequest request, String userId) throws IOException {
-        String id = UUID.randomUUID().toString();
-        BufferedImage originalImage;
-        String extension;
         MultipartFile file = request.getFile();
+        RemoteDownload remote = null;
         if (file == null || file.isEmpty()) {
             if (request.getOriginalUrl() == null || request.getOriginalUrl().isBlank()) {
                 throw new IllegalArgumentException("originalUrl is required if file is empty");
             }
-            java.net.URL url = new java.net.URL(request.getOriginalUrl());
-            try (var inputStream = url.openStream()) {
-                originalImage = ImageIO.read(inputStream);
-                if (request.getFilename() != null && request.getFilename().lastIndexOf('.') != -1) {
-                    extension = request.getFilename().substring(request.getFilename().lastIndexOf('.') + 1).toLowerCase();
-                } else {
-                    String urlPath = url.getPath();
-                    int dotIdx = urlPath.lastIndexOf('.');
-                    extension = (dotIdx > 0 && dotIdx < urlPath.length() - 1) ? urlPath.substring(dotIdx + 1).toLowerCase() : "png";
-                }
+            remote = remoteFetcher.download("image_ru", request.getOriginalUrl());
+        }
+        try (RemoteDownload download = remote) {
+            return bulkheads.image().call(() -> createImage(request, download, userId));
+        }
+    }
+
+    private ImageRuResponse createImage(ImageRuCreateRequest request, RemoteDownload download, String userId) throws IOException {
+        String id = UUID.randomUUID().toString();
+        String extension;
+        MultipartFile file = request.getFile();
+        if (download != null) {
+            if (request.getFilename() != null && request.getFilename().lastIndexOf('.') != -1) {
+                extension = request.getFilename().substring(request.getFilename().lastIndexOf('.') + 1).toLowerCase();
+            } else {
+                String urlPath = download.getUri().getPath();
+                int dotIdx = urlPath.lastIndexOf('.');
+                extension = (dotIdx > 0 && dotIdx < urlPath.length() - 1) ? urlPath.substring(dotIdx + 1).toLowerCase() : "png";
             }
         } else {
-            originalImage = ImageIO.read(file.getInputStream());
             String contentType = file.getContentType();
             if (contentType != null && contentType.contains("jpeg")) {
                 extension = "jpg";
@@ -209,8 +211,40 @@ public class ImageRuService {
                 extension = "png";
             }
         }
-        BufferedImage resizedImage = resizeImageIfNeeded(originalImage, imageProperties.getUpload().getResize().getMaxSize());
-        BufferedImage thumbnailImage = resizeImageIfNeeded(originalImage, imageProperties.getUpload().getResize().getThumbnailSize());
+        int maxSize = imageProperties.getUpload().getResize().getMaxSize();
+        int thumbnailSize = imageProperties.getUpload().getResize().getThumbnailSize();
+
+        // An upload with the same content and settings as an earlier one reuses its stored outputs
+        String sourceHash = download != null ? storageService.hash(download.getFile()) : storageService.hash(file);
+        String variant = "image_ru/" + maxSize + "/" + thumbnailSize + "/" + extension + "/" + imageProcessingEngine.encoding();
+        StorageDerivative storedImage = storageService.findDerivative(sourceHash, variant + "/main").orElse(null);
+        StorageDerivative storedThumbnail = storageService.findDerivative(sourceHash, variant + "/thumbnail").orElse(null);
+        boolean reuse = storedImage != null && storedThumbnail != null;
+        mediaMetrics.recordDerivativeLookup("image_ru", reuse);
+
+        BufferedImage resizedImage = null;
+        BufferedImage thumbnailImage = null;
+        int width;
+        int height;
+        int thumbnailWidth;
+        int thumbnailHeight;
+        if (reuse) {
+            width = storedImage.getWidth();
+            height = storedImage.getHeight();
+            thumbnailWidth = storedThumbnail.getWidth();
+            thumbnailHeight = storedThumbnail.getHeight();
+        } else {
+            BufferedImage originalImage = download != null
+                    ? imageProcessingEngine.decode("image_ru", download.getFile(), maxSize)
+                    : imageProcessingEngine.decode("image_ru", file.getInputStream(), maxSize);
+            List<BufferedImage> derivatives = imageProcessingEngine.derivatives(originalImage, maxSize, thumbnailSize);
+            resizedImage = derivatives.get(0);
+            thumbnailImage = derivatives.get(1);
+            width = resizedImage.getWidth();
+            height = resizedImage.getHeight();
+            thumbnailWidth = thumbnailImage.getWidth();
+            thumbnailHeight = thumbnailImage.getHeight();
+        }
         
         String filename;
         String thumbnailFilename;
@@ -221,17 +255,26 @@ public class ImageRuService {
             if (filename.lastIndexOf('.') != -1) {
                 onlyFilename = filename.substring(0, filename.lastIndexOf('.'));
             }
-            filename = generateFilename(onlyFilename, extension, resizedImage.getWidth(), resizedImage.getHeight());
-            thumbnailFilename = generateFilename(onlyFilename, extension, thumbnailImage.getWidth(), thumbnailImage.getHeight());
+            filename = generateFilename(onlyFilename, extension, width, height);
+            thumbnailFilename = generateFilename(onlyFilename, extension, thumbnailWidth, thumbnailHeight);
         } else {
-            filename = generateFilename(request.getName(), extension, resizedImage.getWidth(), resizedImage.getHeight());
-            thumbnailFilename = generateFilename(request.getName(), extension, thumbnailImage.getWidth(), thumbnailImage.getHeight());
+            filename = generateFilename(request.getName(), extension, width, height);
+            thumbnailFilename = generateFilename(request.getName(), extension, thumbnailWidth, thumbnailHeight);
         }
 
-        Path imagePath = Paths.get(imageProperties.getUpload().getDirectory(), filename);
-        Path thumbPath = Paths.get(imageProperties.getUpload().getDirectory(), thumbnailFilename);
-        ImageIO.write(resizedImage, extension, imagePath.toFile());
-        ImageIO.write(thumbnailImage, extension, thumbPath.toFile());
+        Path imagePath = mediaLayout.prepare(imageProperties.getUpload().getDirectory(), filename);
+        Path thumbPath = mediaLayout.prepare(imageProperties.getUpload().getDirectory(), thumbnailFilename);
+        if (reuse) {
+            if (!storageService.link(storedImage.getBlobHash(), imagePath) || !storageService.link(storedThumbnail.getBlobHash(), thumbPath)) {
+                throw new IOException("Stored image " + sourceHash + " was deleted while being reused, please retry");
+            }
+        } else {
+            imageProcessingEngine.writeAll(List.of(
+                    new ImageProcessingEngine.Derivative(resizedImage, extension, imagePath),
+                    new ImageProcessingEngine.Derivative(thumbnailImage, extension, thumbPath)));
+            storageService.saveDerivative(sourceHash, variant + "/main", storageService.store(imagePath), width, height);
+            storageService.saveDerivative(sourceHash, variant + "/thumbnail", storageService.store(thumbPath), thumbnailWidth, thumbnailHeight);
+        }
 
         ImageRu image = new ImageRu();
         image.setId(id);
@@ -243,8 +286,8 @@ public class ImageRuService {
         image.setExtension(extension);
         image.setMimeType(RubiUtil.determineContentType(filename));
         image.setSizeBytes(Files.size(imagePath));
-        image.setWidth(resizedImage.getWidth());
-        image.setHeight(resizedImage.getHeight());
+        image.setWidth(width);
+        image.setHeight(height);
         image.setAltText(request.getAltText());
         image.setTerm(request.getTerm());
         image.setWeek(request.getWeek());
@@ -279,28 +322,6 @@ public class ImageRuService {
         return getImageFile(filename);
     }
 
-    private BufferedImage resizeImageIfNeeded(BufferedImage image, int maxSize) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        if (width <= maxSize && height <= maxSize) return image;
-        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-        int newWidth = Math.round(width * scale);
-        int newHeight = Math.round(height * scale);
-        
-        int type = image.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : image.getType();
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, type);
-        java.awt.Graphics2D g2d = resized.createGraphics();
-        try {
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, java.awt.RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_RENDERING, java.awt.RenderingHints.VALUE_RENDER_QUALITY);
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.drawImage(image, 0, 0, newWidth, newHeight, null);
-        } finally {
-            g2d.dispose();
-        }
-        return resized;
-    }
-
     private String generateFilename(String name, String extension, int width, int height) {
         // Null-safe: if name is null or blank, fall back to 'img'
         String safeName;
@@ -397,7 +418,7 @@ public class ImageRuService {
      */
     public File getImageFile(String filename) throws IOException {
         Path uploadDir = Paths.get(imageProperties.getUpload().getDirectory());
-        Path fullPath = uploadDir.resolve(filename);
+        Path fullPath = mediaLayout.locate(uploadDir, filename);
 
         if (!Files.exists(fullPath)) {
             throw new IOException("ImageRu file not found: " + filename);
@@ -412,6 +433,30 @@ public class ImageRuService {
         return file;
     }
 
+    /**
+     * Re-encode a stored file in another format on the image bulkhead; a file no image reader
+     * recognises (e.g. SVG) is copied as it is
+     */
+    private void convert(Path source, String extension, Path target) throws IOException {
+        try {
+            bulkheads.image().call(() -> {
+                BufferedImage img = imageProcessingEngine.decode("image_ru", source, 0);
+                if (img == null) {
+                    Files.copy(source, target);
+                } else {
+                    imageProcessingEngine.write(img, extension, target);
+                }
+                return null;
+            });
+        } catch (ServiceBusyException | BusinessException e) {
+            // Busy bulkhead (503) or an image past image-processing.max-pixels (400)
+            throw e;
+        } catch (Exception e) {
+            // fallback: copy the file as it is
+            Files.copy(source, target);
+        }
+    }
+
     private String replaceExtension(String filename, String newExt) {
         int dot = filename.lastIndexOf('.');
         if (dot == -1) return filename + "." + newExt;
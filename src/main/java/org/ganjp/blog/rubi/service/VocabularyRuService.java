@@ -5,12 +5,17 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.ganjp.blog.common.exception.BusinessException;
 import org.ganjp.blog.common.exception.ResourceNotFoundException;
+import org.ganjp.blog.common.fetch.RemoteDownload;
+import org.ganjp.blog.common.fetch.RemoteFetcher;
+import org.ganjp.blog.common.image.ImageProcessingEngine;
 import org.ganjp.blog.rubi.config.RubiProperties;
 import org.ganjp.blog.rubi.model.dto.CreateVocabularyRuRequest;
 import org.ganjp.blog.rubi.model.dto.UpdateVocabularyRuRequest;
 import org.ganjp.blog.rubi.model.dto.VocabularyRuResponse;
 import org.ganjp.blog.rubi.model.entity.VocabularyRu;
 import org.ganjp.blog.rubi.repository.VocabularyRuRepository;
+import org.ganjp.blog.common.storage.service.MediaLayout;
+import org.ganjp.blog.common.storage.service.StorageService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -19,7 +24,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -38,6 +42,10 @@ public class VocabularyRuService {
 
     private final VocabularyRuRepository vocabularyRepository;
     private final RubiProperties rubiProperties;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final RemoteFetcher remoteFetcher;
+    private final MediaLayout mediaLayout;
+    private final StorageService storageService;
 
     /**
      * Create a new vocabulary
@@ -179,17 +187,20 @@ public class VocabularyRuService {
             if (!StringUtils.hasText(ext)) ext = "png";
             String filename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
 
-            Path targetPath = Path.of(imageDir).resolve(filename);
+            Path targetPath = mediaLayout.path(imageDir, filename);
             try {
                 Files.createDirectories(targetPath.getParent());
-                
-                BufferedImage original = ImageIO.read(file.getInputStream());
+                // The current file may be a link to stored content shared with other images; never write into it
+                storageService.release(targetPath);
+
+                BufferedImage original = imageProcessingEngine.decode("vocabulary_ru", file.getInputStream(), maxSize != null ? maxSize.intValue() : 0);
                 if (original != null && maxSize != null) {
-                    BufferedImage resized = resizeImageIfNeeded(original, maxSize.intValue());
-                    ImageIO.write(resized, ext, targetPath.toFile());
+                    BufferedImage resized = imageProcessingEngine.resizeToFit(original, maxSize.intValue());
+                    imageProcessingEngine.write(resized, ext, targetPath);
                 } else {
                     Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
                 }
+                storageService.store(targetPath);
                 vocabulary.setImageFilename(filename);
             } catch (IOException e) {
                 throw new BusinessException("Failed to save image file: " + e.getMessage());
@@ -204,20 +215,20 @@ public class VocabularyRuService {
                     String ext = getFileExtension(url.getPath());
                     if (!StringUtils.hasText(ext)) ext = "jpg";
                     String filename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
-                    Path targetPath = Path.of(imageDir).resolve(filename);
+                    Path targetPath = mediaLayout.path(imageDir, filename);
                     Files.createDirectories(targetPath.getParent());
 
-                    try (java.io.InputStream in = url.openStream()) {
-                        BufferedImage original = ImageIO.read(in);
+                    try (RemoteDownload download = remoteFetcher.download("vocabulary_ru", originalUrl)) {
+                        BufferedImage original = imageProcessingEngine.decode("vocabulary_ru", download.getFile(), maxSize != null ? maxSize.intValue() : 0);
+                        storageService.release(targetPath);
                         if (original != null && maxSize != null) {
-                            BufferedImage resized = resizeImageIfNeeded(original, maxSize.intValue());
-                            ImageIO.write(resized, ext, targetPath.toFile());
+                            BufferedImage resized = imageProcessingEngine.resizeToFit(original, maxSize.intValue());
+                            imageProcessingEngine.write(resized, ext, targetPath);
                         } else {
-                            try (java.io.InputStream in2 = url.openStream()) {
-                                Files.copy(in2, targetPath, StandardCopyOption.REPLACE_EXISTING);
-                            }
+                            download.moveTo(targetPath);
                         }
                     }
+                    storageService.store(targetPath);
                     vocabulary.setImageFilename(filename);
                 } catch (Exception e) {
                     log.error("Failed to download image from URL: {}", originalUrl, e);
@@ -228,10 +239,11 @@ public class VocabularyRuService {
                     String ext = getFileExtension(currentFilename);
                     String newFilename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
                     if (!newFilename.equals(currentFilename)) {
-                        Path oldPath = Path.of(imageDir).resolve(currentFilename);
-                        Path newPath = Path.of(imageDir).resolve(newFilename);
+                        Path oldPath = mediaLayout.locate(imageDir, currentFilename);
+                        Path newPath = mediaLayout.path(imageDir, newFilename);
                         try {
                             if (Files.exists(oldPath)) {
+                                Files.createDirectories(newPath.getParent());
                                 Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                                 vocabulary.setImageFilename(newFilename);
                             }
@@ -257,7 +269,7 @@ public class VocabularyRuService {
             if (!StringUtils.hasText(ext)) ext = "mp3";
             String filename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
 
-            Path targetPath = Path.of(audioDir).resolve(filename);
+            Path targetPath = mediaLayout.path(audioDir, filename);
             try {
                 Files.createDirectories(targetPath.getParent());
                 Files.copy(newFile.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
@@ -275,11 +287,11 @@ public class VocabularyRuService {
                     String ext = getFileExtension(url.getPath());
                     if (!StringUtils.hasText(ext)) ext = "mp3";
                     String filename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
-                    Path targetPath = Path.of(audioDir).resolve(filename);
+                    Path targetPath = mediaLayout.path(audioDir, filename);
                     Files.createDirectories(targetPath.getParent());
 
-                    try (java.io.InputStream in = url.openStream()) {
-                        Files.copy(in, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                    try (RemoteDownload download = remoteFetcher.download("vocabulary_ru_audio", newOriginalUrl)) {
+                        download.moveTo(targetPath);
                     }
                     dbVocabulary.setPhoneticAudioFilename(filename);
                 } catch (Exception e) {
@@ -291,10 +303,11 @@ public class VocabularyRuService {
                     String ext = getFileExtension(currentFilename);
                     String newFilename = baseName.endsWith("." + ext) ? baseName : baseName + "." + ext;
                     if (!newFilename.equals(currentFilename)) {
-                        Path oldPath = Path.of(audioDir).resolve(currentFilename);
-                        Path newPath = Path.of(audioDir).resolve(newFilename);
+                        Path oldPath = mediaLayout.locate(audioDir, currentFilename);
+                        Path newPath = mediaLayout.path(audioDir, newFilename);
                         try {
                             if (Files.exists(oldPath)) {
+                                Files.createDirectories(newPath.getParent());
                                 Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
                                 dbVocabulary.setPhoneticAudioFilename(newFilename);
                             }
@@ -309,31 +322,6 @@ public class VocabularyRuService {
         }
     }
 
-    private BufferedImage resizeImageIfNeeded(BufferedImage original, int maxSize) {
-        int width = original.getWidth();
-        int height = original.getHeight();
-
-        if (width <= maxSize && height <= maxSize) {
-            return original;
-        }
-
-        double ratio = (double) width / height;
-        if (width > height) {
-            width = maxSize;
-            height = (int) (width / ratio);
-        } else {
-            height = maxSize;
-            width = (int) (height * ratio);
-        }
-
-        BufferedImage resized = new BufferedImage(width, height, original.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : original.getType());
-        Graphics2D g = resized.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(original, 0, 0, width, height, null);
-        g.dispose();
-        return resized;
-    }
-
     private String getFileExtension(String filename) {
         if (filename == null) return "";
         int dotIndex = filename.lastIndexOf('.');
@@ -348,7 +336,7 @@ public class VocabularyRuService {
      */
     public java.io.File getAudioFile(String filename) {
         Path audioPath = Path.of(rubiProperties.getVocabulary().getAudio().getDirectory());
-        Path filePath = audioPath.resolve(filename);
+        Path filePath = mediaLayout.locate(audioPath, filename);
         return filePath.toFile();
     }
 
@@ -357,7 +345,7 @@ public class VocabularyRuService {
      */
     public java.io.File getImageFile(String filename) {
         Path imagePath = Path.of(rubiProperties.getVocabulary().getImage().getDirectory());
-        Path filePath = imagePath.resolve(filename);
+        Path filePath = mediaLayout.locate(imagePath, filename);
         return filePath.toFile();
     }
 
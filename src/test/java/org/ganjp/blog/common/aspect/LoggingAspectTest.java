@@ -0,0 +1,114 @@
+package org.ganjp.blog.common.aspect;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.ganjp.blog.common.config.MethodLoggingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for LoggingAspect
+ */
+class LoggingAspectTest {
+
+    private MethodLoggingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MethodLoggingProperties();
+        properties.setHistogram(false);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private SampleService proxy() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(properties, meterRegistry));
+        return factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Should record success and error timers per method in metrics mode")
+    void shouldRecordTimers() {
+        SampleService service = proxy();
+
+        service.hello();
+        service.hello();
+        assertThatThrownBy(service::fail).isInstanceOf(IllegalStateException.class);
+
+        Timer success = meterRegistry.find("method.execution")
+                .tags("class", "LoggingAspectTest$SampleService", "method", "hello", "outcome", "success").timer();
+        Timer error = meterRegistry.find("method.execution")
+                .tags("method", "fail", "outcome", "error", "layer", "service").timer();
+        assertThat(success).isNotNull();
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(error).isNotNull();
+        assertThat(error.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip instrumentation for disabled packages")
+    void shouldSkipDisabledPackage() {
+        properties.getPackages().put("common", false);
+        properties.getPackages().put("auth", true);
+
+        assertThat(proxy().hello()).isEqualTo("hello");
+        assertThat(meterRegistry.find("method.execution").timers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should let the longest package key win")
+    void shouldPreferLongestPackageKey() {
+        properties.getPackages().put("common", false);
+        properties.getPackages().put("common.aspect", true);
+
+        proxy().hello();
+        assertThat(meterRegistry.find("method.execution").timers()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should publish the fixed histogram buckets, with percentile buckets only for allow-listed methods")
+    void shouldPublishBoundedHistograms() {
+        PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        properties.setHistogram(true);
+        properties.getHistogramMethods().add("LoggingAspectTest$SampleService.fail");
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(properties, prometheusRegistry));
+        SampleService service = factory.getProxy();
+
+        service.hello();
+        assertThatThrownBy(service::fail).isInstanceOf(IllegalStateException.class);
+
+        String scrape = prometheusRegistry.scrape();
+        // One bucket per boundary plus +Inf for each of the success and error timers
+        assertThat(buckets(scrape, "hello")).isEqualTo(2 * (properties.getHistogramBuckets().size() + 1));
+        assertThat(buckets(scrape, "fail")).isGreaterThan(2 * (properties.getHistogramBuckets().size() + 1));
+    }
+
+    private static long buckets(String scrape, String method) {
+        return scrape.lines()
+                .filter(line -> line.startsWith("method_execution_seconds_bucket{") && line.contains("method=\"" + method + "\""))
+                .count();
+    }
+
+    @Service
+    static class SampleService {
+        public String hello() {
+            return "hello";
+        }
+
+        public void fail() {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
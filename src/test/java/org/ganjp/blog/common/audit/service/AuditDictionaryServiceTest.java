@@ -0,0 +1,113 @@
+package org.ganjp.blog.common.audit.service;
+
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditDictionary;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.model.enums.AuditDictionaryType;
+import org.ganjp.blog.common.audit.repository.AuditDictionaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AuditDictionaryService
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditDictionaryServiceTest {
+
+    @Mock
+    private AuditDictionaryRepository auditDictionaryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuditDictionaryService auditDictionaryService;
+
+    @BeforeEach
+    void setUp() {
+        auditDictionaryService = new AuditDictionaryService(auditDictionaryRepository, transactionManager, new AuditProperties());
+    }
+
+    @Test
+    @DisplayName("Should intern a new value once and serve repeats from the cache")
+    void shouldInternOnceAndCache() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(auditDictionaryRepository.findByTypeAndValueHash(eq(AuditDictionaryType.ENDPOINT), anyString()))
+                .thenReturn(Optional.empty());
+        when(auditDictionaryRepository.save(any(AuditDictionary.class))).thenAnswer(invocation -> {
+            AuditDictionary entry = invocation.getArgument(0);
+            entry.setId(7);
+            return entry;
+        });
+
+        Integer first = auditDictionaryService.idFor(AuditDictionaryType.ENDPOINT, "/blog/v1/images/{id}");
+        Integer second = auditDictionaryService.idFor(AuditDictionaryType.ENDPOINT, "/blog/v1/images/{id}");
+
+        assertThat(first).isEqualTo(7);
+        assertThat(second).isEqualTo(7);
+        verify(auditDictionaryRepository, times(1)).save(any(AuditDictionary.class));
+        verify(auditDictionaryRepository, times(1)).findByTypeAndValueHash(eq(AuditDictionaryType.ENDPOINT), anyString());
+    }
+
+    @Test
+    @DisplayName("Should decode a batch with one lookup for uncached IDs")
+    void shouldDecodeBatchWithSingleLookup() {
+        when(auditDictionaryRepository.findAllById(Set.of(1, 2, 3))).thenReturn(List.of(
+                AuditDictionary.builder().id(1).type(AuditDictionaryType.HTTP_METHOD).value("POST").build(),
+                AuditDictionary.builder().id(2).type(AuditDictionaryType.ENDPOINT).value("/blog/v1/images").build(),
+                AuditDictionary.builder().id(3).type(AuditDictionaryType.RESULT).value("Image created").build()));
+        List<AuditLog> logs = List.of(
+                AuditLog.builder().id("a").httpMethodId(1).endpointId(2).resultId(3).build(),
+                AuditLog.builder().id("b").httpMethodId(1).endpointId(2).resultId(3).build());
+
+        auditDictionaryService.decode(logs);
+        auditDictionaryService.decode(logs);
+
+        assertThat(logs).allSatisfy(auditLog -> {
+            assertThat(auditLog.getHttpMethod()).isEqualTo("POST");
+            assertThat(auditLog.getEndpoint()).isEqualTo("/blog/v1/images");
+            assertThat(auditLog.getResult()).isEqualTo("Image created");
+            assertThat(auditLog.getUserAgent()).isNull();
+        });
+        verify(auditDictionaryRepository, times(1)).findAllById(any());
+        verify(auditDictionaryRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should decode a batch with more distinct IDs than the cache holds")
+    void shouldDecodeBatchLargerThanCache() {
+        AuditProperties properties = new AuditProperties();
+        properties.getDictionary().setCacheSize(2);
+        auditDictionaryService = new AuditDictionaryService(auditDictionaryRepository, transactionManager, properties);
+        when(auditDictionaryRepository.findAllById(any())).thenReturn(IntStream.rangeClosed(1, 5)
+                .mapToObj(id -> AuditDictionary.builder().id(id).type(AuditDictionaryType.ENDPOINT).value("/endpoint/" + id).build())
+                .toList());
+        List<AuditLog> logs = IntStream.rangeClosed(1, 5)
+                .mapToObj(id -> AuditLog.builder().id("log-" + id).endpointId(id).build())
+                .toList();
+
+        auditDictionaryService.decode(logs);
+
+        assertThat(logs).extracting(AuditLog::getEndpoint)
+                .containsExactly("/endpoint/1", "/endpoint/2", "/endpoint/3", "/endpoint/4", "/endpoint/5");
+    }
+}
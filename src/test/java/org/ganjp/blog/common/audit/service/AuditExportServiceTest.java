@@ -0,0 +1,199 @@
+package org.ganjp.blog.common.audit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.EntityManager;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.model.enums.AuditExportFormat;
+import org.ganjp.blog.common.audit.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AuditExportService
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 1, 2, 0, 0);
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditDictionaryService auditDictionaryService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private AuditProperties auditProperties;
+    private AuditExportService auditExportService;
+
+    @BeforeEach
+    void setUp() {
+        auditProperties = new AuditProperties();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        auditExportService = new AuditExportService(auditLogRepository, auditProperties, objectMapper,
+                auditDictionaryService, entityManager, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should quote CSV values containing separators, quotes or line breaks and leave nulls empty")
+    void shouldQuoteCsvValues() throws Exception {
+        AuditLog auditLog = auditLog("log-1", START.plusHours(1));
+        auditLog.setResult("Failed, \"bad\" input");
+        auditLog.setErrorMessage("line one\nline two");
+        auditLog.setUserAgent(null);
+        stubRows(List.of(auditLog));
+
+        String csv = export(AuditExportFormat.CSV, false);
+
+        String[] lines = csv.split("\r\n", 2);
+        assertThat(lines[0]).isEqualTo("id,timestamp,userId,username,httpMethod,endpoint,requestId,result,"
+                + "statusCode,errorMessage,ipAddress,userAgent,sessionId,durationMs");
+        assertThat(lines[1]).isEqualTo("log-1,2025-01-01T01:00,user-1,alice,GET,/blog/v1/images/{id},req-1,"
+                + "\"Failed, \"\"bad\"\" input\",400,\"line one\nline two\",10.0.0.1,,,12\r\n");
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line for NDJSON")
+    void shouldWriteNdjson() throws Exception {
+        stubRows(List.of(auditLog("log-1", START.plusHours(1)), auditLog("log-2", START.plusHours(2))));
+
+        String ndjson = export(AuditExportFormat.NDJSON, false);
+
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo("log-1");
+        assertThat(first.get("endpoint").asText()).isEqualTo("/blog/v1/images/{id}");
+        assertThat(first.has("endpointId")).isFalse();
+        assertThat(objectMapper.readTree(lines[1]).get("id").asText()).isEqualTo("log-2");
+    }
+
+    @Test
+    @DisplayName("Should continue after the last (timestamp, id) so rows sharing a timestamp are neither skipped nor repeated")
+    void shouldContinueKeysetAcrossEqualTimestamps() throws Exception {
+        auditProperties.getExport().setBatchSize(2);
+        LocalDateTime same = START.plusHours(1);
+        stubRows(List.of(auditLog("log-a", same), auditLog("log-b", same), auditLog("log-c", same),
+                auditLog("log-d", same), auditLog("log-e", START.plusHours(2))));
+
+        String ndjson = export(AuditExportFormat.NDJSON, false);
+
+        List<String> ids = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            ids.add(objectMapper.readTree(line).get("id").asText());
+        }
+        assertThat(ids).containsExactly("log-a", "log-b", "log-c", "log-d", "log-e");
+        verify(auditLogRepository).findExportBatchAfter(END, same, "log-b", Pageable.ofSize(2));
+        verify(auditLogRepository).findExportBatchAfter(END, same, "log-d", Pageable.ofSize(2));
+        // Each batch is read in its own transaction
+        verify(transactionManager, times(3)).commit(any());
+        verify(auditDictionaryService, times(3)).decode(anyList());
+    }
+
+    @Test
+    @DisplayName("Should gzip the whole output when requested")
+    void shouldGzipOutput() throws Exception {
+        stubRows(List.of(auditLog("log-1", START.plusHours(1))));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long rows = auditExportService.export(START, END, AuditExportFormat.CSV, true, outputStream);
+
+        assertThat(rows).isEqualTo(1);
+        byte[] compressed = outputStream.toByteArray();
+        assertThat(compressed[0]).isEqualTo((byte) 0x1f);
+        assertThat(compressed[1]).isEqualTo((byte) 0x8b);
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String csv = new String(gzipStream.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(csv).startsWith("id,timestamp,").contains("\r\nlog-1,");
+        }
+    }
+
+    private String export(AuditExportFormat format, boolean gzip) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        auditExportService.export(START, END, format, gzip, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serve rows from both batch queries the way the keyset queries do: ordered by (timestamp, id),
+     * strictly after the cursor, at most one page
+     */
+    private void stubRows(List<AuditLog> rows) {
+        List<AuditLog> ordered = rows.stream()
+                .sorted(Comparator.comparing(AuditLog::getTimestamp).thenComparing(AuditLog::getId))
+                .toList();
+        when(auditLogRepository.findExportBatch(any(), any(), any())).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(2);
+            return page(ordered, null, null, pageable);
+        });
+        lenient().when(auditLogRepository.findExportBatchAfter(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(3);
+            return page(ordered, invocation.getArgument(1), invocation.getArgument(2), pageable);
+        });
+    }
+
+    private static List<AuditLog> page(List<AuditLog> ordered, LocalDateTime lastTimestamp, String lastId,
+                                       Pageable pageable) {
+        return ordered.stream()
+                .filter(row -> lastTimestamp == null || row.getTimestamp().isAfter(lastTimestamp)
+                        || (row.getTimestamp().isEqual(lastTimestamp) && row.getId().compareTo(lastId) > 0))
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private static AuditLog auditLog(String id, LocalDateTime timestamp) {
+        return AuditLog.builder()
+                .id(id)
+                .timestamp(timestamp)
+                .userId("user-1")
+                .username("alice")
+                .httpMethod("GET")
+                .endpoint("/blog/v1/images/{id}")
+                .requestId("req-1")
+                .result("Success")
+                .statusCode(400)
+                .ipAddress("10.0.0.1")
+                .userAgent("curl/8.0")
+                .durationMs(12L)
+                .build();
+    }
+}
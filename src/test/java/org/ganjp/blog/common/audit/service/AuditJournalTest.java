@@ -0,0 +1,125 @@
+package org.ganjp.blog.common.audit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AuditJournal
+ */
+class AuditJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    private AuditProperties auditProperties;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        auditProperties = new AuditProperties();
+        auditProperties.getJournal().setEnabled(true);
+        auditProperties.getJournal().setDirectory(journalDir.toString());
+        auditProperties.getJournal().setSegmentSizeBytes(4096);
+        objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+    }
+
+    private AuditJournal openJournal() throws Exception {
+        AuditJournal journal = new AuditJournal(auditProperties, objectMapper, new SimpleMeterRegistry());
+        journal.open();
+        return journal;
+    }
+
+    private AuditLog auditLog(int i) {
+        return AuditLog.builder()
+                .id("id-" + i)
+                .httpMethod("POST")
+                .endpoint("/v1/images")
+                .result("Image created")
+                .statusCode(200)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should replay appended events in order across segment rotation")
+    void shouldReplayAcrossSegments() throws Exception {
+        AuditJournal journal = openJournal();
+        for (int i = 0; i < 50; i++) {
+            journal.append(auditLog(i));
+        }
+        assertThat(journal.getSegmentCount()).isGreaterThan(1);
+
+        AuditJournal.ReplayBatch batch = journal.readBatch(100);
+        assertThat(batch.getLogs()).hasSize(50);
+        assertThat(batch.getLogs().get(0).getId()).isEqualTo("id-0");
+        assertThat(batch.getLogs().get(49).getId()).isEqualTo("id-49");
+
+        journal.commit(batch);
+        assertThat(journal.getSegmentCount()).isEqualTo(1);
+        assertThat(journal.getPendingBytes()).isZero();
+        assertThat(journal.readBatch(100).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not advance the checkpoint until a batch is committed")
+    void shouldRereadUncommittedBatch() throws Exception {
+        AuditJournal journal = openJournal();
+        journal.append(auditLog(1));
+        journal.append(auditLog(2));
+
+        assertThat(journal.readBatch(10).getLogs()).hasSize(2);
+        assertThat(journal.readBatch(10).getLogs()).hasSize(2);
+        assertThat(journal.getPendingBytes()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should resume from the checkpoint after restart")
+    void shouldResumeAfterRestart() throws Exception {
+        AuditJournal journal = openJournal();
+        journal.append(auditLog(1));
+        journal.commit(journal.readBatch(10));
+        journal.append(auditLog(2));
+        journal.append(auditLog(3));
+        journal.close();
+
+        AuditJournal reopened = openJournal();
+        AuditJournal.ReplayBatch batch = reopened.readBatch(10);
+        assertThat(batch.getLogs().stream().map(AuditLog::getId).collect(Collectors.toList()))
+                .containsExactly("id-2", "id-3");
+    }
+
+    @Test
+    @DisplayName("Should skip a segment whose record checksum does not match")
+    void shouldSkipCorruptRecord() throws Exception {
+        AuditJournal journal = openJournal();
+        journal.append(auditLog(1));
+        journal.close();
+
+        Path segment;
+        try (var files = Files.list(journalDir)) {
+            segment = files.filter(p -> p.getFileName().toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[20] ^= 0x7f;
+        Files.write(segment, bytes);
+
+        AuditJournal reopened = openJournal();
+        reopened.append(auditLog(2));
+        assertThat(reopened.readBatch(10).getLogs().stream().map(AuditLog::getId).collect(Collectors.toList()))
+                .containsExactly("id-2");
+    }
+}
@@ -1,8 +0,0 @@
-package org.ganjp.blog.common.audit.service;
-
-import org.springframework.stereotype.Service;
-
-@Service
-public class AuditService {
-    // Empty mock for test context
-}
@@ -0,0 +1,248 @@
+package org.ganjp.blog.common.audit.service;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.ganjp.blog.common.audit.config.AuditProperties;
+import org.ganjp.blog.common.audit.model.entity.AuditLog;
+import org.ganjp.blog.common.audit.repository.AuditLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Unit tests for AuditTailService
+ */
+class AuditTailServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private AuditTailService auditTailService;
+
+    @BeforeEach
+    void setUp() {
+        AuditProperties properties = new AuditProperties();
+        properties.getTail().setBufferSize(3);
+        auditTailService = new AuditTailService(mock(AuditLogRepository.class), mock(AuditDictionaryService.class), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditTailService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should keep only the newest events once the ring wraps, newest first")
+    void shouldWrapRingNewestFirst() {
+        for (int i = 1; i <= 5; i++) {
+            auditTailService.publish(auditLog("log-" + i, "user-" + i, 200, NOW.plusMinutes(i)));
+        }
+
+        assertThat(auditTailService.findRecent(null, 10)).extracting(AuditLog::getId)
+                .containsExactly("log-5", "log-4", "log-3");
+        assertThat(auditTailService.findRecent(null, 2)).extracting(AuditLog::getId)
+                .containsExactly("log-5", "log-4");
+        assertThat(auditTailService.findRecent(NOW.plusMinutes(4), 10)).extracting(AuditLog::getId)
+                .containsExactly("log-5", "log-4");
+    }
+
+    @Test
+    @DisplayName("Should match user, case-insensitive username, IP and status class criteria")
+    void shouldMatchFilterCriteria() {
+        AuditLog auditLog = auditLog("log-1", "user-1", 404, NOW);
+        auditLog.setUsername("Alice");
+        auditLog.setIpAddress("10.0.0.1");
+
+        assertThat(new AuditTailService.Filter(null, null, null, null).matches(auditLog)).isTrue();
+        assertThat(new AuditTailService.Filter("user-1", "alice", "10.0.0.1", "4xx").matches(auditLog)).isTrue();
+        assertThat(new AuditTailService.Filter(null, null, null, "404").matches(auditLog)).isTrue();
+        assertThat(new AuditTailService.Filter("user-2", null, null, null).matches(auditLog)).isFalse();
+        assertThat(new AuditTailService.Filter(null, null, "10.0.0.2", null).matches(auditLog)).isFalse();
+        assertThat(new AuditTailService.Filter(null, null, null, "5").matches(auditLog)).isFalse();
+        assertThatThrownBy(() -> new AuditTailService.Filter(null, null, null, "9xx"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber when its stream completes or times out")
+    void shouldRemoveSubscriberOnCompletionAndTimeout() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TailController(auditTailService)).build();
+
+        MvcResult completed = mockMvc.perform(get("/tail")).andExpect(request().asyncStarted()).andReturn();
+        MvcResult timedOut = mockMvc.perform(get("/tail")).andExpect(request().asyncStarted()).andReturn();
+        assertThat(auditTailService.getSubscriberCount()).isEqualTo(2);
+
+        ((MockAsyncContext) completed.getRequest().getAsyncContext()).complete();
+        assertThat(auditTailService.getSubscriberCount()).isEqualTo(1);
+
+        MockAsyncContext context = (MockAsyncContext) timedOut.getRequest().getAsyncContext();
+        for (AsyncListener listener : List.copyOf(context.getListeners())) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        assertThat(auditTailService.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should never admit more subscribers than the cap when they subscribe at once")
+    void shouldCapConcurrentSubscribers() throws Exception {
+        AuditProperties properties = new AuditProperties();
+        properties.getTail().setMaxSubscribers(3);
+        AuditTailService service = new AuditTailService(mock(AuditLogRepository.class), mock(AuditDictionaryService.class), properties);
+        int threads = 12;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.subscribe(new AuditTailService.Filter(null, null, null, null), 0);
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            service.shutdown();
+        }
+        assertThat(rejected.get()).isEqualTo(threads - 3);
+    }
+
+    @Test
+    @DisplayName("Should deliver an event published during replay once it is done")
+    void shouldDeliverEventPublishedDuringReplay() throws Exception {
+        auditTailService.publish(auditLog("log-1", "user-1", 200, NOW));
+        AtomicBoolean published = new AtomicBoolean();
+        AuditTailService.Filter publishingFilter = new AuditTailService.Filter(null, null, null, null) {
+            @Override
+            public boolean matches(AuditLog auditLog) {
+                if (published.compareAndSet(false, true)) {
+                    auditTailService.publish(auditLog("log-2", "user-1", 200, NOW.plusMinutes(1)));
+                }
+                return true;
+            }
+        };
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TailController(auditTailService, publishingFilter, 10)).build();
+
+        MvcResult result = mockMvc.perform(get("/tail")).andExpect(request().asyncStarted()).andReturn();
+
+        String content = awaitContent(result, "log-2");
+        assertThat(occurrences(content, "log-1")).isEqualTo(1);
+        assertThat(occurrences(content, "log-2")).isEqualTo(1);
+        assertThat(content.indexOf("\"log-1\"")).isLessThan(content.indexOf("\"log-2\""));
+    }
+
+    @Test
+    @DisplayName("Should not send a replayed event again when its live dispatch was still queued")
+    void shouldSkipReplayedEventsInLiveStream() throws Exception {
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Holds the dispatcher on log-1 so the dispatch of log-1 and log-2 is still queued when the next client replays them
+        auditTailService.subscribe(new AuditTailService.Filter(null, null, null, null) {
+            @Override
+            public boolean matches(AuditLog auditLog) {
+                if ("log-1".equals(auditLog.getId())) {
+                    dispatching.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return true;
+            }
+        }, 0);
+        auditTailService.publish(auditLog("log-1", "user-1", 200, NOW));
+        assertThat(dispatching.await(5, TimeUnit.SECONDS)).isTrue();
+        auditTailService.publish(auditLog("log-2", "user-1", 200, NOW.plusMinutes(1)));
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new TailController(auditTailService, new AuditTailService.Filter(null, null, null, null), 10)).build();
+        MvcResult result = mockMvc.perform(get("/tail")).andExpect(request().asyncStarted()).andReturn();
+        release.countDown();
+        auditTailService.publish(auditLog("log-3", "user-1", 200, NOW.plusMinutes(2)));
+
+        String content = awaitContent(result, "log-3");
+        assertThat(occurrences(content, "log-1")).isEqualTo(1);
+        assertThat(occurrences(content, "log-2")).isEqualTo(1);
+        assertThat(occurrences(content, "log-3")).isEqualTo(1);
+    }
+
+    private static String awaitContent(MvcResult result, String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains("\"" + id + "\"") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains("\"" + id + "\"");
+        return content;
+    }
+
+    private static int occurrences(String content, String id) {
+        return content.split("\"id\":\"" + id + "\"", -1).length - 1;
+    }
+
+    private static AuditLog auditLog(String id, String userId, int statusCode, LocalDateTime timestamp) {
+        return AuditLog.builder()
+                .id(id)
+                .userId(userId)
+                .statusCode(statusCode)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    @RestController
+    static class TailController {
+        private final AuditTailService auditTailService;
+        private final AuditTailService.Filter filter;
+        private final int replay;
+
+        TailController(AuditTailService auditTailService) {
+            this(auditTailService, new AuditTailService.Filter(null, null, null, null), 0);
+        }
+
+        TailController(AuditTailService auditTailService, AuditTailService.Filter filter, int replay) {
+            this.auditTailService = auditTailService;
+            this.filter = filter;
+            this.replay = replay;
+        }
+
+        @GetMapping("/tail")
+        SseEmitter tail() {
+            return auditTailService.subscribe(filter, replay);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.ganjp.blog.common.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for Bulkhead
+ */
+class BulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Bulkhead bulkhead = new Bulkhead("test", new BulkheadProperties.Pool(1, 0), registry);
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run nested work inline on the worker instead of taking a second thread")
+    void shouldRunNestedWorkInline() {
+        String result = bulkhead.call(() -> bulkhead.call(() -> Thread.currentThread().getName()));
+
+        assertThat(result).startsWith("test-");
+    }
+
+    @Test
+    @DisplayName("Should reject with ServiceBusyException and count it when threads and queue are full")
+    void shouldRejectWhenSaturated() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> bulkhead.call(() -> "late")).isInstanceOf(ServiceBusyException.class);
+        assertThat(registry.get("bulkhead.rejected").tag("bulkhead", "test").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should rethrow the checked exception of the work unchanged")
+    void shouldPropagateCheckedException() {
+        IOException failure = new IOException("broken");
+
+        assertThatThrownBy(() -> bulkhead.call(() -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+}
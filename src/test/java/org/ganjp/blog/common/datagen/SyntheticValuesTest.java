@@ -0,0 +1,57 @@
+package org.ganjp.blog.common.datagen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SyntheticValues
+ */
+class SyntheticValuesTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("Should derive identical rows from the same seed and different rows from another seed")
+    void shouldBeDeterministicPerSeed() {
+        SyntheticValues first = new SyntheticValues(42, START, 30);
+        SyntheticValues second = new SyntheticValues(42, START, 30);
+        SyntheticValues other = new SyntheticValues(7, START, 30);
+
+        assertThat(first.id("cms_image", 5)).isEqualTo(second.id("cms_image", 5)).isNotEqualTo(other.id("cms_image", 5));
+        assertThat(first.id("cms_image", 5)).isNotEqualTo(first.id("cms_image", 6));
+        assertThat(row(first, 123)).isEqualTo(row(second, 123)).isNotEqualTo(row(other, 123));
+    }
+
+    @Test
+    @DisplayName("Should keep terms, weeks and sequential timestamps inside their ranges")
+    void shouldStayInRange() {
+        SyntheticValues values = new SyntheticValues(42, START, 30);
+        LocalDateTime previous = START.minusSeconds(1);
+        for (long i = 0; i < 1000; i++) {
+            SplittableRandom random = values.random("audit_logs", i);
+            assertThat(SyntheticValues.term(random)).isBetween(1, 4);
+            assertThat(SyntheticValues.week(random)).isBetween(1, 10);
+            LocalDateTime timestamp = values.sequentialTimestamp(random, i, 1000);
+            assertThat(timestamp).isAfterOrEqualTo(previous).isBefore(START.plusDays(30));
+            previous = timestamp;
+        }
+    }
+
+    @Test
+    @DisplayName("Should build file-safe slugs for English and Chinese titles")
+    void shouldSlugTitles() {
+        assertThat(SyntheticDataGenerator.slug("Ocean Museum!", 3)).isEqualTo("ocean-museum-3");
+        assertThat(SyntheticDataGenerator.slug("熊猫图书馆", 4)).isEqualTo("zh-4");
+    }
+
+    private static String row(SyntheticValues values, long index) {
+        SplittableRandom random = values.random("rubi_vocabulary", index);
+        return SyntheticValues.lang(random) + "|" + SyntheticValues.title(random, "ZH", 2) + "|"
+                + SyntheticValues.tags(random) + "|" + values.timestamp(random);
+    }
+}
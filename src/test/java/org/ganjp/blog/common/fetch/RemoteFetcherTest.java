@@ -0,0 +1,193 @@
+package org.ganjp.blog.common.fetch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.ganjp.blog.common.config.RemoteFetchProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RemoteFetcher against a local stand-in HTTP server
+ */
+class RemoteFetcherTest {
+
+    private static final byte[] BODY = "remote image bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDirectory;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RemoteFetchProperties properties = new RemoteFetchProperties();
+    private HttpServer server;
+    private Bulkheads bulkheads;
+    private RemoteFetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/image.png", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            send(exchange, 200, BODY);
+        });
+        server.createContext("/missing.png", exchange -> send(exchange, 404, new byte[0]));
+        server.createContext("/chunked.bin", exchange -> {
+            // No Content-Length: the limit must be enforced while streaming
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 64; i++) {
+                    out.write(new byte[1024]);
+                }
+            }
+        });
+        server.createContext("/stalled.png", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+                out.flush();
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // Client gave up
+            }
+        });
+        server.start();
+
+        properties.setTempDirectory(tempDirectory.toString());
+        properties.setReadTimeoutMs(500);
+        properties.setConnectTimeoutMs(500);
+        bulkheads = new Bulkheads(new BulkheadProperties(), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        fetcher = new RemoteFetcher(bulkheads, properties, new MediaMetrics(registry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        fetcher.destroy();
+        bulkheads.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should download once to a temp file that is deleted on close")
+    void shouldDownloadToTempFile() throws IOException {
+        Path file;
+        try (RemoteDownload download = fetcher.download("test", url("/image.png"))) {
+            file = download.getFile();
+            assertThat(file).startsWith(tempDirectory);
+            assertThat(download.readAllBytes()).isEqualTo(BODY);
+            assertThat(download.getSize()).isEqualTo(BODY.length);
+            assertThat(download.getContentType()).isEqualTo("image/png");
+        }
+        assertThat(file).doesNotExist();
+        assertThat(registry.get("remote.download").tag("pipeline", "test").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reuse the pooled connection for consecutive downloads from one host")
+    void shouldReuseConnections() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            assertThat(fetcher.fetch("test", url("/image.png"))).isEqualTo(BODY);
+        }
+
+        assertThat(clientPorts).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should cancel bodies larger than the limit, with or without Content-Length")
+    void shouldEnforceMaxBytes() throws IOException {
+        assertThatThrownBy(() -> fetcher.download("test", url("/image.png"), BODY.length - 1))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> fetcher.download("test", url("/chunked.bin"), 10_000))
+                .isInstanceOf(BusinessException.class);
+        try (var files = Files.list(tempDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail on error status, stalled bodies and non-http URLs")
+    void shouldFailOnBadResponses() {
+        assertThatThrownBy(() -> fetcher.download("test", url("/missing.png")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("404");
+        assertThatThrownBy(() -> fetcher.download("test", url("/stalled.png")))
+                .isInstanceOf(HttpTimeoutException.class);
+        assertThatThrownBy(() -> fetcher.download("test", "file:///etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should answer busy when the host has no free download slot")
+    void shouldLimitDownloadsPerHost() throws Exception {
+        properties.setMaxConnectionsPerHost(1);
+        properties.setReadTimeoutMs(5000);
+        properties.setConnectTimeoutMs(200);
+        RemoteFetcher limited = new RemoteFetcher(bulkheads, properties, new MediaMetrics(registry));
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = caller.submit(() -> {
+                limited.download("test", url("/stalled.png")).close();
+                return null;
+            });
+            Thread.sleep(300);
+
+            assertThatThrownBy(() -> limited.download("test", url("/image.png")))
+                    .isInstanceOf(ServiceBusyException.class);
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            try (RemoteDownload download = limited.download("test", url("/image.png"))) {
+                assertThat(download.readAllBytes()).isEqualTo(BODY);
+            }
+        } finally {
+            caller.shutdownNow();
+            limited.destroy();
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.ganjp.blog.common.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AssetMetricsFilter
+ */
+class AssetMetricsFilterTest {
+
+    private static final String IMAGE_ROUTE = "/v1/public/images/{filename}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AssetMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AssetMetricsFilter(new MediaMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Should record the bytes of a full and a range response under the asset of the matched route")
+    void shouldRecordSynchronousResponses() throws Exception {
+        filter.doFilter(request("GET"), new MockHttpServletResponse(), serve(IMAGE_ROUTE, 200, 100, false));
+        filter.doFilter(request("GET"), new MockHttpServletResponse(), serve(IMAGE_ROUTE, 206, 40, false));
+
+        assertThat(served("full").totalAmount()).isEqualTo(100);
+        assertThat(served("partial").totalAmount()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Should skip non-GET requests and routes that are not public asset files")
+    void shouldSkipOtherRequests() throws Exception {
+        filter.doFilter(request("POST"), new MockHttpServletResponse(), serve(IMAGE_ROUTE, 200, 100, false));
+        filter.doFilter(request("GET"), new MockHttpServletResponse(), serve("/v1/public/cms/images", 200, 100, false));
+
+        assertThat(meterRegistry.find("asset.bytes.served").summaries()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should record a streamed body once the async request completes")
+    void shouldRecordStreamOnCompletion() throws Exception {
+        MockHttpServletRequest request = request("GET");
+        filter.doFilter(request, new MockHttpServletResponse(), serve(IMAGE_ROUTE, 200, 100, true));
+        assertThat(meterRegistry.find("asset.bytes.served").summaries()).isEmpty();
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(served("full").count()).isEqualTo(1);
+        assertThat(served("full").totalAmount()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should record a timed out or failed stream once, with the bytes written before it ended")
+    void shouldRecordTimedOutAndFailedStreamsOnce() throws Exception {
+        MockHttpServletRequest timedOut = request("GET");
+        filter.doFilter(timedOut, new MockHttpServletResponse(), serve(IMAGE_ROUTE, 206, 30, true));
+        MockAsyncContext timedOutContext = (MockAsyncContext) timedOut.getAsyncContext();
+        for (AsyncListener listener : List.copyOf(timedOutContext.getListeners())) {
+            listener.onTimeout(new AsyncEvent(timedOutContext));
+        }
+        assertThat(served("partial").count()).isEqualTo(1);
+        timedOutContext.complete();
+        assertThat(served("partial").count()).isEqualTo(1);
+
+        MockHttpServletRequest failed = request("GET");
+        filter.doFilter(failed, new MockHttpServletResponse(), serve(IMAGE_ROUTE, 206, 20, true));
+        MockAsyncContext failedContext = (MockAsyncContext) failed.getAsyncContext();
+        for (AsyncListener listener : List.copyOf(failedContext.getListeners())) {
+            listener.onError(new AsyncEvent(failedContext, new IOException("Broken pipe")));
+        }
+        assertThat(served("partial").count()).isEqualTo(2);
+        failedContext.complete();
+
+        assertThat(served("partial").count()).isEqualTo(2);
+        assertThat(served("partial").totalAmount()).isEqualTo(50);
+    }
+
+    private DistributionSummary served(String range) {
+        return meterRegistry.get("asset.bytes.served").tag("asset", "images").tag("range", range).summary();
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/blog/v1/public/images/a.png");
+        request.setContextPath("/blog");
+        request.setServletPath("/v1/public/images/a.png");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    /**
+     * Chain that matches the given route and writes a body, either inline or on an async request left open
+     */
+    private static FilterChain serve(String route, int status, int bytes, boolean async) {
+        return (servletRequest, servletResponse) -> {
+            MockHttpServletRequest request = (MockHttpServletRequest) servletRequest;
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+            HttpServletResponse response = (HttpServletResponse) servletResponse;
+            response.setStatus(status);
+            if (async) {
+                request.startAsync();
+            }
+            response.getOutputStream().write(new byte[bytes]);
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package org.ganjp.blog.common.image;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ImageProbe
+ */
+class ImageProbeTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"png", "jpg", "gif", "bmp"})
+    @DisplayName("Should read width and height from the header of raster formats")
+    void shouldProbeRasterFormats(String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(321, 123, BufferedImage.TYPE_INT_RGB), format, out);
+
+        assertThat(ImageProbe.probe(new ByteArrayInputStream(out.toByteArray())))
+                .contains(new ImageProbe.ImageSize(321, 123));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 5, 6, 7, 8})
+    @DisplayName("Should report JPEG sides as displayed, swapped for EXIF orientations 5 to 8")
+    void shouldApplyJpegExifOrientation(int orientation) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(321, 123, BufferedImage.TYPE_INT_RGB), "jpg", out);
+
+        ImageProbe.ImageSize expected = orientation >= 5 ? new ImageProbe.ImageSize(123, 321) : new ImageProbe.ImageSize(321, 123);
+        assertThat(ImageProbe.probe(new ByteArrayInputStream(withOrientation(out.toByteArray(), orientation))))
+                .contains(expected);
+    }
+
+    @Test
+    @DisplayName("Should read the canvas size of an extended WebP")
+    void shouldProbeWebp() throws IOException {
+        byte[] webp = {
+                'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P',
+                'V', 'P', '8', 'X', 10, 0, 0, 0, 0, 0, 0, 0,
+                // canvas width - 1 = 639, height - 1 = 479, 24-bit little endian
+                0x7F, 0x02, 0x00, (byte) 0xDF, 0x01, 0x00
+        };
+
+        assertThat(ImageProbe.probe(new ByteArrayInputStream(webp))).contains(new ImageProbe.ImageSize(640, 480));
+    }
+
+    @Test
+    @DisplayName("Should read SVG width and height, else the viewBox")
+    void shouldProbeSvg() throws IOException {
+        String sized = "<?xml version=\"1.0\"?>\n<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"120px\" height=\"80\"></svg>";
+        String viewBox = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100%\" viewBox=\"0 0 256 128\"></svg>";
+
+        assertThat(ImageProbe.probe(new ByteArrayInputStream(sized.getBytes(StandardCharsets.UTF_8))))
+                .contains(new ImageProbe.ImageSize(120, 80));
+        assertThat(ImageProbe.probe(new ByteArrayInputStream(viewBox.getBytes(StandardCharsets.UTF_8))))
+                .contains(new ImageProbe.ImageSize(256, 128));
+    }
+
+    @Test
+    @DisplayName("Should return empty for content that is not an image")
+    void shouldReturnEmptyForUnknownContent() throws IOException {
+        assertThat(ImageProbe.probe(new ByteArrayInputStream("plain text".getBytes(StandardCharsets.UTF_8)))).isEmpty();
+    }
+
+    /**
+     * The JPEG with an EXIF segment holding only the orientation, inserted after the JFIF segment
+     */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'I', 'I', 42, 0, 8, 0, 0, 0,
+                1, 0,
+                0x12, 0x01, 3, 0, 1, 0, 0, 0, (byte) orientation, 0, 0, 0,
+                0, 0, 0, 0};
+        int offset = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, offset);
+        out.write(exif, 0, exif.length);
+        out.write(jpeg, offset, jpeg.length - offset);
+        return out.toByteArray();
+    }
+}
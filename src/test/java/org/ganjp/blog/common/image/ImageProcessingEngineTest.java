@@ -0,0 +1,231 @@
+package org.ganjp.blog.common.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.config.ImageProcessingProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ImageProcessingEngine
+ */
+class ImageProcessingEngineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ImageProcessingProperties properties = new ImageProcessingProperties();
+    private final ImageEncodingProperties encoding = new ImageEncodingProperties();
+    private final ImageProcessingEngine engine = new ImageProcessingEngine(properties, encoding, new MediaMetrics(registry));
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+    }
+
+    @Test
+    @DisplayName("Should subsample photos while decoding but keep the longer side at least twice the max size")
+    void shouldDecodePhotoSubsampled() throws IOException {
+        BufferedImage decoded = engine.decode("test", encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg"), 300);
+
+        assertThat(decoded.getWidth()).isEqualTo(667);
+        assertThat(decoded.getHeight()).isEqualTo(334);
+        assertThat(registry.get("image.decode.bytes").tag("pipeline", "test").summary().max()).isEqualTo(667 * 334 * 3);
+        assertThat(registry.get("image.decode.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should decode lossless formats at full size")
+    void shouldDecodePngAtFullSize() throws IOException {
+        BufferedImage decoded = engine.decode("test", encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png"), 300);
+
+        assertThat(decoded.getWidth()).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("Should reject images whose header declares more pixels than allowed")
+    void shouldRejectTooManyPixels() throws IOException {
+        properties.setMaxPixels(10_000);
+        ByteArrayInputStream input = encode(new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB), "png");
+
+        assertThatThrownBy(() -> engine.decode("test", input)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("Should fit the longer side to the max size and keep the aspect ratio")
+    void shouldResizeToFit() {
+        BufferedImage resized = engine.resizeToFit(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), 1200);
+
+        assertThat(resized.getWidth()).isEqualTo(1200);
+        assertThat(resized.getHeight()).isEqualTo(900);
+    }
+
+    @Test
+    @DisplayName("Should keep colours when downscaling BGR and transparent sources")
+    void shouldKeepColoursWhenDownscaling() {
+        BufferedImage bgr = new BufferedImage(800, 800, BufferedImage.TYPE_3BYTE_BGR);
+        fill(bgr, 0xFFCC3300);
+        BufferedImage argb = new BufferedImage(800, 800, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 800; y++) {
+            for (int x = 0; x < 800; x++) {
+                // Fully transparent black between opaque red pixels must not darken the red
+                argb.setRGB(x, y, (x + y) % 2 == 0 ? 0xFFFF0000 : 0x00000000);
+            }
+        }
+
+        assertThat(engine.resizeToFit(bgr, 100).getRGB(50, 50)).isEqualTo(0xFFCC3300);
+        assertThat(engine.resizeToFit(argb, 100).getRGB(50, 50) & 0x00FFFFFF).isEqualTo(0xFF0000);
+    }
+
+    @Test
+    @DisplayName("Should return images already within the max size unchanged")
+    void shouldKeepSmallImage() {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+
+        assertThat(engine.resizeToFit(image, 1200)).isSameAs(image);
+    }
+
+    @Test
+    @DisplayName("Should return derivatives in the order of the requested sizes")
+    void shouldCreateDerivativesInRequestedOrder() {
+        List<BufferedImage> derivatives = engine.derivatives(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), 300, 1200);
+
+        assertThat(derivatives.get(0).getWidth()).isEqualTo(300);
+        assertThat(derivatives.get(1).getWidth()).isEqualTo(1200);
+        assertThat(derivatives.get(1).getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should write all derivatives, flattening alpha for JPEG")
+    void shouldWriteAllDerivatives(@TempDir Path directory) throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        Path png = directory.resolve("a.png");
+        Path jpg = directory.resolve("a.jpg");
+
+        engine.writeAll(List.of(
+                new ImageProcessingEngine.Derivative(image, "png", png),
+                new ImageProcessingEngine.Derivative(image, "jpg", jpg)));
+
+        assertThat(ImageIO.read(png.toFile()).getWidth()).isEqualTo(64);
+        assertThat(ImageIO.read(jpg.toFile()).getWidth()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("Should turn photos upright by their EXIF orientation")
+    void shouldApplyExifOrientation() throws IOException {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                image.setRGB(x, y, 0xFF0000);
+            }
+        }
+
+        // Orientation 6: the camera was turned clockwise, so the top-left corner belongs top-right
+        BufferedImage decoded = engine.decode("test", withOrientation(encode(image, "jpg").readAllBytes(), 6));
+
+        assertThat(decoded.getWidth()).isEqualTo(100);
+        assertThat(decoded.getHeight()).isEqualTo(200);
+        assertThat(decoded.getRGB(90, 10) >> 16 & 0xFF).isGreaterThan(200);
+        assertThat(decoded.getRGB(10, 10) >> 16 & 0xFF).isLessThan(50);
+    }
+
+    @Test
+    @DisplayName("Should reduce PNGs with few colours to a palette without changing a pixel")
+    void shouldReducePalette(@TempDir Path directory) throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                image.setRGB(x, y, x < 20 ? 0x00000000 : x < 40 ? 0xFF3366CC : 0x80FF0000);
+            }
+        }
+
+        BufferedImage reduced = engine.palette(image, "png");
+        Path png = directory.resolve("logo.png");
+        engine.write(reduced, "png", png);
+
+        assertThat(reduced.getColorModel()).isInstanceOf(IndexColorModel.class);
+        assertThat(engine.palette(image, "jpg")).isSameAs(image);
+        BufferedImage read = ImageIO.read(png.toFile());
+        for (int x = 0; x < 64; x++) {
+            assertThat(read.getRGB(x, 10)).isEqualTo(image.getRGB(x, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write progressive JPEGs and PNGs no larger than the ImageIO defaults")
+    void shouldEncodeWithSettings(@TempDir Path directory) throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 256; y++) {
+            for (int x = 0; x < 256; x++) {
+                image.setRGB(x, y, x << 16 | y << 8 | (x * y) % 256);
+            }
+        }
+        Path jpg = directory.resolve("a.jpg");
+        Path png = directory.resolve("a.png");
+
+        engine.write(image, "jpg", jpg);
+        engine.write(image, "png", png);
+
+        // SOF2 marks a progressive JPEG
+        assertThat(indexOf(Files.readAllBytes(jpg), (byte) 0xFF, (byte) 0xC2)).isPositive();
+        assertThat(Files.size(png)).isLessThanOrEqualTo(encode(image, "png").available());
+        assertThat(registry.get("image.encode.bytes").tag("format", "png").summary().count()).isEqualTo(1);
+    }
+
+    private static void fill(BufferedImage image, int argb) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+    }
+
+    /**
+     * The JPEG with an EXIF segment holding only the orientation, inserted after the JFIF segment
+     */
+    private static ByteArrayInputStream withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0};
+        int offset = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, offset);
+        out.write(exif, 0, exif.length);
+        out.write(jpeg, offset, jpeg.length - offset);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static int indexOf(byte[] data, byte first, byte second) {
+        for (int i = 0; i + 1 < data.length; i++) {
+            if (data[i] == first && data[i + 1] == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteArrayInputStream encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+}
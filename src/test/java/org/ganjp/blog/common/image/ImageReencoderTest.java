@@ -0,0 +1,175 @@
+package org.ganjp.blog.common.image;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.concurrent.Bulkhead;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.config.ImageProcessingProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.ganjp.blog.common.storage.service.StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ImageReencoder
+ */
+class ImageReencoderTest {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MediaMetrics mediaMetrics = new MediaMetrics(registry);
+    private final ImageEncodingProperties properties = new ImageEncodingProperties();
+    private final ImageProcessingEngine engine = new ImageProcessingEngine(new ImageProcessingProperties(), properties, mediaMetrics);
+    private final Bulkheads bulkheads = new Bulkheads(new BulkheadProperties(), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    private final StorageService storageService = mock(StorageService.class);
+    private final ImageReencoder reencoder = new ImageReencoder(properties, engine, storageService, bulkheads, mediaMetrics);
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        directory = root.resolve("images");
+        properties.setReencodeDirectories(List.of(directory.toString()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+        bulkheads.destroy();
+    }
+
+    @Test
+    @DisplayName("Should replace files that shrink enough and leave them alone on a second run")
+    void shouldReencodeOnce() throws IOException {
+        Path jpg = write(directory.resolve("photo.jpg"), "jpeg", 1f);
+        Path png = write(directory.resolve("ab").resolve("cd").resolve("logo.png"), "png", 1f);
+        long before = Files.size(jpg) + Files.size(png);
+
+        ImageReencoder.Result first = reencoder.reencode(new ImageReencoder.Request(null));
+        ImageReencoder.Result second = reencoder.reencode(new ImageReencoder.Request(List.of(directory.toString())));
+
+        assertThat(first.scanned()).isEqualTo(2);
+        assertThat(first.reencoded()).isEqualTo(2);
+        assertThat(first.next()).isNull();
+        assertThat(first.bytesSaved()).isEqualTo(before - Files.size(jpg) - Files.size(png));
+        assertThat(second.reencoded()).isZero();
+        assertThat(ImageIO.read(jpg.toFile()).getWidth()).isEqualTo(300);
+        assertThat(registry.get("image.encode.saved").counter().count()).isEqualTo(first.bytesSaved());
+        verify(storageService, times(2)).release(any());
+        verify(storageService, times(2)).store(any());
+    }
+
+    @Test
+    @DisplayName("Should work through the files in batches in path order and resume after the cursor")
+    void shouldResumeBatchesAfterCursor() throws IOException {
+        Path other = root.resolve("logos");
+        properties.setReencodeDirectories(List.of(directory.toString(), other.toString()));
+        properties.setReencodeBatchSize(2);
+        write(directory.resolve("b.jpg"), "jpeg", 1f);
+        write(directory.resolve("ab").resolve("cd").resolve("a.jpg"), "jpeg", 1f);
+        write(directory.resolve("c.png"), "png", 1f);
+        write(other.resolve("logo.png"), "png", 1f);
+
+        ImageReencoder.Result first = reencoder.reencode(new ImageReencoder.Request(null));
+        assertThat(first.reencoded()).isEqualTo(2);
+        assertThat(first.next()).isEqualTo(new ImageReencoder.Request(List.of(directory.toString(), other.toString()), "b.jpg"));
+
+        ImageReencoder.Result second = reencoder.reencode(first.next());
+        assertThat(second.scanned()).isEqualTo(1);
+        assertThat(second.next()).isEqualTo(new ImageReencoder.Request(List.of(other.toString())));
+
+        ImageReencoder.Result third = reencoder.reencode(second.next());
+        assertThat(third.scanned()).isEqualTo(1);
+        assertThat(third.next()).isNull();
+        assertThat(ImageReencoder.batch(directory, "ab/cd/a.jpg", 10))
+                .containsExactly(directory.resolve("b.jpg"), directory.resolve("c.png"));
+        verify(storageService, times(4)).store(any());
+    }
+
+    @Test
+    @DisplayName("Should retry a file while the image workers are busy and give up after the configured tries")
+    void shouldRetryBusyFiles() throws Throwable {
+        properties.setReencodeBusyRetries(3);
+        properties.setReencodeBusyBackoffMs(1);
+        Bulkhead image = mock(Bulkhead.class);
+        Bulkheads busy = mock(Bulkheads.class);
+        when(busy.image()).thenReturn(image);
+        AtomicInteger busyCalls = new AtomicInteger(2);
+        when(image.call(any())).thenAnswer(invocation -> {
+            if (busyCalls.getAndDecrement() > 0) {
+                throw new ServiceBusyException("busy");
+            }
+            return invocation.<Bulkhead.Work<?, ?>>getArgument(0).call();
+        });
+        ImageReencoder retrying = new ImageReencoder(properties, engine, storageService, busy, mediaMetrics);
+        write(directory.resolve("photo.jpg"), "jpeg", 1f);
+
+        assertThat(retrying.reencode(new ImageReencoder.Request(null)).reencoded()).isEqualTo(1);
+
+        write(directory.resolve("photo.jpg"), "jpeg", 1f);
+        busyCalls.set(3);
+        assertThatThrownBy(() -> retrying.reencode(new ImageReencoder.Request(null))).isInstanceOf(ServiceBusyException.class);
+        assertThat(busyCalls.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject directories that are not configured for re-encoding")
+    void shouldRejectOtherDirectories() {
+        ImageReencoder.Request request = new ImageReencoder.Request(List.of(root.toString()));
+
+        assertThatThrownBy(() -> reencoder.reencode(request)).isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * A noisy image encoded at the highest quality (JPEG) or without compression (PNG)
+     */
+    private static Path write(Path path, String format, float quality) throws IOException {
+        Files.createDirectories(path.getParent());
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 200; y++) {
+            for (int x = 0; x < 300; x++) {
+                image.setRGB(x, y, (x / 10) << 16 | (y / 10) << 8 | (x ^ y) & 0x0F);
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(path.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return path;
+    }
+}
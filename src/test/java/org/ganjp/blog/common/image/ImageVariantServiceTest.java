@@ -0,0 +1,157 @@
+package org.ganjp.blog.common.image;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.concurrent.Bulkheads;
+import org.ganjp.blog.common.config.BulkheadProperties;
+import org.ganjp.blog.common.config.ImageEncodingProperties;
+import org.ganjp.blog.common.config.ImageProcessingProperties;
+import org.ganjp.blog.common.config.ImageVariantProperties;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.metrics.MediaMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ImageVariantService and ImageVariantCache
+ */
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MediaMetrics mediaMetrics = new MediaMetrics(registry);
+    private final ImageProcessingEngine engine = new ImageProcessingEngine(new ImageProcessingProperties(), new ImageEncodingProperties(), mediaMetrics);
+    private final Bulkheads bulkheads = new Bulkheads(new BulkheadProperties(), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    private ImageVariantProperties properties;
+    private File original;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new ImageVariantProperties();
+        properties.setCacheDirectory(root.resolve("variants").toString());
+        original = root.resolve("photo.jpg").toFile();
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg", original);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+        bulkheads.destroy();
+    }
+
+    @Test
+    @DisplayName("Should round the size up to the ladder, render the variant once and serve it from the cache")
+    void shouldRenderVariantOnce() throws IOException {
+        ImageVariantService service = service(new ImageVariantCache(properties));
+
+        File first = service.variant("test", original, 600, null, null, null);
+        File second = service.variant("test", original, 620, null, null, null);
+
+        assertThat(first).isNotEqualTo(original).isEqualTo(second);
+        BufferedImage variant = ImageIO.read(first);
+        assertThat(variant.getWidth()).isEqualTo(640);
+        assertThat(variant.getHeight()).isEqualTo(320);
+        assertThat(registry.get("image.variant.lookup").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(registry.get("image.variant.lookup").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should crop to the box for cover, never scale up and reject invalid parameters")
+    void shouldCoverAndKeepOriginal() throws IOException {
+        ImageVariantService service = service(new ImageVariantCache(properties));
+
+        BufferedImage cover = ImageIO.read(service.variant("test", original, 300, 300, "cover", 70));
+        assertThat(cover.getWidth()).isEqualTo(320);
+        assertThat(cover.getHeight()).isEqualTo(320);
+        assertThat(service.variant("test", original, 5000, null, null, null)).isEqualTo(original);
+        assertThat(service.variant("test", original, null, null, null, null)).isEqualTo(original);
+        assertThatThrownBy(() -> service.variant("test", original, 300, null, "stretch", null)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.variant("test", original, null, null, null, 0)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently served variants beyond the cache size")
+    void shouldEvictLeastRecentlyServed() throws IOException {
+        properties.setMaxCacheBytes(25);
+        properties.setEvictionGraceSeconds(0);
+        ImageVariantCache cache = new ImageVariantCache(properties);
+        Path a = cache.put("aa.jpg", write(cache.temp("aa.jpg"), 10));
+        Path b = cache.put("bb.jpg", write(cache.temp("bb.jpg"), 10));
+        assertThat(cache.get("aa.jpg")).isEqualTo(a);
+
+        cache.put("cc.jpg", write(cache.temp("cc.jpg"), 10));
+
+        assertThat(cache.get("bb.jpg")).isNull();
+        assertThat(b).doesNotExist();
+        assertThat(cache.get("aa.jpg")).isEqualTo(a);
+        assertThat(cache.size()).isEqualTo(20);
+        assertThat(new ImageVariantCache(properties).size()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should keep an evicted file through the grace period unless the variant is rendered again")
+    void shouldDeleteEvictedFilesAfterGracePeriod() throws Exception {
+        properties.setMaxCacheBytes(15);
+        properties.setEvictionGraceSeconds(1);
+        ImageVariantCache cache = new ImageVariantCache(properties);
+        Path a = cache.put("aa.jpg", write(cache.temp("aa.jpg"), 10));
+        Path b = cache.put("bb.jpg", write(cache.temp("bb.jpg"), 10));
+
+        assertThat(cache.get("aa.jpg")).isNull();
+        cache.purgeEvicted();
+        assertThat(a).exists();
+
+        cache.put("aa.jpg", write(cache.temp("aa.jpg"), 10));
+        Thread.sleep(1100);
+        cache.purgeEvicted();
+
+        assertThat(b).doesNotExist();
+        assertThat(cache.get("aa.jpg")).isEqualTo(a);
+        assertThat(a).exists();
+    }
+
+    @Test
+    @DisplayName("Should update a served variant's modification time at most once per touch interval")
+    void shouldThrottleTouches() throws IOException {
+        ImageVariantCache cache = new ImageVariantCache(properties);
+        Path a = cache.put("aa.jpg", write(cache.temp("aa.jpg"), 10));
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        Files.setLastModifiedTime(a, old);
+
+        assertThat(cache.get("aa.jpg")).isEqualTo(a);
+        assertThat(Files.getLastModifiedTime(a)).isEqualTo(old);
+
+        properties.setTouchIntervalMinutes(0);
+        ImageVariantCache touching = new ImageVariantCache(properties);
+        assertThat(touching.get("aa.jpg")).isEqualTo(a);
+        assertThat(Files.getLastModifiedTime(a)).isGreaterThan(old);
+
+        Files.delete(a);
+        assertThat(cache.get("aa.jpg")).isNull();
+    }
+
+    private ImageVariantService service(ImageVariantCache cache) {
+        return new ImageVariantService(properties, cache, engine, bulkheads, mediaMetrics);
+    }
+
+    private static Path write(Path path, int size) throws IOException {
+        return Files.write(path, new byte[size]);
+    }
+}
@@ -0,0 +1,256 @@
+package org.ganjp.blog.common.job.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.ganjp.blog.common.config.JacksonConfig;
+import org.ganjp.blog.common.exception.ServiceBusyException;
+import org.ganjp.blog.common.job.config.MediaJobProperties;
+import org.ganjp.blog.common.job.model.entity.MediaJob;
+import org.ganjp.blog.common.job.model.enums.MediaJobStatus;
+import org.ganjp.blog.common.job.repository.MediaJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for MediaJobService
+ */
+class MediaJobServiceTest {
+
+    @TempDir
+    Path spool;
+
+    private final Map<String, MediaJob> jobs = new ConcurrentHashMap<>();
+    private final MediaJobRepository repository = mock(MediaJobRepository.class);
+    private final AtomicReference<MediaJobHandler.Processor<UploadRequest>> processor = new AtomicReference<>();
+    private MediaJobService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(repository.save(any(MediaJob.class))).thenAnswer(invocation -> {
+            MediaJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        // Workers only run jobs the test hands them: claims from the pool threads always lose
+        Thread testThread = Thread.currentThread();
+        when(repository.claim(anyString(), any())).thenAnswer(invocation -> {
+            if (Thread.currentThread() != testThread) {
+                return 0;
+            }
+            jobs.get(invocation.<String>getArgument(0)).setStatus(MediaJobStatus.RUNNING);
+            return 1;
+        });
+        when(repository.finish(anyString(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            MediaJob job = jobs.get(invocation.<String>getArgument(0));
+            if (job.getStatus() != MediaJobStatus.RUNNING) {
+                return 0;
+            }
+            job.setStatus(invocation.getArgument(1));
+            job.setResourceId(invocation.getArgument(2));
+            job.setErrorMessage(invocation.getArgument(3));
+            job.setFinishedAt(invocation.getArgument(4));
+            return 1;
+        });
+        when(repository.release(anyString(), any())).thenAnswer(invocation -> {
+            MediaJob job = jobs.get(invocation.<String>getArgument(0));
+            if (job.getStatus() != MediaJobStatus.RUNNING) {
+                return 0;
+            }
+            job.setStatus(MediaJobStatus.QUEUED);
+            job.setAttempts(Math.max(0, job.getAttempts() - 1));
+            return 1;
+        });
+
+        MediaJobProperties properties = new MediaJobProperties();
+        properties.setSpoolDirectory(spool.toString());
+        service = new MediaJobService(repository, properties, new JacksonConfig().objectMapper(),
+                List.of(MediaJobHandler.of("upload", UploadRequest.class, (request, userId) -> processor.get().process(request, userId))),
+                mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("Should stage the upload, then run the handler with the staged file and record the created resource")
+    void shouldProcessSubmittedJob() throws Exception {
+        UploadRequest request = new UploadRequest();
+        request.setName("cover");
+        request.setFile(new MockMultipartFile("file", "cover.png", "image/png", "pixels".getBytes(StandardCharsets.UTF_8)));
+        AtomicReference<String> received = new AtomicReference<>();
+        processor.set((staged, userId) -> {
+            received.set(staged.getName() + ":" + staged.getFile().getOriginalFilename() + ":"
+                    + new String(staged.getFile().getBytes(), StandardCharsets.UTF_8) + ":" + userId);
+            return new UploadResponse("resource-1");
+        });
+
+        MediaJob job = service.submit("upload", request, "user-1");
+
+        assertThat(job.getStatus()).isEqualTo(MediaJobStatus.QUEUED);
+        assertThat(job.getPayload()).contains("\"name\":\"cover\"").doesNotContain("pixels");
+        assertThat(Files.readString(spool.resolve(job.getId()).resolve("file"))).isEqualTo("pixels");
+
+        service.run(job.getId());
+
+        assertThat(received.get()).isEqualTo("cover:cover.png:pixels:user-1");
+        assertThat(jobs.get(job.getId()).getStatus()).isEqualTo(MediaJobStatus.SUCCEEDED);
+        assertThat(jobs.get(job.getId()).getResourceId()).isEqualTo("resource-1");
+        assertThat(jobs.get(job.getId()).getFinishedAt()).isNotNull();
+        assertThat(spool.resolve(job.getId())).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should keep the job queued when the image workers are saturated and fail it on other errors")
+    void shouldRequeueWhenBusyAndFailOnError() throws Exception {
+        MediaJob job = service.submit("upload", new UploadRequest(), "user-1");
+        job.setAttempts(1);
+
+        processor.set((request, userId) -> {
+            throw new ServiceBusyException("busy");
+        });
+        service.run(job.getId());
+        assertThat(jobs.get(job.getId()).getStatus()).isEqualTo(MediaJobStatus.QUEUED);
+        assertThat(jobs.get(job.getId()).getAttempts()).isZero();
+
+        processor.set((request, userId) -> {
+            throw new IllegalArgumentException("Unsupported image format");
+        });
+        service.run(job.getId());
+        assertThat(jobs.get(job.getId()).getStatus()).isEqualTo(MediaJobStatus.FAILED);
+        assertThat(jobs.get(job.getId()).getErrorMessage()).isEqualTo("Unsupported image format");
+    }
+
+    @Test
+    @DisplayName("Should leave a job a sweep failed while it ran failed, with its spooled files")
+    void shouldNotReviveJobFailedBySweep() throws Exception {
+        UploadRequest request = new UploadRequest();
+        request.setFile(new MockMultipartFile("file", "slow.png", "image/png", "pixels".getBytes(StandardCharsets.UTF_8)));
+        MediaJob job = service.submit("upload", request, "user-1");
+        processor.set((staged, userId) -> {
+            MediaJob lost = jobs.get(job.getId());
+            lost.setStatus(MediaJobStatus.FAILED);
+            lost.setErrorMessage("Lost without a heartbeat after 3 attempts");
+            return new UploadResponse("resource-1");
+        });
+
+        service.run(job.getId());
+
+        assertThat(jobs.get(job.getId()).getStatus()).isEqualTo(MediaJobStatus.FAILED);
+        assertThat(jobs.get(job.getId()).getErrorMessage()).isEqualTo("Lost without a heartbeat after 3 attempts");
+        assertThat(jobs.get(job.getId()).getResourceId()).isNull();
+        assertThat(spool.resolve(job.getId())).exists();
+    }
+
+    @Test
+    @DisplayName("Should heartbeat running jobs and fail lost jobs that used up their attempts")
+    void shouldHeartbeatRunningJobsAndFailExhaustedOnes() throws Exception {
+        // Stubbed before submitting: stubbing while a pool thread calls the mock is not safe
+        AtomicReference<List<String>> beating = new AtomicReference<>();
+        AtomicReference<List<String>> exhausted = new AtomicReference<>(List.of());
+        when(repository.heartbeat(anyCollection(), any())).thenAnswer(invocation -> {
+            beating.set(List.copyOf(invocation.<Collection<String>>getArgument(0)));
+            return 1;
+        });
+        when(repository.findExhaustedStaleIds(any(), eq(3))).thenAnswer(invocation -> exhausted.get());
+        when(repository.failStale(anyString(), any(), any(), anyString())).thenReturn(1);
+        processor.set((request, userId) -> {
+            service.heartbeat();
+            return new UploadResponse("resource-1");
+        });
+
+        MediaJob job = service.submit("upload", new UploadRequest(), "user-1");
+        service.run(job.getId());
+        service.heartbeat();
+
+        assertThat(beating.get()).containsExactly(job.getId());
+        verify(repository, times(1)).heartbeat(anyCollection(), any());
+
+        UploadRequest upload = new UploadRequest();
+        upload.setFile(new MockMultipartFile("file", "lost.png", "image/png", "pixels".getBytes(StandardCharsets.UTF_8)));
+        MediaJob lost = service.submit("upload", upload, "user-1");
+        assertThat(spool.resolve(lost.getId())).exists();
+        exhausted.set(List.of(lost.getId()));
+
+        service.sweep();
+
+        verify(repository).requeueStale(any(), eq(3));
+        verify(repository).failStale(eq(lost.getId()), any(), any(), anyString());
+        assertThat(spool.resolve(lost.getId())).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should queue a job's follow-up once when the job runs again, and only from a running job")
+    void shouldQueueFollowUpOnce() throws Exception {
+        processor.set((request, userId) -> {
+            if ("first".equals(request.getName())) {
+                UploadRequest next = new UploadRequest();
+                next.setName("second");
+                service.submitNext("upload", next, userId);
+            }
+            return new UploadResponse("resource-1");
+        });
+        UploadRequest request = new UploadRequest();
+        request.setName("first");
+        MediaJob job = service.submit("upload", request, "user-1");
+
+        // A requeued job runs its handler again
+        service.run(job.getId());
+        service.run(job.getId());
+
+        assertThat(jobs.values()).filteredOn(queued -> queued.getPayload().contains("\"second\""))
+                .singleElement()
+                .satisfies(next -> assertThat(next.getCreatedBy()).isEqualTo("user-1"));
+        assertThatThrownBy(() -> service.submitNext("upload", new UploadRequest(), "user-1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown job types")
+    void shouldRejectUnknownType() {
+        assertThatThrownBy(() -> service.submit("unknown", new UploadRequest(), "user-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Data
+    public static class UploadRequest {
+        private String name;
+        private MultipartFile file;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class UploadResponse {
+        private String id;
+    }
+}
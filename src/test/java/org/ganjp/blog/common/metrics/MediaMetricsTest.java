@@ -0,0 +1,103 @@
+package org.ganjp.blog.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ganjp.blog.common.trace.RequestTrace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MediaMetrics
+ */
+class MediaMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MediaMetrics mediaMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mediaMetrics = new MediaMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace.end();
+    }
+
+    @Test
+    @DisplayName("Should record stages and downloads per tag combination and attribute them to the request trace")
+    void shouldRecordStagesAndDownloads() {
+        RequestTrace trace = RequestTrace.begin("req-1", "POST", "/blog/v1/images");
+        long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+        mediaMetrics.recordStage("image", "decode", start);
+        mediaMetrics.recordStage("image", "decode", start);
+        mediaMetrics.recordStage("image", "encode", start);
+        mediaMetrics.recordDownload("image", start, false);
+
+        Timer decode = meterRegistry.get("image.processing").tag("pipeline", "image").tag("stage", "decode").timer();
+        assertThat(decode.count()).isEqualTo(2);
+        assertThat(decode.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(10);
+        assertThat(meterRegistry.get("image.processing").tag("stage", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("remote.download").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(trace.getPhases()).containsKeys("image.decode", "image.encode", "download");
+    }
+
+    @Test
+    @DisplayName("Should record served bytes by asset and range and count lookups by result")
+    void shouldRecordAssetsAndLookups() {
+        mediaMetrics.recordAssetServed("images", false, 1000);
+        mediaMetrics.recordAssetServed("images", true, 200);
+        mediaMetrics.recordAssetServed("images", true, 300);
+        mediaMetrics.recordDerivativeLookup("image", true);
+        mediaMetrics.recordVariantLookup("image", false);
+        mediaMetrics.recordVariantLookup("image", false);
+
+        DistributionSummary partial = meterRegistry.get("asset.bytes.served")
+                .tag("asset", "images").tag("range", "partial").summary();
+        assertThat(partial.count()).isEqualTo(2);
+        assertThat(partial.totalAmount()).isEqualTo(500);
+        assertThat(meterRegistry.get("asset.bytes.served").tag("range", "full").summary().totalAmount())
+                .isEqualTo(1000);
+        assertThat(meterRegistry.get("image.derivative.lookup").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("image.variant.lookup").tag("result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.find("image.variant.lookup").tag("result", "hit").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should record encoded sizes and saved bytes")
+    void shouldRecordEncoding() {
+        mediaMetrics.recordEncoded("jpeg", 4096);
+        mediaMetrics.recordBytesSaved("image", 1024);
+        mediaMetrics.recordBytesSaved("image", 512);
+
+        assertThat(meterRegistry.get("image.encode.bytes").tag("format", "jpeg").summary().totalAmount())
+                .isEqualTo(4096);
+        Counter saved = meterRegistry.get("image.encode.saved").tag("pipeline", "image").counter();
+        assertThat(saved.count()).isEqualTo(1536);
+    }
+
+    @Test
+    @DisplayName("Should track in-flight decode memory and record decoded sizes only for successful decodes")
+    void shouldTrackDecodeMemory() {
+        mediaMetrics.decodeStarted(4_000_000);
+        mediaMetrics.decodeStarted(1_000_000);
+        assertThat(meterRegistry.get("image.decode.inflight").gauge().value()).isEqualTo(5_000_000);
+
+        mediaMetrics.decodeFinished("image", 4_000_000, 3_000_000);
+        mediaMetrics.decodeFinished("image", 1_000_000, 0);
+
+        assertThat(meterRegistry.get("image.decode.inflight").gauge().value()).isZero();
+        DistributionSummary decoded = meterRegistry.get("image.decode.bytes").tag("pipeline", "image").summary();
+        assertThat(decoded.count()).isEqualTo(1);
+        assertThat(decoded.max()).isEqualTo(3_000_000);
+    }
+}
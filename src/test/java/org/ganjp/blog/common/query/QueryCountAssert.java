@@ -0,0 +1,47 @@
+package org.ganjp.blog.common.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test-support helper capping the SQL statements an action may run, e.g.
+ * {@code QueryCountAssert.assertMaxStatements(3, () -> mockMvc.perform(get("/v1/users")))}.
+ * Requires the counting inspector, i.e. query-stats.enabled=true in the test context.
+ */
+public final class QueryCountAssert {
+
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Exception;
+    }
+
+    private QueryCountAssert() {
+    }
+
+    /**
+     * Run the action and fail if it prepared more than max statements
+     */
+    public static <T> T assertMaxStatements(int max, Action<T> action) throws Exception {
+        QueryCounter.Scope scope = QueryCounter.start();
+        try {
+            return action.run();
+        } finally {
+            QueryCounter.stop(scope);
+            assertThat(scope.getTotal())
+                    .as("SQL statements executed, by shape: %s", scope.getShapes())
+                    .isLessThanOrEqualTo(max);
+        }
+    }
+
+    /**
+     * Run the action and fail if any statement shape ran more than threshold times (N+1)
+     */
+    public static <T> T assertNoRepeatedStatements(int threshold, Action<T> action) throws Exception {
+        QueryCounter.Scope scope = QueryCounter.start();
+        try {
+            return action.run();
+        } finally {
+            QueryCounter.stop(scope);
+            assertThat(scope.getRepeated(threshold)).as("Statement shapes repeated more than %d times", threshold).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.ganjp.blog.common.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for QueryCounter and QueryCountAssert
+ */
+class QueryCounterTest {
+
+    private final QueryCounter inspector = new QueryCounter();
+
+    @Test
+    @DisplayName("Should normalize literals and IN-list lengths into one statement shape")
+    void shouldNormalizeShapes() {
+        assertThat(QueryCounter.shapeOf("select r1_0.id from roles r1_0 where r1_0.id in (?,?,?)"))
+                .isEqualTo(QueryCounter.shapeOf("select r1_0.id from roles  r1_0\n where r1_0.id in (?, ?)"));
+        assertThat(QueryCounter.shapeOf("select * from t where a = 'x''y' and b = 42 and c = ?"))
+                .isEqualTo("select * from t where a = ? and b = ? and c = ?");
+    }
+
+    @Test
+    @DisplayName("Should count statements in nested scopes and flag repeated shapes")
+    void shouldCountNestedScopes() throws Exception {
+        QueryCounter.Scope outer = QueryCounter.start();
+        QueryCountAssert.assertMaxStatements(3, () -> {
+            inspector.inspect("select * from users where id = ?");
+            inspector.inspect("select * from user_roles where user_id = ?");
+            inspector.inspect("select * from user_roles where user_id = ?");
+            return null;
+        });
+        QueryCounter.stop(outer);
+        inspector.inspect("select 1");
+
+        assertThat(outer.getTotal()).isEqualTo(3);
+        assertThat(outer.getRepeated(1)).hasSize(1);
+        assertThat(outer.getRepeated(1).get(0).getValue()).isEqualTo(2);
+
+        assertThatThrownBy(() -> QueryCountAssert.assertNoRepeatedStatements(1, () -> {
+            inspector.inspect("select * from user_roles where user_id = 1");
+            inspector.inspect("select * from user_roles where user_id = 2");
+            return null;
+        })).isInstanceOf(AssertionError.class);
+    }
+}
@@ -0,0 +1,143 @@
+package org.ganjp.blog.common.storage.service;
+
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.ganjp.blog.common.storage.model.entity.StorageBlob;
+import org.ganjp.blog.common.storage.model.entity.StorageDerivative;
+import org.ganjp.blog.common.storage.repository.StorageBlobRepository;
+import org.ganjp.blog.common.storage.repository.StorageDerivativeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for LocalStorageService
+ */
+class LocalStorageServiceTest {
+
+    private static final byte[] CONTENT = "logo bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    private final Map<String, StorageBlob> blobs = new ConcurrentHashMap<>();
+    private final Map<String, StorageDerivative> derivatives = new ConcurrentHashMap<>();
+    private final StorageBlobRepository blobRepository = mock(StorageBlobRepository.class);
+    private final StorageDerivativeRepository derivativeRepository = mock(StorageDerivativeRepository.class);
+    private LocalStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        when(blobRepository.save(any(StorageBlob.class))).thenAnswer(invocation -> {
+            StorageBlob blob = invocation.getArgument(0);
+            blobs.put(blob.getHash(), blob);
+            return blob;
+        });
+        when(blobRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(blobs.get(invocation.<String>getArgument(0))));
+        when(blobRepository.existsById(anyString())).thenAnswer(invocation -> blobs.containsKey(invocation.<String>getArgument(0)));
+        when(blobRepository.incrementRefCount(anyString(), any())).thenAnswer(invocation ->
+                blobs.computeIfPresent(invocation.getArgument(0), (hash, blob) -> {
+                    blob.setRefCount(blob.getRefCount() + 1);
+                    return blob;
+                }) == null ? 0 : 1);
+        when(blobRepository.decrementRefCount(anyString(), any())).thenAnswer(invocation -> {
+            StorageBlob blob = blobs.get(invocation.<String>getArgument(0));
+            if (blob == null || blob.getRefCount() <= 1) {
+                return 0;
+            }
+            blob.setRefCount(blob.getRefCount() - 1);
+            return 1;
+        });
+        when(blobRepository.deleteUnreferenced(anyString())).thenAnswer(invocation ->
+                blobs.remove(invocation.<String>getArgument(0)) == null ? 0 : 1);
+        when(derivativeRepository.save(any(StorageDerivative.class))).thenAnswer(invocation -> {
+            StorageDerivative derivative = invocation.getArgument(0);
+            derivatives.put(derivative.getId(), derivative);
+            return derivative;
+        });
+        when(derivativeRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(derivatives.get(invocation.<String>getArgument(0))));
+        when(derivativeRepository.deleteByBlobHash(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            derivatives.values().removeIf(derivative -> derivative.getBlobHash().equals(hash));
+            return 1;
+        });
+        StorageProperties properties = new StorageProperties();
+        properties.setDirectory(root.resolve("blobs").toString());
+        service = new LocalStorageService(properties, blobRepository, derivativeRepository);
+    }
+
+    @Test
+    @DisplayName("Should store identical files once and count their references")
+    void shouldDeduplicateIdenticalFiles() throws Exception {
+        Path logo = Files.write(root.resolve("logo.png"), CONTENT);
+        Path cover = Files.write(root.resolve("cover.png"), CONTENT);
+
+        String hash = service.store(logo);
+
+        assertThat(service.store(cover)).isEqualTo(hash);
+        assertThat(blobs.get(hash).getRefCount()).isEqualTo(2);
+        assertThat(Files.isSameFile(logo, cover)).isTrue();
+        assertThat(Files.readAllBytes(cover)).isEqualTo(CONTENT);
+        assertThat(Files.exists(service.blobPath(hash))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should delete the blob and its derivative records with the last reference")
+    void shouldDeleteBlobWithLastReference() throws Exception {
+        Path source = Files.write(root.resolve("source.png"), "source".getBytes(StandardCharsets.UTF_8));
+        String sourceHash = service.hash(source);
+        Path first = Files.write(root.resolve("first.png"), CONTENT);
+        String hash = service.store(first);
+        service.saveDerivative(sourceHash, "logo/256/png", hash, 256, 128);
+        Path second = root.resolve("nested/second.png");
+
+        assertThat(service.findDerivative(sourceHash, "logo/256/png")).map(StorageDerivative::getWidth).contains(256);
+        assertThat(service.link(hash, second)).isTrue();
+        service.release(first);
+
+        assertThat(blobs.get(hash).getRefCount()).isEqualTo(1);
+        assertThat(Files.readAllBytes(second)).isEqualTo(CONTENT);
+
+        service.release(second);
+
+        assertThat(blobs).doesNotContainKey(hash);
+        assertThat(Files.exists(service.blobPath(hash))).isFalse();
+        assertThat(service.findDerivative(sourceHash, "logo/256/png")).isEmpty();
+        assertThat(service.link(hash, second)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count every reference when the same content is stored concurrently")
+    void shouldCountConcurrentReferences() throws Exception {
+        int files = 16;
+        List<Future<String>> hashes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < files; i++) {
+                Path file = Files.write(root.resolve("copy-" + i + ".png"), CONTENT);
+                hashes.add(executor.submit(() -> service.store(file)));
+            }
+        }
+        String hash = hashes.get(0).get();
+
+        assertThat(blobs.get(hash).getRefCount()).isEqualTo(files);
+        assertThat(Files.readAllBytes(root.resolve("copy-" + (files - 1) + ".png"))).isEqualTo(CONTENT);
+    }
+}
@@ -0,0 +1,75 @@
+package org.ganjp.blog.common.storage.service;
+
+import org.ganjp.blog.common.storage.config.StorageProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MediaLayout and MediaLayoutMigrator
+ */
+class MediaLayoutMigratorTest {
+
+    @TempDir
+    Path directory;
+
+    private StorageProperties properties;
+    private MediaLayout mediaLayout;
+    private MediaLayoutMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageProperties();
+        properties.getLayout().setDirectories(List.of(directory.toString()));
+        mediaLayout = new MediaLayout(properties);
+        migrator = new MediaLayoutMigrator(properties, mediaLayout);
+    }
+
+    @Test
+    @DisplayName("Should find flat files after switching to the sharded layout and move them in batches")
+    void shouldMigrateFlatFiles() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(directory.resolve("image-" + i + ".jpg"), "image " + i, StandardCharsets.UTF_8);
+        }
+        Files.writeString(directory.resolve(".upload.part"), "partial", StandardCharsets.UTF_8);
+        assertThat(migrator.migrate(10)).isZero();
+
+        properties.getLayout().setMode(StorageProperties.Mode.SHARDED);
+        assertThat(mediaLayout.locate(directory, "image-0.jpg")).isEqualTo(directory.resolve("image-0.jpg"));
+        assertThat(mediaLayout.path(directory, "image-0.jpg")).isEqualTo(MediaLayout.shardedPath(directory, "image-0.jpg"));
+
+        assertThat(migrator.migrate(2)).isEqualTo(2);
+        assertThat(migrator.migrate(2)).isEqualTo(1);
+        assertThat(migrator.migrate(2)).isZero();
+
+        for (int i = 0; i < 3; i++) {
+            Path located = mediaLayout.locate(directory, "image-" + i + ".jpg");
+            assertThat(located).isEqualTo(MediaLayout.shardedPath(directory, "image-" + i + ".jpg"));
+            assertThat(Files.readString(located)).isEqualTo("image " + i);
+            assertThat(directory.relativize(located).getNameCount()).isEqualTo(3);
+        }
+        assertThat(directory.resolve(".upload.part")).exists();
+    }
+
+    @Test
+    @DisplayName("Should keep finding sharded files after switching back to the flat layout")
+    void shouldLocateShardedFilesInFlatLayout() throws Exception {
+        properties.getLayout().setMode(StorageProperties.Mode.SHARDED);
+        Path sharded = mediaLayout.prepare(directory, "logo.png");
+        Files.writeString(sharded, "logo", StandardCharsets.UTF_8);
+
+        properties.getLayout().setMode(StorageProperties.Mode.FLAT);
+        assertThat(mediaLayout.locate(directory, "logo.png")).isEqualTo(sharded);
+        assertThat(mediaLayout.exists(directory, "logo.png")).isTrue();
+        assertThat(mediaLayout.path(directory, "logo.png")).isEqualTo(directory.resolve("logo.png"));
+        assertThat(mediaLayout.exists(directory, "other.png")).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package org.ganjp.blog.common.trace;
+
+import org.ganjp.blog.common.config.FlightRecorderProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RequestTrace and SlowRequestRecorder
+ */
+class SlowRequestRecorderTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace.end();
+    }
+
+    private SlowRequestRecorder recorder(long thresholdMs) {
+        FlightRecorderProperties properties = new FlightRecorderProperties();
+        properties.setThresholdMs(thresholdMs);
+        properties.setBufferSize(2);
+        return new SlowRequestRecorder(properties);
+    }
+
+    @Test
+    @DisplayName("Should keep nested phase time out of the enclosing phase")
+    void shouldRecordExclusivePhaseTime() throws InterruptedException {
+        SlowRequestRecorder recorder = recorder(0);
+        RequestTrace trace = RequestTrace.begin("req-1", "GET", "/blog/v1/images");
+        try (RequestTrace.Phase ignored = RequestTrace.phase("jwt")) {
+            try (RequestTrace.Phase db = RequestTrace.phase("db")) {
+                Thread.sleep(30);
+            }
+            RequestTrace.record("image.decode", 5_000_000);
+        }
+        RequestTrace.end();
+        recorder.complete(trace, 200);
+
+        SlowRequest slowRequest = recorder.getSlowest(10).get(0);
+        assertThat(slowRequest.requestId()).isEqualTo("req-1");
+        assertThat(slowRequest.phases()).containsOnlyKeys("db", "jwt", "image.decode");
+        assertThat(slowRequest.phases().keySet()).first().isEqualTo("db");
+        assertThat(slowRequest.phases().get("db").durationMs()).isGreaterThanOrEqualTo(30);
+        assertThat(slowRequest.phases().get("jwt").durationMs()).isLessThan(25);
+        assertThat(slowRequest.phases().get("image.decode").durationMs()).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("Should drop fast requests and keep only the newest slow ones, slowest first")
+    void shouldKeepOnlySlowRequests() throws InterruptedException {
+        SlowRequestRecorder fastFilter = recorder(10_000);
+        fastFilter.complete(RequestTrace.begin("fast", "GET", "/"), 200);
+        assertThat(fastFilter.getSlowest(10)).isEmpty();
+
+        SlowRequestRecorder recorder = recorder(0);
+        RequestTrace first = RequestTrace.begin("first", "GET", "/");
+        recorder.complete(first, 200);
+        RequestTrace slow = RequestTrace.begin("slow", "GET", "/");
+        Thread.sleep(20);
+        recorder.complete(slow, 500);
+        recorder.complete(RequestTrace.begin("third", "GET", "/"), 200);
+
+        List<SlowRequest> slowest = recorder.getSlowest(10);
+        assertThat(slowest).extracting(SlowRequest::requestId).containsExactly("slow", "third");
+        assertThat(slowest.get(0).status()).isEqualTo(500);
+    }
+}
@@ -0,0 +1,146 @@
+package org.ganjp.blog.common.upload.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ganjp.blog.common.exception.BusinessException;
+import org.ganjp.blog.common.exception.QuotaExceededException;
+import org.ganjp.blog.common.exception.ResourceNotFoundException;
+import org.ganjp.blog.common.upload.config.ChunkedUploadProperties;
+import org.ganjp.blog.common.upload.model.ChunkedUpload;
+import org.ganjp.blog.common.upload.model.dto.ChunkedUploadCreateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ChunkedUploadService
+ */
+class ChunkedUploadServiceTest {
+
+    private static final byte[] DATA = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ChunkedUploadProperties properties;
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChunkedUploadProperties();
+        properties.setDirectory(directory.resolve("chunked").toString());
+        service = new ChunkedUploadService(properties, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should assemble chunks, verify the checksum and move the file into place")
+    void shouldAssembleChunks() throws Exception {
+        ChunkedUpload upload = service.create(request(sha256Hex(DATA)), "user-1");
+
+        service.append(upload.getId(), 0, null, chunk(0, 10), "user-1");
+        ChunkedUpload done = service.append(upload.getId(), 10, "sha256 " + Base64.getEncoder().encodeToString(sha256(Arrays.copyOfRange(DATA, 10, DATA.length))), chunk(10, DATA.length), "user-1");
+
+        assertThat(done.isCompleted()).isTrue();
+        assertThat(done.getChecksum()).isEqualTo(sha256Hex(DATA));
+        MultipartFile file = service.resolve(null, upload.getId(), "user-1");
+        Path target = directory.resolve("video.mp4");
+        UploadFiles.store(file, target);
+        assertThat(Files.readAllBytes(target)).isEqualTo(DATA);
+        assertThatThrownBy(() -> service.getUpload(upload.getId(), "user-1")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a chunk at the wrong offset and keep the progress of an interrupted one")
+    void shouldResumeAfterInterruptedChunk() throws Exception {
+        ChunkedUpload upload = service.create(request(null), "user-1");
+        InputStream broken = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == 7) {
+                    throw new IOException("connection reset");
+                }
+                return DATA[position++];
+            }
+        };
+
+        assertThatThrownBy(() -> service.append(upload.getId(), 0, null, broken, "user-1")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> service.append(upload.getId(), 0, null, chunk(0, 7), "user-1")).isInstanceOf(IllegalStateException.class);
+
+        // A new instance resumes from the saved state, as after a restart
+        ChunkedUploadService restarted = new ChunkedUploadService(properties, objectMapper);
+        assertThat(restarted.getUpload(upload.getId(), "user-1").getOffset()).isEqualTo(7);
+        ChunkedUpload done = restarted.append(upload.getId(), 7, null, chunk(7, DATA.length), "user-1");
+
+        assertThat(done.getChecksum()).isEqualTo(sha256Hex(DATA));
+    }
+
+    @Test
+    @DisplayName("Should reject a chunk whose checksum does not match without advancing the offset")
+    void shouldRejectChunkChecksumMismatch() throws Exception {
+        ChunkedUpload upload = service.create(request(null), "user-1");
+        String wrong = "sha256 " + Base64.getEncoder().encodeToString(sha256(new byte[]{1}));
+
+        assertThatThrownBy(() -> service.append(upload.getId(), 0, wrong, chunk(0, 10), "user-1")).isInstanceOf(BusinessException.class);
+        assertThat(service.getUpload(upload.getId(), "user-1").getOffset()).isZero();
+        assertThatThrownBy(() -> service.getUpload(upload.getId(), "user-2")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should limit open uploads and reserved bytes per user, also after a restart")
+    void shouldLimitUploadsPerUser() throws Exception {
+        properties.setMaxOpenUploadsPerUser(2);
+        properties.setMaxReservedBytesPerUser(DATA.length * 2L);
+        ChunkedUpload first = service.create(request(null), "user-1");
+        service.create(request(null), "user-1");
+
+        assertThatThrownBy(() -> service.create(request(null), "user-1"))
+                .isInstanceOfSatisfying(QuotaExceededException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThatThrownBy(() -> service.create(ChunkedUploadCreateRequest.builder().length(DATA.length * 3L).build(), "user-2"))
+                .isInstanceOfSatisfying(QuotaExceededException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+        service.create(request(null), "user-2");
+
+        service.delete(first.getId(), "user-1");
+        service.create(request(null), "user-1");
+
+        ChunkedUploadService restarted = new ChunkedUploadService(properties, objectMapper);
+        restarted.loadReservations();
+        assertThatThrownBy(() -> restarted.create(request(null), "user-1")).isInstanceOf(QuotaExceededException.class);
+        restarted.create(request(null), "user-2");
+    }
+
+    private static ChunkedUploadCreateRequest request(String checksum) {
+        return ChunkedUploadCreateRequest.builder().length((long) DATA.length).filename("video.mp4").contentType("video/mp4").checksum(checksum).build();
+    }
+
+    private static InputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(DATA, from, to));
+    }
+
+    private static byte[] sha256(byte[] bytes) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(bytes);
+    }
+
+    private static String sha256Hex(byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(sha256(bytes));
+    }
+}
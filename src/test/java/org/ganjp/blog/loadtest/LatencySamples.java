@@ -0,0 +1,58 @@
+package org.ganjp.blog.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of request latencies (nanoseconds) plus an error count; not thread-safe,
+ * each worker keeps its own and they are merged at the end
+ */
+class LatencySamples {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private int errors;
+
+    void add(long nanos, boolean success) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    void addAll(LatencySamples other) {
+        if (size + other.size > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+        }
+        System.arraycopy(other.latencies, 0, latencies, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    int count() {
+        return size;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds
+     */
+    double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1_000_000.0;
+    }
+
+    long[] sorted() {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,91 @@
+package org.ganjp.blog.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop load generator: each worker picks a weighted scenario, sends it and waits for the
+ * full response before sending the next. Samples from the warm-up period are discarded.
+ */
+class LoadGenerator {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<LoadScenario> scenarios;
+    private final int totalWeight;
+
+    LoadGenerator(List<LoadScenario> scenarios) {
+        this.scenarios = scenarios.stream().filter(scenario -> scenario.weight() > 0).toList();
+        this.totalWeight = this.scenarios.stream().mapToInt(LoadScenario::weight).sum();
+    }
+
+    /**
+     * Run the mix and return samples per scenario name, collected after the warm-up
+     */
+    Map<String, LatencySamples> run(int concurrency, Duration warmup, Duration duration, long seed) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, LatencySamples>>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                Random random = new Random(seed + i);
+                workers.add(executor.submit(() -> work(random, measureFrom, stopAt)));
+            }
+            Map<String, LatencySamples> merged = new HashMap<>();
+            for (Future<Map<String, LatencySamples>> worker : workers) {
+                worker.get().forEach((name, samples) -> merged.computeIfAbsent(name, key -> new LatencySamples()).addAll(samples));
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, LatencySamples> work(Random random, long measureFrom, long stopAt) {
+        Map<String, LatencySamples> samples = new HashMap<>();
+        while (System.nanoTime() < stopAt) {
+            LoadScenario scenario = pick(random);
+            HttpRequest request = scenario.requestFactory().apply(random);
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() < 400;
+            } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                success = false;
+            }
+            long end = System.nanoTime();
+            if (start >= measureFrom && end <= stopAt) {
+                samples.computeIfAbsent(scenario.name(), key -> new LatencySamples()).add(end - start, success);
+            }
+        }
+        return samples;
+    }
+
+    private LoadScenario pick(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (LoadScenario scenario : scenarios) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+}
@@ -0,0 +1,15 @@
+package org.ganjp.blog.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * One kind of request in the traffic mix; requests are built per call so IDs and pages vary
+ *
+ * @param name Endpoint label used in the report and baseline
+ * @param weight Relative share of the traffic mix
+ * @param requestFactory Builds the next request from the worker's random source
+ */
+record LoadScenario(String name, int weight, Function<Random, HttpRequest> requestFactory) {
+}
@@ -0,0 +1,172 @@
+package org.ganjp.blog.loadtest;
+
+import org.ganjp.blog.auth.model.entity.User;
+import org.ganjp.blog.auth.model.enums.AccountStatus;
+import org.ganjp.blog.auth.repository.UserRepository;
+import org.ganjp.blog.cms.model.entity.Image;
+import org.ganjp.blog.cms.repository.ImageRepository;
+import org.ganjp.blog.rubi.model.entity.MultipleChoiceQuestionRu;
+import org.ganjp.blog.rubi.model.entity.VocabularyRu;
+import org.ganjp.blog.rubi.repository.MultipleChoiceQuestionRuRepository;
+import org.ganjp.blog.rubi.repository.VocabularyRuRepository;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeds the load-test database and media directories: public images with files on disk,
+ * vocabularies with audio files for range requests, quiz questions and an admin user.
+ * Content is derived from a fixed seed so runs are comparable.
+ */
+class LoadTestDataSeeder {
+
+    static final String ADMIN_USERNAME = "loadtest-admin";
+
+    private final UserRepository userRepository;
+    private final ImageRepository imageRepository;
+    private final VocabularyRuRepository vocabularyRuRepository;
+    private final MultipleChoiceQuestionRuRepository multipleChoiceQuestionRuRepository;
+    private final Random random = new Random(42);
+
+    private final List<String> imageFilenames = new ArrayList<>();
+    private final List<String> audioFilenames = new ArrayList<>();
+    private final List<String> questionIds = new ArrayList<>();
+    private User admin;
+
+    LoadTestDataSeeder(UserRepository userRepository, ImageRepository imageRepository,
+                       VocabularyRuRepository vocabularyRuRepository,
+                       MultipleChoiceQuestionRuRepository multipleChoiceQuestionRuRepository) {
+        this.userRepository = userRepository;
+        this.imageRepository = imageRepository;
+        this.vocabularyRuRepository = vocabularyRuRepository;
+        this.multipleChoiceQuestionRuRepository = multipleChoiceQuestionRuRepository;
+    }
+
+    void seed(Path imageDirectory, Path audioDirectory, int images, int vocabularies, int questions) throws IOException {
+        Files.createDirectories(imageDirectory);
+        Files.createDirectories(audioDirectory);
+        LocalDateTime now = LocalDateTime.now();
+
+        admin = userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username(ADMIN_USERNAME)
+                .nickname("Load Test")
+                .password("{noop}not-used")
+                .accountStatus(AccountStatus.active)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        byte[] imageBytes = sampleJpeg(1200, 800);
+        List<Image> imageRows = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            String filename = "loadtest-image-" + i + ".jpg";
+            Files.write(imageDirectory.resolve(filename), imageBytes);
+            imageFilenames.add(filename);
+            imageRows.add(Image.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Load test image " + i)
+                    .filename(filename)
+                    .thumbnailFilename(filename)
+                    .extension("jpg")
+                    .mimeType("image/jpeg")
+                    .sizeBytes((long) imageBytes.length)
+                    .width(1200)
+                    .height(800)
+                    .tags(i % 3 == 0 ? "travel,photo" : "photo")
+                    .displayOrder(i)
+                    .createdAt(Timestamp.valueOf(now))
+                    .updatedAt(Timestamp.valueOf(now))
+                    .build());
+        }
+        imageRepository.saveAll(imageRows);
+
+        byte[] audioBytes = new byte[256 * 1024];
+        random.nextBytes(audioBytes);
+        List<VocabularyRu> vocabularyRows = new ArrayList<>();
+        for (int i = 0; i < vocabularies; i++) {
+            String audioFilename = "loadtest-word-" + i + ".mp3";
+            Files.write(audioDirectory.resolve(audioFilename), audioBytes);
+            audioFilenames.add(audioFilename);
+            VocabularyRu vocabulary = VocabularyRu.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("word" + i)
+                    .phonetic("/wɜːd/")
+                    .partOfSpeech(i % 2 == 0 ? "noun" : "verb")
+                    .definition("Definition of word " + i)
+                    .example("An example sentence using word " + i + ".")
+                    .phoneticAudioFilename(audioFilename)
+                    .term(1 + random.nextInt(4))
+                    .week(1 + random.nextInt(10))
+                    .tags("primary,english")
+                    .difficultyLevel(i % 3 == 0 ? "hard" : "easy")
+                    .displayOrder(i)
+                    .build();
+            vocabularyRows.add(vocabulary);
+        }
+        vocabularyRuRepository.saveAll(vocabularyRows);
+
+        List<MultipleChoiceQuestionRu> questionRows = new ArrayList<>();
+        for (int i = 0; i < questions; i++) {
+            MultipleChoiceQuestionRu question = MultipleChoiceQuestionRu.builder()
+                    .id(UUID.randomUUID().toString())
+                    .question("Which option is correct for question " + i + "?")
+                    .optionA("A").optionB("B").optionC("C").optionD("D")
+                    .answer("A")
+                    .difficultyLevel("easy")
+                    .term(1)
+                    .week(1 + i % 10)
+                    .displayOrder(i)
+                    .build();
+            questionRows.add(question);
+            questionIds.add(question.getId());
+        }
+        multipleChoiceQuestionRuRepository.saveAll(questionRows);
+    }
+
+    /**
+     * A gradient JPEG, used both as seeded asset content and as the admin upload payload
+     */
+    static byte[] sampleJpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+            g2d.fillRect(0, 0, width, height);
+        } finally {
+            g2d.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    User getAdmin() {
+        return admin;
+    }
+
+    List<String> getImageFilenames() {
+        return imageFilenames;
+    }
+
+    List<String> getAudioFilenames() {
+        return audioFilenames;
+    }
+
+    List<String> getQuestionIds() {
+        return questionIds;
+    }
+}
@@ -0,0 +1,164 @@
+package org.ganjp.blog.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ganjp.blog.auth.repository.UserRepository;
+import org.ganjp.blog.auth.security.JwtUtils;
+import org.ganjp.blog.cms.repository.ImageRepository;
+import org.ganjp.blog.rubi.repository.MultipleChoiceQuestionRuRepository;
+import org.ganjp.blog.rubi.repository.VocabularyRuRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Local load-test harness: boots the application on a random port against in-memory H2, seeds
+ * media and rows, drives a weighted mix of public list, asset, range, quiz counter and admin
+ * upload traffic, and reports throughput and latency percentiles per endpoint.
+ * <p>
+ * Run with {@code mvn -Ploadtest test}. Tunables (system properties):
+ * loadtest.concurrency, loadtest.warmup-seconds, loadtest.duration-seconds, loadtest.weight.&lt;endpoint&gt;,
+ * loadtest.baseline, loadtest.p99-tolerance, loadtest.update-baseline.
+ * The run fails when any endpoint's p99 regresses past the stored baseline, or when there is no baseline;
+ * record one with loadtest.update-baseline=true.
+ */
+@Slf4j
+@Tag("loadtest")
+@ActiveProfiles({"dev", "loadtest"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTestHarness {
+
+    private static final String BOUNDARY = "loadtest-boundary";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${image.upload.directory}")
+    private String imageDirectory;
+
+    @Value("${rubi.vocabulary.audio.directory}")
+    private String vocabularyAudioDirectory;
+
+    @Value("${loadtest.media-root}")
+    private String mediaRoot;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private VocabularyRuRepository vocabularyRuRepository;
+
+    @Autowired
+    private MultipleChoiceQuestionRuRepository multipleChoiceQuestionRuRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    void publicAndAdminTrafficMix() throws Exception {
+        FileSystemUtils.deleteRecursively(Path.of(mediaRoot));
+        LoadTestDataSeeder seeder = new LoadTestDataSeeder(userRepository, imageRepository,
+                vocabularyRuRepository, multipleChoiceQuestionRuRepository);
+        seeder.seed(Path.of(imageDirectory), Path.of(vocabularyAudioDirectory),
+                Integer.getInteger("loadtest.images", 200),
+                Integer.getInteger("loadtest.vocabularies", 500),
+                Integer.getInteger("loadtest.questions", 100));
+
+        String token = jwtUtils.generateTokenWithAuthorities(seeder.getAdmin(),
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), seeder.getAdmin().getId());
+        byte[] uploadBody = multipartImage(LoadTestDataSeeder.sampleJpeg(1600, 1200));
+        String base = "http://localhost:" + port + "/blog/v1";
+
+        List<LoadScenario> scenarios = List.of(
+                new LoadScenario("public-image-list", weight("public-image-list", 20), random ->
+                        get(base + "/public/cms/images?page=" + random.nextInt(5) + "&size=20")),
+                new LoadScenario("public-vocabulary-list", weight("public-vocabulary-list", 20), random ->
+                        get(base + "/public/vocabulary-rus?page=" + random.nextInt(10) + "&size=20&term=" + (1 + random.nextInt(4)))),
+                new LoadScenario("asset-image", weight("asset-image", 25), random ->
+                        get(base + "/public/images/" + pick(seeder.getImageFilenames(), random.nextInt()))),
+                new LoadScenario("asset-audio-range", weight("asset-audio-range", 15), random ->
+                        HttpRequest.newBuilder(URI.create(base + "/public/vocabulary-rus/audios/"
+                                        + pick(seeder.getAudioFilenames(), random.nextInt())))
+                                .header("Range", "bytes=0-65535")
+                                .GET().build()),
+                new LoadScenario("quiz-counter", weight("quiz-counter", 15), random ->
+                        HttpRequest.newBuilder(URI.create(base + "/public/multiple-choice-question-rus/"
+                                        + pick(seeder.getQuestionIds(), random.nextInt()) + (random.nextBoolean() ? "/success" : "/fail")))
+                                .PUT(HttpRequest.BodyPublishers.noBody()).build()),
+                new LoadScenario("admin-image-upload", weight("admin-image-upload", 5), random ->
+                        HttpRequest.newBuilder(URI.create(base + "/images"))
+                                .header("Authorization", "Bearer " + token)
+                                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody)).build()));
+
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+        Map<String, LatencySamples> samples = new LoadGenerator(scenarios).run(concurrency, warmup, duration, 42);
+
+        LoadTestReport report = new LoadTestReport(samples, duration.toMillis() / 1000.0);
+        log.warn("Load test: {} workers, {}s measured after {}s warm-up\n{}",
+                concurrency, duration.toSeconds(), warmup.toSeconds(), report.toTable());
+        report.write(Path.of("target", "loadtest-report.json"));
+
+        report.getEndpoints().forEach((name, stats) ->
+                assertThat(stats.errors()).as("errors for %s", name).isZero());
+
+        Path baseline = Path.of(System.getProperty("loadtest.baseline", "src/test/resources/loadtest/baseline.json"));
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            report.write(baseline);
+            log.warn("Load test baseline recorded at {}", baseline.toAbsolutePath());
+            return;
+        }
+        // A run must never become its own baseline; record one explicitly on the machine that will compare against it
+        assertThat(baseline).as("No load test baseline at %s; record one with -Dloadtest.update-baseline=true",
+                baseline.toAbsolutePath()).exists();
+        double tolerance = Double.parseDouble(System.getProperty("loadtest.p99-tolerance", "1.25"));
+        assertThat(report.findRegressions(baseline, tolerance, 2.0)).as("p99 regressions against %s", baseline).isEmpty();
+    }
+
+    private static int weight(String endpoint, int defaultWeight) {
+        return Integer.getInteger("loadtest.weight." + endpoint, defaultWeight);
+    }
+
+    private static String pick(List<String> values, int randomInt) {
+        return values.get(Math.floorMod(randomInt, values.size()));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static byte[] multipartImage(byte[] image) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String fields = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"name\"\r\n\r\nLoad test upload\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"upload.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n";
+        body.write(fields.getBytes(StandardCharsets.UTF_8));
+        body.write(image);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+}
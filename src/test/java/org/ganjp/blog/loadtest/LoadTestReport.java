@@ -0,0 +1,81 @@
+package org.ganjp.blog.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-endpoint throughput and latency percentiles of one run, with p99 regression checks against a baseline
+ */
+class LoadTestReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * @param throughput Requests per second over the measured window
+     */
+    record EndpointStats(long requests, long errors, double throughput,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private final Map<String, EndpointStats> endpoints = new TreeMap<>();
+
+    LoadTestReport(Map<String, LatencySamples> samples, double measuredSeconds) {
+        samples.forEach((name, latencies) -> {
+            long[] sorted = latencies.sorted();
+            endpoints.put(name, new EndpointStats(latencies.count(), latencies.errors(),
+                    round(latencies.count() / measuredSeconds),
+                    round(latencies.percentileMs(sorted, 50)),
+                    round(latencies.percentileMs(sorted, 95)),
+                    round(latencies.percentileMs(sorted, 99)),
+                    round(latencies.percentileMs(sorted, 100))));
+        });
+    }
+
+    Map<String, EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        endpoints.forEach((name, stats) -> table.append(String.format("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, stats.requests(), stats.errors(), stats.throughput(),
+                stats.p50Ms(), stats.p95Ms(), stats.p99Ms(), stats.maxMs())));
+        return table.toString();
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writeValue(file.toFile(), endpoints);
+    }
+
+    /**
+     * Endpoints whose p99 exceeds baseline * tolerance + slackMs; the absolute slack keeps
+     * sub-millisecond endpoints from failing on timer noise
+     */
+    List<String> findRegressions(Path baselineFile, double tolerance, double slackMs) throws IOException {
+        Map<String, EndpointStats> baseline = OBJECT_MAPPER.readValue(baselineFile.toFile(),
+                OBJECT_MAPPER.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, EndpointStats.class));
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((name, stats) -> {
+            EndpointStats expected = baseline.get(name);
+            if (expected != null && stats.p99Ms() > expected.p99Ms() * tolerance + slackMs) {
+                regressions.add(String.format("%s p99 %.2f ms > baseline %.2f ms", name, stats.p99Ms(), expected.p99Ms()));
+            }
+        });
+        return regressions;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,157 @@
+package org.ganjp.blog.open.controller;
+
+import org.ganjp.blog.auth.model.entity.User;
+import org.ganjp.blog.auth.model.enums.AccountStatus;
+import org.ganjp.blog.auth.repository.UserRepository;
+import org.ganjp.blog.auth.security.JwtUtils;
+import org.ganjp.blog.cms.model.entity.Article;
+import org.ganjp.blog.cms.model.entity.Image;
+import org.ganjp.blog.cms.repository.ArticleRepository;
+import org.ganjp.blog.cms.repository.ImageRepository;
+import org.ganjp.blog.common.query.QueryCountAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Caps the SQL statements run by the article and image list and detail endpoints, public and admin,
+ * against in-memory H2, so an N+1 or an extra lookup shows up as a test failure
+ */
+@ActiveProfiles({"dev", "loadtest"})
+@SpringBootTest(properties = "query-stats.enabled=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ContentQueryCountTest {
+
+    private static final int ROWS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private String articleId;
+    private String imageId;
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        User admin = userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username("querycount-admin")
+                .nickname("Query Count")
+                .password("{noop}not-used")
+                .accountStatus(AccountStatus.active)
+                .createdAt(now.toLocalDateTime())
+                .updatedAt(now.toLocalDateTime())
+                .build());
+        token = jwtUtils.generateTokenWithAuthorities(admin, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), admin.getId());
+
+        List<Article> articles = new ArrayList<>();
+        List<Image> images = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            articles.add(Article.builder()
+                    .id(UUID.randomUUID().toString())
+                    .title("Article " + i)
+                    .summary("Summary " + i)
+                    .content("<p>Content " + i + "</p>")
+                    .coverImageFilename("cover-" + i + ".jpg")
+                    .tags("java,spring")
+                    .displayOrder(i)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .createdBy(admin.getId())
+                    .updatedBy(admin.getId())
+                    .build());
+            images.add(Image.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Image " + i)
+                    .filename("image-" + i + ".jpg")
+                    .thumbnailFilename("image-" + i + "-thumb.jpg")
+                    .extension("jpg")
+                    .mimeType("image/jpeg")
+                    .sizeBytes(1024L)
+                    .width(1200)
+                    .height(800)
+                    .tags("photo")
+                    .displayOrder(i)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .createdBy(admin.getId())
+                    .updatedBy(admin.getId())
+                    .build());
+        }
+        articleId = articleRepository.saveAll(articles).get(0).getId();
+        imageId = imageRepository.saveAll(images).get(0).getId();
+    }
+
+    @Test
+    @DisplayName("Public article and image lists should run a bounded number of statements per page")
+    void publicListsShouldNotRunPerRowQueries() throws Exception {
+        QueryCountAssert.assertNoRepeatedStatements(1, () -> QueryCountAssert.assertMaxStatements(2, () ->
+                mockMvc.perform(get("/v1/public/cms/articles").param("size", "20"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.content.length()").value(20))));
+        QueryCountAssert.assertNoRepeatedStatements(1, () -> QueryCountAssert.assertMaxStatements(2, () ->
+                mockMvc.perform(get("/v1/public/cms/images").param("size", "20"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.content.length()").value(20))));
+    }
+
+    @Test
+    @DisplayName("Public article detail should load the article with a single statement")
+    void publicArticleDetailShouldRunOneStatement() throws Exception {
+        QueryCountAssert.assertMaxStatements(1, () ->
+                mockMvc.perform(get("/v1/public/cms/articles/{id}", articleId))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.id").value(articleId)));
+    }
+
+    @Test
+    @DisplayName("Admin article and image lists and details should run a bounded number of statements")
+    void adminEndpointsShouldRunBoundedStatements() throws Exception {
+        // Each admin request also loads the authenticated user
+        QueryCountAssert.assertNoRepeatedStatements(1, () -> QueryCountAssert.assertMaxStatements(3, () ->
+                mockMvc.perform(get("/v1/articles").param("size", "20").header("Authorization", "Bearer " + token))
+                        .andExpect(status().isOk())));
+        QueryCountAssert.assertNoRepeatedStatements(1, () -> QueryCountAssert.assertMaxStatements(3, () ->
+                mockMvc.perform(get("/v1/images").param("size", "20").header("Authorization", "Bearer " + token))
+                        .andExpect(status().isOk())));
+        QueryCountAssert.assertMaxStatements(2, () ->
+                mockMvc.perform(get("/v1/articles/{id}", articleId).header("Authorization", "Bearer " + token))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.id").value(articleId)));
+        QueryCountAssert.assertMaxStatements(2, () ->
+                mockMvc.perform(get("/v1/images/{id}", imageId).header("Authorization", "Bearer " + token))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.id").value(imageId)));
+    }
+}
@@ -0,0 +1,154 @@
+package org.ganjp.blog.open.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.ganjp.blog.cms.config.ImageUploadProperties;
+import org.ganjp.blog.cms.model.entity.Image;
+import org.ganjp.blog.cms.repository.ImageRepository;
+import org.ganjp.blog.common.audit.service.AuditService;
+import org.ganjp.blog.common.storage.service.MediaLayout;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that public asset GETs take the lean security chain and skip JWT, method instrumentation and
+ * auditing, while other methods and paths still go through the main JWT chain
+ */
+@ActiveProfiles({"dev", "loadtest"})
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PublicAssetLaneTest {
+
+    private static final String BAD_TOKEN = "Bearer not-a-jwt";
+    private static final byte[] IMAGE_BYTES = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageUploadProperties imageUploadProperties;
+
+    @Autowired
+    private MediaLayout mediaLayout;
+
+    @SpyBean
+    private AuditService auditService;
+
+    private String filename;
+
+    @BeforeAll
+    void seed() throws Exception {
+        filename = "lane-" + UUID.randomUUID() + ".png";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        imageRepository.save(Image.builder()
+                .id(UUID.randomUUID().toString())
+                .name("Lane image")
+                .filename(filename)
+                .extension("png")
+                .mimeType("image/png")
+                .sizeBytes((long) IMAGE_BYTES.length)
+                .displayOrder(0)
+                .createdAt(now)
+                .updatedAt(now)
+                .createdBy("lane-test")
+                .updatedBy("lane-test")
+                .build());
+        Path target = mediaLayout.prepare(imageUploadProperties.getDirectory(), filename);
+        Files.write(target, IMAGE_BYTES);
+    }
+
+    @BeforeEach
+    void resetSpy() {
+        clearInvocations(auditService);
+    }
+
+    @Test
+    @DisplayName("Lane GET with a bad bearer token should succeed without running JWT verification")
+    void laneGetShouldSkipJwt() throws Exception {
+        long verifications = jwtVerifications();
+
+        mockMvc.perform(get("/v1/public/images/{filename}", filename).header("Authorization", BAD_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(IMAGE_BYTES));
+
+        assertThat(jwtVerifications()).isEqualTo(verifications);
+    }
+
+    @Test
+    @DisplayName("Lane GET should skip the logging and audit aspects")
+    void laneGetShouldSkipLoggingAndAudit() throws Exception {
+        mockMvc.perform(get("/v1/public/images/{filename}", filename))
+                .andExpect(status().isOk());
+        // A request outside the lane is instrumented and audited, so the checks below are not vacuous
+        mockMvc.perform(get("/v1/public/cms/images"))
+                .andExpect(status().isOk());
+
+        verify(auditService, timeout(5000)).logSuccess(anyString(), contains("/v1/public/cms/images"),
+                anyString(), any(), any(), any());
+        verify(auditService, never()).logSuccess(anyString(), contains("/v1/public/images/"),
+                anyString(), any(), any(), any());
+        assertThat(methodCalls("PublicCmsController", "getImages")).isPositive();
+        assertThat(methodCalls("PublicAssetController", "viewImage")).isZero();
+        assertThat(methodCalls("PublicAssetService", "getImageFile")).isZero();
+    }
+
+    @Test
+    @DisplayName("Non-GET requests and paths outside the lane should go through the JWT chain")
+    void otherRequestsShouldUseJwtChain() throws Exception {
+        long verifications = jwtVerifications();
+        mockMvc.perform(post("/v1/public/images/{filename}", filename).header("Authorization", BAD_TOKEN));
+        assertThat(jwtVerifications()).isEqualTo(verifications + 1);
+
+        mockMvc.perform(get("/v1/images").header("Authorization", BAD_TOKEN))
+                .andExpect(status().isUnauthorized());
+        assertThat(jwtVerifications()).isEqualTo(verifications + 2);
+
+        mockMvc.perform(get("/v1/public/cms/images").header("Authorization", BAD_TOKEN))
+                .andExpect(status().isOk());
+        assertThat(jwtVerifications()).isEqualTo(verifications + 3);
+    }
+
+    private long jwtVerifications() {
+        return meterRegistry.find("jwt.verification").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private long methodCalls(String className, String method) {
+        return meterRegistry.find("method.execution").tag("class", className).tag("method", method)
+                .timers().stream().mapToLong(Timer::count).sum();
+    }
+}